@@ -2,6 +2,7 @@ package org.basex.build;
 
 import java.io.*;
 
+import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.io.*;
 
@@ -61,7 +62,8 @@ public final class MemBuilder extends Builder {
    * Initializes the builder.
    */
   public void init() {
-    data = new MemData(null, null, path, ns, parser.prop);
+    data = new MemData(null, null, path, ns, parser.prop,
+        parser.prop.is(Prop.OFFHEAP));
 
     final MetaData md = data.meta;
     md.name = name;
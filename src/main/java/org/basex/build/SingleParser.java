@@ -27,7 +27,7 @@ public abstract class SingleParser extends Parser {
   }
 
   @Override
-  public final void parse(final Builder build) throws IOException {
+  public void parse(final Builder build) throws IOException {
     builder = build;
     builder.startDoc(token(target + src.name()));
     parse();
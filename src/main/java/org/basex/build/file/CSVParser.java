@@ -30,6 +30,10 @@ import org.basex.util.list.*;
  *   <li><code>format</code> specifies the XML format, which can be
  *   <code>simple</code> or <code>verbose</code>
  *   (default: <code>verbose</code>).</li>
+ *   <li><code>records</code> specifies the maximum number of records per
+ *   document. If a positive number is specified, the records will be distributed
+ *   to several documents, which are named after the input and numbered
+ *   consecutively (default: <code>0</code>, single document).</li>
  * </ul>
  *
  * <p>All options are separated by commas, and the keys and values are
@@ -62,6 +66,14 @@ public final class CSVParser extends SingleParser {
   private static final byte[] ENTRY = token("entry");
   /** CSV column attribute. */
   private static final byte[] COLUMN = token("col");
+  /** Delimiters of quoted fields (line breaks are delimiters for normalization). */
+  private static final boolean[] QUOTED = new boolean[128];
+
+  static {
+    QUOTED['"'] = true;
+    QUOTED['\n'] = true;
+    QUOTED['\r'] = true;
+  }
 
   /** Headers. */
   private final TokenList headers = new TokenList();
@@ -71,11 +83,19 @@ public final class CSVParser extends SingleParser {
   private final String encoding;
   /** Column separator (see {@link ParserProp#SEPARATOR}). */
   private final int separator;
+  /** Maximum number of records per document ({@code 0}: single document). */
+  private final int records;
+  /** Delimiters of unquoted fields, indexed by their code points. */
+  private final boolean[] delims;
 
   /** Current row. */
   private int row;
   /** Current column. */
   private int col;
+  /** Number of documents. */
+  private int docs;
+  /** Number of records in the current document. */
+  private int recs;
 
   /**
    * Constructor.
@@ -109,63 +129,113 @@ public final class CSVParser extends SingleParser {
     if(!simple && !val.equals(FORMATS[1])) throw new BaseXException(
         INVALID_VALUE_X_X, ParserProp.FORMAT[0], val);
     encoding = props.get(ParserProp.ENCODING);
+
+    records = props.num(ParserProp.RECORDS);
+    if(records < 0) throw new BaseXException(INVALID_VALUE_X_X,
+        ParserProp.RECORDS[0], records);
+
+    delims = new boolean[Math.max(QUOTED.length, separator + 1)];
+    delims[separator] = true;
+    delims['"'] = true;
+    delims['\n'] = true;
+    delims['\r'] = true;
+  }
+
+  @Override
+  public void parse(final Builder build) throws IOException {
+    if(records == 0) {
+      super.parse(build);
+    } else {
+      // documents are created while the input is parsed
+      builder = build;
+      parse();
+    }
   }
 
   @Override
   public void parse() throws IOException {
+    if(records != 0) startDoc();
     builder.startElem(CSV, atts);
 
     final TokenBuilder tb = new TokenBuilder();
     final NewlineInput nli = new NewlineInput(src).encoding(encoding);
-
-    boolean quoted = false, open = true;
-    int ch = -1;
-    while(true) {
-      if(ch == -1) ch = nli.read();
-      if(ch == -1) break;
-      if(quoted) {
-        if(ch == '"') {
-          ch = nli.read();
-          if(ch != '"') {
-            quoted = false;
-            continue;
+    try {
+      // field contents are read in bulk; the loop only processes delimiters
+      boolean quoted = false, open = true;
+      int ch = nli.read(tb, delims);
+      while(ch != -1) {
+        if(quoted) {
+          if(ch == '"') {
+            ch = nli.read();
+            if(ch != '"') {
+              quoted = false;
+              continue;
+            }
           }
+          tb.add(ch);
+        } else if(ch == separator) {
+          if(open) {
+            open();
+            open = false;
+          }
+          add(tb);
+        } else if(ch == '\n') {
+          finish(tb, open);
+          open = true;
+        } else if(ch == '"') {
+          quoted = true;
+        } else {
+          // character after a closing quote
+          tb.add(ch);
         }
-        tb.add(ch);
-      } else if(ch == separator) {
-        if(open) {
-          open();
-          open = false;
-        }
-        add(tb);
-      } else if(ch == '\n') {
-        finish(tb, open);
-        open = true;
-      } else if(ch == '"') {
-        quoted = true;
-      } else {
-        tb.add(XMLToken.valid(ch) ? ch : '?');
+        ch = nli.read(tb, quoted ? QUOTED : delims);
       }
-      ch = -1;
+      finish(tb, open);
+    } finally {
+      nli.close();
     }
-    nli.close();
-
-    finish(tb, open);
     builder.endElem();
+    if(records != 0) builder.endDoc();
   }
 
   /**
-   * Opens a new record.
+   * Opens a new record. If the maximum number of records per document has been
+   * reached, a new document is created.
    * @throws IOException I/O exception
    */
   private void open() throws IOException {
     if(row == 0) {
       if(simple) builder.startElem(HEADER, atts);
     } else {
+      if(records != 0 && recs++ == records) {
+        builder.endElem();
+        builder.endDoc();
+        startDoc();
+        builder.startElem(CSV, atts);
+        // repeat header of the simple format
+        if(simple && !headers.isEmpty()) {
+          builder.startElem(HEADER, atts);
+          for(final byte[] h : headers) {
+            builder.startElem(ENTRY, atts);
+            builder.text(h);
+            builder.endElem();
+          }
+          builder.endElem();
+        }
+        recs = 1;
+      }
       builder.startElem(RECORD, atts);
     }
   }
 
+  /**
+   * Starts a new document.
+   * @throws IOException I/O exception
+   */
+  private void startDoc() throws IOException {
+    builder.startDoc(token(target + src.name() + '/' + ++docs + IO.XMLSUFFIX));
+  }
+
   /**
    * Finishes the current record.
    * @param tb token builder
@@ -197,6 +267,8 @@ public final class CSVParser extends SingleParser {
       tb.reset();
       return;
     }
+    // cache header of the simple format, which is repeated in each document
+    if(row == 0 && records != 0) headers.add(tb.finish());
 
     final byte[] t;
     if(simple) {
@@ -1,19 +1,26 @@
 package org.basex.build.file;
 
+import static org.basex.data.DataText.*;
+import static org.basex.query.util.Err.*;
+import static org.basex.util.Token.*;
+
 import java.io.*;
+import java.util.*;
 
-import org.basex.build.xml.*;
+import org.basex.build.*;
 import org.basex.core.*;
 import org.basex.io.*;
 import org.basex.io.in.*;
 import org.basex.query.*;
-import org.basex.query.util.*;
 import org.basex.query.util.json.*;
-import org.basex.query.value.node.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
 
 /**
  * This class parses files in the JSON format
  * and sends events to the specified database builder.
+ * The input is streamed: no intermediate tree representation is created.
  *
  * <p>The parser provides some options, which can be specified via
  * <code>SET PARSEROPT ...</code>:</p>
@@ -26,16 +33,44 @@ import org.basex.query.value.node.*;
  * <p>All options are separated by commas, and the keys and values are
  * separated by equality sign (=).</p>
  *
- * <p><b>Example</b>:
- * <code>SET PARSEROPT separator=tab,format=simple,header=no; CREATE DB ...
- * </code><br/>
- * <b>Description</b>: Use tabs as separator, choose simple XML format,
- * and indicate that the file contains no header.</p>
+ * <p>The resulting documents are identical to the ones created by the
+ * {@link JSONConverter} and {@link JsonMLConverter}. As the types of all
+ * names must be known before the root element can be created, the direct
+ * mapping parses the input twice.</p>
  *
  * @author BaseX Team 2005-12, BSD License
  * @author Christian Gruen
  */
-public final class JSONParser extends XMLParser {
+public final class JSONParser extends SingleParser {
+  /** Type: boolean. */
+  private static final int BOOLEAN = 0;
+  /** Type: number. */
+  private static final int NUMBER = 1;
+  /** Type: null. */
+  private static final int NUL = 2;
+  /** Type: array. */
+  private static final int ARRAY = 3;
+  /** Type: object. */
+  private static final int OBJECT = 4;
+  /** Type: string. */
+  private static final int STRING = 5;
+  /** Type: mixed. */
+  private static final int MIXED = 6;
+  /** Type names. */
+  private static final byte[][] TYPES = {
+    T_BOOLEAN, T_NUMBER, NULL, T_ARRAY, T_OBJECT, T_STRING };
+  /** Global data type attributes. */
+  private static final byte[][] ATTRS = {
+    token("booleans"), token("numbers"), token("nulls"),
+    token("arrays"), token("objects") };
+
+  /** JsonML flag. */
+  private final boolean jsonml;
+  /** Encoding. */
+  private final String encoding;
+  /** Chop whitespaces. */
+  private final boolean chop;
+
   /**
    * Constructor.
    * @param source document source
@@ -55,38 +90,388 @@ public final class JSONParser extends XMLParser {
    */
   public JSONParser(final IO source, final Prop pr, final String options)
       throws IOException {
-    super(toXML(source, options), pr);
+    super(source, pr);
+    final ParserProp props = new ParserProp(options);
+    jsonml = props.is(ParserProp.JSONML);
+    encoding = props.get(ParserProp.ENCODING);
+    chop = pr.is(Prop.CHOP);
+  }
+
+  @Override
+  public void parse() throws IOException {
+    if(jsonml) {
+      parse(src, new JsonML());
+    } else if(src instanceof IOStream) {
+      // streams cannot be read twice: spool the input to a temporary file
+      final IOFile tmp = new IOFile(File.createTempFile("json", IO.JSONSUFFIX));
+      try {
+        tmp.write(new BufferInput(src.inputStream()));
+        direct(tmp);
+      } finally {
+        tmp.delete();
+      }
+    } else {
+      direct(src);
+    }
   }
 
   /**
-   * Converts a JSON document to XML.
-   * @param io io reference
-   * @param options parsing options
-   * @return parser
+   * Parses the input in the direct mapping.
+   * @param io input
    * @throws IOException I/O exception
    */
-  public static IO toXML(final IO io, final String options) throws IOException {
-    // set parser properties
-    final ParserProp props = new ParserProp(options);
-    final boolean jsonml = props.is(ParserProp.JSONML);
-    final String encoding = props.get(ParserProp.ENCODING);
-
-    // parse input, using specified encoding
-    final byte[] content = new NewlineInput(io).encoding(encoding).content();
+  private void direct(final IO io) throws IOException {
+    // the first pass checks the input and analyzes the types of all names
+    final Direct direct = new Direct();
+    parse(io, direct);
+    direct.analyze = false;
+    parse(io, direct);
+  }
 
-    // parse input and convert to XML node
-    final ANode node;
+  /**
+   * Parses the specified input and sends all events to the specified handler.
+   * @param io input
+   * @param handler handler
+   * @throws IOException I/O exception
+   */
+  private void parse(final IO io, final JSONHandler handler) throws IOException {
+    final NewlineInput input = new NewlineInput(io).encoding(encoding);
     try {
-      final XMLConverter conv = jsonml ?
-          new JsonMLConverter(null) : new JSONConverter(null);
-      node = conv.parse(content);
+      new org.basex.query.util.json.JSONParser(input, handler, null).parse();
     } catch(final QueryException ex) {
       throw new BaseXException(ex.getLocalizedMessage());
+    } finally {
+      input.close();
     }
+  }
+
+  /**
+   * Adds a text to the current element.
+   * @param text text
+   * @throws IOException I/O exception
+   */
+  private void text(final byte[] text) throws IOException {
+    builder.text(chop ? trim(text) : text);
+  }
+
+  /**
+   * Raises a JsonML error with the specified message.
+   * @param msg error message
+   * @param ext error details
+   * @return build exception
+   * @throws IOException I/O exception
+   */
+  private static IOException mlError(final String msg, final Object... ext)
+      throws IOException {
+    final QueryException ex = new QueryException(null, BXJS_PARSEML, Util.inf(msg, ext));
+    throw new BaseXException(ex.getLocalizedMessage());
+  }
+
+  /** Handler for the direct mapping. */
+  private final class Direct implements JSONHandler {
+    /** Types of element names. */
+    private final TokenIntMap types = new TokenIntMap();
+    /** Cached element names. */
+    private final TokenObjMap<byte[]> names = new TokenObjMap<byte[]>();
+    /** Object flags of the opened objects and arrays. */
+    private final BoolList objects = new BoolList();
+    /** Analysis flag (first pass). */
+    boolean analyze = true;
+    /** Number of opened objects and arrays. */
+    private int level;
+    /** Element name of the current object member. */
+    private byte[] key;
+
+    @Override
+    public void openObject() throws IOException {
+      open(OBJECT);
+    }
+
+    @Override
+    public void openPair(final byte[] k) {
+      key = names.get(k);
+      if(key == null) {
+        key = JSONConverter.convert(k);
+        names.add(k, key);
+      }
+    }
+
+    @Override
+    public void closeObject() throws IOException {
+      close();
+    }
+
+    @Override
+    public void openArray() throws IOException {
+      open(ARRAY);
+    }
+
+    @Override
+    public void closeArray() throws IOException {
+      close();
+    }
+
+    @Override
+    public void stringLit(final byte[] value) throws IOException {
+      atom(STRING, value);
+    }
+
+    @Override
+    public void numberLit(final byte[] value) throws IOException {
+      atom(NUMBER, value);
+    }
+
+    @Override
+    public void booleanLit(final byte[] value) throws IOException {
+      atom(BOOLEAN, value);
+    }
+
+    @Override
+    public void nullLit() throws IOException {
+      atom(NUL, null);
+    }
+
+    /**
+     * Opens an object or array.
+     * @param type type
+     * @throws IOException I/O exception
+     */
+    private void open(final int type) throws IOException {
+      if(level == 0) {
+        root(type);
+      } else {
+        final boolean att = type(name(), type);
+        if(!analyze) {
+          atts.reset();
+          if(att) atts.add(T_TYPE, TYPES[type]);
+          builder.startElem(name(), atts);
+        }
+      }
+      objects.set(level++, type == OBJECT);
+    }
+
+    /**
+     * Closes an object or array.
+     * @throws IOException I/O exception
+     */
+    private void close() throws IOException {
+      level--;
+      if(!analyze) builder.endElem();
+    }
+
+    /**
+     * Opens the root element.
+     * @param type type
+     * @throws IOException I/O exception
+     */
+    private void root(final int type) throws IOException {
+      if(analyze) {
+        types.add(T_JSON, type);
+        return;
+      }
+      atts.reset();
+      if(types.value(T_JSON) == MIXED) atts.add(T_TYPE, TYPES[type]);
+      // attach names with unique types to the root node
+      final TokenBuilder[] tbs = new TokenBuilder[ATTRS.length];
+      for(int i = 1; i <= types.size(); i++) {
+        final byte[] name = types.key(i);
+        final int t = types.value(name);
+        if(t >= ATTRS.length) continue;
+        if(tbs[t] == null) tbs[t] = new TokenBuilder();
+        else tbs[t].add(' ');
+        tbs[t].add(name);
+      }
+      for(int t = 0; t < tbs.length; t++) {
+        if(tbs[t] != null) atts.add(ATTRS[t], tbs[t].finish());
+      }
+      builder.startElem(T_JSON, atts);
+    }
+
+    /**
+     * Adds an atomic value.
+     * @param type type
+     * @param value value, or {@code null} for the null value
+     * @throws IOException I/O exception
+     */
+    private void atom(final int type, final byte[] value) throws IOException {
+      final boolean att = type(name(), type);
+      if(analyze) return;
+      atts.reset();
+      if(att && type != STRING) atts.add(T_TYPE, TYPES[type]);
+      builder.startElem(name(), atts);
+      if(value != null) text(value);
+      builder.endElem();
+    }
+
+    /**
+     * Returns the name of the current element.
+     * @return name
+     */
+    private byte[] name() {
+      return objects.get(level - 1) ? key : T_VALUE;
+    }
+
+    /**
+     * Registers the type of the specified name in the first pass, and checks
+     * in the second pass if the type of the name needs to be specified.
+     * @param name element name
+     * @param type type
+     * @return {@code true} if a type attribute is required
+     */
+    private boolean type(final byte[] name, final int type) {
+      if(!analyze) return types.value(name) == MIXED;
+      final int t = types.value(name);
+      if(t == -1) types.add(name, type);
+      else if(t != type) types.add(name, MIXED);
+      return false;
+    }
+  }
+
+  /** Handler for the JsonML mapping. */
+  private final class JsonML implements JSONHandler {
+    /** Opened elements. */
+    private final ArrayList<Elem> elems = new ArrayList<Elem>();
+    /** Attribute mode. */
+    private boolean attributes;
+    /** Name of the current attribute. */
+    private byte[] key;
+
+    @Override
+    public void openObject() throws IOException {
+      if(elems.isEmpty()) mlError("% expected for %, % found",
+          T_ARRAY, "element constructor", T_OBJECT);
+      if(attributes) mlError("% expected for %, % found",
+          T_STRING, "attribute value", T_OBJECT);
+      final Elem elem = elem();
+      if(elem.pos != 1) {
+        item(elem, OBJECT);
+        mlError("No % allowed at this stage", T_OBJECT);
+      }
+      elem.pos++;
+      attributes = true;
+    }
+
+    @Override
+    public void openPair(final byte[] k) throws IOException {
+      key = check(k);
+    }
+
+    @Override
+    public void closeObject() {
+      attributes = false;
+    }
+
+    @Override
+    public void openArray() throws IOException {
+      if(attributes) mlError("% expected for %, % found",
+          T_STRING, "attribute value", T_ARRAY);
+      if(!elems.isEmpty()) {
+        final Elem elem = elem();
+        item(elem, ARRAY);
+        elem.txt = false;
+        elem.pos++;
+      }
+      elems.add(new Elem());
+    }
+
+    @Override
+    public void closeArray() throws IOException {
+      final Elem elem = elems.remove(elems.size() - 1);
+      if(elem.name == null) mlError("No element name specified in array");
+      if(!elem.open) builder.startElem(elem.name, atts);
+      builder.endElem();
+    }
+
+    @Override
+    public void stringLit(final byte[] value) throws IOException {
+      if(attributes) {
+        atts.add(key, value);
+        return;
+      }
+      final Elem elem = elem();
+      if(elem.pos == 0) {
+        elem.name = check(value);
+        atts.reset();
+      } else {
+        item(elem, STRING);
+        if(elem.txt) mlError("No subsequent texts allowed");
+        text(value);
+        elem.txt = true;
+      }
+      elem.pos++;
+    }
+
+    @Override
+    public void numberLit(final byte[] value) throws IOException {
+      atom(NUMBER);
+    }
+
+    @Override
+    public void booleanLit(final byte[] value) throws IOException {
+      atom(BOOLEAN);
+    }
+
+    @Override
+    public void nullLit() throws IOException {
+      atom(NUL);
+    }
+
+    /**
+     * Rejects an atomic value that is no string.
+     * @param type type
+     * @throws IOException I/O exception
+     */
+    private void atom(final int type) throws IOException {
+      if(attributes) mlError("% expected for %, % found",
+          T_STRING, "attribute value", TYPES[type]);
+      item(elem(), type);
+      mlError("No % allowed at this stage", TYPES[type]);
+    }
+
+    /**
+     * Checks an item of the specified element and opens the element.
+     * @param elem element
+     * @param type type of the item
+     * @throws IOException I/O exception
+     */
+    private void item(final Elem elem, final int type) throws IOException {
+      if(elem.pos == 0) mlError("% expected for %, % found",
+          T_STRING, "element name", TYPES[type]);
+      if(!elem.open) {
+        builder.startElem(elem.name, atts);
+        elem.open = true;
+      }
+    }
+
+    /**
+     * Returns the current element.
+     * @return element
+     */
+    private Elem elem() {
+      return elems.get(elems.size() - 1);
+    }
+
+    /**
+     * Checks if the specified name is a valid NCName.
+     * @param name name
+     * @return name
+     * @throws IOException I/O exception
+     */
+    private byte[] check(final byte[] name) throws IOException {
+      if(!XMLToken.isNCName(name)) mlError("Invalid name: \"%\"", name);
+      return name;
+    }
+  }
 
-    // create XML input container from serialized node
-    final IOContent xml = new IOContent(node.serialize().toArray());
-    xml.name(io.name());
-    return xml;
+  /** State of an opened JsonML element. */
+  private static final class Elem {
+    /** Element name. */
+    byte[] name;
+    /** Position of the next item. */
+    int pos;
+    /** Flag for an opened start tag. */
+    boolean open;
+    /** Flag for a preceding text. */
+    boolean txt;
   }
 }
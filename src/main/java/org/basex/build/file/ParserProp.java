@@ -24,6 +24,8 @@ public final class ParserProp extends AProp {
   public static final Object[] FLAT = { "flat", false };
   /** Parser option: encoding. */
   public static final Object[] ENCODING = { "encoding", Token.UTF8 };
+  /** Parser option: maximum number of records per document. */
+  public static final Object[] RECORDS = { "records", 0 };
   /** Parser option: jsonml format. */
   public static final Object[] JSONML = { "jsonml", false };
 
@@ -59,6 +59,12 @@ public final class Context {
   private Data data;
   /** Databases list. */
   private Databases databases;
+  /** Snapshots used by the current process ({@code null} if the process is locked). */
+  private ArrayList<Data> snapshots;
+  /** Process that is evaluated on snapshots. */
+  private Progress reader;
+  /** Indicates if the process evaluated on snapshots had to be locked. */
+  private boolean locked;
 
   /**
    * Default constructor, which is only called once in a project.
@@ -250,23 +256,69 @@ public final class Context {
 
   /**
    * Locks a writing process and starts the timeout.
+   * If {@link MainProp#MVCC} is enabled, read-only processes that support it
+   * are not locked; instead, they will access snapshots of the databases
+   * (see {@link #snapshot}). Main memory databases cannot be accessed by snapshots.
    * @param pr process
    */
   public void register(final Progress pr) {
     // administrators will not be affected by the timeout
     pr.startTimeout(user.has(Perm.ADMIN) ? 0 : mprop.num(MainProp.TIMEOUT));
-    lock.lock(pr);
+    if(pr.snapshots && !pr.updating && mprop.is(MainProp.MVCC) && !datas.mainmem()) {
+      snapshots = new ArrayList<Data>();
+      reader = pr;
+    } else {
+      lock.lock(pr);
+    }
   }
 
   /**
-   * Unlocks the process and stops the timeout.
+   * Unlocks the process or releases its snapshots, and stops the timeout.
    * @param pr process
    */
   public void unregister(final Progress pr) {
-    lock.unlock(pr);
+    if(snapshots != null) {
+      for(final Data d : snapshots) d.release();
+      snapshots = null;
+      reader = null;
+      if(locked) lock.unlock(pr);
+      locked = false;
+    } else {
+      lock.unlock(pr);
+    }
     pr.stopTimeout();
   }
 
+  /**
+   * Returns a snapshot of the specified database if the current process is
+   * evaluated on snapshots, or the specified instance otherwise. All snapshots
+   * will be released when the process is unregistered. If no snapshot can be
+   * created, the process is locked, and the specified instance is returned.
+   * @param d data reference
+   * @return snapshot or data reference
+   * @throws BaseXException database exception
+   */
+  public Data snapshot(final Data d) throws BaseXException {
+    if(snapshots == null) return d;
+    for(final Data s : snapshots) if(s.base() == d) return s;
+    if(!locked) {
+      final Data s = d.snapshot();
+      if(s != null) {
+        snapshots.add(s);
+        return s;
+      }
+      // instances that are not shared with other processes can be accessed directly
+      if(d.inMemory() && !datas.pinned(d)) return d;
+      // no committed state is available (e.g., because the database was opened
+      // before MVCC was enabled). The process must not wait for the writer if it
+      // references snapshots, as the writer may wait for them to be released.
+      if(!snapshots.isEmpty()) throw new BaseXException(DB_UPDATED_X, d.meta.name);
+      lock.lock(reader);
+      locked = true;
+    }
+    return d;
+  }
+
   /**
    * Adds the specified client session.
    * @param s session to be added
@@ -39,8 +39,10 @@ public final class Datas {
    * @return true if reference was removed from the pool
    */
   synchronized boolean unpin(final Data data) {
+    // snapshots are pinned via their databases
+    final Data dt = data.base();
     for(final Data d : list) {
-      if(d == data) {
+      if(d == dt) {
         final boolean close = --d.pins == 0;
         if(close) list.remove(d);
         return close;
@@ -59,6 +61,25 @@ public final class Datas {
     return false;
   }
 
+  /**
+   * Checks if the pool contains main memory databases.
+   * @return result of check
+   */
+  synchronized boolean mainmem() {
+    for(final Data d : list) if(d.inMemory()) return true;
+    return false;
+  }
+
+  /**
+   * Checks if the specified data reference is pinned.
+   * @param data data reference
+   * @return result of check
+   */
+  synchronized boolean pinned(final Data data) {
+    for(final Data d : list) if(d == data) return true;
+    return false;
+  }
+
   /**
    * Adds a data reference to the pool.
    * @param d data reference
@@ -93,7 +93,8 @@ public final class Events extends HashMap<String, Sessions> {
   }
 
   /**
-   * Notifies the watching sessions about an event.
+   * Notifies the watching sessions about an event. The events are delivered
+   * asynchronously; sessions are removed if an event cannot be delivered.
    * @param ctx database context
    * @param name name
    * @param msg message
@@ -106,16 +107,9 @@ public final class Events extends HashMap<String, Sessions> {
     // event was not found
     if(sess == null) return false;
 
-    // refresh timestamp for last interaction
     for(final ClientListener srv : sess) {
       // ignore active client
-      if(srv == ctx.listener) continue;
-      try {
-        srv.notify(name, msg);
-      } catch(final IOException ex) {
-        // remove client if event could not be delivered
-        sess.remove(srv);
-      }
+      if(srv != ctx.listener) srv.notify(name, msg);
     }
     return true;
   }
@@ -63,6 +63,8 @@ public final class MainProp extends AProp {
   public static final Object[] DEBUG = { "DEBUG", false };
   /** Defines the number of parallel readers. */
   public static final Object[] PARALLEL = { "PARALLEL", 8 };
+  /** Evaluates read-only queries on database snapshots, without waiting for writers. */
+  public static final Object[] MVCC = { "MVCC", false };
 
   /**
    * Constructor, reading properties from disk.
@@ -15,6 +15,8 @@ import org.basex.util.*;
 public abstract class Progress {
   /** This flag indicates that a command may perform updates. */
   public boolean updating;
+  /** This flag indicates that a read-only process may be evaluated on snapshots. */
+  public boolean snapshots;
 
   /** Stopped flag. */
   private boolean stopped;
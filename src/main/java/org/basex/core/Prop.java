@@ -105,20 +105,30 @@ public final class Prop extends AProp {
   public static final Object[] MAXCATS = { "MAXCATS", 100 };
   /** Flag for automatic index update. */
   public static final Object[] UPDINDEX = { "UPDINDEX", false };
+  /** Flag for creating hash dictionaries for exact index lookups. */
+  public static final Object[] HASHINDEX = { "HASHINDEX", false };
 
   /** Writes original files back after updates. */
   public static final Object[] WRITEBACK = { "WRITEBACK", false };
   /** Flag for creating a main memory database. */
   public static final Object[] MAINMEM = { "MAINMEM", false };
+  /** Flag for storing main memory databases outside the Java heap. */
+  public static final Object[] OFFHEAP = { "OFFHEAP", false };
   /** Forces database creation for unknown documents. */
   public static final Object[] FORCECREATE = { "FORCECREATE", false };
   /** Flushes the database after each update. */
   public static final Object[] AUTOFLUSH = { "AUTOFLUSH", true };
+  /** Flag for writing updates to a write-ahead log. */
+  public static final Object[] WAL = { "WAL", false };
+  /** Flag for creating incremental backups. */
+  public static final Object[] INCBACKUP = { "INCBACKUP", false };
 
   /** Maximum number of index occurrences to print. */
   public static final Object[] MAXSTAT = { "MAXSTAT", 30 };
   /** Flag for tail-call optimization. */
   public static final Object[] TAILCALLS = { "TAILCALLS", 42 };
+  /** Number of threads for path predicates, text tokenization and backups. */
+  public static final Object[] THREADS = { "THREADS", 1 };
 
   /** Flag for full-text stemming. */
   public static final Object[] STEMMING = { "STEMMING", false };
@@ -132,6 +142,8 @@ public final class Prop extends AProp {
   public static final Object[] STOPWORDS = { "STOPWORDS", "" };
   /** Levenshtein default error. */
   public static final Object[] LSERROR = { "LSERROR", 0 };
+  /** Flag for scoring full-text index results with BM25. */
+  public static final Object[] BM25 = { "BM25", false };
 
   /** Detailed query information. */
   public static final Object[] QUERYINFO = { "QUERYINFO", false };
@@ -567,6 +567,8 @@ public interface Text {
   String DB_EXISTS_X = lang("db_exists_%");
   /** Database was dropped. */
   String BACKUP_DROPPED_X = lang("backup_dropped_%");
+  /** Backup is needed by another backup. */
+  String BACKUP_NEEDED_X_X = lang("backup_needed_%_%");
   /** Backup was not found. */
   String BACKUP_NOT_FOUND_X = lang("backup_not_found_%");
   /** File not stored. */
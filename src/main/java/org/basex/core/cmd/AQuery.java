@@ -167,6 +167,8 @@ abstract class AQuery extends Command {
 
   @Override
   public boolean updating(final Context ctx) {
+    // read-only queries can be evaluated on snapshots if their results are not cached
+    snapshots = !ctx.prop.is(Prop.CACHEQUERY);
     return super.updating(ctx) || args[0] != null && updating(ctx, args[0]);
   }
 
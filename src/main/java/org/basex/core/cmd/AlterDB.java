@@ -41,11 +41,16 @@ public final class AlterDB extends ACreate {
 
     // close database if it's currently opened and not opened by others
     if(!closed) closed = close(context, src);
-    // check if source database is still opened
-    if(context.pinned(src)) return error(DB_PINNED_X, src);
+    // check if source database is still opened; prevent it from being opened
+    // before it is renamed
+    final boolean ok;
+    synchronized(context.datas) {
+      if(context.pinned(src)) return error(DB_PINNED_X, src);
+      ok = alter(src, trg, context);
+    }
 
     // try to alter database
-    return alter(src, trg, context) && (!closed || new Open(trg).run(context)) ?
+    return ok && (!closed || new Open(trg).run(context)) ?
         info(DB_RENAMED_X, src, trg) : error(DB_NOT_RENAMED_X, src);
   }
 
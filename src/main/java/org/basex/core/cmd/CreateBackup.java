@@ -16,6 +16,8 @@ import org.basex.util.list.*;
 
 /**
  * Evaluates the 'backup' command and creates a backup of a database.
+ * If {@link Prop#INCBACKUP} is enabled, only the blocks that have changed
+ * since the latest incremental backup are stored.
  *
  * @author BaseX Team 2005-12, BSD License
  * @author Christian Gruen
@@ -62,10 +64,21 @@ public final class CreateBackup extends Command {
   private boolean backup(final String db) {
     final String backup = db + '-' + formatDate(new Date(), IO.DATE) + IO.ZIPSUFFIX;
     final IOFile zf = mprop.dbpath(backup);
-    final Zip zip = progress(new Zip(zf));
-
     try {
-      zip.zip(mprop.dbpath(db), Databases.FILES);
+      if(prop.is(Prop.INCBACKUP)) {
+        // choose latest incremental backup as base; an existing backup with the
+        // same name will be replaced, so the backup before is chosen instead
+        final StringList paths = Databases.backupPaths(db, context);
+        if(!paths.isEmpty() && new IOFile(paths.get(0)).name().equals(backup)) {
+          paths.deleteAt(0);
+        }
+        final IOFile base = paths.isEmpty() ? null : new IOFile(paths.get(0));
+        final DeltaZip zip = progress(new DeltaZip(zf)).parallel(prop.num(Prop.THREADS));
+        zip.zip(mprop.dbpath(db), Databases.FILES,
+            base != null && DeltaZip.delta(base) ? base : null);
+      } else {
+        progress(new Zip(zf)).zip(mprop.dbpath(db), Databases.FILES);
+      }
       context.databases().add(db, true);
       return true;
     } catch(final IOException ex) {
@@ -88,22 +88,25 @@ public final class CreateDB extends ACreate {
         context.openDB(data);
         context.pin(data);
       } else {
-        if(context.pinned(name)) return error(DB_PINNED_X, name);
-
-        // create disk-based instance
-        progress(new DiskBuilder(name, parser, context)).build().close();
-        // second step: open database and create index structures
-        final Open open = new Open(name);
-        if(!open.run(context)) return error(open.info());
-        final Data data = context.data();
-        try {
-          if(data.meta.createtext) create(IndexType.TEXT,      data, this);
-          if(data.meta.createattr) create(IndexType.ATTRIBUTE, data, this);
-          if(data.meta.createftxt) create(IndexType.FULLTEXT,  data, this);
-        } finally {
-          data.finishUpdate();
+        // prevent the database from being opened before it has been created
+        synchronized(context.datas) {
+          if(context.pinned(name)) return error(DB_PINNED_X, name);
+
+          // create disk-based instance
+          progress(new DiskBuilder(name, parser, context)).build().close();
+          // second step: open database and create index structures
+          final Open open = new Open(name);
+          if(!open.run(context)) return error(open.info());
+          final Data data = context.data();
+          try {
+            if(data.meta.createtext) create(IndexType.TEXT,      data, this);
+            if(data.meta.createattr) create(IndexType.ATTRIBUTE, data, this);
+            if(data.meta.createftxt) create(IndexType.FULLTEXT,  data, this);
+          } finally {
+            data.finishUpdate();
+          }
+          context.databases().add(name);
         }
-        context.databases().add(name);
       }
       return info(parser.info() + DB_CREATED_X_X, name, perf);
     } catch(final ProgressException ex) {
@@ -141,27 +144,30 @@ public final class CreateDB extends ACreate {
     final Prop prop = ctx.prop;
     if(prop.is(Prop.MAINMEM)) return MemBuilder.build(name, parser);
 
-    // database is currently locked by another process
-    if(ctx.pinned(name)) throw new BaseXException(DB_PINNED_X, name);
-
-    // create disk builder, set database path
-    final DiskBuilder builder = new DiskBuilder(name, parser, ctx);
-
-    // build database and index structures
-    try {
-      final Data data = builder.build();
-      if(data.meta.createtext) data.setIndex(IndexType.TEXT,
-        new ValueBuilder(data, true).build());
-      if(data.meta.createattr) data.setIndex(IndexType.ATTRIBUTE,
-        new ValueBuilder(data, false).build());
-      if(data.meta.createftxt) data.setIndex(IndexType.FULLTEXT,
-        new FTBuilder(data).build());
-      data.close();
-    } finally {
-      builder.close();
+    // prevent the database from being opened before it has been created
+    synchronized(ctx.datas) {
+      // database is currently locked by another process
+      if(ctx.pinned(name)) throw new BaseXException(DB_PINNED_X, name);
+
+      // create disk builder, set database path
+      final DiskBuilder builder = new DiskBuilder(name, parser, ctx);
+
+      // build database and index structures
+      try {
+        final Data data = builder.build();
+        if(data.meta.createtext) data.setIndex(IndexType.TEXT,
+          new ValueBuilder(data, true).build());
+        if(data.meta.createattr) data.setIndex(IndexType.ATTRIBUTE,
+          new ValueBuilder(data, false).build());
+        if(data.meta.createftxt) data.setIndex(IndexType.FULLTEXT,
+          new FTBuilder(data).build());
+        data.close();
+      } finally {
+        builder.close();
+      }
+      ctx.databases().add(name);
+      return Open.open(name, ctx);
     }
-    ctx.databases().add(name);
-    return Open.open(name, ctx);
   }
 
   /**
@@ -18,6 +18,14 @@ public final class Cs extends AQuery {
     super(Perm.READ, true, query);
   }
 
+  @Override
+  public boolean updating(final Context ctx) {
+    // the resulting nodes will be assigned to the context
+    final boolean up = super.updating(ctx);
+    snapshots = false;
+    return up;
+  }
+
   @Override
   protected boolean run() {
     queryNodes();
@@ -31,16 +31,46 @@ public final class DropBackup extends Command {
 
     // retrieve all databases
     final StringList dbs = context.databases().listDBs(name);
-    // loop through all databases and drop backups
-    for(final String db : dbs) drop(db.contains("-") ? db : db + '-', context);
-
+    final StringList prefixes = new StringList();
+    for(final String db : dbs) prefixes.add(db.contains("-") ? db : db + '-');
     // if the given argument is not a database name, it could be the name
     // of a backup file
-    if(dbs.size() == 0) drop(name, context);
+    if(dbs.size() == 0) prefixes.add(name);
+
+    // incremental backups cannot be restored without the backups they are based on
+    final StringList backups = new StringList();
+    final IOFile[] files = mprop.dbpath().children();
+    for(final IOFile f : files) {
+      for(final String p : prefixes) {
+        if(backup(f, p)) {
+          backups.add(f.name());
+          break;
+        }
+      }
+    }
+    for(final IOFile f : files) {
+      if(!f.name().endsWith(IO.ZIPSUFFIX) || backups.contains(f.name())) continue;
+      final String base = DeltaZip.base(f);
+      if(base != null && backups.contains(base))
+        return error(BACKUP_NEEDED_X_X, base, f.name());
+    }
 
+    // loop through all databases and drop backups
+    for(final String p : prefixes) drop(p, context);
     return info(BACKUP_DROPPED_X, name + '*' + IO.ZIPSUFFIX);
   }
 
+  /**
+   * Checks if the specified file is a backup of the specified database.
+   * @param file file
+   * @param db database
+   * @return result of check
+   */
+  private static boolean backup(final IOFile file, final String db) {
+    final String n = file.name();
+    return n.startsWith(db) && n.endsWith(IO.ZIPSUFFIX);
+  }
+
   /**
    * Drops one or more backups of the specified database.
    * @param db database
@@ -51,8 +81,7 @@ public final class DropBackup extends Command {
     final IOFile dir = ctx.mprop.dbpath();
     int c = 0;
     for(final IOFile f : dir.children()) {
-      final String n = f.name();
-      if(n.startsWith(db) && n.endsWith(IO.ZIPSUFFIX) && f.delete()) {
+      if(backup(f, db) && f.delete()) {
         c++;
         final int dl = db.length() - 1;
         ctx.databases().delete(db.charAt(dl) == '-' ? db.substring(0, dl) : db, true);
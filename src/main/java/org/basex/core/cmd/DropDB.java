@@ -37,16 +37,19 @@ public final class DropDB extends ACreate {
     for(final String db : dbs) {
       // close database if it's currently opened
       close(context, db);
-      // check if database is still pinned
-      if(context.pinned(db)) {
-        info(DB_PINNED_X, db);
-        ok = false;
-      } else if(!drop(db, context)) {
-        // dropping was not successful
-        info(DB_NOT_DROPPED_X, db);
-        ok = false;
-      } else {
-        info(DB_DROPPED_X, db);
+      // check if database is still pinned; prevent it from being opened
+      // before it is dropped
+      synchronized(context.datas) {
+        if(context.pinned(db)) {
+          info(DB_PINNED_X, db);
+          ok = false;
+        } else if(!drop(db, context)) {
+          // dropping was not successful
+          info(DB_NOT_DROPPED_X, db);
+          ok = false;
+        } else {
+          info(DB_DROPPED_X, db);
+        }
       }
     }
     return ok;
@@ -99,6 +99,7 @@ public final class OptimizeAll extends ACreate {
     // adopt original meta data
     ctx.prop.set(Prop.CHOP, m.chop);
     ctx.prop.set(Prop.UPDINDEX, m.updindex);
+    ctx.prop.set(Prop.HASHINDEX, m.hashindex);
     ctx.prop.set(Prop.STEMMING, m.stemming);
     ctx.prop.set(Prop.CASESENS, m.casesens);
     ctx.prop.set(Prop.DIACRITICS, m.diacritics);
@@ -134,13 +135,21 @@ public final class OptimizeAll extends ACreate {
         Util.debug(ex);
       }
     }
-    Close.close(data, ctx);
 
-    // drop old database and rename temporary to final name
-    if(!DropDB.drop(m.name, ctx))
-      throw new BaseXException(DB_NOT_DROPPED_X, m.name);
-    if(!AlterDB.alter(tname, m.name, ctx))
-      throw new BaseXException(DB_NOT_RENAMED_X, tname);
+    // the database may have been pinned by readers of snapshots in the meantime
+    synchronized(ctx.datas) {
+      if(ctx.datas.pins(m.name) > 1) {
+        DropDB.drop(tname, ctx);
+        throw new BaseXException(DB_PINNED_X, m.name);
+      }
+      Close.close(data, ctx);
+
+      // drop old database and rename temporary to final name
+      if(!DropDB.drop(m.name, ctx))
+        throw new BaseXException(DB_NOT_DROPPED_X, m.name);
+      if(!AlterDB.alter(tname, m.name, ctx))
+        throw new BaseXException(DB_NOT_RENAMED_X, tname);
+    }
   }
 
   /**
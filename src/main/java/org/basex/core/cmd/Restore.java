@@ -13,6 +13,7 @@ import org.basex.util.list.*;
 
 /**
  * Evaluates the 'restore' command and restores a backup of a database.
+ * Incremental backups are restored by applying all backups of their chain.
  *
  * @author BaseX Team 2005-12, BSD License
  * @author Christian Gruen
@@ -47,11 +48,16 @@ public final class Restore extends Command {
 
     // close database if it's currently opened and not opened by others
     if(!closed) closed = close(context, db);
-    // check if database is still pinned
-    if(context.pinned(db)) return error(DB_PINNED_X, db);
+    // check if database is still pinned; prevent it from being opened
+    // before it is restored
+    final boolean ok;
+    synchronized(context.datas) {
+      if(context.pinned(db)) return error(DB_PINNED_X, db);
+      ok = restore(file, db);
+    }
 
     // try to restore database
-    return restore(file, db) && (!closed || new Open(db).run(context)) ?
+    return ok && (!closed || new Open(db).run(context)) ?
         info(DB_RESTORED_X, file.name(), perf) : error(DB_NOT_RESTORED_X, db);
   }
 
@@ -63,7 +69,11 @@ public final class Restore extends Command {
    */
   private boolean restore(final IOFile file, final String db) {
     try {
-      progress(new Zip(file)).unzip(mprop.dbpath());
+      if(DeltaZip.delta(file)) {
+        progress(new DeltaZip(file)).unzip(mprop.dbpath(), Databases.FILES);
+      } else {
+        progress(new Zip(file)).unzip(mprop.dbpath());
+      }
       context.databases().add(db);
       return true;
     } catch(final IOException ex) {
@@ -150,6 +150,25 @@ public abstract class Data {
    */
   public abstract void finishUpdate();
 
+  /**
+   * Returns a read-only snapshot of the latest committed state of the database,
+   * which is not affected by subsequent updates. The snapshot must be released
+   * via {@link #release}.
+   * @return snapshot, or {@code null} if no snapshot can be created
+   */
+  public abstract Data snapshot();
+
+  /**
+   * Releases a snapshot that has been returned by {@link #snapshot}.
+   */
+  public abstract void release();
+
+  /**
+   * Returns the instance from which a snapshot has been created.
+   * @return original instance, or this instance if it is no snapshot
+   */
+  public abstract Data base();
+
   /**
    * Returns the indexed pre references for the specified token.
    * @param token index token reference
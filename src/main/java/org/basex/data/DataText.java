@@ -16,7 +16,7 @@ public interface DataText {
   String STORAGE = "7.1";
   /** Index version; if it's modified, new indexes can't be parsed anymore
    * by older versions. */
-  String ISTORAGE = "7.1";
+  String ISTORAGE = "7.2";
 
   /** Database version. */
   String DBSTR = "STORAGE";
@@ -40,6 +40,8 @@ public interface DataText {
   String DBPTHIDX = "PTHINDEX";
   /** Automatic index update. */
   String DBUPDIDX = "UPDINDEX";
+  /** Hash dictionaries. */
+  String DBHASHIDX = "HASHINDEX";
   /** Text indexing. */
   String DBTXTIDX = "TXTINDEX";
   /** Attribute indexing. */
@@ -105,6 +107,8 @@ public interface DataText {
   String DATASWL = "swl";
   /** Database - Updating flag. */
   String DATAUPD = "upd";
+  /** Database - Write-ahead log. */
+  String DATAWAL = "wal";
 
   // XML SERIALIZATION ========================================================
 
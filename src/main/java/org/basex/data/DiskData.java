@@ -4,6 +4,7 @@ import static org.basex.data.DataText.*;
 import static org.basex.util.Token.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.build.*;
 import org.basex.core.*;
@@ -15,6 +16,7 @@ import org.basex.index.path.*;
 import org.basex.index.value.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
 import org.basex.io.out.DataOutput;
 import org.basex.io.random.*;
 import org.basex.util.*;
@@ -41,9 +43,29 @@ public final class DiskData extends Data {
   private TokenObjMap<IntList> txts;
   /** Attribute values buffered for subsequent index updates. */
   private TokenObjMap<IntList> atvs;
+  /** Write-ahead log (can be {@code null}). */
+  private Journal journal;
   /** Closed flag. */
   private boolean closed;
 
+  /** Instance from which this snapshot has been created ({@code this} for databases). */
+  private final DiskData base;
+  /** Snapshot of the database files ({@code null} for databases). */
+  private final Snapshot snapshot;
+  /** Serialized meta data and in-memory structures ({@code null} for databases). */
+  private final byte[] info;
+  /** Number of readers that reference this snapshot. */
+  private int refs;
+
+  /** Versions of the database files (can be {@code null}). */
+  private Versions versions;
+  /** Snapshot of the latest committed state (can be {@code null}). */
+  private DiskData latest;
+  /** Snapshots that are referenced, including the latest snapshot. */
+  private final ArrayList<DiskData> snapshots = new ArrayList<DiskData>();
+  /** Indicates if an update is in progress. */
+  private boolean writing;
+
   /**
    * Default constructor, called from {@link Open#open}.
    * @param db name of database
@@ -52,23 +74,19 @@ public final class DiskData extends Data {
    */
   public DiskData(final String db, final Context ctx) throws IOException {
     meta = new MetaData(db, ctx);
+    base = this;
+    snapshot = null;
+    info = null;
 
     // don't open databases marked as updating
     if(updateFile().exists()) throw new BaseXException(Text.DB_UPDATED_X, meta.name);
+    // copy committed changes of a write-ahead log to the database files
+    if(meta.prop.is(Prop.WAL)) journal = new Journal(meta.dbfile(DATAWAL));
+    else Journal.recover(meta.dbfile(DATAWAL));
 
     final DataInput in = new DataInput(meta.dbfile(DATAINF));
     try {
-      // read meta data and indexes
-      meta.read(in);
-      while(true) {
-        final String k = string(in.readToken());
-        if(k.isEmpty()) break;
-        if(k.equals(DBTAGS))      tagindex = new Names(in, meta);
-        else if(k.equals(DBATTS)) atnindex = new Names(in, meta);
-        else if(k.equals(DBPATH)) paths = new PathSummary(this, in);
-        else if(k.equals(DBNS))   nspaces = new Namespaces(in);
-        else if(k.equals(DBDOCS)) resources.read(in);
-      }
+      read(in);
     } finally {
       in.close();
     }
@@ -84,6 +102,8 @@ public final class DiskData extends Data {
     }
     if(meta.ftxtindex) ftxindex = new FTIndex(this);
     init();
+    // preserve the state of the database for readers of snapshots
+    if(ctx.mprop.is(MainProp.MVCC)) versions(new Versions());
   }
 
   /**
@@ -99,23 +119,98 @@ public final class DiskData extends Data {
       final PathSummary ps, final Namespaces n) throws IOException {
 
     meta = md;
+    base = this;
+    snapshot = null;
+    info = null;
     tagindex = nm;
     atnindex = at;
     paths = ps;
     paths.finish(this);
     nspaces = n;
     if(meta.updindex) idmap = new IdPreMap(meta.lastid);
+    if(meta.prop.is(Prop.WAL)) journal = new Journal(meta.dbfile(DATAWAL));
     init();
   }
 
+  /**
+   * Constructor for snapshots, called from {@link #snapshot}.
+   * @param dt database or snapshot, the state of which is adopted
+   * @param s snapshot of the database files
+   * @param inf serialized meta data and in-memory structures
+   * @throws IOException I/O Exception
+   */
+  private DiskData(final DiskData dt, final Snapshot s, final byte[] inf)
+      throws IOException {
+
+    meta = new MetaData(dt.meta);
+    base = dt.base;
+    snapshot = s;
+    info = inf;
+    final DataInput in = new DataInput(new IOContent(inf));
+    read(in);
+    // updatable indexes are changed in place and cannot be used
+    if(meta.updindex) {
+      idmap = new IdPreMap(in);
+    } else {
+      txtindex = meta.textindex ? dt.txtindex : null;
+      atvindex = meta.attrindex ? dt.atvindex : null;
+    }
+    ftxindex = meta.ftxtindex ? dt.ftxindex : null;
+    meta.textindex = txtindex != null;
+    meta.attrindex = atvindex != null;
+    meta.ftxtindex = ftxindex != null;
+
+    table = ((TableDiskAccess) dt.table).snapshot(meta, s);
+    texts = dt.texts.snapshot(s);
+    values = dt.values.snapshot(s);
+  }
+
   /**
    * Initializes the database.
    * @throws IOException I/O exception
    */
   public void init() throws IOException {
-    table = new TableDiskAccess(meta, false);
-    texts = new DataAccess(meta.dbfile(DATATXT));
-    values = new DataAccess(meta.dbfile(DATAATV));
+    table = new TableDiskAccess(meta, false, journal);
+    texts = new DataAccess(meta.dbfile(DATATXT), journal);
+    values = new DataAccess(meta.dbfile(DATAATV), journal);
+    if(versions != null) versions(versions);
+  }
+
+  /**
+   * Reads the meta data and the in-memory structures.
+   * @param in input stream
+   * @throws IOException I/O exception
+   */
+  private void read(final DataInput in) throws IOException {
+    meta.read(in);
+    while(true) {
+      final String k = string(in.readToken());
+      if(k.isEmpty()) break;
+      if(k.equals(DBTAGS))      tagindex = new Names(in, meta);
+      else if(k.equals(DBATTS)) atnindex = new Names(in, meta);
+      else if(k.equals(DBPATH)) paths = new PathSummary(this, in);
+      else if(k.equals(DBNS))   nspaces = new Namespaces(in);
+      else if(k.equals(DBDOCS)) resources.read(in);
+    }
+  }
+
+  /**
+   * Assigns the versions of the database files.
+   * @param v versions
+   */
+  private void versions(final Versions v) {
+    versions = v;
+    ((TableDiskAccess) table).versions(v);
+    texts.versions(v);
+    values.versions(v);
+  }
+
+  /**
+   * Returns the write-ahead log.
+   * @return write-ahead log, or {@code null}
+   */
+  public Journal journal() {
+    return journal;
   }
 
   /**
@@ -124,32 +219,64 @@ public final class DiskData extends Data {
    */
   private void write() throws IOException {
     if(meta.dirty) {
-      final DataOutput out = new DataOutput(meta.dbfile(DATAINF));
-      meta.write(out);
-      out.writeToken(token(DBTAGS));
-      tagindex.write(out);
-      out.writeToken(token(DBATTS));
-      atnindex.write(out);
-      out.writeToken(token(DBPATH));
-      paths.write(out);
-      out.writeToken(token(DBNS));
-      nspaces.write(out);
-      out.writeToken(token(DBDOCS));
-      resources.write(out);
-      out.write(0);
+      // with a write-ahead log, the files are appended to the log
+      final ArrayOutput ao = journal != null ? new ArrayOutput() : null;
+      final DataOutput out = ao != null ? new DataOutput(ao) :
+        new DataOutput(meta.dbfile(DATAINF));
+      write(out);
       out.close();
-      if(idmap != null) idmap.write(meta.dbfile(DATAIDP));
+      if(ao != null) journal.file(meta.dbfile(DATAINF).name(), ao.toArray());
+      if(idmap != null) {
+        if(ao != null) {
+          ao.reset();
+          idmap.write(new DataOutput(ao));
+          journal.file(meta.dbfile(DATAIDP).name(), ao.toArray());
+        } else {
+          idmap.write(meta.dbfile(DATAIDP));
+        }
+      }
       meta.dirty = false;
     }
     // in all cases, remove updating file
     updateFile().delete();
   }
 
+  /**
+   * Writes the meta data and the in-memory structures.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  private void write(final DataOutput out) throws IOException {
+    meta.write(out);
+    out.writeToken(token(DBTAGS));
+    tagindex.write(out);
+    out.writeToken(token(DBATTS));
+    atnindex.write(out);
+    out.writeToken(token(DBPATH));
+    paths.write(out);
+    out.writeToken(token(DBNS));
+    nspaces.write(out);
+    out.writeToken(token(DBDOCS));
+    resources.write(out);
+    out.write(0);
+  }
+
   @Override
   public synchronized void close() {
+    // snapshots are closed by closing the database
+    if(base != this) {
+      base.close();
+      return;
+    }
     if(closed) return;
     closed = true;
+    retire();
     try {
+      if(journal != null) {
+        flush();
+        journal.close();
+        journal = null;
+      }
       write();
       table.close();
       texts.close();
@@ -167,6 +294,17 @@ public final class DiskData extends Data {
     // close existing index
     final Index index = index(type);
     if(index == null) return;
+    // wait until the index is not used by snapshots anymore
+    if(versions != null) detach(type, index);
+    // index files will be rewritten or deleted: copy logged changes to all files
+    if(journal != null) {
+      try {
+        flush();
+        journal.checkpoint();
+      } catch(final IOException ex) {
+        Util.stack(ex);
+      }
+    }
     index.close();
 
     // invalidate index reference
@@ -191,30 +329,183 @@ public final class DiskData extends Data {
   }
 
   @Override
-  public boolean startUpdate() {
+  public synchronized boolean startUpdate() {
+    // snapshots cannot be updated
+    if(base != this) return false;
+    // preserve the latest committed state for readers
+    if(versions != null && latest == null) {
+      try {
+        freeze();
+      } catch(final IOException ex) {
+        Util.stack(ex);
+        return false;
+      }
+    }
+    // with a write-ahead log, uncommitted changes are discarded after a crash
     final IOFile uf = updateFile();
-    return (uf.exists() || uf.touch()) && table.lock(true);
+    writing = (journal != null || uf.exists() || uf.touch()) && table.lock(true);
+    return writing;
   }
 
   @Override
   public synchronized void finishUpdate() {
-    // skip all flush operations if auto flush is off, or file has already been closed
-    if(!meta.prop.is(Prop.AUTOFLUSH) || closed) return;
+    writing = false;
+    // skip all flush operations if auto flush is off (and no snapshots are created),
+    // if this is a snapshot, or if the file has already been closed
+    if(versions == null && !meta.prop.is(Prop.AUTOFLUSH) || base != this || closed)
+      return;
 
     try {
-      write();
-      table.flush();
-      texts.flush();
-      values.flush();
-      if(txtindex != null) ((DiskValues) txtindex).flush();
-      if(atvindex != null) ((DiskValues) atvindex).flush();
+      flush();
     } catch(final IOException ex) {
       Util.stack(ex);
     } finally {
       table.lock(false);
+      // new readers will access the new state
+      retire();
+    }
+  }
+
+  @Override
+  public synchronized Data snapshot() {
+    if(base != this || closed) return null;
+    if(latest == null) {
+      // the current state can only be preserved if no update is in progress
+      if(writing) return null;
+      try {
+        if(versions == null) versions(new Versions());
+        freeze();
+      } catch(final IOException ex) {
+        Util.stack(ex);
+        return null;
+      }
+    }
+    latest.refs++;
+    return latest;
+  }
+
+  @Override
+  public void release() {
+    base.release(this);
+  }
+
+  @Override
+  public Data base() {
+    return base;
+  }
+
+  /**
+   * Returns the number of pages that are preserved for snapshots.
+   * @return number of pages
+   */
+  public synchronized int preserved() {
+    return versions != null ? versions.pages() : 0;
+  }
+
+  /**
+   * Creates a snapshot of the current state. All buffers are flushed before,
+   * so that the state of the files is preserved.
+   * @throws IOException I/O exception
+   */
+  private void freeze() throws IOException {
+    flush();
+    final ArrayOutput ao = new ArrayOutput();
+    final DataOutput out = new DataOutput(ao);
+    write(out);
+    if(idmap != null) idmap.write(out);
+    out.close();
+    latest = new DiskData(this, versions.create(), ao.toArray());
+    snapshots.add(latest);
+  }
+
+  /**
+   * Releases a reference to a snapshot.
+   * @param s snapshot
+   */
+  private synchronized void release(final DiskData s) {
+    if(--s.refs == 0 && s != latest) drop(s);
+    notifyAll();
+  }
+
+  /**
+   * Discards the latest snapshot if it is not referenced anymore.
+   */
+  private void retire() {
+    if(latest != null && latest.refs == 0) drop(latest);
+    latest = null;
+  }
+
+  /**
+   * Discards a snapshot and its preserved pages.
+   * @param s snapshot
+   */
+  private void drop(final DiskData s) {
+    snapshots.remove(s);
+    versions.release(s.snapshot);
+  }
+
+  /**
+   * Waits until the specified index is not used by snapshots anymore.
+   * The latest snapshot is replaced with a copy that does not use the index.
+   * @param type index type
+   * @param index index
+   */
+  private void detach(final IndexType type, final Index index) {
+    if(latest != null && latest.index(type) == index) {
+      final DiskData old = latest;
+      try {
+        latest = new DiskData(old, old.snapshot, old.info);
+        versions.acquire(old.snapshot);
+        snapshots.add(latest);
+        switch(type) {
+          case TEXT:      latest.meta.textindex = false; latest.txtindex = null; break;
+          case ATTRIBUTE: latest.meta.attrindex = false; latest.atvindex = null; break;
+          case FULLTEXT:  latest.meta.ftxtindex = false; latest.ftxindex = null; break;
+          default:        break;
+        }
+      } catch(final IOException ex) {
+        Util.stack(ex);
+        latest = null;
+      }
+      if(old.refs == 0) drop(old);
+    }
+    while(used(index)) {
+      try {
+        wait();
+      } catch(final InterruptedException ex) {
+        Util.stack(ex);
+      }
     }
   }
 
+  /**
+   * Checks if the specified index is used by a referenced snapshot.
+   * @param index index
+   * @return result of check
+   */
+  private boolean used(final Index index) {
+    for(final DiskData s : snapshots) {
+      if(s.refs > 0 && (s.txtindex == index || s.atvindex == index ||
+          s.ftxindex == index)) return true;
+    }
+    return false;
+  }
+
+  /**
+   * Writes all buffered data to disk or, if a write-ahead log exists, commits
+   * the changes to the log.
+   * @throws IOException I/O exception
+   */
+  private void flush() throws IOException {
+    write();
+    table.flush();
+    texts.flush();
+    values.flush();
+    if(txtindex != null) ((DiskValues) txtindex).flush();
+    if(atvindex != null) ((DiskValues) atvindex).flush();
+    if(journal != null) journal.commit();
+  }
+
   /**
    * Returns a file that indicates ongoing updates.
    * @return updating file
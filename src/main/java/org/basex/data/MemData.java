@@ -5,6 +5,7 @@ import org.basex.index.*;
 import org.basex.index.name.*;
 import org.basex.index.path.*;
 import org.basex.index.value.*;
+import org.basex.io.*;
 import org.basex.io.random.*;
 import org.basex.util.*;
 
@@ -13,10 +14,21 @@ import org.basex.util.*;
  * for textual content in a compressed memory structure.
  * The table mapping is documented in {@link Data}.
  *
+ * <p>If the database is stored outside the Java heap, the table and all texts
+ * are kept in direct byte buffers, and the value indexes reference the texts
+ * by their offsets (see {@link OffHeapValues}). As a result, large databases
+ * only consist of a small number of Java objects, and their size is limited by
+ * the maximum direct memory size of the virtual machine.</p>
+ *
  * @author BaseX Team 2005-12, BSD License
  * @author Christian Gruen
  */
 public final class MemData extends Data {
+  /** Texts stored outside the Java heap ({@code null} if texts are indexed). */
+  private final TextOffHeapAccess texts;
+  /** Attribute values stored outside the Java heap. */
+  private final TextOffHeapAccess values;
+
   /**
    * Constructor.
    * @param tag tag index
@@ -27,16 +39,40 @@ public final class MemData extends Data {
    */
   public MemData(final Names tag, final Names att, final PathSummary ps,
       final Namespaces ns, final Prop pr) {
+    this(tag, att, ps, ns, pr, false);
+  }
+
+  /**
+   * Constructor.
+   * @param tag tag index
+   * @param att attribute name index
+   * @param ps path summary
+   * @param ns namespaces
+   * @param pr database properties
+   * @param off store table and texts outside the Java heap
+   */
+  public MemData(final Names tag, final Names att, final PathSummary ps,
+      final Namespaces ns, final Prop pr, final boolean off) {
 
     meta = new MetaData(pr);
-    table = new TableMemAccess(meta);
-    if(meta.updindex) {
-      idmap = new IdPreMap(meta.lastid);
-      txtindex = new UpdatableMemValues(this);
-      atvindex = new UpdatableMemValues(this);
+    if(meta.updindex) idmap = new IdPreMap(meta.lastid);
+    if(off) {
+      table = new TableOffHeapAccess(meta);
+      texts = new TextOffHeapAccess();
+      values = new TextOffHeapAccess();
+      txtindex = new OffHeapValues(this, texts);
+      atvindex = new OffHeapValues(this, values);
     } else {
-      txtindex = new MemValues(this);
-      atvindex = new MemValues(this);
+      table = new TableMemAccess(meta);
+      texts = null;
+      values = null;
+      if(meta.updindex) {
+        txtindex = new UpdatableMemValues(this);
+        atvindex = new UpdatableMemValues(this);
+      } else {
+        txtindex = new MemValues(this);
+        atvindex = new MemValues(this);
+      }
     }
     tagindex = tag == null ? new Names(meta) : tag;
     atnindex = att == null ? new Names(meta) : att;
@@ -70,30 +106,55 @@ public final class MemData extends Data {
   @Override
   public void setIndex(final IndexType type, final Index index) { }
 
-  @Override
+  @Override
   public boolean startUpdate() { return true; }
 
   @Override
   public void finishUpdate() { }
 
+  @Override
+  public Data snapshot() { return null; }
+
+  @Override
+  public void release() { }
+
+  @Override
+  public Data base() { return this; }
+
   @Override
   public byte[] text(final int pre, final boolean text) {
-    return ((MemValues) (text ? txtindex : atvindex)).key((int) textOff(pre));
+    final long o = textOff(pre);
+    if(texts == null) return ((MemValues) (text ? txtindex : atvindex)).key((int) o);
+    return num(o) ? Token.token((int) o) : (text ? texts : values).get(o);
   }
 
   @Override
   public long textItr(final int pre, final boolean text) {
-    return Token.toLong(text(pre, text));
+    final long o = textOff(pre);
+    return texts != null && num(o) ? o & IO.OFFNUM - 1 : Token.toLong(text(pre, text));
   }
 
   @Override
   public double textDbl(final int pre, final boolean text) {
-    return Token.toDouble(text(pre, text));
+    final long o = textOff(pre);
+    return texts != null && num(o) ? o & IO.OFFNUM - 1 :
+      Token.toDouble(text(pre, text));
   }
 
   @Override
   public int textLen(final int pre, final boolean text) {
-    return text(pre, text).length;
+    if(texts == null) return text(pre, text).length;
+    final long o = textOff(pre);
+    return num(o) ? Token.numDigits((int) o) : (text ? texts : values).length(o);
+  }
+
+  /**
+   * Returns true if the specified offset contains an inlined number.
+   * @param o offset
+   * @return result of check
+   */
+  private static boolean num(final long o) {
+    return (o & IO.OFFNUM) != 0;
   }
 
   // UPDATE OPERATIONS ========================================================
@@ -106,7 +167,7 @@ public final class MemData extends Data {
     final int id = id(pre);
     if(meta.updindex) {
       final boolean txt = kind != ATTR;
-      ((MemValues) (txt ? txtindex : atvindex)).delete(text(pre, txt), id);
+      indexDelete(txt, text(pre, txt), id);
     }
     textOff(pre, index(pre, id, val, kind));
   }
@@ -114,8 +175,18 @@ public final class MemData extends Data {
   @Override
   protected long index(final int pre, final int id, final byte[] txt,
       final int kind) {
+    final int ix = meta.updindex ? id : pre;
+    if(texts != null) {
+      // inline integer values, append other texts
+      final boolean att = kind == ATTR;
+      final long v = Token.toSimpleInt(txt);
+      final long o = v != Integer.MIN_VALUE ? v | IO.OFFNUM :
+        (att ? values : texts).add(txt);
+      ((OffHeapValues) (att ? atvindex : txtindex)).index(txt, o, ix);
+      return o;
+    }
     return ((MemValues) (kind == ATTR ? atvindex : txtindex)).
-        index(txt, meta.updindex ? id : pre);
+        index(txt, ix);
   }
 
   @Override
@@ -126,9 +197,20 @@ public final class MemData extends Data {
       final boolean isAttr = k == ATTR;
       // skip nodes which are not attribute, text, comment, or proc. instruction
       if(isAttr || k == TEXT || k == COMM || k == PI) {
-        final byte[] key = text(p, !isAttr);
-        ((MemValues) (isAttr ? atvindex : txtindex)).delete(key, id(p));
+        indexDelete(!isAttr, text(p, !isAttr), id(p));
       }
     }
   }
+
+  /**
+   * Removes a record from the text or attribute value index.
+   * @param text text or attribute value index
+   * @param key record key
+   * @param id record id
+   */
+  private void indexDelete(final boolean text, final byte[] key, final int id) {
+    final Index index = text ? txtindex : atvindex;
+    if(texts != null) ((OffHeapValues) index).delete(key, id);
+    else ((MemValues) index).delete(key, id);
+  }
 }
@@ -47,6 +47,8 @@ public final class MetaData {
   public boolean chop;
   /** Flag for activated automatic index update. */
   public boolean updindex;
+  /** Flag for creating hash dictionaries for exact index lookups. */
+  public boolean hashindex;
   /** Indicates if a text index exists. */
   public boolean textindex;
   /** Indicates if a attribute index exists. */
@@ -109,17 +111,26 @@ public final class MetaData {
    * @param ctx database context
    */
   public MetaData(final String db, final Context ctx) {
-    this(db, ctx.prop, ctx.mprop);
+    this(db, ctx.prop, ctx.mprop.dbpath(db));
+  }
+
+  /**
+   * Constructor for snapshots, adopting the name, properties and path of
+   * the specified meta data.
+   * @param md meta data
+   */
+  MetaData(final MetaData md) {
+    this(md.name, md.prop, md.path);
   }
 
   /**
    * Constructor, specifying the database name.
    * @param db name of the database
    * @param pr database properties
-   * @param mprop main properties
+   * @param dir database path (can be {@code null})
    */
-  private MetaData(final String db, final Prop pr, final MainProp mprop) {
-    path = mprop != null ? mprop.dbpath(db) : null;
+  private MetaData(final String db, final Prop pr, final IOFile dir) {
+    path = dir;
     prop = pr;
     name = db;
     chop = prop.is(Prop.CHOP);
@@ -130,6 +141,7 @@ public final class MetaData {
     stemming = prop.is(Prop.STEMMING);
     casesens = prop.is(Prop.CASESENS);
     updindex = prop.is(Prop.UPDINDEX);
+    hashindex = prop.is(Prop.HASHINDEX);
     maxlen = prop.num(Prop.MAXLEN);
     maxcats = prop.num(Prop.MAXCATS);
     language = Language.get(prop);
@@ -301,6 +313,7 @@ public final class MetaData {
         else if(k.equals(DBFTDC))     diacritics = toBool(v);
         else if(k.equals(DBCHOP))     chop       = toBool(v);
         else if(k.equals(DBUPDIDX))   updindex   = toBool(v);
+        else if(k.equals(DBHASHIDX))  hashindex  = toBool(v);
         else if(k.equals(DBTXTIDX))   textindex  = toBool(v);
         else if(k.equals(DBATVIDX))   attrindex  = toBool(v);
         else if(k.equals(DBFTXIDX))   ftxtindex  = toBool(v);
@@ -345,6 +358,7 @@ public final class MetaData {
     writeInfo(out, DBSIZE,     size);
     writeInfo(out, DBCHOP,     chop);
     writeInfo(out, DBUPDIDX,   updindex);
+    writeInfo(out, DBHASHIDX,  hashindex);
     writeInfo(out, DBTXTIDX,   textindex);
     writeInfo(out, DBATVIDX,   attrindex);
     writeInfo(out, DBFTXIDX,   ftxtindex);
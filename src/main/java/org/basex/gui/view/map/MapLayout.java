@@ -1,11 +1,15 @@
 package org.basex.gui.view.map;
 
+import java.util.*;
+
 import org.basex.data.*;
 import org.basex.gui.*;
 import org.basex.gui.view.*;
 
 /**
- * Defines shared things of TreeMap layout algorithms.
+ * Defines shared things of TreeMap layout algorithms. The map is laid out
+ * level by level, and only rectangles that are large enough to show their
+ * children are expanded. The layout can be stopped at any time.
  *
  * @author BaseX Team 2005-12, BSD License
  * @author Joerg Hauser
@@ -23,6 +27,10 @@ final class MapLayout {
   private final int[] textLen;
   /** Widow properties. */
   private final GUIProp prop;
+  /** Rectangles the children of which have not been laid out yet. */
+  private final ArrayDeque<MapRect> pending = new ArrayDeque<MapRect>();
+  /** Stop flag. */
+  private volatile boolean stopped;
 
   /** Layout rectangle. */
   final MapRect layout;
@@ -87,13 +95,44 @@ final class MapLayout {
   }
 
   /**
-   * Recursively splits rectangles.
+   * Lays out the specified nodes and their descendants.
+   * @param r root rectangle
+   * @param l nodes
+   * @param level called whenever a level of the map has been laid out
+   * @return {@code true} if the layout is complete, {@code false} if it was stopped
+   */
+  boolean makeMap(final MapRect r, final MapList l, final Runnable level) {
+    makeMap(r, l, 0, l.size() - 1);
+    int lvl = r.level;
+    while(!pending.isEmpty()) {
+      if(stopped) return false;
+      final MapRect rect = pending.poll();
+      if(rect.level != lvl) {
+        lvl = rect.level;
+        level.run();
+      }
+      final MapList ch = children(rect.pre);
+      final int cs = ch.size();
+      if(cs != 0) makeMap(rect, ch, 0, cs - 1);
+    }
+    return !stopped;
+  }
+
+  /**
+   * Stops the layout.
+   */
+  void stop() {
+    stopped = true;
+  }
+
+  /**
+   * Splits rectangles.
    * @param r parent rectangle
    * @param l children array
    * @param ns start array position
    * @param ne end array position
    */
-  void makeMap(final MapRect r, final MapList l, final int ns, final int ne) {
+  private void makeMap(final MapRect r, final MapList l, final int ns, final int ne) {
     if(ne - ns == 0) {
       // one rectangle left, add it and go deeper
       r.pre = l.get(ns);
@@ -108,7 +147,7 @@ final class MapLayout {
       }
       l.initWeights(textLen, nn, data, prop.num(GUIProp.MAPWEIGHT));
 
-      // call recursion for next deeper levels
+      // add rectangles of next deeper level
       final MapRects rects = algo.calcMap(r, l, ns, ne);
       for(final MapRect rect : rects) {
         if(rect.x + rect.w <= r.x + r.w && rect.y + rect.h <= r.y + r.h)
@@ -118,10 +157,12 @@ final class MapLayout {
   }
 
   /**
-   * One rectangle left, add it and continue with its children.
+   * One rectangle left, add it and remember it for laying out its children.
    * @param r parent rectangle
    */
   private void putRect(final MapRect r) {
+    rectangles.add(r);
+
     // position, with and height calculated using sizes of former level
     final int x = r.x + layout.x;
     final int y = r.y + layout.y;
@@ -129,16 +170,7 @@ final class MapLayout {
     final int h = r.h - layout.h;
 
     // skip too small rectangles and meta data in file systems
-    if(w < off && h < off || w <= 2 || h <= 2) {
-      rectangles.add(r);
-      return;
-    }
-
-    rectangles.add(r);
-    final MapList ch = children(r.pre);
-    final int cs = ch.size();
-    if(cs != 0) {
-      makeMap(new MapRect(x, y, w, h, r.pre, r.level + 1), ch, 0, cs - 1);
-    }
+    if(w < off && h < off || w <= 2 || h <= 2) return;
+    pending.add(new MapRect(x, y, w, h, r.pre, r.level + 1));
   }
 }
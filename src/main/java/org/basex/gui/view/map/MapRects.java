@@ -117,12 +117,13 @@ final class MapRects implements Iterable<MapRect> {
   }
 
   /**
-   * Creates a copy of the rectangles.
+   * Creates a copy of the rectangles, sorted by their pre values.
    * @return copy
    */
   MapRects copy() {
     final MapRects rects = new MapRects(size);
     rects.add(this);
+    Arrays.sort(rects.list, 0, size);
     return rects;
   }
 }
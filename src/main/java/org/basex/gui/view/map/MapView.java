@@ -7,6 +7,7 @@ import static org.basex.gui.layout.BaseXKeys.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.image.*;
+import java.util.*;
 
 import javax.swing.*;
 
@@ -19,7 +20,9 @@ import org.basex.util.ft.*;
 import org.basex.util.list.*;
 
 /**
- * This view is a TreeMap implementation.
+ * This view is a TreeMap implementation. The map is calculated in a background
+ * thread and repainted whenever new levels have been laid out. Recently
+ * calculated maps are cached.
  *
  * @author BaseX Team 2005-12, BSD License
  * @author Christian Gruen
@@ -35,6 +38,10 @@ public final class MapView extends View implements Runnable {
   private static final int ZOOMSIZE = ZS.length - 1;
   /** Maximum zooming step. */
   private static final int MAXZS = ZS[ZOOMSIZE];
+  /** Minimum delay (ms) between two repaints of a map that is being calculated. */
+  private static final int DELAY = 100;
+  /** Maximum number of cached rectangles. */
+  private static final int MAXCACHE = 1 << 20;
 
   /** Array of current rectangles. */
   private MapRects mainRects;
@@ -73,6 +80,10 @@ public final class MapView extends View implements Runnable {
 
   /** Keeps the whole map layout. */
   MapLayout layout;
+  /** Currently running map calculation (can be {@code null}). */
+  private Calc calc;
+  /** Recently calculated maps. */
+  private final ArrayList<Calc> cache = new ArrayList<Calc>();
 
   /**
    * Default constructor.
@@ -94,6 +105,8 @@ public final class MapView extends View implements Runnable {
 
   @Override
   public void refreshInit() {
+    stop();
+    cache.clear();
     painter = null;
     mainRects = null;
     focused = null;
@@ -129,6 +142,7 @@ public final class MapView extends View implements Runnable {
 
   @Override
   public void refreshMark() {
+    if(mainRects == null) return;
     drawMap(mainMap, mainRects, 1f);
     repaint();
   }
@@ -148,16 +162,15 @@ public final class MapView extends View implements Runnable {
 
   @Override
   public void refreshLayout() {
-    if(painter == null) return;
-
-    // calculate map
-    final Nodes curr = gui.context.current();
-    calc(new MapRect(0, 0, getWidth(), getHeight(), 0, 0), curr, mainMap);
-    repaint();
+    // layout properties may have changed
+    cache.clear();
+    calc();
   }
 
   @Override
   public void refreshUpdate() {
+    stop();
+    cache.clear();
     textLen = null;
     refreshContext(false, true);
   }
@@ -203,7 +216,7 @@ public final class MapView extends View implements Runnable {
     focused = null;
 
     // create new context nodes
-    refreshLayout();
+    calc();
 
     // calculate zooming speed (slower for large zooming scales)
     if(mainRect.w > 0 && mainRect.h > 0) {
@@ -270,24 +283,67 @@ public final class MapView extends View implements Runnable {
   }
 
   /**
-   * Initializes the calculation of the main map.
-   * @param rect initial space to layout rectangles in
-   * @param nodes nodes to draw in the map
-   * @param map image to draw rectangles on
+   * Initializes the calculation of the main map. A cached map is shown at once.
+   * Otherwise, the map is calculated in a background thread.
    */
-  private void calc(final MapRect rect, final Nodes nodes, final BufferedImage map) {
-    // calculate new main rectangles
+  private void calc() {
+    if(painter == null) return;
+    stop();
+
+    final Nodes nodes = gui.context.current();
+    final int w = getWidth();
+    final int h = getHeight();
+    for(int c = cache.size() - 1; c >= 0; c--) {
+      final Calc cc = cache.get(c);
+      if(cc.rect.w == w && cc.rect.h == h && cc.nodes.sameAs(nodes)) {
+        // move map to the end of the cache
+        cache.add(cache.remove(c));
+        show(cc.layout, cc.rects);
+        return;
+      }
+    }
+
     gui.cursor(CURSORWAIT);
+    calc = new Calc(nodes, new MapRect(0, 0, w, h, 0, 0));
+    calc.start();
+  }
 
-    initLen();
-    layout = new MapLayout(nodes.data, textLen, gui.gprop);
-    layout.makeMap(rect, new MapList(nodes.pres.clone()), 0, (int) nodes.size() - 1);
-    // rectangles are copied to avoid synchronization issues
-    mainRects = layout.rectangles.copy();
+  /**
+   * Stops the current map calculation.
+   */
+  private void stop() {
+    if(calc == null) return;
+    calc.cancel();
+    calc = null;
+    gui.cursor(CURSORARROW, true);
+  }
 
-    drawMap(map, mainRects, 1f);
+  /**
+   * Shows the specified rectangles.
+   * @param ml map layout
+   * @param rects rectangles
+   */
+  void show(final MapLayout ml, final MapRects rects) {
+    layout = ml;
+    mainRects = rects;
+    drawMap(mainMap, mainRects, 1f);
     focus();
+    repaint();
+  }
+
+  /**
+   * Finishes the specified map calculation.
+   * @param cc map calculation
+   */
+  void finish(final Calc cc) {
+    calc = null;
     gui.cursor(CURSORARROW, true);
+
+    // cache map, remove oldest maps if cache gets too large
+    cache.add(cc);
+    int size = 0;
+    for(final Calc c : cache) size += c.rects.size;
+    while(size > MAXCACHE) size -= cache.remove(0).rects.size;
   }
 
   @Override
@@ -297,7 +353,7 @@ public final class MapView extends View implements Runnable {
 
     if(mainRects == null || mainRects.size == 0 || mainRects.get(0).w == 0) {
       super.paintComponent(g);
-      if(mainRects == null || mainRects.size != 0) refreshInit();
+      if(calc == null && (mainRects == null || mainRects.size != 0)) refreshInit();
       return;
     }
 
@@ -473,7 +529,9 @@ public final class MapView extends View implements Runnable {
     // add or remove marked node
     final Nodes marked = gui.context.marked;
     if(e.getClickCount() == 2) {
-      if(mainRects.size != 1) gui.notify.context(marked, false, null);
+      if(mainRects != null && mainRects.size != 1) {
+        gui.notify.context(marked, false, null);
+      }
     } else if(e.isShiftDown()) {
       gui.notify.mark(1, null);
     } else if(sc(e) && SwingUtilities.isLeftMouseButton(e)) {
@@ -485,7 +543,8 @@ public final class MapView extends View implements Runnable {
 
   @Override
   public void mouseDragged(final MouseEvent e) {
-    if(gui.updating || ++dragTol < 8 || mainRects.sorted != mainRects.list)
+    if(gui.updating || ++dragTol < 8 || mainRects == null ||
+        mainRects.sorted != mainRects.list)
       return;
 
     // refresh mouse focus
@@ -574,40 +633,124 @@ public final class MapView extends View implements Runnable {
     focused = null;
     mainMap = createImage();
     zoomMap = createImage();
-    refreshLayout();
+    calc();
   }
 
-  /**
-   * Initializes the text lengths and stores them into an array.
-   */
-  private void initLen() {
-    final Data data = gui.context.data();
-    if(textLen != null || gui.gprop.num(GUIProp.MAPWEIGHT) == 0) return;
+  /** Background thread for calculating the map. */
+  private final class Calc extends Thread {
+    /** Nodes to be shown. */
+    final Nodes nodes;
+    /** Root rectangle. */
+    final MapRect rect;
+    /** Map layout. */
+    volatile MapLayout layout;
+    /** Rectangles of the completed map. */
+    MapRects rects;
+    /** Text lengths. */
+    private int[] tl;
+    /** Stop flag. */
+    private volatile boolean stopped;
+    /** Time of the last repaint. */
+    private long time;
+
+    /**
+     * Constructor.
+     * @param n nodes to be shown
+     * @param r root rectangle
+     */
+    Calc(final Nodes n, final MapRect r) {
+      nodes = n;
+      rect = r;
+      tl = textLen;
+      setDaemon(true);
+    }
 
-    final int size = data.meta.size;
-    textLen = new int[size];
+    @Override
+    public void run() {
+      try {
+        final GUIProp gprop = gui.gprop;
+        if(tl == null && gprop.num(GUIProp.MAPWEIGHT) != 0) initLen();
+        layout = new MapLayout(nodes.data, tl, gprop);
+        if(stopped) return;
+
+        final Runnable level = new Runnable() {
+          @Override
+          public void run() {
+            // repaint first level at once, and further levels after a delay
+            final long t = System.nanoTime();
+            if(time != 0 && t - time < DELAY * 1000000L) return;
+            time = t;
+            publish(false);
+          }
+        };
+        final MapList list = new MapList(nodes.pres.clone());
+        if(layout.makeMap(rect, list, level)) publish(true);
+      } catch(final RuntimeException ex) {
+        // database may have been updated or closed in the meantime
+        if(!stopped) Util.debug(ex);
+      }
+    }
 
-    final IntList pars = new IntList();
-    int l = 0;
+    /**
+     * Cancels the calculation.
+     */
+    void cancel() {
+      stopped = true;
+      final MapLayout ml = layout;
+      if(ml != null) ml.stop();
+    }
 
-    for(int pre = 0; pre < size; ++pre) {
-      final int kind = data.kind(pre);
-      final int par = data.parent(pre, kind);
+    /**
+     * Passes on the rectangles that have been calculated so far to the view.
+     * @param done calculation is complete
+     */
+    private void publish(final boolean done) {
+      // rectangles are copied to avoid synchronization issues
+      final MapRects mr = layout.rectangles.copy();
+      SwingUtilities.invokeLater(new Runnable() {
+        @Override
+        public void run() {
+          if(calc != Calc.this) return;
+          textLen = tl;
+          if(done) {
+            rects = mr;
+            finish(Calc.this);
+          }
+          show(layout, mr);
+        }
+      });
+    }
 
-      final int ll = l;
-      while(l > 0 && pars.get(l - 1) > par) {
-        textLen[pars.get(l - 1)] += textLen[pars.get(l)];
-        --l;
-      }
-      if(l > 0 && ll != l) textLen[pars.get(l - 1)] += textLen[pars.get(l)];
-      pars.set(l, pre);
+    /**
+     * Initializes the text lengths and stores them into an array.
+     */
+    private void initLen() {
+      final Data data = nodes.data;
+      final int size = data.meta.size;
+      tl = new int[size];
+
+      final IntList pars = new IntList();
+      int l = 0;
+
+      for(int pre = 0; pre < size && !stopped; ++pre) {
+        final int kind = data.kind(pre);
+        final int par = data.parent(pre, kind);
+
+        final int ll = l;
+        while(l > 0 && pars.get(l - 1) > par) {
+          tl[pars.get(l - 1)] += tl[pars.get(l)];
+          --l;
+        }
+        if(l > 0 && ll != l) tl[pars.get(l - 1)] += tl[pars.get(l)];
+        pars.set(l, pre);
 
-      if(kind == Data.DOC || kind == Data.ELEM) {
-        pars.set(++l, 0);
-      } else {
-        textLen[pre] = data.textLen(pre, kind != Data.ATTR);
+        if(kind == Data.DOC || kind == Data.ELEM) {
+          pars.set(++l, 0);
+        } else {
+          tl[pre] = data.textLen(pre, kind != Data.ATTR);
+        }
       }
+      while(--l >= 0) tl[pars.get(l)] += tl[pars.get(l + 1)];
     }
-    while(--l >= 0) textLen[pars.get(l)] += textLen[pars.get(l + 1)];
   }
 }
@@ -53,18 +53,21 @@ public class IdPreMap {
   public IdPreMap(final IOFile f) throws IOException {
     final DataInput in = new DataInput(f);
     try {
-      baseid = in.readNum();
-      rows = in.readNum();
-      pres = in.readNums();
-      fids = in.readNums();
-      nids = in.readNums();
-      incs = in.readNums();
-      oids = in.readNums();
+      read(in);
     } finally {
       in.close();
     }
   }
 
+  /**
+   * Construct a map by reading it from the specified input.
+   * @param in input
+   * @throws IOException I/O error while reading from the input
+   */
+  public IdPreMap(final DataInput in) throws IOException {
+    read(in);
+  }
+
   /**
    * Write the map to the specified file.
    * @param f file to write to
@@ -73,18 +76,27 @@ public class IdPreMap {
   public void write(final IOFile f) throws IOException {
     final DataOutput out = new DataOutput(f);
     try {
-      out.writeNum(baseid);
-      out.writeNum(rows);
-      out.writeNums(pres);
-      out.writeNums(fids);
-      out.writeNums(nids);
-      out.writeNums(incs);
-      out.writeNums(oids);
+      write(out);
     } finally {
       out.close();
     }
   }
 
+  /**
+   * Write the map to the specified output.
+   * @param out output
+   * @throws IOException I/O error while writing
+   */
+  public void write(final DataOutput out) throws IOException {
+    out.writeNum(baseid);
+    out.writeNum(rows);
+    out.writeNums(pres);
+    out.writeNums(fids);
+    out.writeNums(nids);
+    out.writeNums(incs);
+    out.writeNums(oids);
+  }
+
   /**
    * Find the PRE value of a given ID.
    * @param id ID
@@ -427,4 +439,19 @@ public class IdPreMap {
       rows -= e - s + 1;
     }
   }
+
+  /**
+   * Reads the map from the specified input.
+   * @param in input
+   * @throws IOException I/O error while reading from the input
+   */
+  private void read(final DataInput in) throws IOException {
+    baseid = in.readNum();
+    rows = in.readNum();
+    pres = in.readNums();
+    fids = in.readNums();
+    nids = in.readNums();
+    incs = in.readNums();
+    oids = in.readNums();
+  }
 }
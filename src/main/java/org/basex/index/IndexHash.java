@@ -0,0 +1,219 @@
+package org.basex.index;
+
+import java.io.*;
+import java.nio.*;
+
+import org.basex.io.*;
+import org.basex.io.out.DataOutput;
+
+/**
+ * This class provides a hash dictionary on disk, which maps the keys of an
+ * index to the positions of their entries. It allows exact lookups with a
+ * constant number of disk accesses, whereas a binary search needs to read
+ * a key for each probe.
+ *
+ * <p>The dictionary is organized as a bucketized cuckoo hash table: each key
+ * can be stored in one of two buckets, each of which has {@link #SLOTS} slots.
+ * The first bucket is determined by the lower bits of the 64-bit hash value
+ * of a key; the alternative bucket is computed from the first bucket and the
+ * upper 32 bits (the fingerprint) of the hash value. As a result, only two
+ * buckets need to be read for a lookup, and the keys themselves are only
+ * compared for entries with identical fingerprints.</p>
+ *
+ * <p>The buckets are read into main memory when the dictionary is opened
+ * (8 bytes per slot), so a lookup only needs to access the key of a single
+ * index entry on disk, whereas a binary search accesses one key per probe.</p>
+ *
+ * <p>The file has the following format:</p>
+ *
+ * <ul>
+ * <li>For each bucket, the fingerprints and values of its slots:
+ *   {@code [f, v] ...} [int, int]. The values are incremented by one;
+ *   {@code 0} denotes an empty slot.</li>
+ * <li>The number of buckets [int]</li>
+ * </ul>
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public abstract class IndexHash {
+  /** Number of slots per bucket. */
+  private static final int SLOTS = 4;
+  /** Number of integers per bucket (fingerprint and value per slot). */
+  private static final int BUCKET = SLOTS << 1;
+  /** Maximum number of displaced entries for inserting a key. */
+  private static final int KICKS = 500;
+
+  /** Fingerprints and values of all buckets. */
+  private final int[] table;
+  /** Size of the index file. */
+  private final long length;
+  /** Bit mask for computing buckets. */
+  private final int mask;
+
+  /**
+   * Constructor, reading the hash dictionary.
+   * @param f index file
+   * @throws IOException I/O exception
+   */
+  protected IndexHash(final IOFile f) throws IOException {
+    final byte[] b = f.read();
+    length = b.length;
+    final IntBuffer ib = ByteBuffer.wrap(b).asIntBuffer();
+    table = new int[ib.remaining() - 1];
+    ib.get(table);
+    mask = ib.get() - 1;
+  }
+
+  /**
+   * Returns the value of the specified key.
+   * @param key key
+   * @return value, or {@code -1} if the key was not found
+   */
+  public final int get(final byte[] key) {
+    final long h = hash(key);
+    final int fp = (int) (h >>> 32), b = (int) h & mask;
+    for(int i = 0; i < 2; i++) {
+      final int o = (i == 0 ? b : alt(b, fp, mask)) * BUCKET;
+      for(int s = o; s < o + BUCKET; s += 2) {
+        final int v = table[s + 1] - 1;
+        // slots are filled in ascending order and never emptied
+        if(v == -1) return -1;
+        if(table[s] == fp && matches(v, key)) return v;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Checks if the entry with the specified value has the specified key.
+   * @param value value
+   * @param key key
+   * @return result of check
+   */
+  protected abstract boolean matches(int value, byte[] key);
+
+  /**
+   * Returns the size of the index file.
+   * @return size
+   */
+  public final long length() {
+    return length;
+  }
+
+  /**
+   * Creates a hash dictionary.
+   * @param file index file
+   * @param hashes hash values of the keys (see {@link #hash})
+   * @param values values of the keys
+   * @param size number of keys
+   * @throws IOException I/O exception
+   */
+  public static void write(final IOFile file, final long[] hashes,
+      final int[] values, final int size) throws IOException {
+
+    // choose a maximum load factor of 75%
+    int bs = 1;
+    while(bs * SLOTS * 3L < size * 4L) bs <<= 1;
+
+    int[] fps, vals;
+    while(true) {
+      fps = new int[bs * SLOTS];
+      vals = new int[bs * SLOTS];
+      int i = 0;
+      while(i < size && add(fps, vals, bs - 1, hashes[i], values[i] + 1)) i++;
+      if(i == size) break;
+      // table is too full: retry with twice the number of buckets
+      bs <<= 1;
+    }
+
+    final DataOutput out = new DataOutput(file);
+    try {
+      final int ss = bs * SLOTS;
+      for(int s = 0; s < ss; s++) {
+        out.write4(fps[s]);
+        out.write4(vals[s]);
+      }
+      out.write4(bs);
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Computes the 64-bit hash value of a key.
+   * @param key key
+   * @return hash value
+   */
+  public static long hash(final byte[] key) {
+    // FNV-1a, followed by the finalizer of MurmurHash3 to spread the bits
+    long h = 0xCBF29CE484222325L;
+    for(final byte b : key) h = (h ^ b & 0xFF) * 0x100000001B3L;
+    h = (h ^ h >>> 33) * 0xFF51AFD7ED558CCDL;
+    h = (h ^ h >>> 33) * 0xC4CEB9FE1A85EC53L;
+    return h ^ h >>> 33;
+  }
+
+  /**
+   * Adds an entry to the hash table. If both buckets of the entry are full,
+   * entries are moved to their alternative buckets.
+   * @param fps fingerprints
+   * @param vals values (incremented by one)
+   * @param msk bit mask for computing buckets
+   * @param hash hash value of the key
+   * @param value value
+   * @return {@code true} if the entry was added
+   */
+  private static boolean add(final int[] fps, final int[] vals, final int msk,
+      final long hash, final int value) {
+
+    int fp = (int) (hash >>> 32), v = value, b = (int) hash & msk;
+    if(put(fps, vals, b, fp, v)) return true;
+    b = alt(b, fp, msk);
+    for(int k = 0; k < KICKS; k++) {
+      if(put(fps, vals, b, fp, v)) return true;
+      // displace an entry of the full bucket and move it to its other bucket
+      final int s = b * SLOTS + k % SLOTS, f = fps[s], w = vals[s];
+      fps[s] = fp;
+      vals[s] = v;
+      fp = f;
+      v = w;
+      b = alt(b, fp, msk);
+    }
+    return false;
+  }
+
+  /**
+   * Stores an entry in the first free slot of a bucket.
+   * @param fps fingerprints
+   * @param vals values
+   * @param b bucket
+   * @param fp fingerprint
+   * @param v value
+   * @return {@code true} if the bucket had a free slot
+   */
+  private static boolean put(final int[] fps, final int[] vals, final int b,
+      final int fp, final int v) {
+
+    final int o = b * SLOTS;
+    for(int s = o; s < o + SLOTS; s++) {
+      if(vals[s] == 0) {
+        fps[s] = fp;
+        vals[s] = v;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the alternative bucket of an entry.
+   * @param b current bucket
+   * @param fp fingerprint
+   * @param msk bit mask for computing buckets
+   * @return alternative bucket
+   */
+  private static int alt(final int b, final int fp, final int msk) {
+    return (b ^ fp * 0x5BD1E995) & msk;
+  }
+}
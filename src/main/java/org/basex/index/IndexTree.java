@@ -5,8 +5,9 @@ import org.basex.util.hash.*;
 import org.basex.util.list.*;
 
 /**
- * This class indexes keys in a balanced binary tree, including their id
- * values. Iterator methods are available to traverse through the tree.
+ * This class indexes keys and their id values. The keys are stored in a
+ * {@link TokenArena}, and iterator methods are available to traverse the
+ * keys in ascending order.
  *
  * @author BaseX Team 2005-12, BSD License
  * @author Christian Gruen
@@ -16,8 +17,8 @@ public class IndexTree {
   /** Factor for resize. */
   protected static final double FACTOR = 1.2;
 
-  /** Keys saved in the tree. */
-  public final TokenList keys = new TokenList(FACTOR);
+  /** Keys (the ids of the keys are node ids, incremented by one). */
+  public final TokenArena keys = new TokenArena();
   /** Compressed id values. */
   public TokenList values = new TokenList(FACTOR);
 
@@ -26,12 +27,10 @@ public class IndexTree {
   /** Current iterator node. */
   protected int cn;
 
-  /** Tree structure [left, right, parent]. */
-  private final IntList tree = new IntList(FACTOR);
-  /** Flag if a node has been modified. */
-  private final BoolList mod = new BoolList();
-  /** Tree root node. */
-  private int root = -1;
+  /** Sorted keys, assigned by {@link #init}. */
+  private int[] sorted;
+  /** Current iterator position. */
+  private int sp;
 
   /**
    * Indexes the specified key and value.
@@ -55,44 +54,36 @@ public class IndexTree {
   protected final int index(final byte[] key, final int value,
       final boolean exist) {
 
-    // index is empty.. create root node
-    if(root == -1) {
-      root = n(key, value, -1, exist);
-      return root;
+    final int id = keys.add(key);
+    if(id > 0) {
+      // new node
+      values.add(Num.newNum(value));
+      if(!exist) maps.add(Num.num(id - 1), values.size() - 1);
+      return id - 1;
     }
 
-    int n = root;
-    while(true) {
-      final int c = Token.diff(key, keys.get(n));
-      if(c == 0) {
-        if(exist) {
-          values.set(n, Num.add(values.get(n), value));
-        } else {
-          final int i = maps.value(Num.num(n));
-          if(i < 0) {
-            maps.add(Num.num(n), values.size());
-            values.add(Num.newNum(value));
-          } else {
-            values.set(i, Num.add(values.get(i), value));
-          }
-        }
-        return n;
-      }
-      int ch = c < 0 ? l(n) : r(n);
-      if(ch != -1) {
-        n = ch;
+    final int n = -id - 1;
+    if(exist) {
+      values.set(n, Num.add(values.get(n), value));
+    } else {
+      final int i = maps.value(Num.num(n));
+      if(i < 0) {
+        maps.add(Num.num(n), values.size());
+        values.add(Num.newNum(value));
       } else {
-        ch = n(key, value, n, exist);
-        if(c < 0) {
-          l(n, ch);
-          a(l(n));
-        } else {
-          r(n, ch);
-          a(r(n));
-        }
-        return ch;
+        values.set(i, Num.add(values.get(i), value));
       }
     }
+    return n;
+  }
+
+  /**
+   * Returns the key of the specified node.
+   * @param n node
+   * @return key
+   */
+  public final byte[] key(final int n) {
+    return keys.key(n + 1);
   }
 
   /**
@@ -104,12 +95,12 @@ public class IndexTree {
   }
 
   /**
-   * Initializes the index iterator.
-   * will be removed to save memory.
+   * Initializes the index iterator. The keys are sorted by this call.
    */
   public final void init() {
-    cn = root;
-    if(cn != -1) while(l(cn) != -1) cn = l(cn);
+    sorted = keys.sorted();
+    sp = 0;
+    cn = sorted.length == 0 ? -1 : sorted[0] - 1;
   }
 
   /**
@@ -125,173 +116,8 @@ public class IndexTree {
    * @return next pointer
    */
   public final int next() {
-    /* Last iterator node. */
     final int ln = cn;
-    if(r(cn) != -1) {
-      cn = r(cn);
-      while(l(cn) != -1) cn = l(cn);
-    } else {
-      int t = cn;
-      cn = p(cn);
-      while(cn != -1 && t == r(cn)) {
-        t = cn;
-        cn = p(cn);
-      }
-    }
+    cn = ++sp < sorted.length ? sorted[sp] - 1 : -1;
     return ln;
   }
-
-  // PRIVATE METHODS ==========================================================
-
-  /**
-   * Creates a new node.
-   * @param key node key
-   * @param value node value
-   * @param par pointer on parent node
-   * @param exist flag for reusing existing tree
-   * @return pointer of the new node
-   */
-  private int n(final byte[] key, final int value, final int par,
-      final boolean exist) {
-    tree.add(-1); // left node
-    tree.add(-1); // right node
-    tree.add(par); // parent node
-    mod.add(false);
-    keys.add(key);
-    values.add(Num.newNum(value));
-    if(!exist) maps.add(Num.num(keys.size() - 1), values.size() - 1);
-    return mod.size() - 1;
-  }
-
-  /**
-   * Gets the left child.
-   * @param nd current node
-   * @return left node
-   */
-  private int l(final int nd) {
-    return tree.get((nd << 1) + nd);
-  }
-
-  /**
-   * Gets the right child.
-   * @param nd current node
-   * @return right node
-   */
-  private int r(final int nd) {
-    return tree.get((nd << 1) + nd + 1);
-  }
-
-  /**
-   * Gets the parent node.
-   * @param nd current node
-   * @return parent node
-   */
-  private int p(final int nd) {
-    return tree.get((nd << 1) + nd + 2);
-  }
-
-  /**
-   * Sets the left child.
-   * @param nd current node
-   * @param val left node
-   */
-  private void l(final int nd, final int val) {
-    tree.set((nd << 1) + nd, val);
-  }
-
-  /**
-   * Sets the right child.
-   * @param nd current node
-   * @param val right node
-   */
-  private void r(final int nd, final int val) {
-    tree.set((nd << 1) + nd + 1, val);
-  }
-
-  /**
-   * Sets the parent node.
-   * @param nd current node
-   * @param val parent node
-   */
-  private void p(final int nd, final int val) {
-    tree.set((nd << 1) + nd + 2, val);
-  }
-
-  /**
-   * Adjusts the tree balance.
-   * @param nd node to be adjusted
-   */
-  private void a(final int nd) {
-    int n = nd;
-    mod.set(n, true);
-
-    while(n != -1 && n != root && mod.get(p(n))) {
-      if(p(n) == l(p(p(n)))) {
-        final int y = r(p(p(n)));
-        if(y != -1 && mod.get(y)) {
-          mod.set(p(n), false);
-          mod.set(y, false);
-          mod.set(p(p(n)), true);
-          n = p(p(n));
-        } else {
-          if(n == r(p(n))) {
-            n = p(n);
-            rl(n);
-          }
-          mod.set(p(n), false);
-          mod.set(p(p(n)), true);
-          if(p(p(n)) != -1) rr(p(p(n)));
-        }
-      } else {
-        final int y = l(p(p(n)));
-        if(y != -1 && mod.get(y)) {
-          mod.set(p(n), false);
-          mod.set(y, false);
-          mod.set(p(p(n)), true);
-          n = p(p(n));
-        } else {
-          if(n == l(p(n))) {
-            n = p(n);
-            rr(n);
-          }
-          mod.set(p(n), false);
-          mod.set(p(p(n)), true);
-          if(p(p(n)) != -1) rl(p(p(n)));
-        }
-      }
-    }
-    mod.set(root, false);
-  }
-
-  /**
-   * Left rotation.
-   * @param n node to be rotated
-   */
-  private void rl(final int n) {
-    final int r = r(n);
-    r(n, l(r));
-    if(l(r) != -1) p(l(r), n);
-    p(r, p(n));
-    if(p(n) == -1) root = r;
-    else if(l(p(n)) == n) l(p(n), r);
-    else r(p(n), r);
-    l(r, n);
-    p(n, r);
-  }
-
-  /**
-   * Right rotation.
-   * @param n node to be rotated
-   */
-  private void rr(final int n) {
-    final int l = l(n);
-    l(n, r(l));
-    if(r(l) != -1) p(r(l), n);
-    p(l, p(n));
-    if(p(n) == -1) root = l;
-    else if(r(p(n)) == n) r(p(n), l);
-    else l(p(n), l);
-    r(l, n);
-    p(n, l);
-  }
 }
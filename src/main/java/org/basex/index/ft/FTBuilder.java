@@ -5,6 +5,8 @@ import static org.basex.data.DataText.*;
 import static org.basex.util.Token.*;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 import org.basex.core.*;
 import org.basex.data.*;
@@ -21,14 +23,27 @@ import org.basex.util.list.*;
  * @author Christian Gruen
  */
 public final class FTBuilder extends IndexBuilder {
+  /** Number of texts that are tokenized in a single step. */
+  private static final int CHUNK = 1 << 12;
+
   /** Value trees. */
   private final FTIndexTrees tree;
   /** Word parser. */
   private final FTLexer lex;
+  /** Word parsers of the worker threads. */
+  private final ThreadLocal<FTLexer> lexers;
+  /** Number of threads for tokenizing texts. */
+  private final int par;
   /** Current lexer position. */
   int pos;
   /** Number of indexed tokens. */
   private long ntok;
+  /** Number of texts with indexed tokens. */
+  private int texts;
+  /** Total number of tokens of all texts with indexed tokens. */
+  private long length;
+  /** Minimum number of tokens of a text with indexed tokens. */
+  private int minlen = Integer.MAX_VALUE;
 
   /**
    * Constructor.
@@ -53,6 +68,13 @@ public final class FTBuilder extends IndexBuilder {
       throw new BaseXException(NO_STEMMER_X, fto.ln);
 
     lex = new FTLexer(fto);
+    lexers = new ThreadLocal<FTLexer>() {
+      @Override
+      protected FTLexer initialValue() {
+        return new FTLexer(fto);
+      }
+    };
+    par = Math.max(1, prop.num(Prop.THREADS));
   }
 
   /**
@@ -66,28 +88,42 @@ public final class FTBuilder extends IndexBuilder {
     final Performance perf = Prop.debug ? new Performance() : null;
     Util.debug(det());
 
-    for(pre = 0; pre < size; ++pre) {
-      if((pre & 0xFFFF) == 0) check();
-
-      final int k = data.kind(pre);
-      if(k != Data.TEXT) continue;
-
-      pos = -1;
-      final StopWords sw = lex.ftOpt().sw;
-      lex.init(data.text(pre, true));
-      while(lex.hasNext()) {
-        final byte[] tok = lex.nextToken();
-        ++pos;
-        // skip too long and stopword tokens
-        if(tok.length <= data.meta.maxlen && (sw.isEmpty() || !sw.contains(tok))) {
-          // check if main memory is exhausted
-          if((ntok++ & 0xFFF) == 0 && memFull()) {
-            writeIndex(csize++);
-            Performance.gc(2);
+    // number of tokens of each text
+    final DataOutput outC = new DataOutput(data.meta.dbfile(DATAFTX + 'c'));
+    // if several threads are available, the following texts are tokenized in
+    // advance, and the tokens are indexed in document order
+    final ExecutorService ex = par > 1 ? Executors.newFixedThreadPool(par,
+      new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable r) {
+          final Thread t = new Thread(r);
+          t.setDaemon(true);
+          return t;
+        }
+      }) : null;
+    final LinkedList<Future<Chunk>> queue = new LinkedList<Future<Chunk>>();
+    try {
+      int next = 0;
+      for(int s = 0; s < size; s += CHUNK) {
+        if(ex == null) {
+          index(tokenize(lex, s), outC);
+        } else {
+          while(next < size && queue.size() < par << 1) {
+            final int n = next;
+            queue.add(ex.submit(new Callable<Chunk>() {
+              @Override
+              public Chunk call() {
+                return tokenize(lexers.get(), n);
+              }
+            }));
+            next += CHUNK;
           }
-          index(tok);
+          index(get(queue.removeFirst()), outC);
         }
       }
+    } finally {
+      if(ex != null) ex.shutdownNow();
+      outC.close();
     }
 
     // write tokens
@@ -97,12 +133,124 @@ public final class FTBuilder extends IndexBuilder {
     Util.memory(perf);
   }
 
+  /**
+   * Tokenizes the texts of a range of nodes.
+   * @param lx word parser
+   * @param start first pre value
+   * @return tokens
+   */
+  private Chunk tokenize(final FTLexer lx, final int start) {
+    final StopWords sw = lx.ftOpt().sw;
+    final Chunk ch = new Chunk(start, Math.min(size - start, CHUNK));
+    final int n = ch.counts.length;
+    for(int i = 0; i < n; i++) {
+      ch.offsets[i] = ch.tokens.size();
+      final int p = start + i;
+      if(data.kind(p) != Data.TEXT) continue;
+      int ps = -1;
+      lx.init(data.text(p, true));
+      while(lx.hasNext()) {
+        final byte[] tok = lx.nextToken();
+        ++ps;
+        // skip too long and stopword tokens
+        if(tok.length <= data.meta.maxlen && (sw.isEmpty() || !sw.contains(tok))) {
+          ch.tokens.add(tok);
+          ch.poss.add(ps);
+        }
+      }
+      ch.counts[i] = ps + 1;
+    }
+    ch.offsets[n] = ch.tokens.size();
+    return ch;
+  }
+
+  /**
+   * Indexes the tokens of a range of nodes.
+   * @param ch tokens
+   * @param outC output for the number of tokens of each node
+   * @throws IOException I/O Exception
+   */
+  private void index(final Chunk ch, final DataOutput outC) throws IOException {
+    final int n = ch.counts.length;
+    for(int i = 0; i < n; i++) {
+      pre = ch.start + i;
+      if((pre & 0xFFFF) == 0) check();
+      final int c = ch.counts[i], s = ch.offsets[i], e = ch.offsets[i + 1];
+      outC.write4(c);
+      if(s == e) continue;
+      for(int t = s; t < e; t++) {
+        // check if main memory is exhausted
+        if((ntok++ & 0xFFF) == 0 && memFull()) {
+          writeIndex(csize++);
+          Performance.gc(2);
+        }
+        pos = ch.poss.get(t);
+        index(ch.tokens.get(t));
+      }
+      // collect statistics for computing scores
+      length += c;
+      minlen = Math.min(minlen, c);
+      texts++;
+    }
+  }
+
+  /**
+   * Returns the tokens that have been computed by a worker thread.
+   * @param f future
+   * @return tokens
+   */
+  private static Chunk get(final Future<Chunk> f) {
+    try {
+      return f.get();
+    } catch(final InterruptedException ex) {
+      throw Util.notexpected(ex);
+    } catch(final ExecutionException ex) {
+      final Throwable th = ex.getCause();
+      if(th instanceof RuntimeException) throw (RuntimeException) th;
+      throw Util.notexpected(th);
+    }
+  }
+
   @Override
   public FTIndex build() throws IOException {
     index();
+    // create bigram index
+    final FTIndex ftx = new FTIndex(data);
+    FTGrams.write(ftx, data.meta.dbfile(DATAFTX + 'g'));
+    if(data.meta.hashindex) hash(ftx);
+    ftx.close();
     return new FTIndex(data);
   }
 
+  /**
+   * Creates a hash dictionary, which maps all tokens of the specified index
+   * to their offsets.
+   * @param index full-text index
+   * @throws IOException I/O exception
+   */
+  private void hash(final FTIndex index) throws IOException {
+    final int[] tp = index.tp;
+    final int tl = tp.length - 1;
+    final IntList offs = new IntList();
+    final IntList lens = new IntList();
+    for(int s = 0; s < tl; s++) {
+      final int p = tp[s];
+      if(p == -1) continue;
+      int e = -1;
+      for(int i = s + 1; e == -1; i++) e = tp[i];
+      for(int o = p; o < e; o += s + FTIndex.ENTRY) {
+        offs.add(o);
+        lens.add(s);
+      }
+    }
+    final int os = offs.size();
+    final long[] hashes = new long[os];
+    for(int o = 0; o < os; o++) {
+      hashes[o] = IndexHash.hash(index.inY.readBytes(offs.get(o), lens.get(o)));
+    }
+    IndexHash.write(data.meta.dbfile(DATAFTX + 'h'), hashes, offs.toArray(), os);
+  }
+
   /**
    * Indexes a single token.
    * @param tok token to be indexed
@@ -161,6 +309,7 @@ public final class FTBuilder extends IndexBuilder {
       outY.write4(merge(outZ, il, v));
     }
     writeInd(outX, ind, ind.get(ind.size() - 2) + 1, (int) outY.size());
+    writeStats(outX);
 
     outX.close();
     outY.close();
@@ -188,6 +337,17 @@ public final class FTBuilder extends IndexBuilder {
     outX.write4(lp);
   }
 
+  /**
+   * Writes the statistics on the indexed texts to disk.
+   * @param outX output
+   * @throws IOException I/O exception
+   */
+  private void writeStats(final DataOutput outX) throws IOException {
+    outX.writeNum(texts);
+    outX.write5(length);
+    outX.writeNum(texts == 0 ? 0 : minlen);
+  }
+
   /**
    * Writes the current index to disk.
    * @param cs current file pointer
@@ -220,13 +380,15 @@ public final class FTBuilder extends IndexBuilder {
       outY.write5(dr);
       // write full-text data size (number of pre values)
       outY.write4(t.nextNumPre());
-      // write compressed pre and pos arrays
-      writeFTData(outZ, t.nextPres(), t.nextPoss());
+      // write pre and pos values (compressed numbers for temporary files)
+      if(merge) writeFTData(outZ, t.nextPres(), t.nextPoss());
+      else writeBlocks(outZ, t.nextPres(), t.nextPoss());
 
       dr = outZ.size();
       tr = (int) outY.size();
     }
     writeInd(outX, ind, ++j, tr);
+    if(!merge) writeStats(outX);
 
     outX.close();
     outY.close();
@@ -245,30 +407,39 @@ public final class FTBuilder extends IndexBuilder {
   private int merge(final DataOutput out, final IntList il, final FTList[] v)
       throws IOException {
 
-    int s = 0;
-    final TokenBuilder tbp = new TokenBuilder();
-    final TokenBuilder tbo = new TokenBuilder();
-    tbp.add(new byte[4]);
-    tbo.add(new byte[4]);
+    final IntList pr = new IntList();
+    final IntList po = new IntList();
     // merge full-text data of all sorted lists with the same token
     for(int j = 0; j < il.size(); ++j) {
       final int m = il.get(j);
-      for(final int p : v[m].prv) tbp.add(Num.num(p));
-      for(final int p : v[m].pov) tbo.add(Num.num(p));
-      s += v[m].size;
+      for(final int p : v[m].prv) pr.add(p);
+      for(final int p : v[m].pov) po.add(p);
       v[m].next();
     }
-    // write compressed pre and pos arrays
-    final byte[] pr = tbp.finish();
-    Num.size(pr, pr.length);
-    final byte[] po = tbo.finish();
-    Num.size(po, po.length);
-
     // write full-text data
-    writeFTData(out, pr, po);
+    final int s = pr.size();
+    FTPostings.write(out, pr.toArray(), po.toArray(), s);
     return s;
   }
 
+  /**
+   * Writes the full-text data for a single token in blocks.
+   * @param out DataOutput for disk access
+   * @param vpre compressed pre values
+   * @param vpos compressed pos values
+   * @throws IOException IOException
+   */
+  private static void writeBlocks(final DataOutput out, final byte[] vpre,
+      final byte[] vpos) throws IOException {
+
+    final IntList pr = new IntList();
+    final IntList po = new IntList();
+    final int ns = Num.size(vpre), os = Num.size(vpos);
+    for(int np = 4; np < ns; np += Num.length(vpre, np)) pr.add(Num.get(vpre, np));
+    for(int op = 4; op < os; op += Num.length(vpos, op)) po.add(Num.get(vpos, op));
+    FTPostings.write(out, pr.toArray(), po.toArray(), pr.size());
+  }
+
   /**
    * Writes full-text data for a single token to disk.<br/>
    * Format: {@code score? pre1 pos1 pre2 pos2 ... (0 score)? pre...}
@@ -312,4 +483,29 @@ public final class FTBuilder extends IndexBuilder {
   protected String det() {
     return INDEX_FULLTEXT_D;
   }
+
+  /** Tokens of a range of nodes. */
+  private static final class Chunk {
+    /** First pre value. */
+    final int start;
+    /** Number of tokens of each node. */
+    final int[] counts;
+    /** Offsets of the first indexed token of each node. */
+    final int[] offsets;
+    /** Indexed tokens. */
+    final TokenList tokens = new TokenList();
+    /** Positions of the indexed tokens. */
+    final IntList poss = new IntList();
+
+    /**
+     * Constructor.
+     * @param s first pre value
+     * @param n number of nodes
+     */
+    Chunk(final int s, final int n) {
+      start = s;
+      counts = new int[n];
+      offsets = new int[n + 1];
+    }
+  }
 }
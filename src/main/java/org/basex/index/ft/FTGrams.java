@@ -0,0 +1,256 @@
+package org.basex.index.ft;
+
+import static org.basex.util.Token.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+
+/**
+ * This class indexes the bigrams of all tokens of the full-text index.
+ * It is used to find candidates for fuzzy queries: if two tokens have a
+ * Damerau-Levenshtein distance of {@code k}, each edit operation will remove
+ * at most three of the padded bigrams of a token. A token is thus only
+ * considered as candidate if it shares at least {@code b - 3k} distinct
+ * bigrams with the query token, where {@code b} is the number of distinct
+ * bigrams of the query token.
+ *
+ * <p>The index is also used for wildcard queries: all matching tokens must
+ * contain the bigrams of adjacent literal characters of the query.</p>
+ *
+ * <p>Bigrams are computed from lower-case and normalized characters, and
+ * hashed to integer keys. Collisions of hash keys can only lead to additional
+ * candidates, which will be discarded by the final Levenshtein check.</p>
+ *
+ * <p>The index file starts with the prefix {@link org.basex.data.DataText#DATAFTX}
+ * and ends with the suffix <b>g</b>. It has the following format:</p>
+ *
+ * <ul>
+ * <li>The offsets of the tokens in the <b>y</b> file containing a bigram,
+ *   stored as distances: {@code [n, o1, o2 - o1, ...] ...} [{@link Num}]</li>
+ * <li>The number of bigrams, followed by the sorted bigram keys, the
+ *   pointers on their offsets and the number of offsets:
+ *   {@code n [k, p, c] ...} [{@link Num}, int, long, {@link Num}]</li>
+ * <li>A pointer on the bigram keys [long]</li>
+ * </ul>
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+final class FTGrams {
+  /** Maximum number of removed bigrams per edit operation. */
+  private static final int EDIT = 3;
+  /** Padding character for the start and end of tokens. */
+  private static final int PAD = 0x110000;
+
+  /** Sorted bigram keys. */
+  private final int[] keys;
+  /** Pointers on the token offsets of each bigram. */
+  private final long[] pointers;
+  /** Number of token offsets of each bigram. */
+  private final int[] counts;
+  /** Token offsets. */
+  private final DataAccess in;
+
+  /**
+   * Constructor, opening the bigram index.
+   * @param file index file
+   * @throws IOException I/O exception
+   */
+  FTGrams(final IOFile file) throws IOException {
+    in = new DataAccess(file);
+    in.cursor(in.read5(in.length() - 5));
+    final int s = in.readNum();
+    keys = new int[s];
+    pointers = new long[s];
+    counts = new int[s];
+    for(int i = 0; i < s; i++) {
+      keys[i] = in.read4();
+      pointers[i] = in.read5();
+      counts[i] = in.readNum();
+    }
+  }
+
+  /**
+   * Creates the bigram index for the tokens of the specified full-text index.
+   * @param index full-text index
+   * @param file index file
+   * @throws IOException I/O exception
+   */
+  static void write(final FTIndex index, final IOFile file) throws IOException {
+    final IntMap<IntList> grams = new IntMap<IntList>();
+    final int[] tp = index.tp;
+    final int tl = tp.length - 1;
+    for(int s = 0; s < tl; s++) {
+      int p = tp[s];
+      if(p == -1) continue;
+      int e = -1;
+      for(int i = s + 1; e == -1; i++) e = tp[i];
+      while(p < e) {
+        for(final int key : keys(cps(index.inY.readBytes(p, s)))) {
+          IntList il = grams.get(key);
+          if(il == null) {
+            il = new IntList(2);
+            grams.add(key, il);
+          }
+          il.add(p);
+        }
+        p += s + FTIndex.ENTRY;
+      }
+    }
+
+    final int s = grams.size();
+    final int[] keys = new int[s];
+    for(int i = 0; i < s; i++) keys[i] = grams.key(i + 1);
+    Arrays.sort(keys);
+
+    final DataOutput out = new DataOutput(file);
+    final long[] pointers = new long[s];
+    for(int i = 0; i < s; i++) {
+      pointers[i] = out.size();
+      out.writeDiffs(grams.get(keys[i]));
+    }
+    final long table = out.size();
+    out.writeNum(s);
+    for(int i = 0; i < s; i++) {
+      out.write4(keys[i]);
+      out.write5(pointers[i]);
+      out.writeNum(grams.get(keys[i]).size());
+    }
+    out.write5(table);
+    out.close();
+  }
+
+  /**
+   * Returns the offsets of all tokens that may be similar to the specified
+   * token. The offsets are sorted in ascending order.
+   * @param token token
+   * @param k maximum number of errors
+   * @param max maximum number of offsets to be read
+   * @return offsets, or {@code null} if the tokens cannot be filtered
+   */
+  IntList candidates(final byte[] token, final int k, final int max) {
+    final int[] tk = keys(cps(token));
+    return filter(tk, tk.length - EDIT * k, max);
+  }
+
+  /**
+   * Returns the offsets of all tokens that may match the specified wildcard
+   * characters. The offsets are sorted in ascending order.
+   * @param chars characters of the wildcard expression ({@code -1}: wildcard)
+   * @param max maximum number of offsets to be read
+   * @return offsets, or {@code null} if the tokens cannot be filtered
+   */
+  IntList candidates(final int[] chars, final int max) {
+    final int[] tk = keys(chars);
+    return filter(tk, tk.length, max);
+  }
+
+  /**
+   * Checks if the specified wildcard characters contain bigrams that can be
+   * used to filter the tokens.
+   * @param chars characters of the wildcard expression ({@code -1}: wildcard)
+   * @return result of check
+   */
+  boolean filters(final int[] chars) {
+    return keys(chars).length != 0;
+  }
+
+  /**
+   * Returns the offsets of all tokens that contain the specified minimum
+   * number of bigrams. The offsets are sorted in ascending order.
+   * @param tk bigram keys
+   * @param min minimum number of bigrams
+   * @param max maximum number of offsets to be read
+   * @return offsets, or {@code null} if the tokens cannot be filtered
+   */
+  private IntList filter(final int[] tk, final int min, final int max) {
+    if(min <= 0) return null;
+
+    // find bigrams, skip filtering if too many offsets need to be read
+    final IntList ids = new IntList(tk.length);
+    long total = 0;
+    for(final int key : tk) {
+      final int i = Arrays.binarySearch(keys, key);
+      if(i < 0) {
+        // no token can contain all bigrams
+        if(min == tk.length) return new IntList(0);
+        continue;
+      }
+      ids.add(i);
+      total += counts[i];
+    }
+    if(total > max) return null;
+
+    // count number of shared bigrams per token
+    final IntList all = new IntList((int) total);
+    final int is = ids.size();
+    for(int d = 0; d < is; d++) {
+      final int i = ids.get(d);
+      in.cursor(pointers[i]);
+      final int n = in.readNum();
+      for(int c = 0, p = 0; c < n; c++) {
+        p += in.readNum();
+        all.add(p);
+      }
+    }
+    all.sort();
+
+    final IntList cands = new IntList();
+    final int as = all.size();
+    for(int a = 0; a < as;) {
+      final int p = all.get(a);
+      int c = a;
+      while(++c < as && all.get(c) == p);
+      if(c - a >= min) cands.add(p);
+      a = c;
+    }
+    return cands;
+  }
+
+  /**
+   * Returns the size of the index file.
+   * @return size
+   */
+  long length() {
+    return in.length();
+  }
+
+  /**
+   * Closes the index file.
+   */
+  void close() {
+    in.close();
+  }
+
+  /**
+   * Returns the distinct bigram keys of the specified characters.
+   * No bigrams are created for wildcards ({@code -1}).
+   * @param chars characters
+   * @return keys
+   */
+  private static int[] keys(final int[] chars) {
+    final IntList il = new IntList();
+    int prev = PAD;
+    final int cs = chars.length;
+    for(int c = 0; c <= cs; c++) {
+      final int cp = c == cs ? PAD : chars[c] == -1 ? -1 : norm(lc(chars[c]));
+      if(prev != -1 && cp != -1) il.add(prev * 31 + cp);
+      prev = cp;
+    }
+    il.sort();
+    final IntList keys = new IntList(il.size());
+    final int is = il.size();
+    for(int i = 0; i < is; i++) {
+      final int key = il.get(i);
+      if(keys.isEmpty() || keys.peek() != key) keys.add(key);
+    }
+    return keys.toArray();
+  }
+}
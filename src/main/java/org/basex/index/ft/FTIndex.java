@@ -12,6 +12,7 @@ import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
+import org.basex.io.*;
 import org.basex.io.random.*;
 import org.basex.query.ft.*;
 import org.basex.util.*;
@@ -23,7 +24,7 @@ import org.basex.util.list.*;
  * <p>This class provides access to a fuzzy full-text index structure
  * stored on disk. Each token has an entry in sizes, saving its length and a
  * pointer on ftdata, where to find the token and its ftdata.
- * The three database index files start with the prefix
+ * The database index files start with the prefix
  * {@link DataText#DATAFTX} and have the following format:</p>
  *
  * <ul>
@@ -31,6 +32,10 @@ import org.basex.util.list.*;
  * Structure: {@code [l, p] ...}<br/>
  * {@code l} is the length of a token [byte].<br/>
  * {@code p} is the pointer of the first token with length {@code l} [int].
+ * <br/>
+ * The entries are followed by the number of indexed texts, their total number
+ * of tokens and the minimum number of tokens of a text, which are used for
+ * computing scores [{@link Num}, long, {@link Num}].
  * </li>
  * <li>File <b>y</b> contains the tokens and references:<br/>
  * Structure: {@code [t0, t1, ... tl, z, s]}<br/>
@@ -39,8 +44,17 @@ import org.basex.util.list.*;
  * {@code s} is the number of pre values, saved in data [int]
  * </li>
  * <li>File <b>z</b> contains the {@code id/pos} references.
- *   The values are ordered, but not distinct:<br/>
- *   {@code pre1/pos1, pre2/pos2, pre3/pos3, ...} [{@link Num}]</li>
+ *   The values are ordered, but not distinct. They are stored in blocks
+ *   with skip pointers (see {@link FTPostings}).</li>
+ * <li>File <b>g</b> contains the bigrams of all tokens, which are used to
+ *   speed up fuzzy queries (see {@link FTGrams}).</li>
+ * <li>File <b>c</b> contains the number of tokens of each text node, or
+ *   {@code 0} for all other nodes [int]. It is used for computing scores
+ *   and for evaluating {@code at end} and {@code entire content} filters
+ *   without accessing the texts.</li>
+ * <li>File <b>h</b> is optional and contains a hash dictionary, which maps
+ *   the tokens to their offsets in the <b>y</b> file (see {@link IndexHash}).
+ *   It is created if {@link MetaData#hashindex} is set.</li>
  * </ul>
  *
  * @author BaseX Team 2005-12, BSD License
@@ -48,14 +62,24 @@ import org.basex.util.list.*;
  */
 public final class FTIndex implements Index {
   /** Entry size. */
-  private static final int ENTRY = 9;
+  static final int ENTRY = 9;
 
   /** Cached texts. Increases used memory, but speeds up repeated queries. */
   private final IntMap<byte[]> ctext = new IntMap<byte[]>();
   /** Levenshtein reference. */
   private final Levenshtein ls = new Levenshtein();
+  /** Bigrams of the indexed tokens ({@code null} for older databases). */
+  private final FTGrams grams;
+  /** Legacy format of the id/pos entries (sequences of compressed numbers). */
+  private final boolean legacy;
   /** Data reference. */
   private final Data data;
+  /** Number of indexed texts. */
+  private int texts;
+  /** Average length of the indexed texts. */
+  private double avglen;
+  /** Minimum length of the indexed texts. */
+  private int minlen;
 
   /** Index storing each unique token length and pointer
    * on the first token with this length. */
@@ -64,6 +88,10 @@ public final class FTIndex implements Index {
   final DataAccess inY;
   /** Storing pre and pos values for each token. */
   final DataAccess inZ;
+  /** Number of tokens of each node ({@code null} for older databases). */
+  private final DataAccess inC;
+  /** Hash dictionary of the tokens ({@code null} if it does not exist). */
+  private final IndexHash hash;
 
   /** Cache for number of hits and data reference per token. */
   final IndexCache cache = new IndexCache();
@@ -99,6 +127,33 @@ public final class FTIndex implements Index {
       tp[p] = r;
     }
     tp[tp.length - 1] = (int) inY.length();
+
+    // the bigram index and the statistics were introduced together with the block format
+    final IOFile gf = d.meta.dbfile(DATAFTX + 'g');
+    legacy = !gf.exists();
+    grams = legacy ? null : new FTGrams(gf);
+    inC = legacy ? null : new DataAccess(d.meta.dbfile(DATAFTX + 'c'));
+    if(!legacy) {
+      // skip offset of the last token length
+      inX.readNum();
+      inX.read4();
+      texts = inX.readNum();
+      avglen = Math.max(1, (double) inX.read5() / Math.max(1, texts));
+      minlen = inX.readNum();
+    }
+
+    final IOFile hf = d.meta.dbfile(DATAFTX + 'h');
+    hash = !hf.exists() ? null : new IndexHash(hf) {
+      @Override
+      protected boolean matches(final int value, final byte[] key) {
+        // check if the offset points to a token with the same length
+        final int tl = key.length, l = tl < tp.length - 1 ? tp[tl] : -1;
+        if(l == -1 || value < l) return false;
+        int r = -1;
+        for(int i = tl + 1; r == -1; i++) r = tp[i];
+        return value < r && eq(inY.readBytes(value, tl), key);
+      }
+    };
   }
 
   @Override
@@ -108,7 +163,15 @@ public final class FTIndex implements Index {
 
     // estimate costs for queries which stretch over multiple index entries
     final FTOpt opt = ((FTLexer) it).ftOpt();
-    if(opt.is(FZ) || opt.is(WC)) return Math.max(1, data.meta.size / 10);
+    if(opt.is(FZ) || opt.is(WC)) {
+      // leading wildcards can only be resolved via the bigram index
+      if(opt.is(WC)) {
+        final FTWildcard wc = new FTWildcard(tok);
+        if(wc.parse() && wc.prefix().length == 0 &&
+            (grams == null || !grams.filters(wc.chars()))) return Integer.MAX_VALUE;
+      }
+      return Math.max(1, data.meta.size / 10);
+    }
 
     return entry(tok).size;
   }
@@ -129,7 +192,7 @@ public final class FTIndex implements Index {
 
     // return cached or new result
     final IndexEntry e = entry(tok);
-    return e.size > 0 ? iter(e.pointer, e.size, inZ) : FTIndexIterator.FTEMPTY;
+    return e.size > 0 ? iter(e.pointer, e.size) : FTIndexIterator.FTEMPTY;
   }
 
   /**
@@ -227,7 +290,9 @@ public final class FTIndex implements Index {
     tb.addExt("- %: %" + NL, DIACRITICS, Util.flag(data.meta.diacritics));
     if(data.meta.language != null)
       tb.addExt("- %: %" + NL, LANGUAGE, data.meta.language);
-    final long l = inX.length() + inY.length() + inZ.length();
+    long l = inX.length() + inY.length() + inZ.length();
+    if(!legacy) l += inC.length() + grams.length();
+    if(hash != null) l += hash.length();
     tb.add(LI_SIZE + Performance.format(l, true) + NL);
 
     final IndexStats stats = new IndexStats(data);
@@ -241,6 +306,10 @@ public final class FTIndex implements Index {
     inX.close();
     inY.close();
     inZ.close();
+    if(!legacy) {
+      grams.close();
+      inC.close();
+    }
   }
 
   /**
@@ -249,6 +318,8 @@ public final class FTIndex implements Index {
    * @return int pointer or {@code -1} if token was not found
    */
   private int token(final byte[] token) {
+    if(hash != null) return hash.get(token);
+
     final int tl = token.length;
     // left limit
     int l = tp[tl];
@@ -294,6 +365,15 @@ public final class FTIndex implements Index {
     }
   }
 
+  /**
+   * Returns the number of tokens of the specified text node.
+   * @param pre pre value
+   * @return number of tokens, or {@code -1} if the information is not available
+   */
+  public synchronized int length(final int pre) {
+    return legacy ? -1 : inC.read4((long) pre << 2);
+  }
+
   /**
    * Gets the pointer on ftdata for a token.
    * @param pt pointer on token
@@ -321,25 +401,62 @@ public final class FTIndex implements Index {
    * @return iterator
    */
   private synchronized IndexIterator fuzzy(final byte[] token, final int k) {
-    FTIndexIterator it = FTIndexIterator.FTEMPTY;
-    final int tl = token.length;
-    final int e = Math.min(tp.length - 1, tl + k);
-    int s = Math.max(1, tl - k) - 1;
+    // pointers and lengths of the matching tokens
+    final IntList pts = new IntList();
+    final IntList lts = new IntList();
 
-    while(++s <= e) {
-      int p = tp[s];
-      if(p == -1) continue;
-      int i = s + 1;
-      int r = -1;
-      while(i < tp.length && r == -1) r = tp[i++];
-      while(p < r) {
+    final int tl = token.length;
+    final int e = Math.min(tp.length - 2, tl + k);
+    final IntList cands = grams != null ?
+      grams.candidates(token, k, tokens(tl - k, e)) : null;
+    if(cands != null) {
+      // only check tokens that share enough bigrams with the query token
+      final int[] lens = lengths(cands);
+      final int cs = cands.size();
+      for(int c = 0; c < cs; c++) {
+        final int p = cands.get(c), s = lens[c];
         if(ls.similar(inY.readBytes(p, s), token, k)) {
-          it = FTIndexIterator.union(iter(pointer(p, s), size(p, s), inZ), it);
+          pts.add(p);
+          lts.add(s);
+        }
+      }
+    } else {
+      // check all tokens with a similar length
+      int s = Math.max(1, tl - k) - 1;
+      while(++s <= e) {
+        int p = tp[s];
+        if(p == -1) continue;
+        int i = s + 1;
+        int r = -1;
+        while(i < tp.length && r == -1) r = tp[i++];
+        while(p < r) {
+          if(ls.similar(inY.readBytes(p, s), token, k)) {
+            pts.add(p);
+            lts.add(s);
+          }
+          p += s + ENTRY;
         }
-        p += s + ENTRY;
       }
     }
-    return it;
+    return merge(pts, lts);
+  }
+
+  /**
+   * Merges the sorted id/pos entries of the specified tokens.
+   * @param pts pointers on the tokens
+   * @param lts lengths of the tokens
+   * @return iterator
+   */
+  private FTIndexIterator merge(final IntList pts, final IntList lts) {
+    final int n = pts.size();
+    final FTPostings[] lists = new FTPostings[n];
+    int size = 0;
+    for(int t = 0; t < n; t++) {
+      final int p = pts.get(t), s = lts.get(t), sz = size(p, s);
+      lists[t] = new FTPostings(inZ, pointer(p, s), sz, legacy);
+      size += sz;
+    }
+    return iter(lists, size);
   }
 
   /**
@@ -348,14 +465,31 @@ public final class FTIndex implements Index {
    * @return iterator
    */
   private synchronized IndexIterator wc(final byte[] token) {
-    final FTIndexIterator it = FTIndexIterator.FTEMPTY;
     final FTWildcard wc = new FTWildcard(token);
-    if(!wc.parse()) return it;
+    if(!wc.parse()) return FTIndexIterator.FTEMPTY;
 
-    final IntList pr = new IntList();
-    final IntList ps = new IntList();
+    // pointers and lengths of the matching tokens
+    final IntList pts = new IntList();
+    final IntList lts = new IntList();
     final byte[] pref = wc.prefix();
-    final int l = Math.min(tp.length - 1, wc.max());
+    final int l = Math.min(tp.length - 2, wc.max());
+
+    // no prefix: only check tokens that contain the bigrams of the query
+    final IntList cands = pref.length == 0 && grams != null ?
+      grams.candidates(wc.chars(), tokens(1, l)) : null;
+    if(cands != null) {
+      final int[] lens = lengths(cands);
+      final int cs = cands.size();
+      for(int c = 0; c < cs; c++) {
+        final int p = cands.get(c), s = lens[c];
+        if(wc.match(inY.readBytes(p, s))) {
+          pts.add(p);
+          lts.add(s);
+        }
+      }
+      return merge(pts, lts);
+    }
+
     for(int ti = pref.length; ti <= l; ti++) {
       int i = tp[ti];
       if(i == -1) continue;
@@ -368,66 +502,136 @@ public final class FTIndex implements Index {
         final byte[] t = inY.readBytes(i, ti);
         if(!startsWith(t, pref)) break;
         if(wc.match(t)) {
-          inZ.cursor(pointer(i, ti));
-          final int s = size(i, ti);
-          for(int d = 0; d < s; d++) {
-            pr.add(inZ.readNum());
-            ps.add(inZ.readNum());
-          }
+          pts.add(i);
+          lts.add(ti);
         }
         i += ti + ENTRY;
       }
     }
-    return iter(new FTCache(pr, ps));
+    return merge(pts, lts);
+  }
+
+  /**
+   * Returns the number of tokens in the specified length range.
+   * @param min minimum length
+   * @param max maximum length
+   * @return number of tokens
+   */
+  private int tokens(final int min, final int max) {
+    int n = 0;
+    for(int s = Math.max(1, min); s <= max; s++) {
+      final int p = tp[s];
+      if(p == -1) continue;
+      int r = -1;
+      for(int i = s + 1; r == -1; i++) r = tp[i];
+      n += (r - p) / (s + ENTRY);
+    }
+    return n;
+  }
+
+  /**
+   * Returns the lengths of the tokens at the specified sorted offsets.
+   * @param offsets token offsets
+   * @return lengths
+   */
+  private int[] lengths(final IntList offsets) {
+    final int os = offsets.size();
+    final int[] lens = new int[os];
+    for(int o = 0, s = -1, r = 0; o < os; o++) {
+      final int p = offsets.get(o);
+      while(p >= r) {
+        if(tp[++s] == -1) continue;
+        r = -1;
+        for(int i = s + 1; r == -1; i++) r = tp[i];
+      }
+      lens[o] = s;
+    }
+    return lens;
   }
 
   /**
    * Returns an iterator for an index entry.
    * @param off offset on entries
    * @param size number of id/pos entries
-   * @param da data source
    * @return iterator
    */
-  private FTIndexIterator iter(final long off, final int size, final DataAccess da) {
-    da.cursor(off);
-    final IntList pr = new IntList(size);
-    final IntList ps = new IntList(size);
-    for(int c = 0; c < size; c++) {
-      pr.add(da.readNum());
-      ps.add(da.readNum());
-    }
-    return iter(new FTCache(pr, ps));
+  private FTIndexIterator iter(final long off, final int size) {
+    return iter(new FTPostings[] { new FTPostings(inZ, off, size, legacy) }, size);
   }
 
   /**
-   * Returns an iterator for an index entry.
-   * @param ftc id cache
+   * Returns an iterator for the specified entries.
+   * The entries are merged with a heap, which is ordered by the current
+   * pre and pos values of the entries. If statistics are available and
+   * {@link Prop#BM25} is enabled, BM25 scores are computed for the results.
+   * Otherwise, the default scores are computed when they are requested.
+   * @param lists entries
+   * @param size total number of id/pos entries
    * @return iterator
    */
-  private synchronized FTIndexIterator iter(final FTCache ftc) {
-    final int size = ftc.pre.size();
+  private FTIndexIterator iter(final FTPostings[] lists, final int size) {
+    int n = 0, tf = 0;
+    long df = 0;
+    for(final FTPostings l : lists) {
+      df += l.texts;
+      tf += l.freq;
+      if(l.more()) lists[n++] = l;
+    }
+    final int hs = n;
+    for(int h = hs / 2 - 1; h >= 0; h--) sift(lists, h, hs);
+
+    // inverse document frequency and upper bound of the scores
+    final boolean bm25 = !legacy && data.meta.prop.is(Prop.BM25);
+    final double idf = bm25 ? Scoring.idf(Math.min(df, texts), texts) : -1;
+    final double max = bm25 ? Scoring.bm25(idf, tf, minlen, avglen) : -1;
 
     return new FTIndexIterator() {
       final FTMatches all = new FTMatches(toknum);
-      int pre, c;
+      int pre, freq, heap = hs;
 
       @Override
       public synchronized boolean more() {
-        if(c == size) return false;
+        if(heap == 0) return false;
         all.reset(toknum);
-        pre = ftc.pre.get(ftc.order[c]);
-        all.or(ftc.pos.get(ftc.order[c++]));
-        while(c < size && pre == ftc.pre.get(ftc.order[c])) {
-          all.or(ftc.pos.get(ftc.order[c++]));
-        }
+        pre = lists[0].pre();
+        freq = 0;
+        do {
+          freq++;
+          all.or(lists[0].pos());
+          if(!lists[0].more()) lists[0] = lists[--heap];
+          sift(lists, 0, heap);
+        } while(heap > 0 && lists[0].pre() == pre);
         return true;
       }
 
+      @Override
+      public synchronized boolean skip(final int target) {
+        // skip entries with smaller pre values and rebuild heap
+        int h = 0;
+        for(int l = 0; l < heap; l++) {
+          final FTPostings fp = lists[l];
+          if(fp.pre() >= target || fp.skip(target)) lists[h++] = fp;
+        }
+        heap = h;
+        for(int i = heap / 2 - 1; i >= 0; i--) sift(lists, i, heap);
+        return more();
+      }
+
       @Override
       public synchronized FTMatches matches() {
         return all;
       }
 
+      @Override
+      public synchronized double score() {
+        return bm25 ? Scoring.bm25(idf, freq, inC.read4((long) pre << 2), avglen) : -1;
+      }
+
+      @Override
+      public double max() {
+        return max;
+      }
+
       @Override
       public synchronized int next() {
         return pre;
@@ -446,28 +650,34 @@ public final class FTIndex implements Index {
   }
 
   /**
-   * Full-text cache.
+   * Moves a heap entry down to its correct position.
+   * @param heap heap with entries
+   * @param i index of the entry to be moved
+   * @param hs heap size
    */
-  static final class FTCache {
-    /** Order. */
-    int[] order;
-    /** Pre values. */
-    IntList pre;
-    /** Pos values. */
-    IntList pos;
-
-    /**
-     * Constructor.
-     * @param pr pre values
-     * @param ps positions
-     */
-    FTCache(final IntList pr, final IntList ps) {
-      final int s = pr.size();
-      final double[] v = new double[s];
-      for(int i = 0; i < s; i++) v[i] = (long) pr.get(i) << 32 | ps.get(i);
-      order = Array.createOrder(v, true);
-      pre = pr;
-      pos = ps;
+  private static void sift(final FTPostings[] heap, final int i, final int hs) {
+    int h = i;
+    final FTPostings fp = heap[h];
+    while(true) {
+      int c = (h << 1) + 1;
+      if(c >= hs) break;
+      if(c + 1 < hs && smaller(heap[c + 1], heap[c])) c++;
+      if(!smaller(heap[c], fp)) break;
+      heap[h] = heap[c];
+      h = c;
     }
+    heap[h] = fp;
+  }
+
+  /**
+   * Checks if the current entry of the first list is smaller than the
+   * current entry of the second list.
+   * @param fp1 first list
+   * @param fp2 second list
+   * @return result of check
+   */
+  private static boolean smaller(final FTPostings fp1, final FTPostings fp2) {
+    final int p1 = fp1.pre(), p2 = fp2.pre();
+    return p1 < p2 || p1 == p2 && fp1.pos() < fp2.pos();
   }
 }
@@ -6,9 +6,8 @@ import org.basex.util.hash.*;
 import org.basex.util.list.*;
 
 /**
- * This class indexes full-text tokens in a balanced binary tree, including
- * their pre and pos values. An iterator returns all compressed pre and pos
- * values in a sorted manner.
+ * This class indexes full-text tokens, including their pre and pos values.
+ * An iterator returns all compressed pre and pos values in a sorted manner.
  *
  * @author BaseX Team 2005-12, BSD License
  * @author Christian Gruen
@@ -78,7 +77,7 @@ final class FTIndexTree extends IndexTree {
    * @return byte[] next token
    */
   byte[] nextTok() {
-    return keys.get(lcn);
+    return key(lcn);
   }
 
   /**
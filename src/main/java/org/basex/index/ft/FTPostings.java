@@ -0,0 +1,307 @@
+package org.basex.index.ft;
+
+import java.io.*;
+
+import org.basex.io.out.DataOutput;
+import org.basex.io.random.*;
+
+/**
+ * This class reads and writes the {@code pre/pos} entries of a single token
+ * of the full-text index. The entries are stored in blocks, which can be
+ * decoded independently:
+ *
+ * <ul>
+ * <li>The number of texts containing the token and the maximum number of
+ *   occurrences in a single text [{@link org.basex.util.Num}]. These values
+ *   are used for computing scores.</li>
+ * <li>If a token has more than {@link #BLOCK} entries, a skip table is
+ *   stored first. For each block, it contains the distance of its last
+ *   pre value to the last pre value of the previous block, and the byte
+ *   length of the block [{@link org.basex.util.Num}].</li>
+ * <li>Each block starts with the bit widths of the pre distances and the
+ *   pos values [byte, byte]. The bit-packed pre distances and pos values
+ *   follow.</li>
+ * </ul>
+ *
+ * <p>The skip table allows iterators to skip all blocks with smaller pre
+ * values without decoding them. Entries of older databases, which are stored
+ * as sequences of compressed numbers, are read completely.</p>
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+final class FTPostings {
+  /** Number of entries per block. */
+  static final int BLOCK = 128;
+
+  /** Number of texts containing the token ({@code 0} for older databases). */
+  final int texts;
+  /** Maximum number of occurrences in a single text. */
+  final int freq;
+
+  /** Data access. */
+  private final DataAccess da;
+  /** Number of entries. */
+  private final int size;
+  /** Number of blocks. */
+  private final int blocks;
+  /** Last pre value of each block ({@code null} for a single block). */
+  private int[] lasts;
+  /** Offsets of the blocks. */
+  private long[] offsets;
+  /** Pre values of the current block. */
+  private final int[] pres;
+  /** Pos values of the current block. */
+  private final int[] poss;
+  /** Current block. */
+  private int block = -1;
+  /** Number of entries in the current block. */
+  private int bs;
+  /** Current entry in the block. */
+  private int e = -1;
+
+  /**
+   * Constructor.
+   * @param data data access
+   * @param off offset of the entries
+   * @param s number of entries
+   * @param legacy legacy format (sequence of compressed numbers)
+   */
+  FTPostings(final DataAccess data, final long off, final int s,
+      final boolean legacy) {
+
+    da = data;
+    size = s;
+    if(legacy) {
+      // read all entries at once
+      blocks = 1;
+      block = 0;
+      bs = s;
+      texts = 0;
+      freq = 0;
+      pres = new int[s];
+      poss = new int[s];
+      synchronized(da) {
+        da.cursor(off);
+        for(int i = 0; i < s; i++) {
+          pres[i] = da.readNum();
+          poss[i] = da.readNum();
+        }
+      }
+    } else {
+      blocks = (s + BLOCK - 1) / BLOCK;
+      offsets = new long[blocks];
+      pres = new int[Math.min(s, BLOCK)];
+      poss = new int[pres.length];
+      final int[] lens = new int[blocks];
+      long o;
+      synchronized(da) {
+        da.cursor(off);
+        texts = da.readNum();
+        freq = da.readNum();
+        if(blocks > 1) {
+          // read skip table
+          lasts = new int[blocks];
+          for(int b = 0, l = 0; b < blocks; b++) {
+            l += da.readNum();
+            lasts[b] = l;
+            lens[b] = da.readNum();
+          }
+        }
+        o = da.cursor();
+      }
+      for(int b = 0; b < blocks; b++) {
+        offsets[b] = o;
+        o += lens[b];
+      }
+    }
+  }
+
+  /**
+   * Moves the cursor to the next entry.
+   * @return {@code true} if another entry was found
+   */
+  boolean more() {
+    if(++e < bs) return true;
+    if(block + 1 >= blocks) {
+      e = bs;
+      return false;
+    }
+    decode(++block);
+    e = 0;
+    return true;
+  }
+
+  /**
+   * Moves the cursor to the next entry with a pre value that is equal to or
+   * greater than the specified value.
+   * @param pre pre value
+   * @return {@code true} if an entry was found
+   */
+  boolean skip(final int pre) {
+    if(lasts != null && (block == -1 || lasts[block] < pre)) {
+      // find first block with a last pre value equal to or greater than the target
+      int l = block + 1, h = blocks - 1;
+      if(lasts[h] < pre) {
+        block = h;
+        bs = 0;
+        e = 0;
+        return false;
+      }
+      while(l < h) {
+        final int m = l + h >>> 1;
+        if(lasts[m] < pre) l = m + 1;
+        else h = m;
+      }
+      decode(l);
+      block = l;
+      e = -1;
+    }
+    while(more()) if(pres[e] >= pre) return true;
+    return false;
+  }
+
+  /**
+   * Returns the pre value of the current entry.
+   * @return pre value
+   */
+  int pre() {
+    return pres[e];
+  }
+
+  /**
+   * Returns the pos value of the current entry.
+   * @return pos value
+   */
+  int pos() {
+    return poss[e];
+  }
+
+  /**
+   * Decodes the specified block.
+   * @param b block
+   */
+  private void decode(final int b) {
+    final int m = Math.min(BLOCK, size - b * BLOCK);
+    final long o = offsets[b];
+    final int bp = da.read1(o) & 0xFF, bo = da.read1(o + 1) & 0xFF;
+    final byte[] in = da.readBytes(o + 2, (m * (bp + bo) + 7) >>> 3);
+    int p = b == 0 ? 0 : lasts[b - 1];
+    int bit = 0;
+    for(int i = 0; i < m; i++) {
+      p += get(in, bit, bp);
+      pres[i] = p;
+      bit += bp;
+    }
+    for(int i = 0; i < m; i++) {
+      poss[i] = get(in, bit, bo);
+      bit += bo;
+    }
+    bs = m;
+  }
+
+  /**
+   * Writes the specified entries.
+   * @param out output stream
+   * @param pr pre values
+   * @param ps pos values
+   * @param s number of entries
+   * @throws IOException I/O exception
+   */
+  static void write(final DataOutput out, final int[] pr, final int[] ps,
+      final int s) throws IOException {
+
+    // count texts and maximum number of occurrences
+    int tx = 0, fr = 0;
+    for(int i = 0, f = 0; i < s; i++) {
+      f = i > 0 && pr[i] == pr[i - 1] ? f + 1 : 1;
+      if(f == 1) tx++;
+      fr = Math.max(fr, f);
+    }
+    out.writeNum(tx);
+    out.writeNum(fr);
+
+    final int nb = (s + BLOCK - 1) / BLOCK;
+    final byte[][] bl = new byte[nb][];
+    for(int b = 0; b < nb; b++) {
+      final int st = b * BLOCK, en = Math.min(s, st + BLOCK);
+      // compute bit widths
+      int mp = 0, mo = 0;
+      for(int i = st; i < en; i++) {
+        mp |= pr[i] - (i == 0 ? 0 : pr[i - 1]);
+        mo |= ps[i];
+      }
+      final int bp = bits(mp), bo = bits(mo);
+      final byte[] block = new byte[2 + ((en - st) * (bp + bo) + 7 >>> 3)];
+      block[0] = (byte) bp;
+      block[1] = (byte) bo;
+      int bit = 16;
+      for(int i = st; i < en; i++) {
+        put(block, bit, pr[i] - (i == 0 ? 0 : pr[i - 1]), bp);
+        bit += bp;
+      }
+      for(int i = st; i < en; i++) {
+        put(block, bit, ps[i], bo);
+        bit += bo;
+      }
+      bl[b] = block;
+    }
+
+    // write skip table
+    if(nb > 1) {
+      for(int b = 0, l = 0; b < nb; b++) {
+        final int last = pr[Math.min(s, (b + 1) * BLOCK) - 1];
+        out.writeNum(last - l);
+        out.writeNum(bl[b].length);
+        l = last;
+      }
+    }
+    for(final byte[] b : bl) out.writeBytes(b);
+  }
+
+  /**
+   * Returns the number of bits required to store the specified value.
+   * @param v value
+   * @return number of bits
+   */
+  private static int bits(final int v) {
+    return 32 - Integer.numberOfLeadingZeros(v);
+  }
+
+  /**
+   * Stores a value with the specified number of bits.
+   * @param array array
+   * @param bit bit offset
+   * @param v value
+   * @param n number of bits
+   */
+  private static void put(final byte[] array, final int bit, final int v,
+      final int n) {
+
+    int b = bit, r = n;
+    while(r > 0) {
+      final int o = b & 7, t = Math.min(8 - o, r);
+      array[b >>> 3] |= (v >>> r - t & (1 << t) - 1) << 8 - o - t;
+      b += t;
+      r -= t;
+    }
+  }
+
+  /**
+   * Returns a value with the specified number of bits.
+   * @param array array
+   * @param bit bit offset
+   * @param n number of bits
+   * @return value
+   */
+  private static int get(final byte[] array, final int bit, final int n) {
+    int v = 0, b = bit, r = n;
+    while(r > 0) {
+      final int o = b & 7, t = Math.min(8 - o, r);
+      v = v << t | array[b >>> 3] >>> 8 - o - t & (1 << t) - 1;
+      b += t;
+      r -= t;
+    }
+    return v;
+  }
+}
@@ -15,13 +15,13 @@ import org.basex.util.hash.*;
 
 /**
  * This class indexes and organizes the tags or attribute names,
- * used in an XML document.
+ * used in an XML document. The names are stored in a {@link TokenArena}.
  *
  * @author BaseX Team 2005-12, BSD License
  * @author Christian Gruen
  * @author Lukas Kircher
  */
-public final class Names extends TokenSet implements Index {
+public final class Names extends TokenArena implements Index {
   /** Statistical information. */
   protected Stats[] stats;
   /** Meta data. */
@@ -44,15 +44,16 @@ public final class Names extends TokenSet implements Index {
    */
   public Names(final DataInput in, final MetaData md) throws IOException {
     super(in);
-    stats = new Stats[keys.length];
+    stats = new Stats[size() + 1];
     meta = md;
-    for(int s = 1; s < size; ++s) stats[s] = new Stats(in);
+    for(int s = 1; s < stats.length; ++s) stats[s] = new Stats(in);
   }
 
   /**
    * Initializes the statistics.
    */
   public void init() {
+    final int size = size() + 1;
     for(int s = 1; s < size; ++s) stats[s] = new Stats();
   }
 
@@ -65,6 +66,7 @@ public final class Names extends TokenSet implements Index {
    */
   public int index(final byte[] n, final byte[] v, final boolean st) {
     final int i = Math.abs(add(n));
+    if(i == stats.length) stats = Arrays.copyOf(stats, i << 1);
     if(st) {
       if(stats[i] == null) stats[i] = new Stats();
       final Stats stat = stats[i];
@@ -87,6 +89,7 @@ public final class Names extends TokenSet implements Index {
   @Override
   public void write(final DataOutput out) throws IOException {
     super.write(out);
+    final int size = size() + 1;
     for(int s = 1; s < size; ++s) {
       if(stats[s] == null) stats[s] = new Stats();
       stats[s].write(out);
@@ -104,11 +107,12 @@ public final class Names extends TokenSet implements Index {
 
   @Override
   public byte[] info() {
+    final int size = size() + 1;
     final int[] tl = new int[size];
     int len = 0;
     tl[0] = 0;
     for(int i = 1; i < size; ++i) {
-      if(len < keys[i].length) len = keys[i].length;
+      len = Math.max(len, key(i).length);
       if(stats[i] == null) continue;
       tl[i] = stats[i].count;
     }
@@ -123,7 +127,7 @@ public final class Names extends TokenSet implements Index {
     for(int i = 0; i < size - 1; ++i) {
       final int s = ids[i];
       if(stats[s] == null) continue;
-      final byte[] key = keys[s];
+      final byte[] key = key(s);
       tb.add("  ");
       tb.add(key);
       for(int j = 0; j < len - key.length; ++j) tb.add(' ');
@@ -136,17 +140,11 @@ public final class Names extends TokenSet implements Index {
   public EntryIterator entries(final IndexEntries entries) {
     return new EntryIterator() {
       int c;
-      @Override public byte[] next() { return ++c < size ? keys[c] : null; }
+      @Override public byte[] next() { return ++c <= size() ? key(c) : null; }
       @Override public int count() { return stats[c].count; }
     };
   }
 
-  @Override
-  protected void rehash() {
-    super.rehash();
-    stats = Arrays.copyOf(stats, size << 1);
-  }
-
   @Override
   public void close() { }
 
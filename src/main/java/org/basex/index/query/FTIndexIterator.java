@@ -1,6 +1,7 @@
 package org.basex.index.query;
 
 import org.basex.data.*;
+import org.basex.util.ft.*;
 
 /**
  * This interface provides methods for returning index results.
@@ -30,6 +31,22 @@ public abstract class FTIndexIterator extends IndexIterator {
    */
   public abstract FTMatches matches();
 
+  /**
+   * Returns the score of the current result.
+   * @return score, or {@code -1} if no index statistics are available
+   */
+  public double score() {
+    return -1;
+  }
+
+  /**
+   * Returns an upper bound for the scores of all results.
+   * @return upper bound, or {@code -1} if no index statistics are available
+   */
+  public double max() {
+    return -1;
+  }
+
   /**
    * Sets the unique token number. Used for visualization.
    * @param tn number of tokens
@@ -55,6 +72,22 @@ public abstract class FTIndexIterator extends IndexIterator {
       public boolean more() {
         if(c <= 0) r = i1.more() ? i1 : null;
         if(c >= 0) s = i2.more() ? i2 : null;
+        return find();
+      }
+
+      @Override
+      public boolean skip(final int target) {
+        // iterators with pending results are only moved if their result is smaller
+        if(c <= 0 || r != null && r.next() < target) r = i1.skip(target) ? i1 : null;
+        if(c >= 0 || s != null && s.next() < target) s = i2.skip(target) ? i2 : null;
+        return find();
+      }
+
+      /**
+       * Chooses the iterator with the smaller result.
+       * @return true if another result was found
+       */
+      private boolean find() {
         c = r != null && s != null ? r.next() - s.next() : r != null ? -1 : 1;
         n = c <= 0 ? r : s;
         return n != null;
@@ -67,6 +100,16 @@ public abstract class FTIndexIterator extends IndexIterator {
         return m;
       }
 
+      @Override
+      public double score() {
+        return c == 0 ? combine(r.score(), s.score()) : n.score();
+      }
+
+      @Override
+      public double max() {
+        return combine(i1.max(), i2.max());
+      }
+
       @Override
       public int next() {
         return n.next();
@@ -101,29 +144,54 @@ public abstract class FTIndexIterator extends IndexIterator {
       final FTIndexIterator i2, final int dis) {
 
     return new FTIndexIterator() {
-      FTIndexIterator r, s;
-
       @Override
       public boolean more() {
-        int c = 0;
+        return i1.more() && find();
+      }
+
+      @Override
+      public boolean skip(final int target) {
+        return i1.skip(target) && find();
+      }
+
+      /**
+       * Moves both iterators to the next common result, starting from the
+       * current result of the first iterator. Iterators with smaller results
+       * skip all entries that are smaller than the result of the other one.
+       * @return true if another result was found
+       */
+      private boolean find() {
+        if(!i2.skip(i1.next())) return false;
         while(true) {
-          if(c <= 0) r = i1.more() ? i1 : null;
-          if(c >= 0) s = i2.more() ? i2 : null;
-          if(r == null || s == null) return false;
-          c = r.next() - s.next();
-          if(c == 0 && (dis == 0 || r.matches().phrase(s.matches(), dis)))
-            return true;
+          final int p1 = i1.next(), p2 = i2.next();
+          if(p1 == p2) {
+            if(dis == 0 || i1.matches().phrase(i2.matches(), dis)) return true;
+            if(!i1.more()) return false;
+          } else if(!i1.skip(p2)) {
+            return false;
+          }
+          if(i1.next() != i2.next() && !i2.skip(i1.next())) return false;
         }
       }
 
       @Override
       public FTMatches matches() {
-        return r.matches();
+        return i1.matches();
+      }
+
+      @Override
+      public double score() {
+        return combine(i1.score(), i2.score());
+      }
+
+      @Override
+      public double max() {
+        return combine(i1.max(), i2.max());
       }
 
       @Override
       public int next() {
-        return r.next();
+        return i1.next();
       }
 
       @Override
@@ -143,4 +211,14 @@ public abstract class FTIndexIterator extends IndexIterator {
       }
     };
   }
+
+  /**
+   * Combines the scores of two iterators.
+   * @param s1 first score
+   * @param s2 second score
+   * @return combined score, or {@code -1} if one of the scores is unknown
+   */
+  static double combine(final double s1, final double s2) {
+    return s1 < 0 || s2 < 0 ? -1 : Scoring.and(s1, s2);
+  }
 }
@@ -0,0 +1,211 @@
+package org.basex.index.query;
+
+import java.util.*;
+
+import org.basex.util.ft.*;
+
+/**
+ * This class collects the best-scoring results of a full-text query.
+ * The results are stored in a heap, the root of which is the worst result.
+ * If two results have the same score, the result with the smaller pre value
+ * is preferred.
+ *
+ * <p>The results of several index iterators can be ranked with the MaxScore
+ * algorithm: the iterators are ordered by the upper bounds of their scores.
+ * If the combined bounds of the iterators with the smallest bounds do not
+ * exceed the score of the worst top result, results that only occur in these
+ * iterators cannot be part of the top results anymore. The iterators are then
+ * only used to complete the scores of the remaining candidates, and the
+ * candidates are discarded as soon as they cannot reach the required score.
+ * </p>
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class FTRanking {
+  /** Maximum number of results. */
+  private final int max;
+  /** Pre values. */
+  private int[] pres;
+  /** Scores. */
+  private double[] scores;
+  /** Number of results. */
+  private int size;
+
+  /**
+   * Constructor.
+   * @param k maximum number of results
+   */
+  public FTRanking(final int k) {
+    max = k;
+    pres = new int[Math.min(k, 1 << 8)];
+    scores = new double[pres.length];
+  }
+
+  /**
+   * Ranks the results of the specified iterators. The scores of a result are
+   * combined in the order of the iterators.
+   * @param iters iterators
+   * @return {@code true} if the results were ranked, or {@code false} if no
+   * upper bounds are available for the scores
+   */
+  public boolean rank(final FTIndexIterator[] iters) {
+    // skip iterators without results
+    final FTIndexIterator[] its = new FTIndexIterator[iters.length];
+    int n = 0;
+    for(final FTIndexIterator it : iters) {
+      if(it.size() == 0) continue;
+      if(it.max() < 0) return false;
+      its[n++] = it;
+    }
+
+    // order iterators by their upper bounds and combine bounds
+    final int[] ord = new int[n];
+    final double[] bounds = new double[n];
+    for(int i = 0; i < n; i++) {
+      final double m = its[i].max();
+      int j = i;
+      for(; j > 0 && its[ord[j - 1]].max() > m; j--) ord[j] = ord[j - 1];
+      ord[j] = i;
+    }
+    for(int i = 0; i < n; i++) {
+      final double m = its[ord[i]].max();
+      bounds[i] = i == 0 ? m : Scoring.and(bounds[i - 1], m);
+    }
+
+    // current pre values of the iterators (-1: no more results)
+    final int[] curr = new int[n];
+    for(int i = 0; i < n; i++) curr[i] = its[i].more() ? its[i].next() : -1;
+    final double[] sc = new double[n];
+    // offset of the first iterator that can yield new candidates
+    int ess = 0;
+    while(true) {
+      final double min = min();
+      while(ess < n && bounds[ess] <= min) ess++;
+
+      // find next candidate
+      int pre = Integer.MAX_VALUE;
+      for(int i = ess; i < n; i++) {
+        final int c = curr[ord[i]];
+        if(c != -1 && c < pre) pre = c;
+      }
+      if(pre == Integer.MAX_VALUE) break;
+
+      Arrays.fill(sc, -1);
+      double s = 0;
+      for(int i = ess; i < n; i++) {
+        final int t = ord[i];
+        if(curr[t] != pre) continue;
+        sc[t] = its[t].score();
+        s = Scoring.and(s, sc[t]);
+        curr[t] = its[t].more() ? its[t].next() : -1;
+      }
+      // complete score, skip candidate if it cannot reach the minimum score
+      boolean skip = false;
+      for(int i = ess - 1; i >= 0 && !skip; i--) {
+        skip = Scoring.and(s, bounds[i]) <= min;
+        final int t = ord[i];
+        if(skip || curr[t] == -1 || curr[t] > pre) continue;
+        if(curr[t] < pre) curr[t] = its[t].skip(pre) ? its[t].next() : -1;
+        if(curr[t] == pre) {
+          sc[t] = its[t].score();
+          s = Scoring.and(s, sc[t]);
+        }
+      }
+      if(skip) continue;
+
+      double score = -1;
+      for(int t = 0; t < n; t++) {
+        if(sc[t] >= 0) score = score < 0 ? sc[t] : Scoring.and(sc[t], score);
+      }
+      add(pre, score);
+    }
+    return true;
+  }
+
+  /**
+   * Adds a result. Results must be added in ascending order of their pre values.
+   * @param pre pre value
+   * @param score score
+   */
+  public void add(final int pre, final double score) {
+    if(size < max) {
+      if(size == pres.length) {
+        final int s = (int) Math.min(max, (long) size << 1);
+        pres = Arrays.copyOf(pres, s);
+        scores = Arrays.copyOf(scores, s);
+      }
+      // move new entry up
+      int i = size++;
+      while(i > 0) {
+        final int p = i - 1 >>> 1;
+        if(scores[p] < score) break;
+        pres[i] = pres[p];
+        scores[i] = scores[p];
+        i = p;
+      }
+      pres[i] = pre;
+      scores[i] = score;
+    } else if(score > scores[0]) {
+      pres[0] = pre;
+      scores[0] = score;
+      down(size);
+    }
+  }
+
+  /**
+   * Returns the pre values of the results, ordered by descending score.
+   * @return pre values
+   */
+  public int[] pres() {
+    final int[] ps = new int[size];
+    for(int s = size - 1; s >= 0; s--) {
+      ps[s] = pres[0];
+      pres[0] = pres[s];
+      scores[0] = scores[s];
+      down(s);
+    }
+    size = 0;
+    return ps;
+  }
+
+  /**
+   * Returns the minimum score that is required for new results.
+   * @return minimum score, or {@code -1} if more results are accepted
+   */
+  private double min() {
+    return size < max ? -1 : scores[0];
+  }
+
+  /**
+   * Moves the root entry down to its correct position.
+   * @param hs heap size
+   */
+  private void down(final int hs) {
+    final int pre = pres[0];
+    final double score = scores[0];
+    int h = 0;
+    while(true) {
+      int c = (h << 1) + 1;
+      if(c >= hs) break;
+      if(c + 1 < hs && worse(c + 1, c)) c++;
+      if(!(scores[c] < score || scores[c] == score && pres[c] > pre)) break;
+      pres[h] = pres[c];
+      scores[h] = scores[c];
+      h = c;
+    }
+    pres[h] = pre;
+    scores[h] = score;
+  }
+
+  /**
+   * Checks if the first entry is worse than the second one.
+   * @param e1 first entry
+   * @param e2 second entry
+   * @return result of check
+   */
+  private boolean worse(final int e1, final int e2) {
+    final double s1 = scores[e1], s2 = scores[e2];
+    return s1 < s2 || s1 == s2 && pres[e1] > pres[e2];
+  }
+}
@@ -29,6 +29,18 @@ public abstract class IndexIterator {
    */
   public abstract int next();
 
+  /**
+   * Moves the iterator to the next result that is equal to or greater than
+   * the specified value. Iterators on sorted index entries can overwrite this
+   * method to skip results without evaluating them.
+   * @param target value to be found
+   * @return true if another result was found
+   */
+  public boolean skip(final int target) {
+    while(more()) if(next() >= target) return true;
+    return false;
+  }
+
   /**
    * Returns the total number of index results.
    * The iterator may get exhausted by calling this method.
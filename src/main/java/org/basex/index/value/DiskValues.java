@@ -10,6 +10,7 @@ import org.basex.data.*;
 import org.basex.index.*;
 import org.basex.index.query.*;
 import org.basex.index.stats.*;
+import org.basex.io.*;
 import org.basex.io.random.*;
 import org.basex.util.*;
 import org.basex.util.hash.*;
@@ -37,6 +38,8 @@ public class DiskValues implements Index {
   protected final IndexCache cache = new IndexCache();
   /** Cached texts. Increases used memory, but speeds up repeated queries. */
   protected final IntMap<byte[]> ctext = new IntMap<byte[]>();
+  /** Hash dictionary ({@code null} if it does not exist). */
+  private final IndexHash hash;
 
   /**
    * Constructor, initializing the index structure.
@@ -59,16 +62,25 @@ public class DiskValues implements Index {
       throws IOException {
     data = d;
     text = txt;
-    idxl = new DataAccess(d.meta.dbfile(pref + 'l'));
-    idxr = new DataAccess(d.meta.dbfile(pref + 'r'));
+    final Journal jr = d instanceof DiskData ? ((DiskData) d).journal() : null;
+    idxl = new DataAccess(d.meta.dbfile(pref + 'l'), jr);
+    idxr = new DataAccess(d.meta.dbfile(pref + 'r'), jr);
     size = idxl.read4();
+    // hash dictionaries are not updated and only created for static indexes
+    final IOFile hf = d.meta.dbfile(pref + 'h');
+    hash = d.meta.updindex || !hf.exists() ? null : new IndexHash(hf) {
+      @Override
+      protected boolean matches(final int value, final byte[] key) {
+        return eq(key(value), key);
+      }
+    };
   }
 
   @Override
   public synchronized byte[] info() {
     final TokenBuilder tb = new TokenBuilder();
     tb.add(LI_STRUCTURE + SORTED_LIST + NL);
-    final long l = idxl.length() + idxr.length();
+    final long l = idxl.length() + idxr.length() + (hash != null ? hash.length() : 0);
     tb.add(LI_SIZE + Performance.format(l, true) + NL);
     final IndexStats stats = new IndexStats(data);
     for(int m = 0; m < size; ++m) {
@@ -109,7 +121,7 @@ public class DiskValues implements Index {
     final IndexEntry e = cache.get(tok);
     if(e != null) return e;
 
-    final long p = get(tok);
+    final long p = hash != null ? hash.get(tok) : get(tok);
     if(p < 0) return new IndexEntry(tok, 0, 0);
 
     // get position in heap file
@@ -247,6 +259,19 @@ public class DiskValues implements Index {
         return ids.get(p);
       }
 
+      @Override
+      public boolean skip(final int target) {
+        // find first result that is equal to or greater than the target
+        int l = p + 1, h = s;
+        while(l < h) {
+          final int m = l + h >>> 1;
+          if(ids.get(m) < target) l = m + 1;
+          else h = m;
+        }
+        p = l;
+        return p < s;
+      }
+
       @Override
       public int size() {
         return s;
@@ -285,15 +310,7 @@ public class DiskValues implements Index {
     int l = first, h = last;
     while(l <= h) {
       final int m = l + h >>> 1;
-      byte[] txt = ctext.get(m);
-      if(txt == null) {
-        // read and ignore the number of ids in the list
-        final long pos = idxr.read5(m * 5L);
-        idxl.readNum(pos);
-        txt = data.text(pre(idxl.readNum()), text);
-        ctext.add(m, txt);
-      }
-      final int d = diff(txt, key);
+      final int d = diff(key(m), key);
       if(d == 0) return m;
       if(d < 0) l = m + 1;
       else h = m - 1;
@@ -301,6 +318,23 @@ public class DiskValues implements Index {
     return -(l + 1);
   }
 
+  /**
+   * Returns the key of the specified index entry.
+   * @param m index of the entry
+   * @return key
+   */
+  private byte[] key(final int m) {
+    byte[] txt = ctext.get(m);
+    if(txt == null) {
+      // read and ignore the number of ids in the list
+      final long pos = idxr.read5(m * 5L);
+      idxl.readNum(pos);
+      txt = data.text(pre(idxl.readNum()), text);
+      ctext.add(m, txt);
+    }
+    return txt;
+  }
+
   /**
    * Flushes the buffered data.
    */
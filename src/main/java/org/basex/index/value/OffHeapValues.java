@@ -0,0 +1,240 @@
+package org.basex.index.value;
+
+import static org.basex.core.Text.*;
+import static org.basex.util.Token.*;
+
+import java.util.*;
+
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.index.stats.*;
+import org.basex.io.*;
+import org.basex.io.random.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * This class provides a main memory index for the texts or attribute values of
+ * a database that is stored outside the Java heap (see {@link TextOffHeapAccess}).
+ *
+ * <p>The keys are not copied to the Java heap: each distinct key is referenced
+ * by the offset of its first occurrence in the text heap, or by its inlined
+ * integer value. The keys and the linked lists with the ids of all occurrences
+ * are stored in a small number of primitive arrays, which need not be traversed
+ * by the garbage collector.</p>
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class OffHeapValues implements Index {
+  /** Initial hash capacity. */
+  private static final int CAP = ElementList.CAP;
+
+  /** Data instance. */
+  private final Data data;
+  /** Texts or attribute values. */
+  private final TextOffHeapAccess texts;
+
+  /** Offsets of the keys. Note: actual number of keys is {@code size - 1}. */
+  private long[] offs = new long[CAP];
+  /** Hash values of the keys. */
+  private int[] hashes = new int[CAP];
+  /** Pointers to the next key. */
+  private int[] next = new int[CAP];
+  /** Hash table buckets. */
+  private int[] bucket = new int[CAP];
+  /** First and last id entry of each key. */
+  private int[] first = new int[CAP], last = new int[CAP];
+  /** Number of ids of each key. */
+  private int[] len = new int[CAP];
+  /** Number of keys. */
+  private int size = 1;
+
+  /** Ids (pre values, or id values if the index is updatable). */
+  private int[] ids = new int[CAP];
+  /** Pointers to the next id entry of the same key. */
+  private int[] nextId = new int[CAP];
+  /** Number of id entries. */
+  private int idSize = 1;
+
+  /**
+   * Constructor.
+   * @param d data instance
+   * @param t texts or attribute values
+   */
+  public OffHeapValues(final Data d, final TextOffHeapAccess t) {
+    data = d;
+    texts = t;
+  }
+
+  @Override
+  public IndexIterator iter(final IndexToken tok) {
+    final byte k = tok.type() == IndexType.TEXT ? Data.TEXT : Data.ATTR;
+    final int i = id(tok.get());
+    if(i == 0 || len[i] == 0) return IndexIterator.EMPTY;
+
+    final int s = len[i];
+    int[] pres = new int[s];
+    int c = 0;
+    for(int e = first[i]; e != 0; e = nextId[e]) pres[c++] = ids[e];
+    if(data.meta.updindex) pres = data.pre(pres, 0, s);
+    final int[] ps = pres;
+    return new IndexIterator() {
+      int p;
+      @Override
+      public boolean more() { return p < s; }
+      @Override
+      public int next() {
+        while(more() && data.kind(ps[p++]) != k);
+        return ps[p - 1];
+      }
+    };
+  }
+
+  @Override
+  public int count(final IndexToken it) {
+    return len[id(it.get())];
+  }
+
+  @Override
+  public EntryIterator entries(final IndexEntries entries) {
+    final byte[] prefix = entries.get();
+    return new EntryIterator() {
+      int c;
+      @Override
+      public byte[] next() {
+        while(++c < size) {
+          if(len[c] == 0) continue;
+          final byte[] key = key(c);
+          if(startsWith(key, prefix)) return key;
+        }
+        return null;
+      }
+      @Override
+      public int count() {
+        return len[c];
+      }
+    };
+  }
+
+  @Override
+  public byte[] info() {
+    final TokenBuilder tb = new TokenBuilder(LI_STRUCTURE).add(HASH).add(NL);
+    final IndexStats stats = new IndexStats(data);
+    for(int m = 1; m < size; ++m) {
+      final int oc = len[m];
+      if(oc != 0 && stats.adding(oc)) stats.add(key(m));
+    }
+    stats.print(tb);
+    return tb.finish();
+  }
+
+  @Override
+  public void close() { }
+
+  /**
+   * Indexes the specified key.
+   * @param key key
+   * @param off offset of the key in the text heap, or inlined integer value
+   * @param id id value
+   */
+  public void index(final byte[] key, final long off, final int id) {
+    final int h = hash(key);
+    int i = id(key, h);
+    if(i == 0) {
+      if(size == next.length) rehash();
+      i = size++;
+      final int p = h & bucket.length - 1;
+      next[i] = bucket[p];
+      bucket[p] = i;
+      offs[i] = off;
+      hashes[i] = h;
+    }
+
+    if(idSize == ids.length) {
+      final int s = idSize << 1;
+      ids = Arrays.copyOf(ids, s);
+      nextId = Arrays.copyOf(nextId, s);
+    }
+    final int e = idSize++;
+    ids[e] = id;
+    nextId[e] = 0;
+    if(len[i] == 0) first[i] = e;
+    else nextId[last[i]] = e;
+    last[i] = e;
+    len[i]++;
+  }
+
+  /**
+   * Removes an id from the index.
+   * @param key key
+   * @param id id value
+   */
+  public void delete(final byte[] key, final int id) {
+    final int i = id(key);
+    if(i == 0) return;
+    for(int e = first[i], o = 0; e != 0; o = e, e = nextId[e]) {
+      if(ids[e] != id) continue;
+      if(o == 0) first[i] = nextId[e];
+      else nextId[o] = nextId[e];
+      if(last[i] == e) last[i] = o;
+      len[i]--;
+      return;
+    }
+  }
+
+  /**
+   * Returns the id of the specified key.
+   * @param key key
+   * @return id, or {@code 0} if the key is not found
+   */
+  private int id(final byte[] key) {
+    return id(key, hash(key));
+  }
+
+  /**
+   * Returns the id of the specified key.
+   * @param key key
+   * @param h hash value of the key
+   * @return id, or {@code 0} if the key is not found
+   */
+  private int id(final byte[] key, final int h) {
+    for(int i = bucket[h & bucket.length - 1]; i != 0; i = next[i]) {
+      if(hashes[i] != h) continue;
+      final long o = offs[i];
+      if((o & IO.OFFNUM) != 0 ? eq(token((int) o), key) : texts.eq(o, key)) return i;
+    }
+    return 0;
+  }
+
+  /**
+   * Returns the specified key.
+   * @param i id of the key
+   * @return key
+   */
+  private byte[] key(final int i) {
+    final long o = offs[i];
+    return (o & IO.OFFNUM) != 0 ? token((int) o) : texts.get(o);
+  }
+
+  /**
+   * Resizes the hash table.
+   */
+  private void rehash() {
+    final int s = size << 1;
+    final int[] tmp = new int[s];
+    for(int i = 1; i < size; i++) {
+      final int p = hashes[i] & s - 1;
+      next[i] = tmp[p];
+      tmp[p] = i;
+    }
+    bucket = tmp;
+    next = Arrays.copyOf(next, s);
+    offs = Arrays.copyOf(offs, s);
+    hashes = Arrays.copyOf(hashes, s);
+    first = Arrays.copyOf(first, s);
+    last = Arrays.copyOf(last, s);
+    len = Arrays.copyOf(len, s);
+  }
+}
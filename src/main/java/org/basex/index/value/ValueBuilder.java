@@ -5,6 +5,7 @@ import static org.basex.data.DataText.*;
 import static org.basex.util.Token.*;
 
 import java.io.*;
+import java.util.*;
 
 import org.basex.core.*;
 import org.basex.data.*;
@@ -29,6 +30,9 @@ import org.basex.util.list.*;
  *   structure. Instead, they can be found by following the id references to
  *   the main table.
  * </li>
+ * <li> {@code DATATXT/ATV + 'h'}: optional hash dictionary, which maps keys to
+ *   their reference numbers (see {@link IndexHash}). It is only created if
+ *   {@link MetaData#hashindex} is set and the index is not updatable.</li>
  * </ul>
  *
  * @author BaseX Team 2005-12, BSD License
@@ -39,6 +43,10 @@ public final class ValueBuilder extends IndexBuilder {
   private IndexTree index = new IndexTree();
   /** Index type (attributes/texts). */
   private final boolean text;
+  /** Hash values of the written keys ({@code null}: no hash dictionary). */
+  private long[] hashes;
+  /** Number of hash values. */
+  private int hsize;
 
   /**
    * Constructor.
@@ -60,6 +68,7 @@ public final class ValueBuilder extends IndexBuilder {
 
     final String f = text ? DATATXT : DATAATV;
     final int k = text ? Data.TEXT : Data.ATTR;
+    if(data.meta.hashindex && !data.meta.updindex) hashes = new long[1 << 10];
 
     for(pre = 0; pre < size; ++pre) {
       if((pre & 0x0FFF) == 0) {
@@ -84,6 +93,12 @@ public final class ValueBuilder extends IndexBuilder {
     } else {
       write(f, true);
     }
+    if(hashes != null) {
+      final int[] values = new int[hsize];
+      for(int v = 0; v < hsize; v++) values[v] = v;
+      IndexHash.write(data.meta.dbfile(f + 'h'), hashes, values, hsize);
+      hashes = null;
+    }
 
     if(text) data.meta.textindex = true;
     else data.meta.attrindex = true;
@@ -133,6 +148,7 @@ public final class ValueBuilder extends IndexBuilder {
       }
 
       // parse through all values, cache and sort id values
+      hash(vm[min].key);
       final int ms = ml.size();
       for(int m = 0; m < ms; ++m) {
         final ValueMerger t = vm[ml.get(m)];
@@ -173,7 +189,8 @@ public final class ValueBuilder extends IndexBuilder {
     final IntList il = new IntList();
     index.init();
     while(index.more()) {
-      final byte[] values = index.values.get(index.next());
+      final int n = index.next();
+      final byte[] values = index.values.get(n);
       final int vs = Num.size(values);
 
       if(all) {
@@ -183,6 +200,7 @@ public final class ValueBuilder extends IndexBuilder {
         }
         // write final structure to disk
         write(outL, outR, il);
+        hash(index.key(n));
       } else {
         // write temporary structure to disk: number of entries, absolute values
         outR.write5(outL.size());
@@ -196,11 +214,21 @@ public final class ValueBuilder extends IndexBuilder {
     if(!all) {
       final DataOutput outT = new DataOutput(data.meta.dbfile(name + 't'));
       index.init();
-      while(index.more()) outT.writeToken(index.keys.get(index.next()));
+      while(index.more()) outT.writeToken(index.key(index.next()));
       outT.close();
     }
   }
 
+  /**
+   * Caches the hash value of a key, the entry of which has been written.
+   * @param key key
+   */
+  private void hash(final byte[] key) {
+    if(hashes == null) return;
+    if(hsize == hashes.length) hashes = Arrays.copyOf(hashes, hsize << 1);
+    hashes[hsize++] = IndexHash.hash(key);
+  }
+
   /**
    * Writes the final value structure to disk.
    * @param outL index values
@@ -0,0 +1,487 @@
+package org.basex.io;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.*;
+import java.util.zip.*;
+
+import org.basex.core.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Creates and restores incremental backups. The files of a database are
+ * divided into blocks, and a checksum is computed for each block. An archive
+ * contains all blocks that have changed since the backup it is based on, and
+ * the checksums of all blocks, which are needed for creating the next
+ * increment. An archive without base contains all blocks.
+ *
+ * <p>The archive is a zip file. It contains one stored entry for each changed
+ * block, which contains the deflated block. As a result, blocks can be
+ * compressed in parallel. The last entry ({@code .delta}) contains the
+ * name of the base archive and the lengths and checksums of all files.
+ * The files are read only once: checksums are computed while the changed
+ * blocks are written. An archive can only be restored if all archives of its
+ * chain exist.</p>
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class DeltaZip extends Progress {
+  /** Name of the entry with the checksums. */
+  private static final String DELTA = ".delta";
+  /** Separator between the path of a file and the block number. */
+  private static final char SEP = '#';
+  /** Number of bytes per block (power of two). */
+  private static final int POWER = 16;
+  /** Number of bytes per block. */
+  private static final int BLOCK = 1 << POWER;
+
+  /** Archive. */
+  private final IOFile archive;
+  /** Number of threads for compressing blocks. */
+  private int par = 1;
+  /** Number of bytes to be processed. */
+  private long total;
+  /** Number of processed bytes. */
+  private long curr;
+
+  /**
+   * Constructor.
+   * @param file archive file
+   */
+  public DeltaZip(final IOFile file) {
+    archive = file;
+  }
+
+  /**
+   * Sets the number of threads for compressing blocks.
+   * @param p number of threads
+   * @return self reference
+   */
+  public DeltaZip parallel(final int p) {
+    par = Math.max(1, p);
+    return this;
+  }
+
+  /**
+   * Checks if the specified file is an incremental backup.
+   * @param file archive file
+   * @return result of check
+   */
+  public static boolean delta(final IOFile file) {
+    try {
+      return Manifest.read(file) != null;
+    } catch(final IOException ex) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns the name of the archive the specified incremental backup is based on.
+   * @param file archive file
+   * @return name of the base archive, or {@code null} if the archive is
+   *   self-contained
+   */
+  public static String base(final IOFile file) {
+    try {
+      final Manifest mf = Manifest.read(file);
+      return mf == null || mf.base.isEmpty() ? null : mf.base;
+    } catch(final IOException ex) {
+      return null;
+    }
+  }
+
+  /**
+   * Zips the specified directory. Only the blocks that differ from
+   * the base archive are stored.
+   * @param source directory to be zipped
+   * @param pattern regular expression pattern
+   * @param base base archive, or {@code null}
+   * @throws IOException I/O exception
+   */
+  public void zip(final IOFile source, final Pattern pattern, final IOFile base)
+      throws IOException {
+
+    final Manifest old = base != null ? Manifest.read(base) : null;
+    final Manifest mf = new Manifest(source.name(), old != null ? base.name() : "");
+    final StringList files = source.descendants();
+    for(final String io : files) {
+      if(pattern != null && !pattern.matcher(io).matches()) continue;
+      final long l = new File(source.file(), io).length();
+      mf.add(io, l);
+      total += l;
+    }
+
+    final byte[] data = new byte[BLOCK];
+    final int fs = mf.paths.size();
+    final ExecutorService ex = par > 1 ? Executors.newFixedThreadPool(par,
+      new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable r) {
+          final Thread t = new Thread(r);
+          t.setDaemon(true);
+          return t;
+        }
+      }) : null;
+    final LinkedList<Future<Entry>> queue = new LinkedList<Future<Entry>>();
+    ZipOutputStream out = null;
+    try {
+      out = new ZipOutputStream(new BufferedOutputStream(
+          new FileOutputStream(archive.path())));
+      out.setLevel(1);
+
+      // compute checksums and write changed blocks; if several threads are
+      // available, the next blocks are compressed in advance
+      for(int f = 0; f < fs; f++) {
+        final String path = mf.paths.get(f);
+        final long[] sums = mf.sums[f];
+        final long[] os = old != null ? old.sums(path) : new long[0];
+        final InputStream in = new FileInputStream(new File(source.file(), path));
+        try {
+          for(int b = 0; b < sums.length; b++) {
+            checkStop();
+            final int n = read(in, data);
+            curr += n;
+            sums[b] = checksum(data, n);
+            if(b < os.length && os[b] == sums[b]) continue;
+            final Entry e = new Entry(mf.name + '/' + path + SEP + b,
+                Arrays.copyOf(data, n));
+            if(ex == null) {
+              e.write(out);
+            } else {
+              while(queue.size() >= par << 1) get(queue.removeFirst()).write(out);
+              queue.add(ex.submit(e));
+            }
+          }
+        } finally {
+          try { in.close(); } catch(final IOException e) { }
+        }
+      }
+      while(!queue.isEmpty()) get(queue.removeFirst()).write(out);
+
+      // write checksums
+      out.putNextEntry(new ZipEntry(DELTA));
+      mf.write(out);
+      out.closeEntry();
+    } finally {
+      if(ex != null) ex.shutdownNow();
+      if(out != null) try { out.close(); } catch(final IOException e) { }
+    }
+  }
+
+  /**
+   * Restores the archive and all archives it is based on to the specified
+   * directory. Files that match the pattern, but do not exist in the archive,
+   * are deleted.
+   * @param target target path
+   * @param pattern regular expression pattern
+   * @throws IOException I/O exception
+   */
+  public void unzip(final IOFile target, final Pattern pattern) throws IOException {
+    // collect archives, starting with the latest one
+    final ArrayList<IOFile> chain = new ArrayList<IOFile>();
+    final ArrayList<Manifest> mfs = new ArrayList<Manifest>();
+    final StringList names = new StringList();
+    for(IOFile f = archive;;) {
+      final Manifest mf = Manifest.read(f);
+      if(mf == null) throw new FileNotFoundException(f + ": " + DELTA);
+      if(names.contains(f.name())) throw new IOException("Cyclic backup: " + f);
+      names.add(f.name());
+      chain.add(f);
+      mfs.add(mf);
+      total += f.length();
+      if(mf.base.isEmpty()) break;
+      f = new IOFile(archive.dir(), mf.base);
+      if(!f.exists()) throw new FileNotFoundException(f.path());
+    }
+
+    // apply archives, starting with the oldest one
+    for(int c = chain.size() - 1; c >= 0; c--) {
+      apply(chain.get(c), target);
+      curr += chain.get(c).length();
+    }
+
+    // adjust file lengths and delete obsolete files
+    final Manifest mf = mfs.get(0);
+    final IOFile dir = new IOFile(target, mf.name);
+    for(final String io : dir.descendants()) {
+      if((pattern == null || pattern.matcher(io).matches()) && !mf.paths.contains(io)) {
+        new IOFile(dir, io).delete();
+      }
+    }
+    final int fs = mf.paths.size();
+    for(int f = 0; f < fs; f++) {
+      final IOFile file = new IOFile(dir, mf.paths.get(f));
+      new IOFile(file.dir()).md();
+      final RandomAccessFile raf = new RandomAccessFile(file.file(), "rw");
+      try {
+        raf.setLength(mf.lengths[f]);
+      } finally {
+        raf.close();
+      }
+    }
+  }
+
+  @Override
+  protected double prog() {
+    return total == 0 ? 0 : (double) curr / total;
+  }
+
+  // PRIVATE METHODS ==========================================================
+
+  /**
+   * Writes the blocks of an archive to the target directory.
+   * @param file archive
+   * @param target target path
+   * @throws IOException I/O exception
+   */
+  private void apply(final IOFile file, final IOFile target) throws IOException {
+
+    final byte[] data = new byte[BLOCK];
+    final Inflater inf = new Inflater(true);
+    final ZipInputStream in = new ZipInputStream(file.inputStream());
+    RandomAccessFile raf = null;
+    String open = null;
+    try {
+      for(ZipEntry ze; (ze = in.getNextEntry()) != null;) {
+        checkStop();
+        final String name = ze.getName();
+        final int i = name.lastIndexOf(SEP);
+        if(i == -1) continue;
+        final String path = name.substring(0, i);
+        final long b = Long.parseLong(name.substring(i + 1));
+        if(!path.equals(open)) {
+          if(raf != null) raf.close();
+          final IOFile trg = new IOFile(target, path);
+          new IOFile(trg.dir()).md();
+          raf = new RandomAccessFile(trg.file(), "rw");
+          open = path;
+        }
+        // inflate block
+        inf.reset();
+        inf.setInput(read(in));
+        int n = 0;
+        try {
+          while(n < BLOCK && !inf.finished()) n += inf.inflate(data, n, BLOCK - n);
+        } catch(final DataFormatException ex) {
+          throw new IOException(name + ": " + ex.getMessage());
+        }
+        raf.seek(b << POWER);
+        raf.write(data, 0, n);
+      }
+    } finally {
+      inf.end();
+      if(raf != null) try { raf.close(); } catch(final IOException e) { }
+      try { in.close(); } catch(final IOException e) { }
+    }
+  }
+
+  /**
+   * Fills the specified array with bytes from the input stream.
+   * @param in input stream
+   * @param data array
+   * @return number of read bytes
+   * @throws IOException I/O exception
+   */
+  private static int read(final InputStream in, final byte[] data) throws IOException {
+    int n = 0;
+    for(int c; n < data.length && (c = in.read(data, n, data.length - n)) != -1;) n += c;
+    return n;
+  }
+
+  /**
+   * Returns the remaining bytes of the current zip entry.
+   * @param in input stream
+   * @return bytes
+   * @throws IOException I/O exception
+   */
+  private static byte[] read(final ZipInputStream in) throws IOException {
+    final byte[] data = new byte[IO.BLOCKSIZE];
+    final ByteList bl = new ByteList();
+    for(int c; (c = in.read(data)) != -1;) bl.add(data, 0, c);
+    return bl.toArray();
+  }
+
+  /**
+   * Computes a 64 bit checksum of a block.
+   * @param data data
+   * @param n number of bytes
+   * @return checksum
+   */
+  private static long checksum(final byte[] data, final int n) {
+    final CRC32 crc = new CRC32();
+    crc.update(data, 0, n);
+    final Adler32 adler = new Adler32();
+    adler.update(data, 0, n);
+    return crc.getValue() << 32 | adler.getValue();
+  }
+
+  /**
+   * Returns a compressed block.
+   * @param f future
+   * @return entry
+   */
+  private static Entry get(final Future<Entry> f) {
+    try {
+      return f.get();
+    } catch(final InterruptedException ex) {
+      throw Util.notexpected(ex);
+    } catch(final ExecutionException ex) {
+      final Throwable th = ex.getCause();
+      if(th instanceof RuntimeException) throw (RuntimeException) th;
+      throw Util.notexpected(th);
+    }
+  }
+
+  /** Changed block, which is compressed by {@link #call()}. */
+  private static final class Entry implements Callable<Entry> {
+    /** Entry name. */
+    final String name;
+    /** Uncompressed data. */
+    byte[] data;
+    /** Compressed data. */
+    byte[] comp;
+
+    /**
+     * Constructor.
+     * @param nm entry name
+     * @param d uncompressed data
+     */
+    Entry(final String nm, final byte[] d) {
+      name = nm;
+      data = d;
+    }
+
+    @Override
+    public Entry call() {
+      final Deflater def = new Deflater(1, true);
+      try {
+        def.setInput(data);
+        def.finish();
+        final ByteList bl = new ByteList();
+        final byte[] buf = new byte[IO.BLOCKSIZE];
+        while(!def.finished()) bl.add(buf, 0, def.deflate(buf));
+        comp = bl.toArray();
+        data = null;
+        return this;
+      } finally {
+        def.end();
+      }
+    }
+
+    /**
+     * Writes the compressed block as stored entry.
+     * @param out output stream
+     * @throws IOException I/O exception
+     */
+    void write(final ZipOutputStream out) throws IOException {
+      if(comp == null) call();
+      final ZipEntry ze = new ZipEntry(name);
+      ze.setMethod(ZipEntry.STORED);
+      ze.setSize(comp.length);
+      ze.setCompressedSize(comp.length);
+      final CRC32 crc = new CRC32();
+      crc.update(comp);
+      ze.setCrc(crc.getValue());
+      out.putNextEntry(ze);
+      out.write(comp);
+      out.closeEntry();
+    }
+  }
+
+  /** Name of the base archive, and lengths and checksums of all files. */
+  private static final class Manifest {
+    /** Name of the database directory. */
+    final String name;
+    /** Name of the base archive (empty if the archive contains all blocks). */
+    final String base;
+    /** Relative file paths. */
+    final StringList paths = new StringList();
+    /** File lengths. */
+    long[] lengths = new long[0];
+    /** Block checksums. */
+    long[][] sums = new long[0][];
+
+    /**
+     * Constructor.
+     * @param nm name of the database directory
+     * @param bs name of the base archive
+     */
+    Manifest(final String nm, final String bs) {
+      name = nm;
+      base = bs;
+    }
+
+    /**
+     * Adds a file.
+     * @param path relative path
+     * @param length file length
+     * @return checksums
+     */
+    long[] add(final String path, final long length) {
+      final long[] s = new long[(int) (length + BLOCK - 1 >>> POWER)];
+      final int f = paths.size();
+      paths.add(path);
+      lengths = Arrays.copyOf(lengths, f + 1);
+      lengths[f] = length;
+      sums = Array.add(sums, s);
+      return s;
+    }
+
+    /**
+     * Returns the checksums of the specified file.
+     * @param path relative path
+     * @return checksums (empty if the file does not exist)
+     */
+    long[] sums(final String path) {
+      final int fs = paths.size();
+      for(int f = 0; f < fs; f++) if(paths.get(f).equals(path)) return sums[f];
+      return new long[0];
+    }
+
+    /**
+     * Reads the manifest of the specified archive.
+     * @param file archive
+     * @return manifest, or {@code null} if the archive is no incremental backup
+     * @throws IOException I/O exception
+     */
+    static Manifest read(final IOFile file) throws IOException {
+      final ZipFile zf = new ZipFile(file.file());
+      try {
+        final ZipEntry ze = zf.getEntry(DELTA);
+        if(ze == null) return null;
+        final DataInputStream in = new DataInputStream(
+            new BufferedInputStream(zf.getInputStream(ze)));
+        final Manifest mf = new Manifest(in.readUTF(), in.readUTF());
+        for(int f = in.readInt(); f > 0; f--) {
+          final long[] s = mf.add(in.readUTF(), in.readLong());
+          for(int b = 0; b < s.length; b++) s[b] = in.readLong();
+        }
+        return mf;
+      } finally {
+        zf.close();
+      }
+    }
+
+    /**
+     * Writes the manifest.
+     * @param os output stream
+     * @throws IOException I/O exception
+     */
+    void write(final OutputStream os) throws IOException {
+      final DataOutputStream out = new DataOutputStream(os);
+      out.writeUTF(name);
+      out.writeUTF(base);
+      final int fs = paths.size();
+      out.writeInt(fs);
+      for(int f = 0; f < fs; f++) {
+        out.writeUTF(paths.get(f));
+        out.writeLong(lengths[f]);
+        for(final long s : sums[f]) out.writeLong(s);
+      }
+      out.flush();
+    }
+  }
+}
@@ -56,6 +56,26 @@ public final class NewlineInput extends TextInput {
     return '\n';
   }
 
+  /**
+   * {@inheritDoc}
+   * Carriage returns will only be normalized if they are delimiters.
+   */
+  @Override
+  public int read(final TokenBuilder tb, final boolean[] delim) throws IOException {
+    int ch;
+    if(next != -2) {
+      // return or add cached character
+      ch = read();
+      if(ch == -1 || ch < delim.length && delim[ch]) return ch;
+      tb.add(ch);
+    }
+    ch = super.read(tb, delim);
+    if(ch != '\r') return ch;
+    ch = super.read();
+    if(ch != '\n') next = ch;
+    return '\n';
+  }
+
   /**
    * Reads a single line.
    * @return line
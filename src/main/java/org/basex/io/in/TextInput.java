@@ -91,9 +91,42 @@ public class TextInput extends BufferInput {
 
   @Override
   public int read() throws IOException {
-    final int ch = decoder.read(this);
-    if(ch != -1 && !XMLToken.valid(ch)) throw new EncodingException(ch);
-    return ch;
+    return decode();
+  }
+
+  /**
+   * Reads characters until one of the specified delimiters is found, and adds them
+   * to the token builder. If the input is UTF-8 encoded, runs of ASCII characters
+   * are copied in bulk.
+   * @param tb token builder
+   * @param delim delimiters, indexed by their code points (must contain at least
+   * all ASCII characters)
+   * @return delimiter, or {@code -1} if the end of the input has been reached
+   * @throws IOException I/O exception
+   */
+  public int read(final TokenBuilder tb, final boolean[] delim) throws IOException {
+    final boolean utf8 = decoder instanceof TextDecoder.UTF8;
+    final byte[] buf = buffer;
+    while(true) {
+      if(utf8) {
+        // copy all printable ASCII characters up to the next delimiter
+        final int s = bpos, e = bsize;
+        int p = s;
+        for(int b; p < e && (b = buf[p]) >= ' ' && !delim[b]; p++);
+        if(p > s) tb.add(buf, s, p);
+        bpos = p;
+        if(p == e) {
+          // buffer is exhausted: refill it
+          if(next() == -1) return -1;
+          bpos--;
+          continue;
+        }
+      }
+      // decode single character
+      final int ch = decode();
+      if(ch == -1 || ch < delim.length && delim[ch]) return ch;
+      tb.add(ch);
+    }
   }
 
   @Override
@@ -106,4 +139,15 @@ public class TextInput extends BufferInput {
     }
     return tb.finish();
   }
+
+  /**
+   * Decodes the next character.
+   * @return next character, or {@code -1} if the end of the input has been reached
+   * @throws IOException I/O exception
+   */
+  private int decode() throws IOException {
+    final int ch = decoder.read(this);
+    if(ch != -1 && !XMLToken.valid(ch)) throw new EncodingException(ch);
+    return ch;
+  }
 }
@@ -37,6 +37,17 @@ public final class ArrayOutput extends PrintOutput {
     size = s + 1;
   }
 
+  @Override
+  public void write(final byte[] b, final int off, final int len) {
+    final int s = (int) size;
+    final int l = (int) Math.min(len, max - s);
+    if(l <= 0) return;
+    final int ns = s + l;
+    if(ns > buf.length) buf = Arrays.copyOf(buf, Math.max(ns, s << 1));
+    System.arraycopy(b, off, buf, s, l);
+    size = ns;
+  }
+
   /**
    * Returns the output as byte array.
    * @return byte array
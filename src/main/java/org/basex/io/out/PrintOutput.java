@@ -3,6 +3,7 @@ package org.basex.io.out;
 import java.io.*;
 
 import org.basex.core.*;
+import org.basex.io.*;
 import org.basex.util.*;
 
 /**
@@ -14,12 +15,16 @@ import org.basex.util.*;
  * @author Christian Gruen
  */
 public class PrintOutput extends OutputStream {
+  /** Size of the buffer that is wrapped around unbuffered streams. */
+  private static final int BUFSIZE = IO.BLOCKSIZE << 4;
   /** Output stream reference. */
   private final OutputStream os;
   /** Maximum numbers of bytes to write. */
   long max = Long.MAX_VALUE;
   /** Number of bytes written. */
   long size;
+  /** Buffer for encoding single characters. */
+  private final byte[] cache = new byte[4];
 
   /** Protected default constructor. */
   PrintOutput() {
@@ -54,7 +59,7 @@ public class PrintOutput extends OutputStream {
         out instanceof ByteArrayOutputStream ||
         out instanceof BufferedOutputStream ||
         out instanceof BufferOutput ||
-        out instanceof ArrayOutput ? out : new BufferOutput(out));
+        out instanceof ArrayOutput ? out : new BufferOutput(out, BUFSIZE));
   }
 
   @Override
@@ -62,6 +67,13 @@ public class PrintOutput extends OutputStream {
     if(size++ < max) os.write(b);
   }
 
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    final long l = Math.min(len, max - size);
+    if(l > 0) os.write(b, off, (int) l);
+    size += len;
+  }
+
   /**
    * Writes a character as UTF8.
    * @param ch character to be printed
@@ -70,19 +82,27 @@ public class PrintOutput extends OutputStream {
   public void utf8(final int ch) throws IOException {
     if(ch <= 0x7F) {
       write(ch);
-    } else if(ch <= 0x7FF) {
-      write(ch >>  6 & 0x1F | 0xC0);
-      write(ch & 0x3F | 0x80);
+      return;
+    }
+    final byte[] c = cache;
+    final int l;
+    if(ch <= 0x7FF) {
+      c[0] = (byte) (ch >>  6 & 0x1F | 0xC0);
+      c[1] = (byte) (ch & 0x3F | 0x80);
+      l = 2;
     } else if(ch <= 0xFFFF) {
-      write(ch >> 12 & 0x0F | 0xE0);
-      write(ch >>  6 & 0x3F | 0x80);
-      write(ch & 0x3F | 0x80);
+      c[0] = (byte) (ch >> 12 & 0x0F | 0xE0);
+      c[1] = (byte) (ch >>  6 & 0x3F | 0x80);
+      c[2] = (byte) (ch & 0x3F | 0x80);
+      l = 3;
     } else {
-      write(ch >> 18 & 0x07 | 0xF0);
-      write(ch >> 12 & 0x3F | 0x80);
-      write(ch >>  6 & 0x3F | 0x80);
-      write(ch & 0x3F | 0x80);
+      c[0] = (byte) (ch >> 18 & 0x07 | 0xF0);
+      c[1] = (byte) (ch >> 12 & 0x3F | 0x80);
+      c[2] = (byte) (ch >>  6 & 0x3F | 0x80);
+      c[3] = (byte) (ch & 0x3F | 0x80);
+      l = 4;
     }
+    write(c, 0, l);
   }
 
   /**
@@ -120,7 +140,7 @@ public class PrintOutput extends OutputStream {
    * @throws IOException I/O exception
    */
   public final void print(final byte[] token) throws IOException {
-    for(final byte t : token) write(t);
+    write(token, 0, token.length);
   }
 
   /**
@@ -16,6 +16,14 @@ public final class DataAccess {
   private final Buffers bm = new Buffers();
   /** Reference to the data input stream. */
   private final RandomAccessFile file;
+  /** Write-ahead log (can be {@code null}). */
+  private final Journal journal;
+  /** File name. */
+  private final String name;
+  /** Snapshot that is read by this instance (can be {@code null}). */
+  private final Snapshot snapshot;
+  /** Versions of the file (can be {@code null}). */
+  private Versions versions;
   /** File length. */
   private long len;
   /** Changed flag. */
@@ -29,11 +37,62 @@ public final class DataAccess {
    * @throws IOException I/O Exception
    */
   public DataAccess(final IOFile f) throws IOException {
+    this(f, null);
+  }
+
+  /**
+   * Constructor, initializing the file reader. If a write-ahead log is specified,
+   * changes are written to the log instead of the file.
+   * @param f the file to be read
+   * @param jr write-ahead log (can be {@code null})
+   * @throws IOException I/O Exception
+   */
+  public DataAccess(final IOFile f, final Journal jr) throws IOException {
     file = new RandomAccessFile(f.file(), "rw");
+    journal = jr;
+    name = f.name();
+    snapshot = null;
+    if(jr != null) jr.register(name, file);
     len = file.length();
     cursor(0);
   }
 
+  /**
+   * Constructor for reading a snapshot of the file.
+   * @param da data access
+   * @param s snapshot
+   */
+  private DataAccess(final DataAccess da, final Snapshot s) {
+    file = da.file;
+    journal = da.journal;
+    name = da.name;
+    versions = da.versions;
+    snapshot = s;
+    len = da.len;
+    cursor(0);
+  }
+
+  /**
+   * Assigns the versions of the file. From now on, overwritten pages will be
+   * preserved for snapshots.
+   * @param v versions
+   */
+  public synchronized void versions(final Versions v) {
+    versions = v;
+  }
+
+  /**
+   * Returns a read-only instance for the current state of the file, which is
+   * not affected by subsequent updates. If this instance is a snapshot itself,
+   * a copy is returned. All buffers must have been flushed before.
+   * @param s snapshot
+   * @return snapshot instance
+   */
+  public synchronized DataAccess snapshot(final Snapshot s) {
+    if(snapshot == null) versions.length(s, name, len);
+    return new DataAccess(this, s);
+  }
+
   /**
    * Flushes the buffered data.
    */
@@ -41,7 +100,9 @@ public final class DataAccess {
     try {
       for(final Buffer b : bm.all()) if(b.dirty) writeBlock(b);
       if(changed) {
-        file.setLength(len);
+        if(versions != null) versions.length(name, file, journal, len);
+        else if(journal != null) journal.length(name, len);
+        else file.setLength(len);
         changed = false;
       }
     } catch(final IOException ex) {
@@ -53,7 +114,10 @@ public final class DataAccess {
    * Closes the data access.
    */
   public synchronized void close() {
+    // the file of a snapshot is closed by its owner
+    if(snapshot != null) return;
     flush();
+    if(journal != null) journal.unregister(name, file);
     try {
       file.close();
     } catch(final IOException ex) {
@@ -226,9 +290,16 @@ public final class DataAccess {
     try {
       if(bf.dirty) writeBlock(bf);
       bf.pos = b;
+      if(snapshot != null) {
+        versions.read(snapshot, name, file, journal, b, bf.data);
+        return;
+      }
+      if(journal != null && journal.read(name, b, bf.data)) return;
       file.seek(bf.pos);
-      if(bf.pos < file.length())
-        file.readFully(bf.data, 0, (int) Math.min(len - bf.pos, IO.BLOCKSIZE));
+      final long fl = file.length();
+      if(bf.pos < fl)
+        file.readFully(bf.data, 0, (int) Math.min(Math.min(len, fl) - bf.pos,
+            IO.BLOCKSIZE));
     } catch(final IOException ex) {
       Util.stack(ex);
     }
@@ -419,8 +490,14 @@ public final class DataAccess {
    * @throws IOException I/O exception
    */
   private void writeBlock(final Buffer bf) throws IOException {
-    file.seek(bf.pos);
-    file.write(bf.data);
+    if(versions != null) {
+      versions.write(name, file, journal, bf.pos, bf.data);
+    } else if(journal != null) {
+      journal.page(name, bf.pos, bf.data);
+    } else {
+      file.seek(bf.pos);
+      file.write(bf.data);
+    }
     bf.dirty = false;
   }
 
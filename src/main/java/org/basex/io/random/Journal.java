@@ -0,0 +1,371 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.basex.io.*;
+import org.basex.io.out.*;
+import org.basex.util.*;
+
+/**
+ * This class implements a write-ahead log for the files of a database.
+ * Instead of being written to their files, changed pages, new file lengths and
+ * new file contents are appended to the log. Pages that have been written to
+ * the log are read from there until they are copied to their files.
+ *
+ * <p>All records of an update are completed by a commit record, which
+ * contains a checksum of the records, and the log is synchronized with the
+ * disk once per update. If the log exceeds a certain size, or if the database
+ * is closed, all committed records are copied to their files (checkpoint).
+ * Records that have not been committed are ignored when the log is replayed.
+ * As a result, the database files always reflect the state of a checkpoint,
+ * and the latest committed state can be restored after a crash by replaying
+ * the log ({@link #recover}).</p>
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class Journal {
+  /** Record type: page. */
+  private static final int PAGE = 1;
+  /** Record type: file length. */
+  private static final int LENGTH = 2;
+  /** Record type: file contents. */
+  private static final int FILE = 3;
+  /** Record type: commit. */
+  private static final int COMMIT = 4;
+  /** Size of the log after which a checkpoint is performed. */
+  private static final long CHECKPOINT = 1 << 24;
+  /** Number of buffered bytes after which records are written to the log. */
+  private static final int BUFFER = 1 << 20;
+
+  /** Database directory. */
+  private final IOFile dir;
+  /** Log file. */
+  private final File file;
+  /** Log file handle. */
+  private final RandomAccessFile log;
+  /** Files that have been registered by their owners. */
+  private final HashMap<String, RandomAccessFile> files =
+      new HashMap<String, RandomAccessFile>();
+  /** Log offsets of the latest page versions, indexed by file names and positions. */
+  private final HashMap<String, HashMap<Long, Long>> pages =
+      new HashMap<String, HashMap<Long, Long>>();
+  /** Buffered records. */
+  private final ArrayOutput buffer = new ArrayOutput();
+  /** Output stream for buffered records. */
+  private final DataOutputStream out = new DataOutputStream(buffer);
+  /** Checksum of the records that have not been committed yet. */
+  private final CRC32 crc = new CRC32();
+  /** Number of bytes that have been written to the log file. */
+  private long written;
+  /** Indicates if records have not been committed yet. */
+  private boolean pending;
+
+  /**
+   * Constructor. Committed records of an existing log are copied to their files.
+   * The files are expected to be located in the directory of the log.
+   * @param lg log file
+   * @throws IOException I/O exception
+   */
+  public Journal(final IOFile lg) throws IOException {
+    dir = new IOFile(lg.dir());
+    file = lg.file();
+    log = new RandomAccessFile(file, "rw");
+    replay();
+  }
+
+  /**
+   * Copies the committed records of an existing log to their files and
+   * deletes the log.
+   * @param lg log file
+   * @throws IOException I/O exception
+   */
+  public static void recover(final IOFile lg) throws IOException {
+    if(!lg.exists()) return;
+    new Journal(lg).close();
+    lg.delete();
+  }
+
+  /**
+   * Registers the file handle that is used by the owner of a file.
+   * @param name file name
+   * @param fh file handle
+   */
+  synchronized void register(final String name, final RandomAccessFile fh) {
+    files.put(name, fh);
+  }
+
+  /**
+   * Unregisters the file handle that is used by the owner of a file.
+   * @param name file name
+   * @param fh file handle
+   */
+  synchronized void unregister(final String name, final RandomAccessFile fh) {
+    if(files.get(name) == fh) files.remove(name);
+  }
+
+  /**
+   * Appends a page.
+   * @param name file name
+   * @param pos file offset
+   * @param data page
+   * @throws IOException I/O exception
+   */
+  synchronized void page(final String name, final long pos, final byte[] data)
+      throws IOException {
+
+    out.write(PAGE);
+    out.writeUTF(name);
+    out.writeLong(pos);
+    out.writeInt(data.length);
+    HashMap<Long, Long> map = pages.get(name);
+    if(map == null) {
+      map = new HashMap<Long, Long>();
+      pages.put(name, map);
+    }
+    map.put(pos, written + buffer.size());
+    out.write(data);
+    buffered();
+  }
+
+  /**
+   * Reads a page from the log.
+   * @param name file name
+   * @param pos file offset
+   * @param data page
+   * @return {@code true} if the page was found in the log
+   * @throws IOException I/O exception
+   */
+  synchronized boolean read(final String name, final long pos, final byte[] data)
+      throws IOException {
+
+    final HashMap<Long, Long> map = pages.get(name);
+    final Long off = map != null ? map.get(pos) : null;
+    if(off == null) return false;
+    final long o = off;
+    if(o >= written) {
+      System.arraycopy(buffer.buffer(), (int) (o - written), data, 0, data.length);
+    } else {
+      log.seek(o);
+      log.readFully(data);
+    }
+    return true;
+  }
+
+  /**
+   * Appends a new file length.
+   * @param name file name
+   * @param length file length
+   * @throws IOException I/O exception
+   */
+  synchronized void length(final String name, final long length) throws IOException {
+    out.write(LENGTH);
+    out.writeUTF(name);
+    out.writeLong(length);
+    buffered();
+  }
+
+  /**
+   * Appends the contents of a file.
+   * @param name file name
+   * @param data file contents
+   * @throws IOException I/O exception
+   */
+  public synchronized void file(final String name, final byte[] data)
+      throws IOException {
+
+    out.write(FILE);
+    out.writeUTF(name);
+    out.writeInt(data.length);
+    out.write(data);
+    buffered();
+  }
+
+  /**
+   * Commits all records and synchronizes the log with the disk.
+   * Performs a checkpoint if the log has exceeded a certain size.
+   * @throws IOException I/O exception
+   */
+  public synchronized void commit() throws IOException {
+    if(!pending) return;
+    out.write(COMMIT);
+    crc.update(buffer.buffer(), 0, (int) buffer.size());
+    out.writeInt((int) crc.getValue());
+    write();
+    crc.reset();
+    log.getChannel().force(false);
+    pending = false;
+    if(written > CHECKPOINT) checkpoint();
+  }
+
+  /**
+   * Commits all records, copies them to their files and truncates the log.
+   * @throws IOException I/O exception
+   */
+  public synchronized void checkpoint() throws IOException {
+    commit();
+    if(written == 0) return;
+    replay();
+    pages.clear();
+  }
+
+  /**
+   * Commits all records, performs a checkpoint and closes the log.
+   * @throws IOException I/O exception
+   */
+  public synchronized void close() throws IOException {
+    checkpoint();
+    log.close();
+  }
+
+  // PRIVATE METHODS ==========================================================
+
+  /**
+   * Writes buffered records to the log if the buffer exceeds a certain size.
+   * @throws IOException I/O exception
+   */
+  private void buffered() throws IOException {
+    pending = true;
+    if(buffer.size() < BUFFER) return;
+    crc.update(buffer.buffer(), 0, (int) buffer.size());
+    write();
+  }
+
+  /**
+   * Writes all buffered records to the log.
+   * @throws IOException I/O exception
+   */
+  private void write() throws IOException {
+    final int s = (int) buffer.size();
+    log.seek(written);
+    log.write(buffer.buffer(), 0, s);
+    written += s;
+    buffer.reset();
+  }
+
+  /**
+   * Copies all committed records of the log to their files, synchronizes
+   * the files with the disk and truncates the log.
+   * @throws IOException I/O exception
+   */
+  private void replay() throws IOException {
+    final long ln = log.length();
+    if(ln == 0) return;
+
+    // count transactions with valid checksums; the remaining records are ignored
+    int commits = 0;
+    CheckedInputStream cin = input();
+    DataInputStream in = new DataInputStream(cin);
+    try {
+      while(records(in, cin.getChecksum(), null)) commits++;
+    } finally {
+      in.close();
+    }
+
+    // copy records to their files
+    final HashMap<String, RandomAccessFile> opened =
+        new HashMap<String, RandomAccessFile>();
+    try {
+      cin = input();
+      in = new DataInputStream(cin);
+      try {
+        for(int c = 0; c < commits; c++) records(in, cin.getChecksum(), opened);
+      } finally {
+        in.close();
+      }
+      for(final RandomAccessFile f : files.values()) f.getChannel().force(false);
+      for(final RandomAccessFile f : opened.values()) f.getChannel().force(false);
+    } finally {
+      for(final RandomAccessFile f : opened.values()) f.close();
+    }
+    log.setLength(0);
+    log.getChannel().force(false);
+    written = 0;
+  }
+
+  /**
+   * Returns an input stream for reading the log, which computes checksums.
+   * @return input stream
+   * @throws IOException I/O exception
+   */
+  private CheckedInputStream input() throws IOException {
+    return new CheckedInputStream(new BufferedInputStream(
+        new FileInputStream(file), IO.BLOCKSIZE << 4), new CRC32());
+  }
+
+  /**
+   * Reads the records of the next transaction and copies them to their files.
+   * @param in input stream
+   * @param cs checksum of the input stream
+   * @param opened files that have been opened for copying records,
+   *   or {@code null} if the records are only checked
+   * @return {@code true} if a complete transaction with a valid checksum was found
+   * @throws IOException I/O exception
+   */
+  private boolean records(final DataInputStream in, final Checksum cs,
+      final HashMap<String, RandomAccessFile> opened) throws IOException {
+
+    try {
+      while(true) {
+        final int type = in.read();
+        if(type == COMMIT) {
+          final int sum = (int) cs.getValue();
+          final boolean ok = in.readInt() == sum;
+          cs.reset();
+          return ok;
+        }
+        if(type < PAGE || type > FILE) return false;
+        final String name = in.readUTF();
+        if(type == PAGE) {
+          final long pos = in.readLong();
+          final byte[] data = new byte[in.readInt()];
+          in.readFully(data);
+          if(opened != null) {
+            final RandomAccessFile f = file(name, opened);
+            f.seek(pos);
+            f.write(data);
+          }
+        } else if(type == LENGTH) {
+          final long length = in.readLong();
+          if(opened != null) file(name, opened).setLength(length);
+        } else {
+          final byte[] data = new byte[in.readInt()];
+          in.readFully(data);
+          if(opened != null) {
+            final FileOutputStream fos = new FileOutputStream(new File(dir.file(), name));
+            try {
+              fos.write(data);
+              fos.getFD().sync();
+            } finally {
+              fos.close();
+            }
+          }
+        }
+      }
+    } catch(final EOFException ex) {
+      Util.debug(ex);
+      return false;
+    }
+  }
+
+  /**
+   * Returns the handle of the specified file.
+   * @param name file name
+   * @param opened files that have been opened for copying records
+   * @return file handle
+   * @throws IOException I/O exception
+   */
+  private RandomAccessFile file(final String name,
+      final HashMap<String, RandomAccessFile> opened) throws IOException {
+
+    RandomAccessFile f = files.get(name);
+    if(f == null) f = opened.get(name);
+    if(f == null) {
+      f = new RandomAccessFile(new File(dir.file(), name), "rw");
+      opened.put(name, f);
+    }
+    return f;
+  }
+}
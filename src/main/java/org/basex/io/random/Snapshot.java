@@ -0,0 +1,82 @@
+package org.basex.io.random;
+
+import java.util.*;
+
+/**
+ * This class represents a snapshot of the files of a database. It stores the
+ * lengths of the files at the time the snapshot was taken, and the original
+ * contents of all pages that have been overwritten since then.
+ * Snapshots are organized by {@link Versions}.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class Snapshot {
+  /** File lengths, indexed by file names. */
+  private final HashMap<String, Long> lengths = new HashMap<String, Long>();
+  /** Preserved pages, indexed by file names and offsets. */
+  private final HashMap<String, HashMap<Long, byte[]>> pages =
+      new HashMap<String, HashMap<Long, byte[]>>();
+  /** Number of references. */
+  int refs = 1;
+
+  /**
+   * Package-private constructor.
+   */
+  Snapshot() { }
+
+  /**
+   * Assigns the length of a file.
+   * @param name file name
+   * @param length file length
+   */
+  void length(final String name, final long length) {
+    lengths.put(name, length);
+  }
+
+  /**
+   * Returns the length of a file.
+   * @param name file name
+   * @return file length ({@code 0} if the file is unknown)
+   */
+  long length(final String name) {
+    final Long l = lengths.get(name);
+    return l == null ? 0 : l;
+  }
+
+  /**
+   * Returns a preserved page.
+   * @param name file name
+   * @param pos file offset
+   * @return page, or {@code null}
+   */
+  byte[] page(final String name, final long pos) {
+    final HashMap<Long, byte[]> map = pages.get(name);
+    return map != null ? map.get(pos) : null;
+  }
+
+  /**
+   * Preserves a page.
+   * @param name file name
+   * @param pos file offset
+   * @param data page
+   */
+  void page(final String name, final long pos, final byte[] data) {
+    HashMap<Long, byte[]> map = pages.get(name);
+    if(map == null) {
+      map = new HashMap<Long, byte[]>();
+      pages.put(name, map);
+    }
+    map.put(pos, data);
+  }
+
+  /**
+   * Returns the number of preserved pages.
+   * @return number of pages
+   */
+  int pages() {
+    int s = 0;
+    for(final HashMap<Long, byte[]> map : pages.values()) s += map.size();
+    return s;
+  }
+}
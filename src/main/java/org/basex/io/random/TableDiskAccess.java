@@ -10,6 +10,7 @@ import org.basex.core.*;
 import org.basex.data.*;
 import org.basex.io.*;
 import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
 import org.basex.io.out.DataOutput;
 import org.basex.util.*;
 
@@ -21,10 +22,18 @@ import org.basex.util.*;
  * @author Tim Petrowsky
  */
 public final class TableDiskAccess extends TableAccess {
+  /** Name of the table file. */
+  private static final String TABLE = DATATBL + IO.BASEXSUFFIX;
   /** Buffer manager. */
   private final Buffers bm = new Buffers();
   /** File storing all blocks. */
   private final RandomAccessFile file;
+  /** Write-ahead log (can be {@code null}). */
+  private final Journal journal;
+  /** Snapshot that is read by this instance (can be {@code null}). */
+  private final Snapshot snapshot;
+  /** Versions of the database files (can be {@code null}). */
+  private Versions versions;
   /** File lock. */
   private FileLock fl;
 
@@ -32,7 +41,7 @@ public final class TableDiskAccess extends TableAccess {
   private int[] fpres;
   /** Index array storing BlockNumbers (length={@link #allBlocks}). */
   private int[] pages;
-  /** Bitmap storing free (=0) and occupied (=1) pages. */
+  /** Bitmap storing free (=0) and occupied (=1) pages ({@code null} for snapshots). */
   private final BitArray pagemap;
 
   /** Pre value of the first entry in the current block. */
@@ -54,7 +63,23 @@ public final class TableDiskAccess extends TableAccess {
    * @throws IOException I/O exception
    */
   public TableDiskAccess(final MetaData md, final boolean lock) throws IOException {
+    this(md, lock, null);
+  }
+
+  /**
+   * Constructor. If a write-ahead log is specified, changes are written to the
+   * log instead of the table files.
+   * @param md meta data
+   * @param lock exclusive access
+   * @param jr write-ahead log (can be {@code null})
+   * @throws IOException I/O exception
+   */
+  public TableDiskAccess(final MetaData md, final boolean lock, final Journal jr)
+      throws IOException {
+
     super(md);
+    journal = jr;
+    snapshot = null;
 
     // read meta and index data
     final DataInput in = new DataInput(meta.dbfile(DATATBL + 'i'));
@@ -77,6 +102,7 @@ public final class TableDiskAccess extends TableAccess {
 
     // initialize data file
     file = new RandomAccessFile(meta.dbfile(DATATBL).file(), "rw");
+    if(jr != null) jr.register(TABLE, file);
     if(lock) exclusiveLock();
     else sharedLock();
     if(fl == null) throw new BaseXException(Text.DB_PINNED_X, md.name);
@@ -84,6 +110,48 @@ public final class TableDiskAccess extends TableAccess {
     readIndex(0);
   }
 
+  /**
+   * Constructor for reading a snapshot of the table.
+   * @param md meta data of the snapshot
+   * @param ta table
+   * @param s snapshot
+   */
+  private TableDiskAccess(final MetaData md, final TableDiskAccess ta, final Snapshot s) {
+    super(md);
+    file = ta.file;
+    journal = ta.journal;
+    versions = ta.versions;
+    snapshot = s;
+    allBlocks = ta.allBlocks;
+    blocks = ta.blocks;
+    fpres = ta.fpres.clone();
+    pages = ta.pages.clone();
+    pagemap = null;
+    readIndex(0);
+  }
+
+  /**
+   * Assigns the versions of the database files. From now on, overwritten pages
+   * will be preserved for snapshots.
+   * @param v versions
+   */
+  public synchronized void versions(final Versions v) {
+    versions = v;
+  }
+
+  /**
+   * Returns a read-only instance for the current state of the table, which is
+   * not affected by subsequent updates. If this instance is a snapshot itself,
+   * a copy is returned. All buffers must have been flushed before.
+   * @param md meta data of the snapshot
+   * @param s snapshot
+   * @return snapshot instance
+   */
+  public synchronized TableDiskAccess snapshot(final MetaData md, final Snapshot s) {
+    if(snapshot == null) versions.length(s, TABLE, (long) allBlocks * IO.BLOCKSIZE);
+    return new TableDiskAccess(md, this, s);
+  }
+
   /**
    * Checks if the table of the specified database is locked.
    * @param db name of database
@@ -115,7 +183,9 @@ public final class TableDiskAccess extends TableAccess {
   public synchronized void flush() throws IOException {
     for(final Buffer b : bm.all()) if(b.dirty) writeBlock(b);
     if(!dirty) return;
-    final DataOutput out = new DataOutput(meta.dbfile(DATATBL + 'i'));
+    final ArrayOutput ao = journal != null ? new ArrayOutput() : null;
+    final DataOutput out = ao != null ? new DataOutput(ao) :
+      new DataOutput(meta.dbfile(DATATBL + 'i'));
     out.writeNum(allBlocks);
     out.writeNum(blocks);
 
@@ -127,12 +197,16 @@ public final class TableDiskAccess extends TableAccess {
 
     out.writeLongs(pagemap.toArray());
     out.close();
+    if(ao != null) journal.file(DATATBL + 'i' + IO.BASEXSUFFIX, ao.toArray());
     dirty = false;
   }
 
   @Override
   public synchronized void close() throws IOException {
+    // the file of a snapshot is closed by its owner
+    if(snapshot != null) return;
     flush();
+    if(journal != null) journal.unregister(TABLE, file);
     file.close();
   }
 
@@ -515,7 +589,10 @@ public final class TableDiskAccess extends TableAccess {
       bf.pos = b;
       if(b >= allBlocks) {
         allBlocks = b + 1;
-      } else {
+      } else if(snapshot != null) {
+        versions.read(snapshot, TABLE, file, journal, bf.pos * IO.BLOCKSIZE, bf.data);
+      } else if(journal == null || !journal.read(TABLE, bf.pos * IO.BLOCKSIZE,
+          bf.data)) {
         file.seek(bf.pos * IO.BLOCKSIZE);
         file.readFully(bf.data);
       }
@@ -541,8 +618,14 @@ public final class TableDiskAccess extends TableAccess {
    * @throws IOException I/O exception
    */
   private void writeBlock(final Buffer bf) throws IOException {
-    file.seek(bf.pos * IO.BLOCKSIZE);
-    file.write(bf.data);
+    if(versions != null) {
+      versions.write(TABLE, file, journal, bf.pos * IO.BLOCKSIZE, bf.data);
+    } else if(journal != null) {
+      journal.page(TABLE, bf.pos * IO.BLOCKSIZE, bf.data);
+    } else {
+      file.seek(bf.pos * IO.BLOCKSIZE);
+      file.write(bf.data);
+    }
     bf.dirty = false;
   }
 
@@ -0,0 +1,211 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.nio.*;
+
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.util.*;
+
+/**
+ * This class stores the database table in direct byte buffers, which are
+ * allocated outside the Java heap. Nodes are stored in the same big-endian
+ * format as in the table file, and the buffers are organized in segments with
+ * a fixed number of nodes. The memory is released by the garbage collector
+ * once the table is no longer referenced.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class TableOffHeapAccess extends TableAccess {
+  /** Number of nodes per segment (power of two). */
+  private static final int POWER = 20;
+  /** Number of nodes per segment. */
+  private static final int SEGMENT = 1 << POWER;
+  /** Maximum number of nodes that are moved at once. */
+  private static final int CHUNK = 1 << 12;
+
+  /** Segments. */
+  private ByteBuffer[] segments = { ByteBuffer.allocateDirect(1 << 8 << IO.NODEPOWER) };
+  /** Number of nodes that can be stored in the allocated segments. */
+  private long capacity = 1 << 8;
+
+  /**
+   * Stores the table in direct byte buffers.
+   * @param md meta data
+   */
+  public TableOffHeapAccess(final MetaData md) {
+    super(md);
+  }
+
+  @Override
+  public void flush() { }
+
+  @Override
+  public void close() throws IOException { }
+
+  @Override
+  public boolean lock(final boolean lock) {
+    return true;
+  }
+
+  @Override
+  public int read1(final int p, final int o) {
+    return segments[p >>> POWER].get(off(p) + o) & 0xFF;
+  }
+
+  @Override
+  public int read2(final int p, final int o) {
+    return segments[p >>> POWER].getShort(off(p) + o) & 0xFFFF;
+  }
+
+  @Override
+  public int read4(final int p, final int o) {
+    return segments[p >>> POWER].getInt(off(p) + o);
+  }
+
+  @Override
+  public long read5(final int p, final int o) {
+    final ByteBuffer sg = segments[p >>> POWER];
+    final int i = off(p) + o;
+    return (sg.get(i) & 0xFFL) << 32 | sg.getInt(i + 1) & 0xFFFFFFFFL;
+  }
+
+  @Override
+  public void write1(final int p, final int o, final int v) {
+    dirty = true;
+    segments[p >>> POWER].put(off(p) + o, (byte) v);
+  }
+
+  @Override
+  public void write2(final int p, final int o, final int v) {
+    dirty = true;
+    segments[p >>> POWER].putShort(off(p) + o, (short) v);
+  }
+
+  @Override
+  public void write4(final int p, final int o, final int v) {
+    dirty = true;
+    segments[p >>> POWER].putInt(off(p) + o, v);
+  }
+
+  @Override
+  public void write5(final int p, final int o, final long v) {
+    dirty = true;
+    final ByteBuffer sg = segments[p >>> POWER];
+    final int i = off(p) + o;
+    sg.put(i, (byte) (v >>> 32));
+    sg.putInt(i + 1, (int) v);
+  }
+
+  @Override
+  protected void copy(final byte[] entries, final int pre, final int last) {
+    for(int o = 0, p = pre; p < last;) {
+      final int n = Math.min(last - p, SEGMENT - (p & SEGMENT - 1));
+      final ByteBuffer sg = segments[p >>> POWER].duplicate();
+      sg.position(off(p));
+      sg.put(entries, o, n << IO.NODEPOWER);
+      o += n << IO.NODEPOWER;
+      p += n;
+    }
+    dirty = true;
+  }
+
+  @Override
+  public void delete(final int pre, final int nr) {
+    if(nr == 0) return;
+    move(pre + nr, pre);
+  }
+
+  @Override
+  public void insert(final int pre, final byte[] entries) {
+    if(entries.length == 0) return;
+    move(pre, pre + (entries.length >>> IO.NODEPOWER));
+    set(pre, entries);
+  }
+
+  // PRIVATE METHODS ==========================================================
+
+  /**
+   * Returns the offset of a node in its segment.
+   * @param p pre value
+   * @return offset
+   */
+  private static int off(final int p) {
+    return (p & SEGMENT - 1) << IO.NODEPOWER;
+  }
+
+  /**
+   * Moves entries inside the segments.
+   * @param op source position
+   * @param np destination position
+   */
+  private void move(final int op, final int np) {
+    dirty = true;
+    final int l = meta.size - op;
+    ensure((long) np + l);
+
+    // skip appended entries
+    final byte[] tmp = l == 0 ? null : new byte[Math.min(l, CHUNK) << IO.NODEPOWER];
+    if(tmp != null && np > op) {
+      // move entries backwards, starting with the last chunk
+      for(int r = l; r > 0;) {
+        final int s = op + r - 1, d = np + r - 1;
+        final int n = Math.min(Math.min(r, CHUNK),
+            Math.min((s & SEGMENT - 1) + 1, (d & SEGMENT - 1) + 1));
+        r -= n;
+        move(op + r, np + r, n, tmp);
+      }
+    } else if(tmp != null && np < op) {
+      for(int r = 0; r < l;) {
+        final int s = op + r, d = np + r;
+        final int n = Math.min(Math.min(l - r, CHUNK),
+            Math.min(SEGMENT - (s & SEGMENT - 1), SEGMENT - (d & SEGMENT - 1)));
+        move(s, d, n, tmp);
+        r += n;
+      }
+    }
+    meta.size += np - op;
+  }
+
+  /**
+   * Moves entries that do not cross segment boundaries.
+   * @param s source position
+   * @param d destination position
+   * @param n number of entries
+   * @param tmp temporary buffer
+   */
+  private void move(final int s, final int d, final int n, final byte[] tmp) {
+    final int bl = n << IO.NODEPOWER;
+    final ByteBuffer src = segments[s >>> POWER].duplicate();
+    src.position(off(s));
+    src.get(tmp, 0, bl);
+    final ByteBuffer dst = segments[d >>> POWER].duplicate();
+    dst.position(off(d));
+    dst.put(tmp, 0, bl);
+  }
+
+  /**
+   * Ensures that the specified number of nodes can be stored.
+   * The first segment is enlarged until it has reached its final size;
+   * after that, new segments are added.
+   * @param size number of nodes
+   */
+  private void ensure(final long size) {
+    if(size <= capacity) return;
+    if(capacity < SEGMENT) {
+      long c = capacity;
+      while(c < Math.min(size, SEGMENT)) c <<= 1;
+      final ByteBuffer sg = ByteBuffer.allocateDirect((int) c << IO.NODEPOWER);
+      final ByteBuffer old = segments[0].duplicate();
+      old.clear();
+      sg.put(old);
+      segments[0] = sg;
+      capacity = c;
+    }
+    while(capacity < size) {
+      segments = Array.add(segments, ByteBuffer.allocateDirect(SEGMENT << IO.NODEPOWER));
+      capacity += SEGMENT;
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package org.basex.io.random;
+
+import java.nio.*;
+
+import org.basex.util.*;
+
+/**
+ * This class stores texts and attribute values in direct byte buffers, which
+ * are allocated outside the Java heap. Texts are appended to a contiguous
+ * heap and referenced by their offsets. Each text is preceded by its length,
+ * which is stored in the compressed format of {@link DataAccess#readNum}.
+ * The space of deleted texts is not reclaimed.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class TextOffHeapAccess {
+  /** Number of bytes per segment (power of two). */
+  private static final int POWER = 24;
+  /** Number of bytes per segment. */
+  private static final int SEGMENT = 1 << POWER;
+
+  /** Segments. */
+  private ByteBuffer[] segments = { ByteBuffer.allocateDirect(1 << 12) };
+  /** Number of bytes that can be stored in the allocated segments. */
+  private long capacity = 1 << 12;
+  /** Number of used bytes. */
+  private long size;
+
+  /**
+   * Appends a text.
+   * @param text text
+   * @return offset of the text
+   */
+  public long add(final byte[] text) {
+    final long off = size;
+    final int tl = text.length;
+    ensure(off + 5 + tl);
+    long p = off;
+    if(tl > 0x3FFFFFFF) {
+      write(p++, 0xC0);
+      write(p++, tl >>> 24);
+      write(p++, tl >>> 16);
+      write(p++, tl >>> 8);
+    } else if(tl > 0x3FFF) {
+      write(p++, tl >>> 24 | 0x80);
+      write(p++, tl >>> 16);
+      write(p++, tl >>> 8);
+    } else if(tl > 0x3F) {
+      write(p++, tl >>> 8 | 0x40);
+    }
+    write(p++, tl);
+    for(int t = 0; t < tl;) {
+      final int n = Math.min(tl - t, SEGMENT - (int) (p & SEGMENT - 1));
+      final ByteBuffer sg = segments[(int) (p >>> POWER)].duplicate();
+      sg.position((int) (p & SEGMENT - 1));
+      sg.put(text, t, n);
+      t += n;
+      p += n;
+    }
+    size = p;
+    return off;
+  }
+
+  /**
+   * Returns the text at the specified offset.
+   * @param off offset
+   * @return text
+   */
+  public byte[] get(final long off) {
+    final int tl = length(off);
+    final byte[] text = new byte[tl];
+    long p = off + Num.length(tl);
+    for(int t = 0; t < tl;) {
+      final int n = Math.min(tl - t, SEGMENT - (int) (p & SEGMENT - 1));
+      final ByteBuffer sg = segments[(int) (p >>> POWER)].duplicate();
+      sg.position((int) (p & SEGMENT - 1));
+      sg.get(text, t, n);
+      t += n;
+      p += n;
+    }
+    return text;
+  }
+
+  /**
+   * Compares the text at the specified offset with the specified text
+   * without copying it to the Java heap.
+   * @param off offset
+   * @param text text to be compared
+   * @return result of check
+   */
+  public boolean eq(final long off, final byte[] text) {
+    final int tl = text.length;
+    if(length(off) != tl) return false;
+    final long p = off + Num.length(tl);
+    for(int t = 0; t < tl; t++) {
+      if(read(p + t) != (text[t] & 0xFF)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the length of the text at the specified offset.
+   * @param off offset
+   * @return length
+   */
+  public int length(final long off) {
+    final int v = read(off);
+    switch(v & 0xC0) {
+      case 0:
+        return v;
+      case 0x40:
+        return (v - 0x40 << 8) + read(off + 1);
+      case 0x80:
+        return (v - 0x80 << 24) + (read(off + 1) << 16) + (read(off + 2) << 8) +
+          read(off + 3);
+      default:
+        return (read(off + 1) << 24) + (read(off + 2) << 16) + (read(off + 3) << 8) +
+          read(off + 4);
+    }
+  }
+
+  /**
+   * Returns the number of used bytes.
+   * @return size
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Reads a byte.
+   * @param p position
+   * @return byte
+   */
+  private int read(final long p) {
+    return segments[(int) (p >>> POWER)].get((int) (p & SEGMENT - 1)) & 0xFF;
+  }
+
+  /**
+   * Writes a byte.
+   * @param p position
+   * @param v byte
+   */
+  private void write(final long p, final int v) {
+    segments[(int) (p >>> POWER)].put((int) (p & SEGMENT - 1), (byte) v);
+  }
+
+  /**
+   * Ensures that the specified number of bytes can be stored.
+   * The first segment is enlarged until it has reached its final size;
+   * after that, new segments are added.
+   * @param sz number of bytes
+   */
+  private void ensure(final long sz) {
+    if(sz <= capacity) return;
+    if(capacity < SEGMENT) {
+      long c = capacity;
+      while(c < Math.min(sz, SEGMENT)) c <<= 1;
+      final ByteBuffer sg = ByteBuffer.allocateDirect((int) c);
+      final ByteBuffer old = segments[0].duplicate();
+      old.clear();
+      sg.put(old);
+      segments[0] = sg;
+      capacity = c;
+    }
+    while(capacity < sz) {
+      segments = Array.add(segments, ByteBuffer.allocateDirect(SEGMENT));
+      capacity += SEGMENT;
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package org.basex.io.random;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+
+import org.basex.io.*;
+
+/**
+ * This class organizes the snapshots of the files of a database, which allow
+ * readers to access a consistent version of the files while they are being
+ * updated (copy-on-write). Before a page is overwritten or a file is truncated,
+ * the original pages are preserved for all snapshots that may still read them.
+ *
+ * <p>Snapshots are reference counted: preserved pages are discarded as soon as
+ * the last reference to a snapshot has been released.</p>
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class Versions {
+  /** Snapshots that are referenced. */
+  private final ArrayList<Snapshot> snapshots = new ArrayList<Snapshot>();
+
+  /**
+   * Creates a new snapshot, which is referenced once. The file lengths are
+   * assigned by the owners of the files.
+   * @return snapshot
+   */
+  public synchronized Snapshot create() {
+    final Snapshot s = new Snapshot();
+    snapshots.add(s);
+    return s;
+  }
+
+  /**
+   * Adds a reference to the specified snapshot.
+   * @param s snapshot
+   */
+  public synchronized void acquire(final Snapshot s) {
+    s.refs++;
+  }
+
+  /**
+   * Removes a reference to the specified snapshot. If it was the last reference,
+   * the preserved pages of the snapshot are discarded.
+   * @param s snapshot
+   */
+  public synchronized void release(final Snapshot s) {
+    if(--s.refs == 0) snapshots.remove(s);
+  }
+
+  /**
+   * Returns the number of pages that are currently preserved.
+   * @return number of pages
+   */
+  public synchronized int pages() {
+    int p = 0;
+    for(final Snapshot s : snapshots) p += s.pages();
+    return p;
+  }
+
+  /**
+   * Assigns the length of a file to a snapshot.
+   * @param s snapshot
+   * @param name file name
+   * @param length file length
+   */
+  synchronized void length(final Snapshot s, final String name, final long length) {
+    s.length(name, length);
+  }
+
+  /**
+   * Reads a page of a snapshot.
+   * @param s snapshot
+   * @param name file name
+   * @param file file handle
+   * @param jr write-ahead log (can be {@code null})
+   * @param pos file offset
+   * @param data page
+   * @throws IOException I/O exception
+   */
+  synchronized void read(final Snapshot s, final String name, final RandomAccessFile file,
+      final Journal jr, final long pos, final byte[] data) throws IOException {
+
+    final byte[] page = s.page(name, pos);
+    if(page != null) System.arraycopy(page, 0, data, 0, data.length);
+    else read(name, file, jr, pos, data);
+  }
+
+  /**
+   * Writes a page. The original page is preserved for all snapshots that include it.
+   * @param name file name
+   * @param file file handle
+   * @param jr write-ahead log (can be {@code null})
+   * @param pos file offset
+   * @param data page
+   * @throws IOException I/O exception
+   */
+  synchronized void write(final String name, final RandomAccessFile file,
+      final Journal jr, final long pos, final byte[] data) throws IOException {
+
+    preserve(name, file, jr, pos, pos + 1);
+    if(jr != null) {
+      jr.page(name, pos, data);
+    } else {
+      file.seek(pos);
+      file.write(data);
+    }
+  }
+
+  /**
+   * Assigns a new file length. If the file is truncated, the original pages are
+   * preserved for all snapshots that include them.
+   * @param name file name
+   * @param file file handle
+   * @param jr write-ahead log (can be {@code null})
+   * @param length file length
+   * @throws IOException I/O exception
+   */
+  synchronized void length(final String name, final RandomAccessFile file,
+      final Journal jr, final long length) throws IOException {
+
+    long max = 0;
+    for(final Snapshot s : snapshots) max = Math.max(max, s.length(name));
+    preserve(name, file, jr, length & -IO.BLOCKSIZE, max);
+    if(jr != null) jr.length(name, length);
+    else file.setLength(length);
+  }
+
+  // PRIVATE METHODS ==========================================================
+
+  /**
+   * Preserves the pages in the specified range for all snapshots that include
+   * them and have not preserved them yet.
+   * @param name file name
+   * @param file file handle
+   * @param jr write-ahead log (can be {@code null})
+   * @param start offset of the first page
+   * @param end end offset (exclusive)
+   * @throws IOException I/O exception
+   */
+  private void preserve(final String name, final RandomAccessFile file,
+      final Journal jr, final long start, final long end) throws IOException {
+
+    for(long pos = start; pos < end; pos += IO.BLOCKSIZE) {
+      byte[] page = null;
+      for(final Snapshot s : snapshots) {
+        if(pos >= s.length(name) || s.page(name, pos) != null) continue;
+        if(page == null) {
+          page = new byte[IO.BLOCKSIZE];
+          read(name, file, jr, pos, page);
+        }
+        s.page(name, pos, page);
+      }
+    }
+  }
+
+  /**
+   * Reads the current version of a page. Positional reads are used, as the
+   * file pointer may be moved by the owner of the file.
+   * @param name file name
+   * @param file file handle
+   * @param jr write-ahead log (can be {@code null})
+   * @param pos file offset
+   * @param data page
+   * @throws IOException I/O exception
+   */
+  private static void read(final String name, final RandomAccessFile file,
+      final Journal jr, final long pos, final byte[] data) throws IOException {
+
+    if(jr != null && jr.read(name, pos, data)) return;
+    final FileChannel fc = file.getChannel();
+    final ByteBuffer bb = ByteBuffer.wrap(data);
+    while(bb.hasRemaining() && fc.read(bb, pos + bb.position()) != -1);
+  }
+}
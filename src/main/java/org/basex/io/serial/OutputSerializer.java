@@ -14,9 +14,11 @@ import org.basex.io.*;
 import org.basex.io.out.*;
 import org.basex.query.*;
 import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
 import org.basex.util.*;
 import org.basex.util.ft.*;
 import org.basex.util.hash.*;
+import org.basex.util.list.*;
 
 /**
  * This class serializes data to an output stream.
@@ -25,6 +27,19 @@ import org.basex.util.hash.*;
  * @author Christian Gruen
  */
 public abstract class OutputSerializer extends Serializer {
+  /**
+   * Bytes that may need to be encoded by one of the serializers. All other
+   * bytes of a UTF8 token can be written without further conversion.
+   */
+  private static final boolean[] ENCODE = new boolean[256];
+
+  static {
+    for(int b = 0; b < ' '; ++b) ENCODE[b] = true;
+    for(final char ch : "&<>\"/\\".toCharArray()) ENCODE[ch] = true;
+    // leading byte of the characters 0x80-0xBF
+    ENCODE[0xC2] = true;
+  }
+
   /** System document type. */
   private String docsys;
   /** Public document type. */
@@ -215,25 +230,14 @@ public abstract class OutputSerializer extends Serializer {
     print(' ');
     print(n);
     print(ATT1);
-    for(int k = 0; k < v.length; k += cl(v, k)) {
-      final int ch = cp(v, k);
-      if(!format) {
-        printChar(ch);
-      } else if(ch == '"') {
-        print(E_QU);
-      } else if(ch == 0x9 || ch == 0xA) {
-        hex(ch);
-      } else {
-        code(ch);
-      }
-    }
+    code(v, true);
     print(ATT2);
   }
 
   @Override
   public void finishText(final byte[] b) throws IOException {
     if(cdata.isEmpty() || tags.isEmpty() || !cdata.contains(tags.peek())) {
-      for(int k = 0; k < b.length; k += cl(b, k)) code(cp(b, k));
+      code(b, false);
     } else {
       print(CDATA_O);
       int c = 0;
@@ -308,8 +312,7 @@ public abstract class OutputSerializer extends Serializer {
           ni.close();
         }
       } else {
-        final byte[] atom = it.string(null);
-        for(int a = 0; a < atom.length; a += cl(atom, a)) code(cp(atom, a));
+        code(it.string(null), false);
       }
     } catch(final QueryException ex) {
       throw new SerializerException(ex);
@@ -323,6 +326,71 @@ public abstract class OutputSerializer extends Serializer {
     sep = false;
   }
 
+  /**
+   * Indicates if database nodes can be written directly from the table.
+   * Can be overwritten by serializers that do not modify the generic output.
+   * @return result of check
+   */
+  protected boolean fromTable() {
+    return false;
+  }
+
+  @Override
+  protected boolean direct(final DBNode node) throws IOException {
+    // skip nodes that require namespace or per-element processing
+    final Data data = node.data;
+    if(!fromTable() || docsys != null || !cdata.isEmpty() ||
+        !suppress.isEmpty() || data.nspaces.size() != 0) return false;
+    int p = node.pre;
+    int k = data.kind(p);
+    if(k != Data.DOC && k != Data.ELEM) return false;
+
+    // pre values and name ids of opened elements
+    final IntList pars = new IntList();
+    final IntList names = new IntList();
+    final int s = p + data.size(p, k);
+    while(p < s && !finished()) {
+      k = data.kind(p);
+      final int r = data.parent(p, k);
+      // close opened elements...
+      while(!pars.isEmpty() && pars.peek() >= r) {
+        pars.pop();
+        close(data.tagindex.key(names.pop()));
+      }
+
+      if(k == Data.DOC) {
+        openDoc(data.text(p++, true));
+      } else if(k == Data.TEXT) {
+        finishText(data.text(p++, true));
+      } else if(k == Data.COMM) {
+        finishComment(data.text(p++, true));
+      } else if(k == Data.PI) {
+        finishPi(data.name(p, k), data.atom(p++));
+      } else {
+        final int n = data.name(p);
+        startOpen(data.tagindex.key(n));
+        // serialize attributes
+        final int as = p + data.attSize(p, k);
+        final int ps = p + data.size(p, k);
+        while(++p != as) attribute(data.name(p, Data.ATTR), data.text(p, false));
+        if(p == ps) {
+          finishEmpty();
+        } else {
+          finishOpen();
+          level++;
+          pars.push(r);
+          names.push(n);
+        }
+      }
+    }
+    // process remaining elements...
+    while(!pars.isEmpty()) {
+      pars.pop();
+      close(data.tagindex.key(names.pop()));
+    }
+    return true;
+  }
+
   @Override
   public final boolean finished() {
     return out.finished();
@@ -356,6 +424,17 @@ public abstract class OutputSerializer extends Serializer {
     sep = true;
   }
 
+  /**
+   * Closes an element that has been opened by {@link #direct}.
+   * @param name tag name
+   * @throws IOException I/O exception
+   */
+  private void close(final byte[] name) throws IOException {
+    level--;
+    elem = name;
+    finishClose();
+  }
+
   /**
    * Encodes the specified character before printing it.
    * @param ch character to be encoded and printed
@@ -377,6 +456,51 @@ public abstract class OutputSerializer extends Serializer {
     }
   }
 
+  /**
+   * Encodes the specified token before printing it. If the output is encoded
+   * in UTF8, all byte sequences that need no further encoding are written in bulk.
+   * @param token token to be encoded and printed
+   * @param att attribute flag
+   * @throws IOException I/O exception
+   */
+  private void code(final byte[] token, final boolean att) throws IOException {
+    final int tl = token.length;
+    int s = 0;
+    if(utf8) {
+      while(s < tl) {
+        int e = s;
+        while(e < tl && !ENCODE[token[e] & 0xFF]) ++e;
+        if(e > s) out.write(token, s, e - s);
+        if(e == tl) return;
+        s = e;
+        code(cp(token, s), att);
+        s += cl(token, s);
+      }
+    } else {
+      for(; s < tl; s += cl(token, s)) code(cp(token, s), att);
+    }
+  }
+
+  /**
+   * Encodes the specified character before printing it.
+   * @param ch character to be encoded and printed
+   * @param att attribute flag
+   * @throws IOException I/O exception
+   */
+  private void code(final int ch, final boolean att) throws IOException {
+    if(!att) {
+      code(ch);
+    } else if(!format) {
+      printChar(ch);
+    } else if(ch == '"') {
+      print(E_QU);
+    } else if(ch == 0x9 || ch == 0xA) {
+      hex(ch);
+    } else {
+      code(ch);
+    }
+  }
+
   /**
    * Prints the document type declaration.
    * @param dt document type, or {@code null} for html type
@@ -460,7 +584,7 @@ public abstract class OutputSerializer extends Serializer {
   protected final void print(final byte[] token) throws IOException {
     // comparison by reference
     if(utf8) {
-      for(final byte b : token) out.write(b);
+      out.write(token);
     } else {
       out.write(string(token).getBytes(encoding));
     }
@@ -474,7 +598,7 @@ public abstract class OutputSerializer extends Serializer {
   protected final void print(final String s) throws IOException {
     // comparison by reference
     if(utf8) {
-      for(final byte b : token(s)) out.write(b);
+      out.write(token(s));
     } else {
       out.write(s.getBytes(encoding));
     }
@@ -187,6 +187,18 @@ public abstract class Serializer {
     }
   }
 
+  /**
+   * Serializes a database node and its descendants directly from the table.
+   * Can be overwritten by serializers that need no per-node processing.
+   * @param node database node
+   * @return {@code true} if the node was serialized
+   * @throws IOException I/O exception
+   */
+  @SuppressWarnings("unused")
+  protected boolean direct(final DBNode node) throws IOException {
+    return false;
+  }
+
   /**
    * Serializes a text.
    * @param v value
@@ -314,6 +326,9 @@ public abstract class Serializer {
    */
   private void node(final DBNode node) throws IOException {
     final FTPosData ft = node instanceof FTPosNode ? ((FTPosNode) node).ft : null;
+    // skip generic serialization if node can be directly written
+    if(ft == null && level == 0 && !opening && direct(node)) return;
+
     final Data data = node.data;
 
     boolean doc = false;
@@ -20,4 +20,9 @@ public class XMLSerializer extends OutputSerializer {
   XMLSerializer(final OutputStream os, final SerializerProp p) throws IOException {
     super(os, p, V10, V11);
   }
+
+  @Override
+  protected boolean fromTable() {
+    return true;
+  }
 }
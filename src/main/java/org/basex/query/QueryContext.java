@@ -200,6 +200,18 @@ public final class QueryContext extends Progress {
         CTXINIT.thrw(((ParseExpr) ctxItem).info, ex);
       }
     } else if(nodes != null) {
+      // use snapshot of the database if the query is not locked
+      final Data d;
+      try {
+        d = context.snapshot(nodes.data);
+      } catch(final IOException ex) {
+        throw BXDB_OPEN.thrw(null, ex);
+      }
+      if(d != nodes.data) {
+        final boolean r = nodes.root;
+        nodes = new Nodes(r ? d.resources.docs().toArray() : nodes.pres, d, nodes.ftpos);
+        nodes.root = r;
+      }
       // add full-text container reference
       if(nodes.ftpos != null) ftpos = new FTPosData();
       // cache the initial context nodes
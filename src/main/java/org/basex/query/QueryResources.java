@@ -39,6 +39,8 @@ public final class QueryResources {
   private String[] collName = new String[1];
   /** Number of collections. */
   private int colls;
+  /** Opened inputs, which are closed at the latest when the query is closed. */
+  private final ArrayList<InputStream> inputs = new ArrayList<InputStream>();
 
   /**
    * Constructor.
@@ -78,6 +80,31 @@ public final class QueryResources {
       Close.close(data[d], ctx.context);
     }
     datas = 0;
+
+    for(final InputStream in : inputs) {
+      try {
+        in.close();
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+    }
+    inputs.clear();
+  }
+
+  /**
+   * Registers an input that is read lazily.
+   * @param in input
+   */
+  public void add(final InputStream in) {
+    inputs.add(in);
+  }
+
+  /**
+   * Unregisters an input that has been closed.
+   * @param in input
+   */
+  public void remove(final InputStream in) {
+    inputs.remove(in);
   }
 
   /**
@@ -95,7 +122,7 @@ public final class QueryResources {
 
     try {
       // open and add new data reference
-      final Data d = Open.open(name, ctx.context);
+      final Data d = open(name);
       addData(d);
       return d;
     } catch(final IOException ex) {
@@ -231,7 +258,7 @@ public final class QueryResources {
     if(input.db != null) {
       try {
         // try to open database
-        final Data d = Open.open(input.db, ctx.context);
+        final Data d = open(input.db);
         addData(d);
         return d;
       } catch(final IOException ex) {
@@ -241,6 +268,23 @@ public final class QueryResources {
     return null;
   }
 
+  /**
+   * Opens the specified database. Returns a snapshot if the query is evaluated
+   * on snapshots.
+   * @param name name of database
+   * @return data reference
+   * @throws IOException I/O exception
+   */
+  private Data open(final String name) throws IOException {
+    final Data d = Open.open(name, ctx.context);
+    try {
+      return ctx.context.snapshot(d);
+    } catch(final IOException ex) {
+      Close.close(d, ctx.context);
+      throw ex;
+    }
+  }
+
   /**
    * Creates a new database instance.
    * @param input query input
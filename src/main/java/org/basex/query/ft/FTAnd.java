@@ -81,8 +81,9 @@ public final class FTAnd extends FTExpr {
             }
           } else {
             if(d != 0) {
-              if(d < 0) i = 0;
-              it[i] = ir[i].next();
+              // skip nodes with smaller pre values
+              if(d < 0) it[0] = ir[0].skip(it[i].pre);
+              else it[i] = ir[i].skip(it[0].pre);
               i = -1;
             }
           }
@@ -99,6 +100,15 @@ public final class FTAnd extends FTExpr {
         it[0] = ir[0].next();
         return item;
       }
+
+      @Override
+      public FTNode skip(final int pre) throws QueryException {
+        // skip nodes with smaller pre values; negated nodes are skipped by next()
+        for(int i = 0; i < it.length; ++i) {
+          if(!neg[i] && it[i] != null && it[i].pre < pre) it[i] = ir[i].skip(pre);
+        }
+        return next();
+      }
     };
   }
 
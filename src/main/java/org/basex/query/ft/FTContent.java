@@ -4,6 +4,7 @@ import static org.basex.query.QueryText.*;
 import static org.basex.util.Token.*;
 
 import org.basex.data.*;
+import org.basex.index.ft.*;
 import org.basex.query.*;
 import org.basex.query.value.node.*;
 import org.basex.util.*;
@@ -38,13 +39,41 @@ public final class FTContent extends FTFilter {
   @Override
   protected boolean filter(final QueryContext ctx, final FTMatch mtc,
       final FTLexer lex) {
+    return filter(mtc, start ? 0 : lex.count());
+  }
+
+  @Override
+  boolean filter(final QueryContext ctx, final FTNode item, final FTLexer lex) {
+    // count tokens only once; if no tokenizer is given, use the full-text index
+    final int c = start ? 0 : lex != null ? lex.count() :
+      ((FTIndex) item.data.ftxindex).length(item.pre);
+    final FTMatches all = item.all;
+    for(int a = 0; a < all.size; ++a) {
+      if(!filter(all.match[a], c)) all.delete(a--);
+    }
+    return all.size != 0;
+  }
+
+  @Override
+  FTLexer lexer(final FTNode item) {
+    return start || ((FTIndex) item.data.ftxindex).length(item.pre) != -1 ? null :
+      super.lexer(item);
+  }
+
+  /**
+   * Evaluates the filter expression.
+   * @param mtc full-text match
+   * @param c number of tokens of the text (ignored if start flag is set)
+   * @return result of check
+   */
+  private boolean filter(final FTMatch mtc, final int c) {
     if(start) {
       for(final FTStringMatch sm : mtc) if(sm.s == 0) return true;
     } else if(end) {
-      final int p = lex.count() - 1;
+      final int p = c - 1;
       for(final FTStringMatch sm : mtc) if(sm.e == p) return true;
     } else {
-      final int s = lex.count();
+      final int s = c;
       final boolean[] bl = new boolean[s];
       for(final FTStringMatch sm : mtc) {
         if(sm.g) continue;
@@ -43,16 +43,40 @@ public abstract class FTFilter extends FTExpr {
     return new FTIter() {
       @Override
       public FTNode next() throws QueryException {
-        FTNode it;
-        while((it = ir.next()) != null) {
-          if(filter(ctx, it, content() ?
-              new FTLexer().init(it.string(info)) : null)) break;
+        return filter(ir.next());
+      }
+
+      @Override
+      public FTNode skip(final int pre) throws QueryException {
+        return filter(ir.skip(pre));
+      }
+
+      /**
+       * Returns the first node, starting with the specified node, which
+       * passes the filter.
+       * @param node first node
+       * @return node or {@code null}
+       * @throws QueryException query exception
+       */
+      private FTNode filter(final FTNode node) throws QueryException {
+        for(FTNode it = node; it != null; it = ir.next()) {
+          if(FTFilter.this.filter(ctx, it, lexer(it))) return it;
         }
-        return it;
+        return null;
       }
     };
   }
 
+  /**
+   * Returns a tokenizer for the text of an index result.
+   * @param item index result
+   * @return tokenizer, or {@code null} if the token positions of the index
+   * suffice to evaluate the filter
+   */
+  FTLexer lexer(final FTNode item) {
+    return content() ? new FTLexer().init(item.string(info)) : null;
+  }
+
   /**
    * Evaluates the position filters.
    * @param ctx query context
@@ -61,7 +85,7 @@ public abstract class FTFilter extends FTExpr {
    * @return result of check
    * @throws QueryException query exception
    */
-  final boolean filter(final QueryContext ctx, final FTNode item,
+  boolean filter(final QueryContext ctx, final FTNode item,
       final FTLexer lex) throws QueryException {
 
     final FTMatches all = item.all;
@@ -37,8 +37,16 @@ public final class FTIndexAccess extends Simple {
 
   @Override
   public NodeIter iter(final QueryContext ctx) throws QueryException {
-    final FTIter ir = ftexpr.iter(ctx);
+    return iter(ftexpr.iter(ctx), ctx);
+  }
 
+  /**
+   * Returns an iterator for the specified full-text results.
+   * @param ir full-text iterator
+   * @param ctx query context
+   * @return node iterator
+   */
+  public static NodeIter iter(final FTIter ir, final QueryContext ctx) {
     return new NodeIter() {
       @Override
       public ANode next() throws QueryException {
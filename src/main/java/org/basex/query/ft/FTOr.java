@@ -81,6 +81,15 @@ public final class FTOr extends FTExpr {
         it[p] = ir[p].next();
         return item;
       }
+
+      @Override
+      public FTNode skip(final int pre) throws QueryException {
+        // skip nodes with smaller pre values
+        for(int i = 0; i < it.length; ++i) {
+          if(it[i] != null && it[i].pre < pre) it[i] = ir[i].skip(pre);
+        }
+        return next();
+      }
     };
   }
 
@@ -74,7 +74,8 @@ final class FTTokenizer {
   }
 
   /**
-   * Returns a new lexer, adopting the tokenizer options.
+   * Returns a new lexer, adopting the tokenizer options. As input tokens are
+   * only compared with the query tokens, they are returned in reusable arrays.
    * @param lex input lexer
    * @return lexer
    */
@@ -87,7 +88,7 @@ final class FTTokenizer {
     to.ln = opt.ln;
     to.th = opt.th;
     to.sd = opt.sd;
-    return new FTLexer(to).init(lex.text());
+    return new FTLexer(to).reuse().init(lex.text());
   }
 
   /**
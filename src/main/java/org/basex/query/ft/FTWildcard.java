@@ -2,6 +2,8 @@ package org.basex.query.ft;
 
 import static org.basex.util.Token.*;
 
+import java.util.*;
+
 import org.basex.util.*;
 
 /**
@@ -122,6 +124,15 @@ public final class FTWildcard {
     return tb.finish();
   }
 
+  /**
+   * Returns the characters of the expression. Wildcards are represented as
+   * {@code -1}.
+   * @return characters
+   */
+  public int[] chars() {
+    return Arrays.copyOf(wc, size);
+  }
+
   /**
    * Checks if the wildcard can match a sub-string in a string.
    * @param t token to search for match
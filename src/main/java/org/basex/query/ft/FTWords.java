@@ -3,6 +3,8 @@ package org.basex.query.ft;
 import static org.basex.query.QueryText.*;
 import static org.basex.util.ft.FTFlag.*;
 
+import java.util.*;
+
 import org.basex.data.*;
 import org.basex.index.query.*;
 import org.basex.query.*;
@@ -124,35 +126,13 @@ public final class FTWords extends FTExpr {
       @Override
       public FTNode next() throws QueryException {
         if(iat == null) {
-          final FTLexer lex = new FTLexer(ftt.opt);
-
-          // index iterator tree
-          FTIndexIterator ia;
-          // number of distinct tokens
-          int t  = 0;
-          // loop through all tokens
-          final TokenSet ts = tokens(txt != null ? txt : tokens(ctx), ftt.opt);
-          for(final byte[] k : ts) {
-            lex.init(k);
-            ia = null;
-            int d = 0;
-            if(!lex.hasNext()) return null;
-            do {
-              final byte[] tok = lex.nextToken();
-              t += tok.length;
-              if(ftt.opt.sw != null && ftt.opt.sw.id(tok) != 0) {
-                ++d;
-              } else {
-                final FTIndexIterator ir = lex.get().length > data.meta.maxlen ?
-                    scan(lex) : (FTIndexIterator) data.iter(lex);
-                if(ia == null) {
-                  ia = ir;
-                } else {
-                  ia = FTIndexIterator.intersect(ia, ir, ++d);
-                  d = 0;
-                }
-              }
-            } while(lex.hasNext());
+          final IntList lens = new IntList();
+          final FTIndexIterator[] iters = iters(lens, ctx);
+          if(iters == null) return null;
+          final int is = iters.length;
+          for(int i = 0; i < is; i++) {
+            final FTIndexIterator ia = iters[i];
+            final int t = lens.get(i);
             // create or combine iterator
             if(iat == null) {
               len = t;
@@ -170,8 +150,113 @@ public final class FTWords extends FTExpr {
           }
         }
         // [CG] XQuery, Full-Text: check scoring in index-based model
-        return iat == null || !iat.more() ? null : new FTNode(iat.matches(),
-            data, iat.next(), len, iat.size(), -1);
+        return iat == null || !iat.more() ? null : node();
+      }
+
+      @Override
+      public FTNode skip(final int pre) throws QueryException {
+        // the first call initializes the index iterators
+        if(iat == null) {
+          final FTNode n = next();
+          return n == null || n.pre >= pre ? n : skip(pre);
+        }
+        return iat.skip(pre) ? node() : null;
+      }
+
+      /**
+       * Returns a node for the current index result.
+       * @return node
+       */
+      private FTNode node() {
+        return new FTNode(iat.matches(), data, iat.next(), len, iat.size(), iat.score());
+      }
+    };
+  }
+
+  /**
+   * Returns the index iterators for all distinct terms of the query.
+   * @param lens list for the summed-up token lengths after each term
+   * @param ctx query context
+   * @return iterators, or {@code null} if a term contains no tokens
+   * @throws QueryException query exception
+   */
+  private FTIndexIterator[] iters(final IntList lens, final QueryContext ctx)
+      throws QueryException {
+
+    final FTLexer lex = new FTLexer(ftt.opt);
+    final TokenSet ts = tokens(txt != null ? txt : tokens(ctx), ftt.opt);
+    final FTIndexIterator[] iters = new FTIndexIterator[ts.size()];
+    // number of distinct tokens
+    int t = 0, i = 0;
+    // loop through all tokens
+    for(final byte[] k : ts) {
+      lex.init(k);
+      // index iterator tree
+      FTIndexIterator ia = null;
+      int d = 0;
+      if(!lex.hasNext()) return null;
+      do {
+        final byte[] tok = lex.nextToken();
+        t += tok.length;
+        if(ftt.opt.sw != null && ftt.opt.sw.id(tok) != 0) {
+          ++d;
+        } else {
+          final FTIndexIterator ir = lex.get().length > data.meta.maxlen ?
+              scan(lex) : (FTIndexIterator) data.iter(lex);
+          if(ia == null) {
+            ia = ir;
+          } else {
+            ia = FTIndexIterator.intersect(ia, ir, ++d);
+            d = 0;
+          }
+        }
+      } while(lex.hasNext());
+      iters[i++] = ia;
+      lens.add(t);
+    }
+    return iters;
+  }
+
+  /**
+   * Returns the {@code k} best-scoring index results, ordered by descending
+   * score. If any of the terms may occur and if the index provides score
+   * bounds, results that cannot be part of the top results are skipped
+   * (see {@link FTRanking}). Otherwise, all results are scored.
+   * @param k number of results
+   * @param ctx query context
+   * @return iterator
+   * @throws QueryException query exception
+   */
+  public FTIter top(final int k, final QueryContext ctx) throws QueryException {
+    final FTRanking rank = new FTRanking(k);
+    boolean ranked = false;
+    if(mode == FTMode.ANY || mode == FTMode.ANY_WORD) {
+      final FTIndexIterator[] iters = iters(new IntList(), ctx);
+      ranked = iters != null && rank.rank(iters);
+    }
+    if(!ranked) {
+      final FTIter ir = iter(ctx);
+      for(FTNode n; (n = ir.next()) != null;) rank.add(n.pre, n.score());
+    }
+
+    // retrieve matches of the top results in document order
+    final int[] pres = rank.pres();
+    final int[] sorted = pres.clone();
+    Arrays.sort(sorted);
+    final FTIter ir = iter(ctx);
+    final IntMap<FTNode> nodes = new IntMap<FTNode>();
+    for(final int p : sorted) {
+      final FTNode n = ir.skip(p);
+      final FTMatches all = new FTMatches(n.all.sTokenNum);
+      for(final FTMatch m : n.all) all.add(m);
+      n.all = all;
+      nodes.add(p, n);
+    }
+    return new FTIter() {
+      int p;
+      @Override
+      public FTNode next() {
+        return p < pres.length ? nodes.get(pres[p++]) : null;
       }
     };
   }
@@ -364,14 +449,9 @@ public final class FTWords extends FTExpr {
         if(fto.sw != null && fto.sw.id(tok) != 0) continue;
 
         if(fto.is(WC)) {
-          // don't use index if one of the terms starts with a wildcard
+          // don't use index if certain characters are found
           t = ft.get();
-          if(t[0] == '.') return false;
-          // don't use index if certain characters or more than 1 dot are found
-          int d = 0;
-          for(final byte w : t) {
-            if(w == '{' || w == '\\' || w == '.' && ++d > 1) return false;
-          }
+          for(final byte w : t) if(w == '{' || w == '\\') return false;
         }
         // reduce number of expected results to favor full-text index requests
         ic.addCosts(Math.max(1, ic.data.count(ft) >> 10));
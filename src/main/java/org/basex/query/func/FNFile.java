@@ -327,7 +327,13 @@ public final class FNFile extends StandardFunc {
    */
   private Iter readTextLines(final File path, final QueryContext ctx)
       throws QueryException {
-    return FNGen.textIter(readText(path, ctx).string(info));
+
+    return new FNGen.LineIter(readText(path, ctx).input(info), ctx) {
+      @Override
+      QueryException error(final IOException ex) throws QueryException {
+        throw FILE_IO.thrw(info, path);
+      }
+    };
   }
 
   /**
@@ -40,6 +40,8 @@ public final class FNFt extends StandardFunc {
   private static final byte[] WILDCARDS = token("wildcards");
   /** Search mode. */
   private static final byte[] MODE = token("mode");
+  /** Number of best-scoring results. */
+  private static final byte[] TOP = token("top");
 
   /**
    * Constructor.
@@ -199,6 +201,7 @@ public final class FNFt extends StandardFunc {
     final FTOpt tmp = ctx.ftOpt();
     final FTOpt opt = new FTOpt().copy(data.meta);
     FTMode m = FTMode.ANY;
+    int top = 0;
     if(map != null) {
       for(final byte[] k : map) {
         final byte[] v = map.get(k);
@@ -211,6 +214,9 @@ public final class FNFt extends StandardFunc {
         } else if(eq(k, MODE)) {
           m = FTMode.get(v);
           if(m == null) ELMOPTION.thrw(info, v);
+        } else if(eq(k, TOP)) {
+          top = toInt(v);
+          if(top <= 0) ELMOPTION.thrw(info, v);
         } else {
           ELMOPTION.thrw(info, k);
         }
@@ -220,7 +226,9 @@ public final class FNFt extends StandardFunc {
     ctx.ftOpt(opt);
     final FTWords words = new FTWords(info, ic.data, terms, m, ctx).compile(ctx);
     ctx.ftOpt(tmp);
-    return new FTIndexAccess(info, words, ic).iter(ctx);
+    // return best-scoring results or all results in document order
+    return top > 0 ? FTIndexAccess.iter(words.top(top, ctx), ctx) :
+      new FTIndexAccess(info, words, ic).iter(ctx);
   }
 
   /**
@@ -204,71 +204,143 @@ public final class FNGen extends StandardFunc {
     if(base == null) throw STBASEURI.thrw(info);
 
     try {
-      final String p = string(path);
-      if(p.indexOf('#') != -1) FRAGID.thrw(info, p);
-      if(!Uri.uri(token(p)).isValid()) INVURL.thrw(info, p);
-
-      IO io = base.merge(p);
-      final String rp = ctx.resource.resources.get(io.path());
-      if(rp != null) io = IO.get(rp);
-      if(!io.exists()) throw RESNF.thrw(info, p);
-
-      final InputStream is = io.inputStream();
+      final TextInput ti = new TextInput(unparsed(base, path, ctx));
       try {
-        final TextInput ti = new TextInput(io);
         if(enc != null) ti.encoding(enc);
         if(full) return Str.get(ti.content());
         while(ti.read() != -1);
         return Bln.TRUE;
       } finally {
-        is.close();
+        ti.close();
       }
     } catch(final QueryException ex) {
       if(!full) return Bln.FALSE;
       throw ex;
     } catch(final IOException ex) {
       if(!full) return Bln.FALSE;
-      if(ex instanceof EncodingException) INVCHARS.thrw(info, ex);
-      if(ex instanceof InputException && enc == null) WHICHCHARS.thrw(info);
-      throw SERANY.thrw(info, ex);
+      throw unparsedError(ex, enc);
     }
   }
 
   /**
-   * Performs the unparsed-text-lines function.
+   * Performs the unparsed-text-lines function. The lines are read lazily.
    * @param ctx query context
    * @return result
    * @throws QueryException query exception
    */
-  Iter unparsedTextLines(final QueryContext ctx) throws QueryException {
-    return textIter(unparsedText(ctx, true).string(info));
-  }
+  private Iter unparsedTextLines(final QueryContext ctx) throws QueryException {
+    checkCreate(ctx);
+    final byte[] path = checkStr(expr[0], ctx);
+    final String enc = encoding(1, WHICHENC, ctx);
+    final IO base = ctx.sc.baseIO();
+    if(base == null) throw STBASEURI.thrw(info);
 
-  /**
-   * Returns the specified text as lines.
-   * @param str text input
-   * @return result
-   */
-  static Iter textIter(final byte[] str) {
-    // not I/O exception expected, as input is a main-memory array
+    final IO io = unparsed(base, path, ctx);
     try {
-      final NewlineInput nli = new NewlineInput(new ArrayInput(str));
-      return new Iter() {
+      return new LineIter(new NewlineInput(io).encoding(enc), ctx) {
         @Override
-        public Item next() {
-          try {
-            final TokenBuilder tb = nli.readLine();
-            return tb == null ? null : Str.get(tb.finish());
-          } catch(final IOException ex) {
-            throw Util.notexpected(ex);
-          }
+        QueryException error(final IOException ex) throws QueryException {
+          return unparsedError(ex, enc);
         }
       };
     } catch(final IOException ex) {
-      throw Util.notexpected(ex);
+      throw unparsedError(ex, enc);
     }
   }
 
+  /**
+   * Returns the input of the unparsed-text functions.
+   * @param base base uri
+   * @param path path to the resource
+   * @param ctx query context
+   * @return input
+   * @throws QueryException query exception
+   */
+  private IO unparsed(final IO base, final byte[] path, final QueryContext ctx)
+      throws QueryException {
+
+    final String p = string(path);
+    if(p.indexOf('#') != -1) FRAGID.thrw(info, p);
+    if(!Uri.uri(token(p)).isValid()) INVURL.thrw(info, p);
+
+    IO io = base.merge(p);
+    final String rp = ctx.resource.resources.get(io.path());
+    if(rp != null) io = IO.get(rp);
+    if(!io.exists()) throw RESNF.thrw(info, p);
+    return io;
+  }
+
+  /**
+   * Throws an error for an input exception raised by the unparsed-text functions.
+   * @param ex input exception
+   * @param enc encoding (may be {@code null})
+   * @return query exception (indicates that an error is raised)
+   * @throws QueryException query exception
+   */
+  QueryException unparsedError(final IOException ex, final String enc)
+      throws QueryException {
+    if(ex instanceof EncodingException) INVCHARS.thrw(info, ex);
+    if(ex instanceof InputException && enc == null) WHICHCHARS.thrw(info);
+    throw SERANY.thrw(info, ex);
+  }
+
+  /**
+   * Iterator over the lines of a text input. The input is decoded and read
+   * lazily; it is closed after the last line, or when the query is closed.
+   */
+  abstract static class LineIter extends Iter {
+    /** Text input ({@code null} if the input has been closed). */
+    private NewlineInput input;
+    /** Query resources. */
+    private final QueryResources resources;
+
+    /**
+     * Constructor.
+     * @param nli text input
+     * @param ctx query context
+     */
+    LineIter(final NewlineInput nli, final QueryContext ctx) {
+      input = nli;
+      resources = ctx.resource;
+      resources.add(nli);
+    }
+
+    @Override
+    public Item next() throws QueryException {
+      if(input == null) return null;
+      try {
+        final TokenBuilder tb = input.readLine();
+        if(tb != null) return Str.get(tb.finish());
+        close();
+        return null;
+      } catch(final IOException ex) {
+        close();
+        throw error(ex);
+      }
+    }
+
+    /**
+     * Closes the input.
+     */
+    private void close() {
+      resources.remove(input);
+      try {
+        input.close();
+      } catch(final IOException ex) {
+        Util.debug(ex);
+      }
+      input = null;
+    }
+
+    /**
+     * Throws an error for the specified input exception.
+     * @param ex input exception
+     * @return query exception (indicates that an error is raised)
+     * @throws QueryException query exception
+     */
+    abstract QueryException error(final IOException ex) throws QueryException;
+  }
+
   /**
    * Performs the parse-xml function.
    * @param ctx query context
@@ -1,9 +1,12 @@
 package org.basex.query.func;
 
+import java.util.*;
+
 import org.basex.query.*;
 import org.basex.query.expr.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.http.*;
+import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
 import org.basex.util.*;
@@ -27,6 +30,7 @@ public final class FNHttp extends StandardFunc {
   @Override
   public Iter iter(final QueryContext ctx) throws QueryException {
     checkCreate(ctx);
+    if(sig == Function._HTTP_SEND_REQUESTS) return sendRequests(ctx).iter();
 
     // get request node
     final ANode request = expr[0].item(ctx, info) == null ? null :
@@ -47,6 +51,24 @@ public final class FNHttp extends StandardFunc {
     return new HTTPClient(info, ctx.context.prop).sendRequest(href, request, cache);
   }
 
+  /**
+   * Sends several HTTP requests concurrently.
+   * @param ctx query context
+   * @return responses
+   * @throws QueryException query exception
+   */
+  private Value sendRequests(final QueryContext ctx) throws QueryException {
+    final ArrayList<ANode> requests = new ArrayList<ANode>();
+    final Iter ir = expr[0].iter(ctx);
+    for(Item it; (it = ir.next()) != null;) requests.add(checkNode(it));
+
+    // at least one request is sent at a time
+    final long c = expr.length > 1 ? checkItr(expr[1], ctx) : HTTPClient.CONCURRENCY;
+    return new HTTPClient(info, ctx.context.prop).sendRequests(
+        requests.toArray(new ANode[requests.size()]),
+        (int) Math.max(1, Math.min(c, Integer.MAX_VALUE)));
+  }
+
   @Override
   public boolean uses(final Use u) {
     return u == Use.NDT || super.uses(u);
@@ -4,6 +4,7 @@ import static org.basex.query.QueryText.*;
 import static org.basex.query.util.Err.*;
 import static org.basex.util.Token.*;
 
+import java.util.*;
 import java.util.regex.*;
 
 import org.basex.query.*;
@@ -37,6 +38,14 @@ public final class FNPat extends StandardFunc {
   /** Attribute for the analyze-string-result function. */
   private static final QNm NR = new QNm("nr");
 
+  /** Maximum number of dynamically compiled patterns that will be cached. */
+  private static final int MAXCACHE = 256;
+  /** Cached patterns, indexed by their modifiers and regular expressions. */
+  private static final PatternCache CACHE = new PatternCache();
+
+  /** Pattern (assigned at compile time if expression and modifiers are static). */
+  private Pattern pat;
+
   /**
    * Constructor.
    * @param ii input info
@@ -47,6 +56,20 @@ public final class FNPat extends StandardFunc {
     super(ii, f, e);
   }
 
+  @Override
+  Expr comp(final QueryContext ctx) throws QueryException {
+    final Expr mod = expr.length == (sig == Function.REPLACE ? 4 : 3) ?
+        expr[expr.length - 1] : null;
+    if(expr[1].isValue() && (mod == null || mod.isValue())) {
+      try {
+        pat = pattern(expr[1], mod, ctx);
+      } catch(final QueryException ex) {
+        // invalid patterns will be rejected at runtime
+      }
+    }
+    return this;
+  }
+
   @Override
   public Iter iter(final QueryContext ctx) throws QueryException {
     switch(sig) {
@@ -212,9 +235,23 @@ public final class FNPat extends StandardFunc {
    * @throws org.basex.query.QueryException query exception
    */
   private Pattern pattern(final Expr pattern, final Expr mod, final QueryContext ctx)
-      throws QueryException {
-    return RegExParser.parse(checkStr(pattern, ctx),
-        mod != null ? checkStr(mod, ctx) : null, ctx.xquery3, info);
+      throws QueryException {
+
+    if(pat != null) return pat;
+    final byte[] regex = checkStr(pattern, ctx);
+    final byte[] m = mod != null ? checkStr(mod, ctx) : EMPTY;
+    // the length of the modifiers is included to get unique keys
+    final String key = new TokenBuilder().add(ctx.xquery3 ? '3' : '1').addLong(
+        m.length).add(':').add(m).add(regex).toString();
+
+    synchronized(CACHE) {
+      Pattern p = CACHE.get(key);
+      if(p == null) {
+        p = RegExParser.parse(regex, m, ctx.xquery3, info);
+        CACHE.put(key, p);
+      }
+      return p;
+    }
   }
 
   @Override
@@ -222,4 +259,20 @@ public final class FNPat extends StandardFunc {
     return sig == Function.ANALYZE_STRING && (u == Use.X30 || u == Use.CNS) ||
         super.uses(u);
   }
+
+  /**
+   * Cache for compiled patterns. The least recently used entries are discarded
+   * if the maximum size is exceeded.
+   */
+  private static final class PatternCache extends LinkedHashMap<String, Pattern> {
+    /** Constructor. */
+    PatternCache() {
+      super(MAXCACHE, 0.75f, true);
+    }
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String, Pattern> eldest) {
+      return size() > MAXCACHE;
+    }
+  }
 }
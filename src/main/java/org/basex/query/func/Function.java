@@ -721,6 +721,9 @@ public enum Function {
   /** XQuery function */
   _HTTP_SEND_REQUEST(FNHttp.class, "send-request(request[,href,[bodies]])",
       ITEM_ZM, 1, NOD, STR_ZO, ITEM_ZM),
+  /** XQuery function */
+  _HTTP_SEND_REQUESTS(FNHttp.class, "send-requests(requests[,concurrency])",
+      ITEM_ZM, 1, ELM_ZM, ITR),
 
   /* FNJson functions. */
 
@@ -23,6 +23,8 @@ public final class JavaFunc extends JavaMapping {
   private final Class<?> cls;
   /** Java method. */
   private final String mth;
+  /** Member resolved by the last call ({@code null} if no call has been made). */
+  private JavaCall call;
 
   /**
    * Constructor.
@@ -42,7 +44,13 @@ public final class JavaFunc extends JavaMapping {
       throws QueryException {
 
     try {
-      return mth.equals(NEW) ? constructor(args) : method(args, ctx);
+      // only resolve the member if the argument types have changed
+      JavaCall jc = call;
+      if(jc == null || !jc.matches(args)) {
+        jc = new JavaCall(mth.equals(NEW) ? constructor(args) : method(args), args);
+        call = jc;
+      }
+      return jc.invoke(args, ctx);
     } catch(final InvocationTargetException ex) {
       final Throwable cause = ex.getCause();
       throw cause instanceof QueryException ? ((QueryException) cause).info(info) :
@@ -53,48 +61,36 @@ public final class JavaFunc extends JavaMapping {
   }
 
   /**
-   * Calls a constructor.
+   * Finds a constructor that matches the specified arguments.
    * @param ar arguments
-   * @return resulting object
+   * @return constructor
    * @throws Exception exception
    */
-  private Object constructor(final Value[] ar) throws Exception {
+  private Constructor<?> constructor(final Value[] ar) throws Exception {
     for(final Constructor<?> con : cls.getConstructors()) {
-      final Object[] arg = args(con.getParameterTypes(), ar, true);
-      if(arg != null) return con.newInstance(arg);
+      if(args(con.getParameterTypes(), ar, true) != null) return con;
     }
     throw new Exception();
   }
 
   /**
-   * Calls a method.
+   * Finds a field or method that matches the specified arguments.
    * @param ar arguments
-   * @param ctx query context
-   * @return resulting object
+   * @return field or method
    * @throws Exception exception
    */
-  private Object method(final Value[] ar, final QueryContext ctx) throws Exception {
+  private Member method(final Value[] ar) throws Exception {
     // check if a field with the specified name exists
     try {
       final Field f = cls.getField(mth);
       final boolean st = Modifier.isStatic(f.getModifiers());
-      if(ar.length == (st ? 0 : 1)) {
-        return f.get(st ? null : instObj(ar[0]));
-      }
+      if(ar.length == (st ? 0 : 1)) return f;
     } catch(final NoSuchFieldException ex) { /* ignored */ }
 
     for(final Method meth : cls.getMethods()) {
       if(!meth.getName().equals(mth)) continue;
       final boolean st = Modifier.isStatic(meth.getModifiers());
-      final Object[] arg = args(meth.getParameterTypes(), ar, st);
-      if(arg != null) {
-        Object inst = null;
-        if(!st) {
-          inst = instObj(ar[0]);
-          if(inst instanceof QueryModule) ((QueryModule) inst).context = ctx;
-        }
-        return meth.invoke(inst, arg);
-      }
+      if(args(meth.getParameterTypes(), ar, st) != null) return meth;
     }
     throw new Exception();
   }
@@ -110,6 +106,80 @@ public final class JavaFunc extends JavaMapping {
     return cls.isInstance(v) ? v : v.toJava();
   }
 
+  /**
+   * Resolved constructor, field or method, and the argument types for which it
+   * has been chosen.
+   */
+  private final class JavaCall {
+    /** Constructor, field or method. */
+    private final Member member;
+    /** Parameter types ({@code null} for fields). */
+    private final Class<?>[] params;
+    /** Static flag. */
+    private final boolean stat;
+    /** Classes of the arguments. */
+    private final Class<?>[] classes;
+    /** Types of the arguments. */
+    private final Type[] types;
+
+    /**
+     * Constructor.
+     * @param m constructor, field or method
+     * @param args arguments
+     */
+    JavaCall(final Member m, final Value[] args) {
+      member = m;
+      stat = m instanceof Constructor || Modifier.isStatic(m.getModifiers());
+      params = m instanceof Method ? ((Method) m).getParameterTypes() :
+        m instanceof Constructor ? ((Constructor<?>) m).getParameterTypes() : null;
+      final int al = args.length;
+      classes = new Class<?>[al];
+      types = new Type[al];
+      for(int a = 0; a < al; a++) {
+        classes[a] = args[a].getClass();
+        types[a] = args[a].type;
+      }
+      // skip access checks when invoking the member
+      try {
+        ((AccessibleObject) m).setAccessible(true);
+      } catch(final SecurityException ex) { /* ignored */ }
+    }
+
+    /**
+     * Checks if the member has been resolved for the specified argument types.
+     * @param args arguments
+     * @return result of check
+     */
+    boolean matches(final Value[] args) {
+      final int al = args.length;
+      if(al != types.length) return false;
+      for(int a = 0; a < al; a++) {
+        if(args[a].type != types[a] || args[a].getClass() != classes[a]) return false;
+      }
+      return true;
+    }
+
+    /**
+     * Invokes the member.
+     * @param ar arguments
+     * @param ctx query context
+     * @return resulting object
+     * @throws Exception exception
+     */
+    Object invoke(final Value[] ar, final QueryContext ctx) throws Exception {
+      final Object inst = stat ? null : instObj(ar[0]);
+      if(params == null) return ((Field) member).get(inst);
+
+      final Object[] arg = args(params, ar, stat);
+      if(arg == null) throw new Exception();
+      if(member instanceof Constructor) {
+        return ((Constructor<?>) member).newInstance(arg);
+      }
+      if(inst instanceof QueryModule) ((QueryModule) inst).context = ctx;
+      return ((Method) member).invoke(inst, arg);
+    }
+  }
+
   /**
    * Checks if the arguments conform with the specified parameters.
    * @param params parameters
@@ -24,6 +24,8 @@ public final class JavaModuleFunc extends JavaMapping {
   private final Object module;
   /** Method to be called. */
   private final Method mth;
+  /** Parameter types of the method. */
+  private final Class<?>[] params;
 
   /**
    * Constructor.
@@ -36,6 +38,11 @@ public final class JavaModuleFunc extends JavaMapping {
     super(ii, a);
     module = jm;
     mth = m;
+    params = m.getParameterTypes();
+    // skip access checks when invoking the method
+    try {
+      m.setAccessible(true);
+    } catch(final SecurityException ex) { /* ignored */ }
   }
 
   @Override
@@ -46,13 +53,15 @@ public final class JavaModuleFunc extends JavaMapping {
     if(module instanceof QueryModule) ((QueryModule) module).context = ctx;
 
     try {
-      try {
-        return mth.invoke(module, (Object[]) args);
-      } catch(final IllegalArgumentException iae) {
-        final Object[] ar = new Object[args.length];
-        for(int a = 0; a < args.length; a++) ar[a] = args[a].toJava();
-        return mth.invoke(module, ar);
-      }
+      // pass on XQuery values if they are accepted by the method
+      final int al = args.length;
+      boolean conv = al != params.length;
+      for(int a = 0; !conv && a < al; a++) conv = !params[a].isInstance(args[a]);
+      if(!conv) return mth.invoke(module, (Object[]) args);
+
+      final Object[] ar = new Object[al];
+      for(int a = 0; a < al; a++) ar[a] = args[a].toJava();
+      return mth.invoke(module, ar);
     } catch(final InvocationTargetException ex) {
       final Throwable cause = ex.getCause();
       throw cause instanceof QueryException ? ((QueryException) cause).info(info) :
@@ -60,7 +69,7 @@ public final class JavaModuleFunc extends JavaMapping {
     } catch(final Throwable ex) {
       // compose expected signature
       final TokenBuilder expect = new TokenBuilder();
-      for(final Class<?> c : mth.getParameterTypes()) {
+      for(final Class<?> c : params) {
         if(!expect.isEmpty()) expect.add(", ");
         expect.add(c.getSimpleName());
       }
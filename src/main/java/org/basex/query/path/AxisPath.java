@@ -28,7 +28,7 @@ import org.basex.util.*;
  */
 public class AxisPath extends Path {
   /** Flag for result caching. */
-  private boolean cache;
+  boolean cache;
   /** Cached result. */
   private NodeSeqBuilder citer;
   /** Last visited item. */
@@ -53,7 +53,8 @@ public class AxisPath extends Path {
     // evaluate number of results
     size = size(ctx);
     type = SeqType.get(steps[steps.length - 1].type().type, size);
-    return useIterator() ? new IterPath(info, root, steps, type, size) : this;
+    if(useIterator()) return new IterPath(info, root, steps, type, size);
+    return StairPath.applies(this) ? new StairPath(this) : this;
   }
 
   /**
@@ -263,10 +264,20 @@ public class AxisPath extends Path {
 
   @Override
   public Iter iter(final QueryContext ctx) throws QueryException {
+    return iter(root != null ? ctx.value(root) : ctx.value, ctx);
+  }
+
+  /**
+   * Evaluates the path for the specified root value.
+   * @param r root value
+   * @param ctx query context
+   * @return resulting iterator
+   * @throws QueryException query exception
+   */
+  final Iter iter(final Value r, final QueryContext ctx) throws QueryException {
     final Value cv = ctx.value;
     final long cs = ctx.size;
     final long cp = ctx.pos;
-    final Value r = root != null ? ctx.value(root) : cv;
 
     try {
       /* cache values if:
@@ -0,0 +1,464 @@
+package org.basex.query.path;
+
+import static org.basex.util.Token.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.basex.core.*;
+import org.basex.data.*;
+import org.basex.index.name.*;
+import org.basex.query.*;
+import org.basex.query.expr.*;
+import org.basex.query.expr.Context;
+import org.basex.query.expr.List;
+import org.basex.query.expr.Expr.Use;
+import org.basex.query.func.*;
+import org.basex.query.iter.*;
+import org.basex.query.path.Test.Mode;
+import org.basex.query.value.*;
+import org.basex.query.value.item.*;
+import org.basex.query.value.node.*;
+import org.basex.query.value.type.*;
+import org.basex.util.*;
+import org.basex.util.list.*;
+
+/**
+ * Location path for database nodes, which is evaluated set-at-a-time
+ * (staircase join). All steps are processed on sorted and duplicate-free
+ * arrays of pre values; the subtrees of nested context nodes are skipped.
+ * Database nodes are only created when the results are requested.
+ * If the root does not exclusively yield nodes of a single database, or if
+ * the nodes have full-text scores (which are propagated by the axis steps),
+ * the path is evaluated by the standard {@link AxisPath} algorithm.
+ *
+ * <p>The last step may have predicates that are free of side effects and do
+ * not depend on the context position. If {@link Prop#THREADS} is larger than
+ * {@code 1}, the predicates are evaluated in parallel: the candidate nodes are
+ * split into contiguous partitions, which are filtered by separate threads and
+ * query contexts and concatenated in document order.</p>
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+final class StairPath extends AxisPath {
+  /** Minimum number of nodes per partition. */
+  private static final int PARTITION = 1 << 10;
+  /** Classes of expressions and functions that may be evaluated in parallel. */
+  private static final HashSet<Class<?>> SAFE = new HashSet<Class<?>>(Arrays.asList(
+    And.class, Or.class, Arith.class, CmpG.class, CmpV.class, CmpR.class,
+    CmpSR.class, List.class, Unary.class, FNAcc.class, FNAggr.class, FNMath.class,
+    FNNode.class, FNNum.class, FNPat.class, FNSeq.class, FNSimple.class,
+    FNStr.class));
+  /** Thread pool for parallel evaluation. */
+  private static ExecutorService pool;
+
+  /** Last root value. */
+  private Value lvalue;
+  /** Data reference of the cached result. */
+  private Data ldata;
+  /** Pre values of the cached result. */
+  private int[] lpres;
+
+  /**
+   * Constructor.
+   * @param path path to be evaluated
+   */
+  StairPath(final AxisPath path) {
+    super(path.info, path.root, path.steps);
+    type = path.type;
+    size = path.size;
+    cache = path.cache;
+  }
+
+  /**
+   * Checks if the specified path can be evaluated by this class.
+   * @param path path to be checked
+   * @return result of check
+   */
+  static boolean applies(final AxisPath path) {
+    final int sl = path.steps.length;
+    for(int s = 0; s < sl; s++) {
+      if(!(path.steps[s] instanceof AxisStep)) return false;
+      final AxisStep step = (AxisStep) path.steps[s];
+      // predicates are only allowed in the last step
+      if(step.preds.length != 0) {
+        if(s + 1 < sl || step.uses(Use.POS)) return false;
+        for(final Expr p : step.preds) if(!safe(p)) return false;
+      }
+      if(!simple(step.test)) return false;
+      switch(step.axis) {
+        case ATTR: case CHILD: case DESC: case DESCORSELF: case PARENT: case SELF:
+          break;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the specified test is a kind test or a test for local names.
+   * @param test test
+   * @return result of check
+   */
+  private static boolean simple(final Test test) {
+    return test instanceof KindTest || test instanceof NameTest &&
+        (test.mode == Mode.ALL || test.mode == Mode.NAME);
+  }
+
+  /**
+   * Checks if the specified expression can be evaluated in parallel.
+   * This is the case if it exclusively consists of expressions and functions
+   * that neither create nodes, bind or reference variables, or depend on
+   * the context position or any other mutable state. Nested paths must be
+   * relative staircase paths: other paths store their intermediate results
+   * in fields, which would be shared by the threads.
+   * @param expr expression to be checked
+   * @return result of check
+   */
+  private static boolean safe(final Expr expr) {
+    if(expr.uses(Use.CNS) || expr.uses(Use.NDT) || expr.uses(Use.POS) ||
+        expr.uses(Use.UPD) || expr.uses(Use.VAR)) return false;
+    if(expr instanceof Value || expr instanceof Context) return true;
+    // relative paths are never cached, and the steps and predicates of
+    // staircase paths have already been checked when they were created
+    if(expr instanceof AxisPath) {
+      return expr instanceof StairPath && ((AxisPath) expr).root == null;
+    }
+    if(!SAFE.contains(expr.getClass())) return false;
+    if(expr instanceof Single) return safe(((Single) expr).expr);
+    for(final Expr e : ((Arr) expr).expr) if(!safe(e)) return false;
+    return true;
+  }
+
+  @Override
+  public Iter iter(final QueryContext ctx) throws QueryException {
+    final Value r = root != null ? ctx.value(root) : ctx.value;
+    Data data = ldata;
+    int[] pres = lpres;
+    if(!cache || pres == null || lvalue != r && !(r instanceof ANode &&
+        lvalue instanceof ANode && ((ANode) lvalue).is((ANode) r))) {
+      if(r == null) return iter(r, ctx);
+      data = data(r);
+      if(data == null) return iter(r, ctx);
+      pres = eval(data, r, ctx);
+      if(cache) {
+        lvalue = r;
+        ldata = data;
+        lpres = pres;
+      }
+    }
+
+    final Data d = data;
+    final int[] p = pres;
+    return new NodeIter() {
+      int c;
+
+      @Override
+      public ANode next() {
+        return c < p.length ? get(c++) : null;
+      }
+
+      @Override
+      public ANode get(final long i) {
+        return new DBNode(d, p[(int) i]);
+      }
+
+      @Override
+      public long size() {
+        return p.length;
+      }
+
+      @Override
+      public boolean reset() {
+        c = 0;
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Returns the data reference of the specified root value.
+   * @param r root value
+   * @return data reference, or {@code null} if the value is empty, does not
+   *   exclusively consist of nodes of a single database, or contains scored nodes
+   * @throws QueryException query exception
+   */
+  private static Data data(final Value r) throws QueryException {
+    Data data = null;
+    final Iter ir = r.iter();
+    for(Item it; (it = ir.next()) != null;) {
+      if(!(it instanceof DBNode) || it instanceof FTNode || it.score != null) return null;
+      final Data d = ((DBNode) it).data;
+      if(data == null) data = d;
+      else if(data != d) return null;
+    }
+    return data;
+  }
+
+  /**
+   * Evaluates all steps for the specified root value.
+   * @param data data reference
+   * @param r root value
+   * @param ctx query context
+   * @return pre values of the resulting nodes
+   * @throws QueryException query exception
+   */
+  private int[] eval(final Data data, final Value r, final QueryContext ctx)
+      throws QueryException {
+
+    // collect pre values of the context nodes
+    IntList nodes = new IntList();
+    boolean sorted = true;
+    final Iter ir = r.iter();
+    for(Item it; (it = ir.next()) != null;) {
+      final int pre = ((DBNode) it).pre;
+      if(!nodes.isEmpty() && pre <= nodes.peek()) sorted = false;
+      nodes.add(pre);
+    }
+    if(!sorted) nodes = distinct(nodes.sort());
+
+    // evaluate steps
+    for(int s = 0; s < steps.length && !nodes.isEmpty(); s++) {
+      ctx.checkStop();
+      nodes = step(step(s), data, nodes);
+    }
+    // evaluate predicates of last step
+    final AxisStep last = step(steps.length - 1);
+    if(last.preds.length != 0 && !nodes.isEmpty()) {
+      final int par = Math.min(ctx.context.prop.num(Prop.THREADS),
+          nodes.size() / PARTITION);
+      nodes = par > 1 && !(Thread.currentThread() instanceof Worker) ?
+        parallel(last, data, nodes, par, ctx) :
+        filter(last, data, nodes, 0, nodes.size(), ctx, ctx);
+    }
+    return nodes.toArray();
+  }
+
+  /**
+   * Filters the specified nodes in parallel.
+   * @param step step with predicates
+   * @param data data reference
+   * @param nodes pre values of the nodes
+   * @param par number of partitions
+   * @param ctx query context
+   * @return pre values of the accepted nodes
+   * @throws QueryException query exception
+   */
+  private IntList parallel(final AxisStep step, final Data data, final IntList nodes,
+      final int par, final QueryContext ctx) throws QueryException {
+
+    final ExecutorService ex = pool();
+    final ArrayList<Future<IntList>> futures = new ArrayList<Future<IntList>>(par);
+    final int ns = nodes.size();
+    for(int p = 0; p < par; p++) {
+      final int s = (int) ((long) ns * p / par), e = (int) ((long) ns * (p + 1) / par);
+      futures.add(ex.submit(new Callable<IntList>() {
+        @Override
+        public IntList call() throws QueryException {
+          final QueryContext qc = new QueryContext(ctx.context);
+          qc.sc = ctx.sc;
+          try {
+            return filter(step, data, nodes, s, e, qc, ctx);
+          } finally {
+            qc.close();
+          }
+        }
+      }));
+    }
+
+    // concatenate results in document order
+    final IntList res = new IntList();
+    try {
+      for(final Future<IntList> f : futures) {
+        final IntList il = f.get();
+        final int is = il.size();
+        for(int i = 0; i < is; i++) res.add(il.get(i));
+      }
+    } catch(final InterruptedException exc) {
+      throw Util.notexpected(exc);
+    } catch(final ExecutionException exc) {
+      for(final Future<IntList> f : futures) f.cancel(true);
+      final Throwable th = exc.getCause();
+      if(th instanceof QueryException) throw (QueryException) th;
+      if(th instanceof RuntimeException) throw (RuntimeException) th;
+      throw Util.notexpected(th);
+    }
+    return res;
+  }
+
+  /**
+   * Filters the specified range of nodes.
+   * @param step step with predicates
+   * @param data data reference
+   * @param nodes pre values of the nodes
+   * @param s first node
+   * @param e last node (exclusive)
+   * @param qc query context used for evaluating the predicates
+   * @param ctx query context of the query
+   * @return pre values of the accepted nodes
+   * @throws QueryException query exception
+   */
+  private static IntList filter(final AxisStep step, final Data data,
+      final IntList nodes, final int s, final int e, final QueryContext qc,
+      final QueryContext ctx) throws QueryException {
+
+    final Value cv = qc.value;
+    final IntList res = new IntList();
+    try {
+      for(int n = s; n < e; n++) {
+        if((n & 0xFFF) == 0) ctx.checkStop();
+        final int pre = nodes.get(n);
+        if(step.preds(new DBNode(data, pre), qc)) res.add(pre);
+      }
+    } finally {
+      qc.value = cv;
+    }
+    return res;
+  }
+
+  /**
+   * Returns the thread pool for parallel evaluation.
+   * @return thread pool
+   */
+  private static synchronized ExecutorService pool() {
+    if(pool == null) {
+      pool = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable r) {
+          final Thread t = new Worker(r);
+          t.setDaemon(true);
+          return t;
+        }
+      });
+    }
+    return pool;
+  }
+
+  /**
+   * Evaluates a single step.
+   * @param step axis step
+   * @param data data reference
+   * @param nodes sorted and duplicate-free pre values of the context nodes
+   * @return sorted and duplicate-free pre values of the resulting nodes
+   */
+  private static IntList step(final AxisStep step, final Data data,
+      final IntList nodes) {
+
+    // node kind (-1: all kinds) and accepted name ids
+    final Test test = step.test;
+    final int kind = test.type == NodeType.NOD ? -1 : ANode.kind(test.type);
+    boolean[] names = null;
+    if(test.mode == Mode.NAME) {
+      final byte[] ln = ((NameTest) test).ln;
+      final Names nm = kind == Data.ATTR ? data.atnindex : data.tagindex;
+      final int ns = nm.size();
+      names = new boolean[ns + 1];
+      for(int n = 1; n <= ns; n++) names[n] = eq(ln, local(nm.key(n)));
+    }
+
+    final IntList res = new IntList();
+    final int ps = nodes.size();
+    final Axis axis = step.axis;
+    boolean sorted = true;
+    int end = 0;
+    for(int i = 0; i < ps; i++) {
+      final int pre = nodes.get(i);
+      final int k = data.kind(pre);
+      switch(axis) {
+        case SELF:
+          if(test(data, pre, k, kind, names)) res.add(pre);
+          break;
+        case PARENT:
+          final int par = data.parent(pre, k);
+          if(par != -1) {
+            final int pk = data.kind(par);
+            if(test(data, par, pk, kind, names)) {
+              if(!res.isEmpty() && par <= res.peek()) sorted = false;
+              res.add(par);
+            }
+          }
+          break;
+        case ATTR:
+        case CHILD:
+          // children of nested context nodes will be unsorted
+          if(pre < end) sorted = false;
+          else end = pre + data.size(pre, k);
+          final int as = pre + data.attSize(pre, k);
+          if(axis == Axis.ATTR) {
+            for(int p = pre + 1; p < as; p++) {
+              if(test(data, p, Data.ATTR, kind, names)) res.add(p);
+            }
+          } else {
+            final int e = pre + data.size(pre, k);
+            for(int p = as; p < e;) {
+              final int pk = data.kind(p);
+              if(test(data, p, pk, kind, names)) res.add(p);
+              p += data.size(p, pk);
+            }
+          }
+          break;
+        default:
+          // descendant axes: skip context nodes in already traversed subtrees
+          final boolean self = axis == Axis.DESCORSELF;
+          if(pre < end) {
+            // attributes are no descendants of the preceding context node
+            if(self && k == Data.ATTR && test(data, pre, k, kind, names)) {
+              res.add(pre);
+              sorted = false;
+            }
+            continue;
+          }
+          end = pre + data.size(pre, k);
+          if(self && test(data, pre, k, kind, names)) res.add(pre);
+          for(int p = pre + data.attSize(pre, k); p < end;) {
+            final int pk = data.kind(p);
+            if(test(data, p, pk, kind, names)) res.add(p);
+            p += data.attSize(p, pk);
+          }
+      }
+    }
+    return sorted ? res : distinct(res.sort());
+  }
+
+  /**
+   * Tests if the specified node matches the node test.
+   * @param data data reference
+   * @param pre pre value
+   * @param k node kind
+   * @param kind expected node kind ({@code -1}: all kinds)
+   * @param names accepted name ids ({@code null}: all names)
+   * @return result of check
+   */
+  private static boolean test(final Data data, final int pre, final int k,
+      final int kind, final boolean[] names) {
+    return (kind == -1 || kind == k) && (names == null || names[data.name(pre)]);
+  }
+
+  /**
+   * Removes duplicates from a sorted list.
+   * @param list sorted list
+   * @return list without duplicates
+   */
+  private static IntList distinct(final IntList list) {
+    final IntList il = new IntList(list.size());
+    final int ls = list.size();
+    for(int l = 0; l < ls; l++) {
+      final int p = list.get(l);
+      if(il.isEmpty() || il.peek() != p) il.add(p);
+    }
+    return il;
+  }
+
+  /** Worker thread for parallel evaluation. */
+  private static final class Worker extends Thread {
+    /**
+     * Constructor.
+     * @param r runnable
+     */
+    Worker(final Runnable r) {
+      super(r);
+    }
+  }
+}
@@ -11,12 +11,16 @@ import static org.basex.util.Token.*;
 import java.io.*;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.core.*;
+import org.basex.io.out.*;
 import org.basex.io.serial.*;
 import org.basex.query.*;
 import org.basex.query.iter.*;
 import org.basex.query.util.http.HTTPRequest.Part;
+import org.basex.query.value.*;
 import org.basex.query.value.item.*;
 import org.basex.query.value.node.*;
 import org.basex.util.*;
@@ -25,10 +29,20 @@ import org.basex.util.hash.*;
 /**
  * HTTP Client.
  *
+ * <p>Connections are kept alive and reused by subsequent requests to the same
+ * server if the response has been completely read (the number of idle connections
+ * per server is limited by the system property {@code http.maxConnections}).
+ * Connections are closed if an error occurs.</p>
+ *
  * @author BaseX Team 2005-12, BSD License
  * @author Rositsa Shadura
  */
 public final class HTTPClient {
+  /** Default number of requests that are sent concurrently. */
+  public static final int CONCURRENCY = 8;
+  /** Thread pool for sending requests concurrently. */
+  private static ExecutorService pool;
+
   /** Input information. */
   private final InputInfo info;
   /** Database properties. */
@@ -55,36 +69,109 @@ public final class HTTPClient {
   public Iter sendRequest(final byte[] href, final ANode request,
       final ValueBuilder bodies) throws QueryException {
 
-    try {
-      if(request == null) {
-        if(href == null || href.length == 0) HC_PARAMS.thrw(info);
-        final HttpURLConnection conn = openConnection(string(href));
-        try {
-          return new HTTPResponse(info, prop).getResponse(
-              conn, Bln.FALSE.string(), null);
-        } finally {
-          conn.disconnect();
+    if(request == null) {
+      if(href == null || href.length == 0) HC_PARAMS.thrw(info);
+      return send(href, null, null);
+    }
+    final HTTPRequest r = new HTTPRequestParser(info).parse(request, bodies);
+    return send(dest(href, r), r, null);
+  }
+
+  /**
+   * Sends several HTTP requests concurrently and returns the responses in the
+   * order of the requests. The requests are parsed and their bodies are serialized
+   * before the first request is sent.
+   * @param requests request elements
+   * @param concurrency maximum number of requests that are sent at the same time
+   * @return HTTP responses
+   * @throws QueryException query exception
+   */
+  public Value sendRequests(final ANode[] requests, final int concurrency)
+      throws QueryException {
+
+    final int rs = requests.length;
+    final HTTPRequest[] reqs = new HTTPRequest[rs];
+    final byte[][] dests = new byte[rs][], contents = new byte[rs][];
+    for(int r = 0; r < rs; r++) {
+      reqs[r] = new HTTPRequestParser(info).parse(requests[r], null);
+      dests[r] = dest(null, reqs[r]);
+      contents[r] = content(reqs[r]);
+    }
+
+    // each worker sends requests until all requests have been sent
+    final Value[] responses = new Value[rs];
+    final AtomicInteger next = new AtomicInteger();
+    final int par = Math.min(concurrency, rs);
+    final ExecutorService ex = pool();
+    final ArrayList<Future<Void>> futures = new ArrayList<Future<Void>>(par);
+    for(int p = 0; p < par; p++) {
+      futures.add(ex.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws QueryException {
+          for(int r; (r = next.getAndIncrement()) < rs;) {
+            responses[r] = send(dests[r], reqs[r], contents[r]).value();
+          }
+          return null;
         }
-      }
+      }));
+    }
 
-      final HTTPRequest r = new HTTPRequestParser(info).parse(request, bodies);
-      final byte[] dest = href == null ? r.attrs.get(HREF) : href;
-      if(dest == null) HC_URL.thrw(info);
+    try {
+      for(final Future<Void> f : futures) f.get();
+    } catch(final InterruptedException exc) {
+      throw Util.notexpected(exc);
+    } catch(final ExecutionException exc) {
+      // skip remaining requests
+      next.set(rs);
+      final Throwable th = exc.getCause();
+      if(th instanceof QueryException) throw (QueryException) th;
+      if(th instanceof RuntimeException) throw (RuntimeException) th;
+      throw Util.notexpected(th);
+    }
+
+    final ValueBuilder vb = new ValueBuilder();
+    for(final Value v : responses) vb.add(v);
+    return vb.value();
+  }
+
+  /**
+   * Sends an HTTP request and returns the response.
+   * @param dest URL to send the request to
+   * @param r request data (can be {@code null})
+   * @param content serialized request content ({@code null} if the content is
+   *   serialized while the request is sent)
+   * @return HTTP response
+   * @throws QueryException query exception
+   */
+  private ValueBuilder send(final byte[] dest, final HTTPRequest r,
+      final byte[] content) throws QueryException {
 
-      final HttpURLConnection conn = openConnection(string(dest));
-      try {
+    HttpURLConnection conn = null;
+    boolean read = false;
+    try {
+      conn = openConnection(string(dest));
+      final ValueBuilder vb;
+      if(r == null) {
+        vb = new HTTPResponse(info, prop).getResponse(conn, Bln.FALSE.string(), null);
+      } else {
         setConnectionProps(conn, r);
         setRequestHeaders(conn, r);
 
         if(r.bodyContent.size() != 0 || r.parts.size() != 0) {
           setContentType(conn, r);
-          setRequestContent(conn.getOutputStream(), r);
+          if(content != null) {
+            final OutputStream out = conn.getOutputStream();
+            out.write(content);
+            out.close();
+          } else {
+            setRequestContent(conn.getOutputStream(), r);
+          }
         }
-        return new HTTPResponse(info, prop).getResponse(
+        vb = new HTTPResponse(info, prop).getResponse(
             conn, r.attrs.get(STATUS_ONLY), r.attrs.get(OVERRIDE_MEDIA_TYPE));
-      } finally {
-        conn.disconnect();
       }
+      read = true;
+      return vb;
     } catch(final MalformedURLException ex) {
       throw HC_ERROR.thrw(info, "Invalid URL");
     } catch(final ProtocolException ex) {
@@ -92,7 +179,59 @@ public final class HTTPClient {
     } catch(final IOException ex) {
       Util.debug(ex);
       throw HC_ERROR.thrw(info, ex);
+    } finally {
+      // connections with completely read responses are kept alive
+      if(conn != null && !read) conn.disconnect();
+    }
+  }
+
+  /**
+   * Returns the URL of a request.
+   * @param href URL specified as argument (can be {@code null})
+   * @param r request data
+   * @return URL
+   * @throws QueryException query exception
+   */
+  private byte[] dest(final byte[] href, final HTTPRequest r) throws QueryException {
+    final byte[] dest = href == null ? r.attrs.get(HREF) : href;
+    if(dest == null) HC_URL.thrw(info);
+    return dest;
+  }
+
+  /**
+   * Serializes the content of a request.
+   * @param r request data
+   * @return content, or {@code null} if the request has no content
+   * @throws QueryException query exception
+   */
+  private byte[] content(final HTTPRequest r) throws QueryException {
+    if(r.bodyContent.size() == 0 && r.parts.size() == 0) return null;
+    final ArrayOutput ao = new ArrayOutput();
+    try {
+      setRequestContent(ao, r);
+    } catch(final IOException ex) {
+      Util.debug(ex);
+      throw HC_ERROR.thrw(info, ex);
+    }
+    return ao.toArray();
+  }
+
+  /**
+   * Returns the thread pool for sending requests concurrently.
+   * @return thread pool
+   */
+  private static synchronized ExecutorService pool() {
+    if(pool == null) {
+      pool = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable r) {
+          final Thread t = new Thread(r);
+          t.setDaemon(true);
+          return t;
+        }
+      });
     }
+    return pool;
   }
 
   /**
@@ -127,7 +266,7 @@ public final class HTTPClient {
     final byte[] timeout = r.attrs.get(TIMEOUT);
     if(timeout != null) conn.setConnectTimeout(parseInt(string(timeout)));
     final byte[] redirect = r.attrs.get(FOLLOW_REDIRECT);
-    if(redirect != null) setFollowRedirects(Bln.parse(redirect, info));
+    if(redirect != null) conn.setInstanceFollowRedirects(Bln.parse(redirect, info));
   }
 
   /**
@@ -53,7 +53,7 @@ public final class HTTPResponse {
    * @throws IOException I/O Exception
    * @throws QueryException query exception
    */
-  public ValueIter getResponse(final HttpURLConnection conn, final byte[] status,
+  public ValueBuilder getResponse(final HttpURLConnection conn, final byte[] status,
       final byte[] mediaTypeOvr) throws IOException, QueryException {
 
     final NodeSeqBuilder attrs = extractAttrs(conn);
@@ -75,8 +75,12 @@ public final class HTTPResponse {
       // single part response
     } else {
       body = createBody(cType);
-      if(!s) payloads.add(interpretPayload(extractPayload(conn.getInputStream(),
-          cType, extractCharset(conn.getContentType())), cType));
+      if(s) {
+        close(conn);
+      } else {
+        payloads.add(payload(conn.getInputStream(), cType,
+            extractCharset(conn.getContentType())));
+      }
     }
 
     // construct <http:response/>
@@ -138,30 +142,67 @@ public final class HTTPResponse {
   }
 
   /**
-   * Extracts payload from HTTP message and returns it as a byte array encoded
-   * in UTF-8.
+   * Closes the input stream of a connection without reading the payload.
+   * The connection can then be reused for subsequent requests.
+   * @param conn HTTP connection
+   * @throws IOException I/O Exception
+   */
+  private static void close(final HttpURLConnection conn) throws IOException {
+    final InputStream in = conn.getResponseCode() >= HttpURLConnection.HTTP_BAD_REQUEST ?
+      conn.getErrorStream() : conn.getInputStream();
+    if(in != null) in.close();
+  }
+
+  /**
+   * Reads the payload of a single-part response. UTF-8 encoded XML, HTML, JSON and
+   * CSV payloads are parsed while they are read.
+   * @param in connection input stream
+   * @param ct content type
+   * @param ce response content charset (can be {@code null})
+   * @return interpreted payload
+   * @throws IOException I/O Exception
+   * @throws QueryException query exception
+   */
+  private Item payload(final InputStream in, final String ct, final String ce)
+      throws IOException, QueryException {
+
+    if(normEncoding(ce) != UTF8 || !(MimeTypes.isXML(ct) ||
+        eq(ct, MimeTypes.TEXT_HTML, MimeTypes.APP_JSON, MimeTypes.APP_JSONML,
+        MimeTypes.TEXT_CSV))) {
+      // in case of XML, HTML or text content type, use supplied character set
+      final boolean text = MimeTypes.isXML(ct) || ct.equals(MimeTypes.TEXT_HTML) ||
+          ct.startsWith(MimeTypes.MIME_TEXT_PREFIX);
+      return interpretPayload(extractPayload(in), ct, ce, text);
+    }
+
+    // stream input into the database builder
+    final ConnectionInput ci = new ConnectionInput(in);
+    try {
+      return Parser.item(new IOStream(ci, PAYLOAD + IO.XMLSUFFIX), prop, ct);
+    } catch(final IOException ex) {
+      // errors of the connection are no parsing errors
+      if(ci.error != null) throw ci.error;
+      Util.debug(ex);
+      throw HC_PARSE.thrw(info, ex);
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Extracts payload from HTTP message and returns it as a byte array.
    * @param io connection input stream
-   * @param c content type
-   * @param ce response content charset
    * @return payload as byte array
    * @throws IOException I/O Exception
    */
-  private static byte[] extractPayload(final InputStream io, final String c,
-      final String ce) throws IOException {
-
-    final BufferedInputStream bis = new BufferedInputStream(io);
+  private static byte[] extractPayload(final InputStream io) throws IOException {
     try {
       final ByteList bl = new ByteList();
-      for(int i; (i = bis.read()) != -1;) bl.add(i);
-      // In case of XML, HTML or text content type, use supplied character set
-      if(MimeTypes.isXML(c) || c.equals(MimeTypes.TEXT_HTML) ||
-          c.startsWith(MimeTypes.MIME_TEXT_PREFIX))
-        return new NewlineInput(new IOContent(bl.toArray())).encoding(ce).content();
-
-      // In case of binary data, do not encode anything
+      final byte[] buf = new byte[IO.BLOCKSIZE];
+      for(int l; (l = io.read(buf)) != -1;) bl.add(buf, 0, l);
       return bl.toArray();
     } finally {
-      bis.close();
+      io.close();
     }
   }
 
@@ -171,16 +212,22 @@ public final class HTTPResponse {
    * node - binary content type => base64Binary.
    * @param p payload
    * @param ct content type
+   * @param ce content charset (can be {@code null})
+   * @param text flag for converting the payload from the content charset to UTF-8
    * @return interpreted payload
+   * @throws QueryException query exception
    */
-  private Item interpretPayload(final byte[] p, final String ct) {
+  private Item interpretPayload(final byte[] p, final String ct, final String ce,
+      final boolean text) throws QueryException {
+
     try {
-      final IOContent io = new IOContent(p);
+      final IOContent io = new IOContent(text ?
+          new NewlineInput(new IOContent(p)).encoding(ce).content() : p);
       io.name(PAYLOAD + IO.XMLSUFFIX);
       return Parser.item(io, prop, ct);
     } catch(final IOException ex) {
-      // automagic (to be discussed): return as binary content
-      return new B64(p);
+      Util.debug(ex);
+      throw HC_PARSE.thrw(info, ex);
     }
   }
 
@@ -227,10 +274,11 @@ public final class HTTPResponse {
    * @param end closing boundary
    * @return part
    * @throws IOException I/O Exception
+   * @throws QueryException query exception
    */
   private FElem extractNextPart(final InputStream io, final boolean status,
       final ValueBuilder payloads, final byte[] sep, final byte[] end)
-          throws IOException {
+          throws IOException, QueryException {
 
     // content type of part payload - if not defined by header 'Content-Type',
     // it is equal to 'text/plain' (RFC 1341)
@@ -245,8 +293,8 @@ public final class HTTPResponse {
     //final NodeCache partCh = new NodeCache();
     if(firstLine.length == 0) {
       // part has no headers
-      final byte[] p = extractPartPayload(io, sep, end, null);
-      if(!status) payloads.add(interpretPayload(p, partCType));
+      final byte[] p = extractPartPayload(io, sep, end);
+      if(!status) payloads.add(interpretPayload(p, partCType, null, true));
     } else {
       // extract headers:
       byte[] nextHdr = firstLine;
@@ -273,9 +321,9 @@ public final class HTTPResponse {
         }
         nextHdr = readLine(io);
       }
-      final byte[] p = extractPartPayload(io, sep, end, charset);
+      final byte[] p = extractPartPayload(io, sep, end);
       if(!status) {
-        payloads.add(interpretPayload(p, partCType));
+        payloads.add(interpretPayload(p, partCType, charset, true));
       }
     }
     root.add(createBody(partCType));
@@ -318,12 +366,11 @@ public final class HTTPResponse {
    * @param io connection input stream
    * @param sep separation boundary
    * @param end closing boundary
-   * @param ce part content encoding
    * @return payload part content
    * @throws IOException I/O Exception
    */
   private static byte[] extractPartPayload(final InputStream io, final byte[] sep,
-      final byte[] end, final String ce) throws IOException {
+      final byte[] end) throws IOException {
 
     final ByteList bl = new ByteList();
     while(true) {
@@ -336,7 +383,7 @@ public final class HTTPResponse {
       }
       bl.add(next).add('\n');
     }
-    return new NewlineInput(new IOContent(bl.toArray())).encoding(ce).content();
+    return bl.toArray();
   }
 
   /**
@@ -380,4 +427,40 @@ public final class HTTPResponse {
     final int i = c.toLowerCase(Locale.ENGLISH).lastIndexOf(cs);
     return i == -1 ? null : c.substring(i + cs.length());
   }
+
+  /**
+   * Input stream of a connection, which remembers read errors.
+   */
+  private static final class ConnectionInput extends FilterInputStream {
+    /** Read error ({@code null} if no error occurred). */
+    IOException error;
+
+    /**
+     * Constructor.
+     * @param in connection input stream
+     */
+    ConnectionInput(final InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      try {
+        return super.read();
+      } catch(final IOException ex) {
+        error = ex;
+        throw ex;
+      }
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      try {
+        return super.read(b, off, len);
+      } catch(final IOException ex) {
+        error = ex;
+        throw ex;
+      }
+    }
+  }
 }
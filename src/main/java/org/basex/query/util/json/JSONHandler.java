@@ -0,0 +1,69 @@
+package org.basex.query.util.json;
+
+import java.io.*;
+
+/**
+ * This interface receives the events of the {@link JSONParser}.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public interface JSONHandler {
+  /**
+   * Called when an object is opened.
+   * @throws IOException I/O exception
+   */
+  void openObject() throws IOException;
+
+  /**
+   * Called when a member of an object is opened. The member value follows.
+   * @param key key of the member
+   * @throws IOException I/O exception
+   */
+  void openPair(final byte[] key) throws IOException;
+
+  /**
+   * Called when an object is closed.
+   * @throws IOException I/O exception
+   */
+  void closeObject() throws IOException;
+
+  /**
+   * Called when an array is opened.
+   * @throws IOException I/O exception
+   */
+  void openArray() throws IOException;
+
+  /**
+   * Called when an array is closed.
+   * @throws IOException I/O exception
+   */
+  void closeArray() throws IOException;
+
+  /**
+   * Called for a string.
+   * @param value string value
+   * @throws IOException I/O exception
+   */
+  void stringLit(final byte[] value) throws IOException;
+
+  /**
+   * Called for a number.
+   * @param value number, as it was found in the input
+   * @throws IOException I/O exception
+   */
+  void numberLit(final byte[] value) throws IOException;
+
+  /**
+   * Called for a boolean.
+   * @param value {@code true} or {@code false} token
+   * @throws IOException I/O exception
+   */
+  void booleanLit(final byte[] value) throws IOException;
+
+  /**
+   * Called for a null value.
+   * @throws IOException I/O exception
+   */
+  void nullLit() throws IOException;
+}
@@ -3,131 +3,188 @@ package org.basex.query.util.json;
 import static org.basex.query.util.Err.*;
 import static org.basex.util.Token.*;
 
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.*;
+import org.basex.io.in.*;
 import org.basex.query.*;
 import org.basex.util.*;
 
 /**
- * <p>This class converts a JSON document to a tree representation.</p>
+ * <p>This class parses a JSON document and sends events to a
+ * {@link JSONHandler}. The input is read as a stream.</p>
  *
  * @author BaseX Team 2005-12, BSD License
  * @author Christian Gruen
  */
-final class JSONParser extends InputParser {
+public final class JSONParser {
   /** Error: invalid character. */
   private static final String INVALID = "Invalid character: \"%\"";
   /** Error: invalid and expected character. */
   private static final String INVALEXP = "Char \"%\" found, % expected";
 
-  /** Token builder. */
+  /** Token builder for strings and numbers. */
   private final TokenBuilder tb = new TokenBuilder();
+  /** Input. */
+  private final TextInput input;
+  /** Event handler. */
+  private final JSONHandler handler;
   /** Input info. */
   private final InputInfo info;
 
+  /** Current character ({@code -1} if the input is exhausted). */
+  private int curr;
+  /** Current line. */
+  private int line;
+  /** Current column. */
+  private int col;
+
   /**
    * Constructor.
    * @param in input
-   * @param inf input info
+   * @param h event handler
+   * @param ii input info (can be {@code null})
    */
-  public JSONParser(final byte[] in, final InputInfo inf) {
-    super(string(in));
-    info = inf;
+  public JSONParser(final TextInput in, final JSONHandler h, final InputInfo ii) {
+    input = in;
+    handler = h;
+    info = ii;
   }
 
   /**
-   * Parses the input.
+   * Parses the specified input and returns a tree representation.
+   * @param in input
+   * @param ii input info
    * @return resulting node
    * @throws QueryException query exception
    */
-  public JStruct parse() throws QueryException {
-    JStruct root = object();
-    if(root == null) root = array();
-    if(root == null) error(INVALEXP, curr(), "\"{\" or \"[\"");
+  static JStruct parse(final byte[] in, final InputInfo ii) throws QueryException {
+    final Tree tree = new Tree();
+    try {
+      new JSONParser(new TextInput(new IOContent(in)), tree, ii).parse();
+    } catch(final IOException ex) {
+      // the input is completely available in main memory
+      throw Util.notexpected(ex);
+    }
+    return tree.root;
+  }
+
+  /**
+   * Parses the input.
+   * @throws QueryException query exception
+   * @throws IOException I/O exception
+   */
+  public void parse() throws QueryException, IOException {
+    line = 1;
+    col = 1;
+    curr = input.read();
+    skipWS();
+    if(curr == '{') object();
+    else if(curr == '[') array();
+    else error(INVALEXP, chr(), "\"{\" or \"[\"");
     skipWS();
-    if(more()) error(INVALEXP, curr(), "end of file");
-    return root;
+    if(curr != -1) error(INVALEXP, chr(), "end of file");
   }
 
   /**
-   * Returns an object.
-   * @return success flag
+   * Parses an object.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private JObject object() throws QueryException {
-    if(!wsConsume('{')) return null;
-    final JObject o = new JObject();
+  private void object() throws QueryException, IOException {
+    next();
+    handler.openObject();
+    int s = 0;
     do {
-      final byte[] key = str();
+      final byte[] key = string();
       if(key == null) {
-        if(o.size() != 0) error(INVALEXP, curr(), '"');
+        if(s != 0) error(INVALEXP, chr(), '"');
         break;
       }
       wsCheck(':');
-      o.add(key, value(true));
+      handler.openPair(key);
+      value(true);
+      s++;
     } while(wsConsume(','));
     wsCheck('}');
-    return o;
+    handler.closeObject();
   }
 
   /**
    * Parses an array.
-   * @return success flag
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private JArray array() throws QueryException {
-    if(!wsConsume('[')) return null;
-    final JArray a = new JArray();
+  private void array() throws QueryException, IOException {
+    next();
+    handler.openArray();
+    int s = 0;
     do {
-      final JValue val = value(a.size() != 0);
-      if(val != null) a.add(val);
+      if(value(s != 0)) s++;
     } while(wsConsume(','));
     wsCheck(']');
-    return a;
+    handler.closeArray();
   }
 
   /**
    * Parses a value.
    * @param mand mandatory flag
-   * @return success flag
+   * @return {@code false} if no value was found
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private JValue value(final boolean mand) throws QueryException {
+  private boolean value(final boolean mand) throws QueryException, IOException {
     skipWS();
-    final char ch = curr();
-    if(digit(ch) || ch == '-') return new JNumber(number());
-    if(ch == '"') return new JString(str());
-    if(ch == '{') return object();
-    if(ch == '[') return array();
-    if(ch == 't' || ch == 'f') return new JBoolean(bool());
-    if(ch == 'n') {
+    final int c = curr;
+    if(c == '{') {
+      object();
+    } else if(c == '[') {
+      array();
+    } else if(c == '"') {
+      handler.stringLit(string());
+    } else if(c == '-' || digit(c)) {
+      handler.numberLit(number());
+    } else if(c == 't' || c == 'f') {
+      final byte[] bool = c == 't' ? TRUE : FALSE;
+      for(final byte b : bool) check((char) b);
+      handler.booleanLit(bool);
+    } else if(c == 'n') {
       for(final byte b : NULL) check((char) b);
-      return new JNull();
+      handler.nullLit();
+    } else {
+      if(mand) error(INVALEXP, chr(), '"');
+      return false;
     }
-    if(mand) error(INVALEXP, curr(), '"');
-    return null;
+    return true;
   }
 
   /**
-   * Parses an string.
-   * @return resulting string
+   * Parses a string.
+   * @return resulting string, or {@code null} if no string was found
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private byte[] str() throws QueryException {
+  private byte[] string() throws QueryException, IOException {
     if(!wsConsume('"')) return null;
     tb.reset();
-    while(more()) {
-      int ch = consume();
+    while(curr != -1) {
+      int ch = curr;
+      next();
       if(ch == '"') return tb.finish();
       if(ch == '\\') {
-        ch = consume();
+        ch = curr;
+        next();
         if(ch == 'u') {
           int i = 0;
           for(int s = 0; s < 4; s++) {
-            ch = consume();
+            ch = curr;
+            next();
             i <<= 4;
             if(ch >= '0' && ch <= '9') i += ch - 0x30;
             else if(ch >= 'A' && ch <= 'F') i += ch - 0x37;
             else if(ch >= 'a' && ch <= 'f') i += ch - 0x57;
-            else error(INVALID, ch, "hex digit");
+            else error(INVALID, ch == -1 ? "" : (char) ch);
           }
           ch = i;
         } else if(ch == 'b') {
@@ -140,118 +197,206 @@ final class JSONParser extends InputParser {
           ch = '\r';
         } else if(ch == 't') {
           ch = '\t';
-        } else if("\\\"/".indexOf(ch) == -1) {
-          error(INVALID, "\\" + (char) ch);
+        } else if(ch == -1 || "\\\"/".indexOf(ch) == -1) {
+          error(INVALID, ch == -1 ? "\\" : "\\" + (char) ch);
         }
       }
       tb.add(ch);
     }
-    throw error(INVALEXP, 0, '"');
+    throw error(INVALEXP, "", '"');
   }
 
   /**
-   * Parses an number.
+   * Parses a number.
    * @return resulting number
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private byte[] number() throws QueryException {
+  private byte[] number() throws QueryException, IOException {
     tb.reset();
-    if(curr() == '-') tb.add(consume());
-
-    if(curr() == '0') {
-      tb.add(consume());
-    } else {
-      digits();
-    }
-    if(curr() == '.') {
-      tb.add(consume());
+    if(curr == '-') add();
+    if(curr == '0') add();
+    else digits();
+    if(curr == '.') {
+      add();
       digits();
     }
-    if(curr() == 'e' || curr() == 'E') {
-      tb.add(consume());
-      if(curr() == '+' || curr() == '-') tb.add(consume());
+    if(curr == 'e' || curr == 'E') {
+      add();
+      if(curr == '+' || curr == '-') add();
       digits();
     }
     return tb.finish();
   }
 
   /**
-   * Parses a boolean.
-   * @return resulting number
+   * Consumes digits.
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private byte[] bool() throws QueryException {
-    if(curr() == 't') {
-      for(final byte b : TRUE) check((char) b);
-      return TRUE;
-    }
-    for(final byte b : FALSE) check((char) b);
-    return FALSE;
+  private void digits() throws QueryException, IOException {
+    if(!digit(curr)) throw error(INVALEXP, chr(), "digit");
+    do add(); while(digit(curr));
   }
 
-
   /**
-   * Consumes digits.
-   * @throws QueryException query exception
+   * Adds the current character to the token builder and reads the next one.
+   * @throws IOException I/O exception
    */
-  private void digits() throws QueryException {
-    if(!digit(curr())) throw error(INVALEXP, curr(), "digit");
-    do tb.add(consume()); while(digit(curr()));
+  private void add() throws IOException {
+    tb.add(curr);
+    next();
   }
 
   /**
-   * Consumes leading whitespaces and the specified character.
-   * @param c character to consume
-   * @return true if token was found
+   * Reads the next character.
+   * @throws IOException I/O exception
    */
-  private boolean wsConsume(final int c) {
-    skipWS();
-    return consume(c);
+  private void next() throws IOException {
+    if(curr == '\n') {
+      line++;
+      col = 1;
+    } else {
+      col++;
+    }
+    curr = input.read();
   }
 
   /**
    * Consumes consecutive whitespace characters.
+   * @throws IOException I/O exception
    */
-  private void skipWS() {
-    while(more()) {
-      final int c = curr();
-      if(c == 0 || c > ' ') break;
-      ++ip;
-    }
+  private void skipWS() throws IOException {
+    while(curr > 0 && curr <= ' ') next();
+  }
+
+  /**
+   * Consumes leading whitespaces and the specified character.
+   * @param c character to consume
+   * @return true if character was found
+   * @throws IOException I/O exception
+   */
+  private boolean wsConsume(final int c) throws IOException {
+    skipWS();
+    if(curr != c) return false;
+    next();
+    return true;
   }
 
   /**
    * Skips whitespaces, raises an error if the specified character cannot be
    * consumed.
-   *
    * @param ch character to be found
    * @throws QueryException query exception
+   * @throws IOException I/O exception
    */
-  private void wsCheck(final char ch) throws QueryException {
-    if(!wsConsume(ch)) error(INVALEXP, curr(), "\"" + ch + '"');
+  private void wsCheck(final char ch) throws QueryException, IOException {
+    if(!wsConsume(ch)) error(INVALEXP, chr(), "\"" + ch + '"');
   }
 
   /**
    * Raises an error if the specified character cannot be consumed.
-   *
    * @param ch character to be found
    * @throws QueryException query exception
+   * @throws IOException I/O exception
+   */
+  private void check(final char ch) throws QueryException, IOException {
+    if(curr != ch) error(INVALEXP, chr(), "\"" + ch + '"');
+    next();
+  }
+
+  /**
+   * Returns the current character as string.
+   * @return string
    */
-  private void check(final char ch) throws QueryException {
-    if(!consume(ch)) error(INVALEXP, curr(), "\"" + ch + '"');
+  private String chr() {
+    return curr == -1 ? "" : new TokenBuilder().add(curr).toString();
   }
 
   /**
    * Raises an error with the specified message.
    * @param msg error message
    * @param ext error details
-   * @return build exception
+   * @return query exception
    * @throws QueryException query exception
    */
   private QueryException error(final String msg, final Object... ext)
       throws QueryException {
+    throw BXJS_PARSE.thrw(info, line, col, Util.inf(msg, ext));
+  }
+
+  /** Handler that creates a tree representation of the input. */
+  private static final class Tree implements JSONHandler {
+    /** Opened objects and arrays. */
+    private final ArrayList<JStruct> structs = new ArrayList<JStruct>();
+    /** Root node. */
+    JStruct root;
+    /** Key of the current object member. */
+    private byte[] key;
+
+    @Override
+    public void openObject() {
+      open(new JObject());
+    }
+
+    @Override
+    public void openPair(final byte[] k) {
+      key = k;
+    }
+
+    @Override
+    public void closeObject() {
+      structs.remove(structs.size() - 1);
+    }
 
-    final int[] lc = new InputInfo(this).lineCol();
-    throw BXJS_PARSE.thrw(info, lc[0], lc[1], Util.inf(msg, ext));
+    @Override
+    public void openArray() {
+      open(new JArray());
+    }
+
+    @Override
+    public void closeArray() {
+      structs.remove(structs.size() - 1);
+    }
+
+    @Override
+    public void stringLit(final byte[] value) {
+      add(new JString(value));
+    }
+
+    @Override
+    public void numberLit(final byte[] value) {
+      add(new JNumber(value));
+    }
+
+    @Override
+    public void booleanLit(final byte[] value) {
+      add(new JBoolean(value));
+    }
+
+    @Override
+    public void nullLit() {
+      add(new JNull());
+    }
+
+    /**
+     * Adds and opens an object or array.
+     * @param struct object or array
+     */
+    private void open(final JStruct struct) {
+      if(structs.isEmpty()) root = struct;
+      else add(struct);
+      structs.add(struct);
+    }
+
+    /**
+     * Adds a value to the current object or array.
+     * @param value value
+     */
+    private void add(final JValue value) {
+      final JStruct struct = structs.get(structs.size() - 1);
+      if(struct instanceof JObject) ((JObject) struct).add(key, value);
+      else struct.add(value);
+    }
   }
 }
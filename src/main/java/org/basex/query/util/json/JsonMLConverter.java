@@ -35,7 +35,7 @@ public final class JsonMLConverter extends XMLConverter {
   @Override
   public ANode parse(final byte[] in) throws QueryException {
     // create and return XML fragment
-    return create(new JSONParser(in, info).parse());
+    return create(JSONParser.parse(in, info));
   }
 
   /**
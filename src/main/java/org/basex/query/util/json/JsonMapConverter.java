@@ -41,7 +41,7 @@ public final class JsonMapConverter {
    * @throws QueryException exception
    */
   public static Value parse(final byte[] json, final InputInfo ii) throws QueryException {
-    return convert(new JSONParser(json, ii).parse());
+    return convert(JSONParser.parse(json, ii));
   }
 
   /**
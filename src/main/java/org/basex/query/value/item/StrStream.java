@@ -72,7 +72,7 @@ public final class StrStream extends Item {
   }
 
   @Override
-  public TextInput input(final InputInfo ii) throws QueryException {
+  public NewlineInput input(final InputInfo ii) throws QueryException {
     try {
       return new NewlineInput(input).encoding(encoding);
     } catch(final IOException ex) {
@@ -1,5 +1,7 @@
 package org.basex.query.value.node;
 
+import java.util.concurrent.atomic.*;
+
 import org.basex.api.dom.*;
 import org.basex.data.*;
 import org.basex.query.*;
@@ -19,13 +21,13 @@ public abstract class ANode extends Item {
   private static final NodeType[] TYPES = {
     NodeType.DOC, NodeType.ELM, NodeType.TXT, NodeType.ATT, NodeType.COM, NodeType.PI
   };
-  /** Static node counter. */
+  /** Static node counter (nodes may be created by several threads). */
   // [CG] XQuery/ID:
   // - move to query context to reduce chance of overflow
   // - move to FNode to reduce memory usage of DBNode instances
-  private static int sid;
+  private static final AtomicInteger SID = new AtomicInteger();
   /** Unique node id. */
-  public final int id = ++sid;
+  public final int id = SID.incrementAndGet();
 
   /** Cached string value. */
   byte[] val;
@@ -6,6 +6,8 @@ import static org.basex.util.Token.*;
 import java.io.*;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.*;
 import org.basex.core.*;
@@ -24,6 +26,11 @@ import org.basex.util.list.*;
  * @author Christian Gruen
  */
 public final class ClientListener extends Thread {
+  /** Maximum number of queued events. */
+  private static final int EVENTS = 1 << 10;
+  /** Thread pool for delivering events. */
+  private static ExecutorService delivery;
+
   /** Timer for authentication time out. */
   public final Timer auth = new Timer();
   /** Timestamp of last interaction. */
@@ -49,6 +56,13 @@ public final class ClientListener extends Thread {
   private PrintOutput eout;
   /** Flag for active events. */
   private boolean events;
+  /** Queued events, consisting of names and messages. */
+  private final ArrayBlockingQueue<byte[][]> equeue =
+    new ArrayBlockingQueue<byte[][]>(EVENTS);
+  /** Indicates if queued events are being delivered. */
+  private final AtomicBoolean delivering = new AtomicBoolean();
+  /** Number of events that were dropped, as too many events were queued. */
+  private final AtomicLong dropped = new AtomicLong();
   /** Input stream. */
   private BufferInput in;
   /** Output stream. */
@@ -252,6 +266,7 @@ public final class ClientListener extends Thread {
       new Close().run(context);
       socket.close();
       if(events) {
+        equeue.clear();
         esocket.close();
         // remove this session from all events in pool
         for(final Sessions s : context.events.values()) s.remove(this);
@@ -283,20 +298,76 @@ public final class ClientListener extends Thread {
   }
 
   /**
-   * Sends a notification to the client.
+   * Sends a notification to the client. The event is queued and delivered by
+   * a thread of the event pool, so that slow clients will neither block the
+   * notifying query nor other clients. If too many events are queued, the
+   * event is dropped.
    * @param name event name
    * @param msg event message
-   * @throws IOException I/O exception
    */
-  public synchronized void notify(final byte[] name, final byte[] msg)
-      throws IOException {
-
+  public void notify(final byte[] name, final byte[] msg) {
     last = System.currentTimeMillis();
-    eout.print(name);
-    eout.write(0);
-    eout.print(msg);
-    eout.write(0);
-    eout.flush();
+    if(!equeue.offer(new byte[][] { name, msg })) dropped.incrementAndGet();
+    if(delivering.compareAndSet(false, true)) {
+      delivery().execute(new Runnable() {
+        @Override
+        public void run() {
+          deliver();
+        }
+      });
+    }
+  }
+
+  /**
+   * Delivers all queued events.
+   */
+  void deliver() {
+    do {
+      try {
+        for(byte[][] ev; (ev = equeue.poll()) != null;) {
+          eout.print(ev[0]);
+          eout.write(0);
+          eout.print(ev[1]);
+          eout.write(0);
+          if(equeue.isEmpty()) eout.flush();
+        }
+      } catch(final IOException ex) {
+        // remove session if events could not be delivered
+        for(final Sessions s : context.events.values()) s.remove(this);
+        // count undelivered events as dropped
+        final long d = dropped.getAndSet(0) + equeue.size();
+        equeue.clear();
+        if(log != null) {
+          log.write(this, ex.getMessage());
+          if(d != 0) log.write(this, "EVENTS DROPPED: " + d);
+        }
+        delivering.set(false);
+        return;
+      }
+      final long d = dropped.getAndSet(0);
+      if(d != 0 && log != null) log.write(this, "EVENTS DROPPED: " + d);
+      delivering.set(false);
+      // deliver events that have been queued after the last check
+    } while(!equeue.isEmpty() && delivering.compareAndSet(false, true));
+  }
+
+  /**
+   * Returns the thread pool for delivering events. A thread will only be
+   * blocked by a single client.
+   * @return thread pool
+   */
+  private static synchronized ExecutorService delivery() {
+    if(delivery == null) {
+      delivery = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable r) {
+          final Thread t = new Thread(r);
+          t.setDaemon(true);
+          return t;
+        }
+      });
+    }
+    return delivery;
   }
 
   @Override
@@ -40,6 +40,8 @@ final class QueryListener extends Progress {
    */
   QueryListener(final String qu, final Context c) {
     qp = new QueryProcessor(qu, c);
+    // results are serialized before the process is unregistered
+    qp.snapshots = true;
     ctx = c;
   }
 
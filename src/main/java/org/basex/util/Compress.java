@@ -78,81 +78,67 @@ public final class Compress extends ByteList {
     pc = cc;
   }
 
-  /** Current unpack position. */
-  private int uc;
-  /** UNpack offset. */
-  private int uo;
-
   /**
    * Decompresses the specified text.
    * @param txt text to be unpacked
    * @return unpacked text
    */
-  public synchronized byte[] unpack(final byte[] txt) {
+  public byte[] unpack(final byte[] txt) {
     // initialize decompression
-    list = txt;
-    size = txt.length;
-    uc = Num.length(txt, 0);
-    uo = 0;
+    final int tl = txt.length;
+    int uc = Num.length(txt, 0);
+    // bit cache (the lowest bit will be consumed next) and number of cached bits
+    long bits = 0;
+    int nb = 0;
+    while(nb <= 56 && uc < tl) {
+      bits |= (long) (txt[uc++] & 0xFF) << nb;
+      nb += 8;
+    }
 
-    // read packer bit
-    pull();
-    // choose mapping
-    final byte[] unpack = pull() ? UNPACK1 : UNPACK2;
+    // skip packer bit and choose mapping
+    final byte[] unpack = (bits & 2) != 0 ? UNPACK1 : UNPACK2;
+    bits >>>= 2;
+    nb -= 2;
 
     // decompress all characters
     final int l = Num.get(txt, 0);
     final byte[] res = new byte[l];
     for(int r = 0; r < l; r++) {
+      // refill cache (a character consumes at most 12 bits)
+      if(nb < 12) {
+        while(nb <= 56 && uc < tl) {
+          bits |= (long) (txt[uc++] & 0xFF) << nb;
+          nb += 8;
+        }
+      }
       final int b;
-      if(pull()) { // 1 xxx
-        b = pull(3);
-      } else if(pull()) { // 01 xxx
-        b = pull(3) | 0x08;
-      } else if(pull()) { // 001 xxxx
-        b = pull(4) | 0x10;
-      } else if(pull()) { // 0001 xxxxx
-        b = pull(5) | 0x20;
+      final int c = (int) bits;
+      if((c & 1) != 0) { // 1 xxx
+        b = c >>> 1 & 0x07;
+        bits >>>= 4;
+        nb -= 4;
+      } else if((c & 2) != 0) { // 01 xxx
+        b = c >>> 2 & 0x07 | 0x08;
+        bits >>>= 5;
+        nb -= 5;
+      } else if((c & 4) != 0) { // 001 xxxx
+        b = c >>> 3 & 0x0F | 0x10;
+        bits >>>= 7;
+        nb -= 7;
+      } else if((c & 8) != 0) { // 0001 xxxxx
+        b = c >>> 4 & 0x1F | 0x20;
+        bits >>>= 9;
+        nb -= 9;
       } else { // 0000 xxxxxxxx
-        b = pull(8);
+        b = c >>> 4 & 0xFF;
+        bits >>>= 12;
+        nb -= 12;
       }
       res[r] = (byte) (b >= 128 ? b : unpack[b]);
     }
     return res;
   }
 
-  /**
-   * Pulls the specified number of bit and returns the result.
-   * @param s number of bytes
-   * @return result
-   */
-  private int pull(final int s) {
-    int oo = uo, cc = uc, x = 0;
-    for(int i = 0; i < s; i++) {
-      if((list[cc] & 1 << oo) != 0) x |= 1 << i;
-      if(++oo == 8) {
-        oo = 0;
-        ++cc;
-      }
-    }
-    uo = oo;
-    uc = cc;
-    return x;
-  }
-
-  /**
-   * Pulls a single bit.
-   * @return result
-   */
-  private boolean pull() {
-    final boolean b = (list[uc] & 1 << uo) != 0;
-    if(++uo == 8) {
-      uo = 0;
-      ++uc;
-    }
-    return b;
-  }
-
   /** First mapping for unpacking data. */
   private static final byte[] UNPACK1 = {
     0x20, 0x61, 0x65, 0x6E, 0x69, 0x6F, 0x72, 0x73, // encode via 1 xxx
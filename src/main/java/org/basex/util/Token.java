@@ -1292,25 +1292,25 @@ public final class Token {
    * @return resulting character
    */
   public static int norm(final int ch) {
-    return ch < 0x80 || ch >= 0x200 ? ch : ch()[ch];
+    return ch < 0x80 || ch >= 0x200 ? ch : Norm.MAP[ch];
   }
 
   /**
-   * Initializes the array of normalized characters.
-   * @return normalization array
+   * Mapping table for character normalization. The table will only be
+   * initialized if needed, and without synchronizing each access.
    */
-  private static synchronized char[] ch() {
-    if(norm == null) {
-      // will be only initialized if needed
-      norm = new char[0x200];
-      for(int n = 0; n < norm.length; ++n) norm[n] = (char) n;
-      for(final char[] aNC : NC) norm[aNC[0]] = aNC[1];
+  private static final class Norm {
+    /** Normalized characters, indexed by their original characters. */
+    static final char[] MAP = new char[0x200];
+
+    static {
+      for(int n = 0; n < MAP.length; ++n) MAP[n] = (char) n;
+      for(final char[] aNC : NC) MAP[aNC[0]] = aNC[1];
     }
-    return norm;
-  }
 
-  /** Mapping table for character normalization. */
-  private static char[] norm;
+    /** Private constructor. */
+    private Norm() { }
+  }
 
   /** Normalized characters. */
   private static final char[][] NC = {
@@ -90,6 +90,17 @@ public final class FTLexer extends FTIterator implements IndexToken {
     return this;
   }
 
+  /**
+   * Returns tokens in reusable arrays. A token returned by {@link #nextToken}
+   * may be overwritten by the following tokens and must be copied if it is
+   * referenced after the next call.
+   * @return self reference
+   */
+  public FTLexer reuse() {
+    tok.reuse = true;
+    return this;
+  }
+
   /**
    * Initializes the iterator.
    */
@@ -14,9 +14,9 @@ public final class FTSpan {
   /** Text. */
   public byte[] text;
   /** Token position. */
-  public final int pos;
+  public int pos;
   /** Special character flag. */
-  public final boolean special;
+  public boolean special;
 
   /**
    * Constructor.
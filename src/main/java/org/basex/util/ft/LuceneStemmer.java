@@ -6,6 +6,7 @@ import java.lang.reflect.*;
 import java.util.*;
 
 import org.basex.util.*;
+import org.basex.util.hash.*;
 
 /**
  * Stemmer implementation using the Lucene stemmer contributions.
@@ -26,6 +27,8 @@ final class LuceneStemmer extends Stemmer {
   private StemmerClass clazz;
   /** Stemmer instance. */
   private Object stemmer;
+  /** Cached stems of recently stemmed words. */
+  private TokenMap cache = new TokenMap();
 
   static {
     if(Reflect.available(PATTERN, "de.German")) {
@@ -119,6 +122,10 @@ final class LuceneStemmer extends Stemmer {
 
   @Override
   protected byte[] stem(final byte[] word) {
+    // words are frequently repeated: avoid reflective calls for known words
+    final byte[] st = cache.get(word);
+    if(st != null) return st;
+
     String s = string(word);
     if(clazz.chars) {
       final char[] ch = s.toCharArray();
@@ -128,7 +135,12 @@ final class LuceneStemmer extends Stemmer {
     } else {
       s = (String) Reflect.invoke(clazz.stem, stemmer, s);
     }
-    return s == null ? word : token(s);
+    // words may be passed on in reusable arrays
+    final byte[] w = Arrays.copyOf(word, word.length);
+    final byte[] res = s == null ? w : token(s);
+    if(cache.size() > CACHE) cache = new TokenMap();
+    cache.add(w, res);
+    return res;
   }
 
   /** Structure, containing stemming methods. */
@@ -13,6 +13,10 @@ public final class Scoring {
   private static final double LOG = Math.E - 1;
   /** Scoring step. */
   private static final double SCORESTEP = 0.8;
+  /** BM25: saturation of the token frequency. */
+  private static final double K1 = 1.2;
+  /** BM25: normalization of the text length. */
+  private static final double B = 0.75;
 
   /** Private constructor. */
   private Scoring() { }
@@ -81,6 +85,34 @@ public final class Scoring {
     return max((double) npv / is, log(tokl * npv + 1) / log(tl + 1));
   }
 
+  /**
+   * Calculates the inverse document frequency of a token.
+   * @param df number of texts containing the token
+   * @param n total number of texts
+   * @return inverse document frequency
+   */
+  public static double idf(final long df, final long n) {
+    return log(1 + (n - df + 0.5) / (df + 0.5));
+  }
+
+  /**
+   * Calculates the BM25 score for a token in a text node. The result is
+   * mapped to the range {@code [0, 1[} to be combinable with other scores.
+   * It increases with the token frequency and decreases with the text length,
+   * so an upper bound can be computed from the maximum frequency and the
+   * minimum text length.
+   * @param idf inverse document frequency of the token
+   * @param tf number of occurrences in the text
+   * @param tl text length
+   * @param avg average text length
+   * @return score value
+   */
+  public static double bm25(final double idf, final int tf, final double tl,
+      final double avg) {
+    final double s = idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * tl / avg));
+    return s / (s + 1);
+  }
+
   /**
    * Returns a score for a single step.
    * @param sc current score value
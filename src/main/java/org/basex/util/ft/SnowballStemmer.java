@@ -6,6 +6,7 @@ import java.lang.reflect.*;
 import java.util.*;
 
 import org.basex.util.*;
+import org.basex.util.hash.*;
 
 /**
  * Stemmer implementation using the Snowball stemmer.
@@ -26,6 +27,8 @@ final class SnowballStemmer extends Stemmer {
   private StemmerClass clazz;
   /** Stemmer instance. */
   private Object stemmer;
+  /** Cached stems of recently stemmed words. */
+  private TokenMap cache = new TokenMap();
 
   static {
     if(Reflect.available(PATTERN, "German")) {
@@ -90,10 +93,19 @@ final class SnowballStemmer extends Stemmer {
 
   @Override
   protected byte[] stem(final byte[] word) {
+    // words are frequently repeated: avoid reflective calls for known words
+    byte[] st = cache.get(word);
+    if(st != null) return st;
+
     Reflect.invoke(clazz.setCurrent, stemmer, string(word));
     Reflect.invoke(clazz.stem, stemmer);
     final String s = (String) Reflect.invoke(clazz.getCurrent, stemmer);
-    return s == null ? word : token(s);
+    // words may be passed on in reusable arrays
+    final byte[] w = Arrays.copyOf(word, word.length);
+    st = s == null ? w : token(s);
+    if(cache.size() > CACHE) cache = new TokenMap();
+    cache.add(w, st);
+    return st;
   }
 
   /** Structure, containing stemming methods. */
@@ -120,6 +132,10 @@ final class SnowballStemmer extends Stemmer {
       setCurrent = s;
       stem = stm;
       getCurrent = g;
+      // skip access checks when invoking the methods
+      setCurrent.setAccessible(true);
+      stem.setAccessible(true);
+      getCurrent.setAccessible(true);
     }
   }
 }
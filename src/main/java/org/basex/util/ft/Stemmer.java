@@ -13,6 +13,8 @@ import org.basex.util.*;
 public abstract class Stemmer extends LanguageImpl {
   /** List of available stemmers. */
   static final LinkedList<Stemmer> IMPL = new LinkedList<Stemmer>();
+  /** Maximum number of stems cached by stemmers of external libraries. */
+  static final int CACHE = 1 << 16;
 
   /** Load stemmers and order them by precedence. */
   static {
@@ -14,6 +14,8 @@ public abstract class Tokenizer extends LanguageImpl {
 
   /** Are special characters included? */
   boolean special;
+  /** Are tokens returned in reusable arrays? */
+  boolean reuse;
 
   /** Load tokenizer classes and order them by precedence. */
   static {
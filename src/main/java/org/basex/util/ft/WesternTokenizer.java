@@ -17,6 +17,8 @@ import org.basex.util.list.*;
 public final class WesternTokenizer extends Tokenizer {
   /** Supported languages. */
   private static final HashSet<Language> SUPPORTED = new HashSet<Language>();
+  /** Maximum length of reusable token arrays. */
+  private static final int REUSE = 64;
 
   static {
     final String[] nonw = { "ar", "ja", "ko", "th", "zh" };
@@ -29,6 +31,12 @@ public final class WesternTokenizer extends Tokenizer {
   private final IntList sen = new IntList();
   /** Cached paragraph positions. */
   private final IntList par = new IntList();
+  /** Buffer for converting non-ASCII tokens. */
+  private final TokenBuilder buffer = new TokenBuilder();
+  /** Reusable token arrays, indexed by their length. */
+  private final byte[][] tokens = new byte[REUSE][];
+  /** Reusable span. */
+  private final FTSpan span = new FTSpan(EMPTY, 0, false);
 
   /** Diacritics flag. */
   private final boolean dc;
@@ -117,7 +125,10 @@ public final class WesternTokenizer extends Tokenizer {
 
   @Override
   public FTSpan next() {
-    return new FTSpan(nextToken(), pos, sc);
+    span.text = nextToken();
+    span.pos = pos;
+    span.special = sc;
+    return span;
   }
 
   @Override
@@ -196,16 +207,53 @@ public final class WesternTokenizer extends Tokenizer {
   }
 
   /**
-   * Returns a normalized version of the current token.
+   * Returns a normalized version of the current token. Diacritics and case
+   * are converted in a single pass.
    * @return result
    */
   private byte[] get() {
-    byte[] n = orig();
-    final boolean a = ascii(n);
-    if(!a && !dc) n = dia(n);
-    if(uc) n = upper(n, a);
-    if(lc || !cs) n = lower(n, a);
-    return n;
+    final boolean low = lc || !cs;
+    final int s = spos, e = cpos;
+    int i = s;
+    while(i < e && text[i] >= 0) i++;
+
+    if(i == e) {
+      // ASCII token: convert bytes
+      final int l = e - s;
+      final byte[] t = reuse && l < REUSE ? reusable(l) : new byte[l];
+      for(int j = 0; j < l; j++) {
+        int b = text[s + j];
+        if(uc) b = uc(b);
+        if(low) b = lc(b);
+        t[j] = (byte) b;
+      }
+      return t;
+    }
+
+    // convert codepoints
+    final TokenBuilder tb = buffer.reset();
+    for(int j = s; j < e; j += cl(text, j)) {
+      int c = cp(text, j);
+      if(!dc) c = norm(c);
+      if(uc) c = uc(c);
+      if(low) c = lc(c);
+      tb.add(c);
+    }
+    return tb.finish();
+  }
+
+  /**
+   * Returns a reusable array with the specified length.
+   * @param l length
+   * @return array
+   */
+  private byte[] reusable(final int l) {
+    byte[] t = tokens[l];
+    if(t == null) {
+      t = new byte[l];
+      tokens[l] = t;
+    }
+    return t;
   }
 
   /**
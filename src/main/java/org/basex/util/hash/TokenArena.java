@@ -0,0 +1,324 @@
+package org.basex.util.hash;
+
+import java.io.*;
+import java.util.*;
+
+import org.basex.io.in.DataInput;
+import org.basex.io.out.DataOutput;
+import org.basex.util.*;
+
+/**
+ * This is a hash set for tokens, which stores all keys in a few large byte
+ * arrays (the arena) instead of creating a separate array for each key.
+ * Keys are referenced by their offsets and lengths; hash values are cached,
+ * so that the table can be resized without recomputing them. Collisions are
+ * resolved by open addressing. As a result, the number of objects does not
+ * grow with the number of keys, which reduces the memory consumption and the
+ * work of the garbage collector for large sets.
+ *
+ * <p>In contrast to {@link TokenSet}, keys cannot be deleted, and
+ * {@link #key(int)} returns a new copy of a key. The set is serialized in the
+ * format of {@link TokenSet}.</p>
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public class TokenArena {
+  /** Size of an arena page. */
+  private static final int PAGE = 1 << 20;
+  /** Initial capacity. */
+  protected static final int CAP = 1 << 3;
+
+  /** Arena pages. */
+  private byte[][] pages = { new byte[1 << 10] };
+  /** Number of used bytes in the current page. */
+  private int used;
+
+  /** Offsets of the keys: page index (upper 32 bits) and page offset. */
+  private long[] offsets = new long[CAP];
+  /** Lengths of the keys. */
+  private int[] lengths = new int[CAP];
+  /** Hash values of the keys. */
+  private int[] hashes = new int[CAP];
+  /** Hash table, referencing the ids of the keys ({@code 0}: empty slot). */
+  private int[] table = new int[CAP << 1];
+  /** Number of keys. Note: ids start with {@code 1}. */
+  private int size;
+
+  /**
+   * Default constructor.
+   */
+  public TokenArena() { }
+
+  /**
+   * Constructor, reading a set that has been written in the format of
+   * {@link TokenSet}.
+   * @param in input stream
+   * @throws IOException I/O exception
+   */
+  public TokenArena(final DataInput in) throws IOException {
+    final byte[][] keys = in.readTokens();
+    in.readNums();
+    in.readNums();
+    final int s = in.readNum();
+    for(int i = 1; i < s; i++) add(keys[i]);
+  }
+
+  /**
+   * Writes the set in the format of {@link TokenSet}.
+   * @param out output stream
+   * @throws IOException I/O exception
+   */
+  public void write(final DataOutput out) throws IOException {
+    int s = CAP;
+    while(s <= size) s <<= 1;
+    final byte[][] keys = new byte[s][];
+    final int[] next = new int[s], bucket = new int[s];
+    for(int id = 1; id <= size; id++) {
+      keys[id] = key(id);
+      final int p = Token.hash(keys[id]) & s - 1;
+      next[id] = bucket[p];
+      bucket[p] = id;
+    }
+    out.writeTokens(keys);
+    out.writeNums(next);
+    out.writeNums(bucket);
+    out.writeNum(size + 1);
+  }
+
+  /**
+   * Indexes the specified key and returns its id.
+   * If the key already exists, its negative id is returned.
+   * @param key key
+   * @return id of added key, negative id otherwise
+   */
+  public final int add(final byte[] key) {
+    final int h = hash(key);
+    final int m = table.length - 1;
+    int p = h & m;
+    for(int id; (id = table[p]) != 0; p = p + 1 & m) {
+      if(hashes[id] == h && eq(id, key)) return -id;
+    }
+    final int id = ++size;
+    if(id == offsets.length) {
+      final int s = id << 1;
+      offsets = Arrays.copyOf(offsets, s);
+      lengths = Arrays.copyOf(lengths, s);
+      hashes = Arrays.copyOf(hashes, s);
+    }
+    offsets[id] = store(key);
+    lengths[id] = key.length;
+    hashes[id] = h;
+    table[p] = id;
+    // keep load factor below 50%
+    if(size << 1 > m) rehash();
+    return id;
+  }
+
+  /**
+   * Returns the id of the specified key or 0 if the key does not exist.
+   * @param key key to be found
+   * @return id or 0 if nothing was found
+   */
+  public final int id(final byte[] key) {
+    final int h = hash(key);
+    final int m = table.length - 1;
+    for(int p = h & m, id; (id = table[p]) != 0; p = p + 1 & m) {
+      if(hashes[id] == h && eq(id, key)) return id;
+    }
+    return 0;
+  }
+
+  /**
+   * Checks if the set contains the specified key.
+   * @param key key to be found
+   * @return result of check
+   */
+  public final boolean contains(final byte[] key) {
+    return id(key) != 0;
+  }
+
+  /**
+   * Returns a copy of the key with the specified id.
+   * @param id id
+   * @return key
+   */
+  public final byte[] key(final int id) {
+    final long o = offsets[id];
+    final int s = (int) o;
+    return Arrays.copyOfRange(pages[(int) (o >>> 32)], s, s + lengths[id]);
+  }
+
+  /**
+   * Returns the number of keys.
+   * @return number of keys
+   */
+  public final int size() {
+    return size;
+  }
+
+  /**
+   * Tests is the set has no keys.
+   * @return result of check
+   */
+  public final boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the ids of all keys, sorted by the unsigned byte values of the
+   * keys (see {@link Token#diff(byte[], byte[])}).
+   * @return sorted ids
+   */
+  public final int[] sorted() {
+    final int[] ids = new int[size];
+    for(int i = 0; i < size; i++) ids[i] = i + 1;
+    sort(ids, 0, size);
+    return ids;
+  }
+
+  // PRIVATE METHODS ==========================================================
+
+  /**
+   * Stores a key in the arena.
+   * @param key key
+   * @return offset
+   */
+  private long store(final byte[] key) {
+    final int kl = key.length;
+    int pi = pages.length - 1;
+    byte[] page = pages[pi];
+    if(used + kl > page.length) {
+      if(used + kl <= PAGE) {
+        // enlarge current page
+        int l = page.length;
+        while(l < used + kl) l <<= 1;
+        page = Arrays.copyOf(page, l);
+      } else {
+        // start new page; keys larger than a page get a page of their own
+        page = new byte[Math.max(PAGE, kl)];
+        pages = Array.add(pages, page);
+        used = 0;
+        pi++;
+      }
+      pages[pi] = page;
+    }
+    System.arraycopy(key, 0, page, used, kl);
+    final long o = (long) pi << 32 | used;
+    used += kl;
+    return o;
+  }
+
+  /**
+   * Doubles the size of the hash table.
+   */
+  private void rehash() {
+    final int s = table.length << 1, m = s - 1;
+    final int[] tmp = new int[s];
+    for(int id = 1; id <= size; id++) {
+      int p = hashes[id] & m;
+      while(tmp[p] != 0) p = p + 1 & m;
+      tmp[p] = id;
+    }
+    table = tmp;
+  }
+
+  /**
+   * Checks if the key with the specified id equals the specified key.
+   * @param id id
+   * @param key key
+   * @return result of check
+   */
+  private boolean eq(final int id, final byte[] key) {
+    final int kl = key.length;
+    if(lengths[id] != kl) return false;
+    final long o = offsets[id];
+    final byte[] page = pages[(int) (o >>> 32)];
+    for(int k = 0, s = (int) o; k < kl; k++, s++) {
+      if(page[s] != key[k]) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Compares the keys with the specified ids.
+   * @param id1 first id
+   * @param id2 second id
+   * @return difference
+   */
+  private int diff(final int id1, final int id2) {
+    final long o1 = offsets[id1], o2 = offsets[id2];
+    final byte[] p1 = pages[(int) (o1 >>> 32)], p2 = pages[(int) (o2 >>> 32)];
+    final int s1 = (int) o1, s2 = (int) o2, l1 = lengths[id1], l2 = lengths[id2];
+    final int l = Math.min(l1, l2);
+    for(int i = 0; i < l; i++) {
+      final int c = (p1[s1 + i] & 0xFF) - (p2[s2 + i] & 0xFF);
+      if(c != 0) return c;
+    }
+    return l1 - l2;
+  }
+
+  /**
+   * Sorts the specified ids by their keys (quicksort with median-of-three
+   * pivots; small ranges are sorted by insertion).
+   * @param ids ids
+   * @param s start offset
+   * @param e end offset (exclusive)
+   */
+  private void sort(final int[] ids, final int s, final int e) {
+    int l = s, r = e;
+    while(r - l > 16) {
+      final int m = l + r - 1 >>> 1;
+      if(diff(ids[m], ids[l]) < 0) swap(ids, l, m);
+      if(diff(ids[r - 1], ids[l]) < 0) swap(ids, l, r - 1);
+      if(diff(ids[r - 1], ids[m]) < 0) swap(ids, m, r - 1);
+      final int pv = ids[m];
+      int i = l, j = r - 1;
+      while(i <= j) {
+        while(diff(ids[i], pv) < 0) i++;
+        while(diff(ids[j], pv) > 0) j--;
+        if(i <= j) swap(ids, i++, j--);
+      }
+      // recurse into smaller partition to limit the stack depth
+      if(j - l < r - i) {
+        sort(ids, l, j + 1);
+        l = i;
+      } else {
+        sort(ids, i, r);
+        r = j + 1;
+      }
+    }
+    for(int i = l + 1; i < r; i++) {
+      final int id = ids[i];
+      int j = i;
+      for(; j > l && diff(ids[j - 1], id) > 0; j--) ids[j] = ids[j - 1];
+      ids[j] = id;
+    }
+  }
+
+  /**
+   * Swaps two entries.
+   * @param ids ids
+   * @param i first offset
+   * @param j second offset
+   */
+  private static void swap(final int[] ids, final int i, final int j) {
+    final int t = ids[i];
+    ids[i] = ids[j];
+    ids[j] = t;
+  }
+
+  /**
+   * Computes the hash value of a key. All bytes are considered, and the bits
+   * are spread, as the lower bits are used for addressing the table.
+   * @param key key
+   * @return hash value
+   */
+  private static int hash(final byte[] key) {
+    int h = 0;
+    for(final byte b : key) h = (h << 5) - h + b;
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    return h ^ h >>> 13;
+  }
+}
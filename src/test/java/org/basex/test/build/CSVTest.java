@@ -5,6 +5,7 @@ import static org.junit.Assert.*;
 
 import java.io.*;
 
+import org.basex.build.file.*;
 import org.basex.core.*;
 import org.basex.core.cmd.*;
 import org.basex.io.*;
@@ -109,6 +110,47 @@ public final class CSVTest extends SandboxTest {
     assertEquals("0", new XQuery("count(//Name)").execute(context));
   }
 
+  /**
+   * Parses quoted fields and different line breaks.
+   * @throws Exception exception
+   */
+  @Test
+  public void quotes() throws Exception {
+    write("a,b\r\n\"1,2\",\"x\"\"y\"\r\"3\r\n4\",\"z\"5\n6,\u00e4\u20ac");
+    new CreateDB(NAME, TEMP).execute(context);
+    assertEquals("1,2|x\"y|3\n4|z5|6|\u00e4\u20ac",
+        new XQuery("string-join(//text(), '|')").execute(context));
+  }
+
+  /**
+   * Distributes the records to several documents.
+   * @throws Exception exception
+   */
+  @Test
+  public void records() throws Exception {
+    write("a,b\n1,2\n3,4\n5,6\n\n7,8\n9");
+    new Set(Prop.PARSEROPT, "header=true,records=2").execute(context);
+    new CreateDB(NAME, TEMP).execute(context);
+    assertEquals("3", new XQuery("count(db:open('" + NAME + "'))").execute(context));
+    assertEquals("2 2 1", new XQuery("for $d in db:open('" + NAME + "', '" + NAME +
+        IO.CSVSUFFIX + "') return count($d//record)").execute(context));
+    assertEquals("9", new XQuery("string(db:open('" + NAME + "', '" + NAME +
+        IO.CSVSUFFIX + "/3.xml')//a)").execute(context));
+
+    // the header of the simple format is repeated in each document
+    new Set(Prop.PARSEROPT, "format=simple,header=true,records=4").execute(context);
+    new CreateDB(NAME, TEMP).execute(context);
+    assertEquals("a a", new XQuery("//header/entry[1]/string()").execute(context));
+
+    new Set(Prop.PARSEROPT, "records=-1").execute(context);
+    try {
+      new CreateDB(NAME, TEMP).execute(context);
+      fail("Invalid option was accepted.");
+    } catch(final BaseXException ex) {
+      assertTrue(ex.getMessage().contains(ParserProp.RECORDS[0].toString()));
+    }
+  }
+
   /**
    * Writes the specified test file.
    * @param data data to write
@@ -0,0 +1,176 @@
+package org.basex.test.build;
+
+import static org.basex.query.func.Function.*;
+import static org.basex.util.Token.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.test.*;
+import org.junit.*;
+
+/**
+ * JSON Parser Test. The documents created by the streaming parser are compared
+ * with the results of the JSON conversion functions.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class JSONTest extends SandboxTest {
+  /** Temporary JSON file. */
+  private static final String TEMP = Prop.TMP + NAME + IO.JSONSUFFIX;
+  /** Inputs for the direct mapping. */
+  private static final String[] JSON = {
+    "{}", "[]", "{ \"a\": 1 }", "[1, \"x\", true, false, null, -1.5e+3]",
+    "{ \"a\": { \"b\": [1, 2, { \"c\": null }] }, \"d\": \"e\" }",
+    "{ \"a\": 1, \"b\": { \"a\": \"x\" }, \"c\": [ \"a\", 2 ] }",
+    "{ \"json\": 1, \"_a b\": \"\", \"\": [] }",
+    "[ \"\\\"\\\\\\/\\b\\f\\n\\r\\t\\u00E4\\u20ac\" ]",
+    "{ \"a\" : [ [ ], { } ] ,\n \"b\" : \" x \" }",
+  };
+  /** Inputs for the JsonML mapping. */
+  private static final String[] JSONML = {
+    "[\"a\"]", "[\"a\", { \"b\": \"c\", \"d\": \"\" }]",
+    "[\"a\", \"t\", [\"b\", {}, \"u\"], \"v\", [\"c\"]]",
+    "[\"a\", { \"x\": \"1\" }, [\"b\", { \"y\": \"2\" }, [\"c\"]], \"w\"]",
+  };
+  /** Invalid inputs for the direct mapping. */
+  private static final String[] INVALID = {
+    "", "1", "{", "{ \"a\": }", "{ \"a\": 1, }", "[1, ]", "[1] 2", "[tru]",
+    "[\"\\x\"]", "[\"a", "[01]", "[-]", "[1.]", "{ \"a\" 1 }",
+  };
+  /** Invalid inputs for the JsonML mapping. */
+  private static final String[] INVALIDML = {
+    "{}", "[]", "[1]", "[\"1a\"]", "[\"a\", \"b\", \"c\"]", "[\"a\", 1]",
+    "[\"a\", { \"b\": 1 }]", "[\"a\", [], {}]", "[\"a\", { \"1\": \"x\" }]",
+  };
+
+  /**
+   * Sets the parser.
+   * @throws BaseXException exception
+   */
+  @BeforeClass
+  public static void before() throws BaseXException {
+    new Set(Prop.PARSER, "json").execute(context);
+  }
+
+  /**
+   * Removes the temporary JSON file.
+   */
+  @AfterClass
+  public static void after() {
+    new IOFile(TEMP).delete();
+  }
+
+  /**
+   * Resets the options and drops the database.
+   * @throws BaseXException exception
+   */
+  @After
+  public void finish() throws BaseXException {
+    new Set(Prop.PARSEROPT, "").execute(context);
+    new Set(Prop.CHOP, true).execute(context);
+    new DropDB(NAME).execute(context);
+  }
+
+  /**
+   * Tests the direct mapping.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void direct() throws IOException {
+    new Set(Prop.CHOP, false).execute(context);
+    for(final String json : JSON) {
+      compare(json, _JSON_PARSE.args(json));
+    }
+  }
+
+  /**
+   * Tests the chopping of whitespaces.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void chop() throws IOException {
+    new IOFile(TEMP).write(token("{ \"a\": \" x \", \"b\": [\" \"] }"));
+    new CreateDB(NAME, TEMP).execute(context);
+    assertEquals("x", new XQuery("/json/a/text()").execute(context));
+    assertEquals("0", new XQuery("count(//value/text())").execute(context));
+  }
+
+  /**
+   * Tests the direct mapping of streamed input, which is parsed twice.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void stream() throws IOException {
+    final CreateDB cmd = new CreateDB(NAME);
+    cmd.setInput(new ByteArrayInputStream(token("{ \"a\": [1, \"x\"] }")));
+    cmd.execute(context);
+    assertEquals("a", new XQuery("/json/@arrays/string()").execute(context));
+    assertEquals("1 x", new XQuery("string-join(//value, ' ')").execute(context));
+  }
+
+  /**
+   * Tests the JsonML mapping.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void jsonml() throws IOException {
+    new Set(Prop.PARSEROPT, "jsonml=true").execute(context);
+    for(final String json : JSONML) {
+      compare(json, _JSON_PARSE_ML.args(json));
+    }
+  }
+
+  /**
+   * Tests invalid inputs.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void invalid() throws IOException {
+    for(final String json : INVALID) error(json);
+  }
+
+  /**
+   * Tests invalid JsonML inputs.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void invalidML() throws IOException {
+    new Set(Prop.PARSEROPT, "jsonml=true").execute(context);
+    for(final String json : INVALIDML) error(json);
+  }
+
+  /**
+   * Creates a database from the specified input and compares it with the
+   * result of the specified query.
+   * @param json JSON input
+   * @param query query
+   * @throws IOException I/O exception
+   */
+  private static void compare(final String json, final String query)
+      throws IOException {
+    new IOFile(TEMP).write(token(json));
+    new CreateDB(NAME, TEMP).execute(context);
+    final String exp = new XQuery(query).execute(context);
+    assertEquals(json, exp, new XQuery(".").execute(context));
+  }
+
+  /**
+   * Checks if the specified input is rejected.
+   * @param json JSON input
+   * @throws IOException I/O exception
+   */
+  private static void error(final String json) throws IOException {
+    new IOFile(TEMP).write(token(json));
+    try {
+      new CreateDB(NAME, TEMP).execute(context);
+      fail("Input was accepted: " + json);
+    } catch(final BaseXException ex) {
+      assertTrue(ex.getMessage(), ex.getMessage().contains("parser"));
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package org.basex.test.core;
+
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.*;
+import org.basex.test.*;
+import org.basex.util.list.*;
+import org.junit.*;
+
+/**
+ * Tests incremental backups.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class BackupTest extends SandboxTest {
+  /** Query for the database contents. */
+  private static final String QUERY = "count(//*), sum(//t/@n)";
+
+  /**
+   * Creates the test database.
+   * @throws BaseXException exception
+   */
+  @Before
+  public void init() throws BaseXException {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 50000; i++) sb.append("<t n='").append(i).append("'>a</t>");
+    new CreateDB(NAME, sb.append("</x>").toString()).execute(context);
+    new Set(Prop.INCBACKUP, true).execute(context);
+  }
+
+  /**
+   * Drops the test database and its backups.
+   * @throws BaseXException exception
+   */
+  @After
+  public void finish() throws BaseXException {
+    new Set(Prop.INCBACKUP, false).execute(context);
+    new DropBackup(NAME).execute(context);
+    new DropDB(NAME).execute(context);
+  }
+
+  /**
+   * Creates a chain of backups and restores each of them.
+   * @throws Exception exception
+   */
+  @Test
+  public void chain() throws Exception {
+    final String[] exp = new String[3];
+    for(int b = 0; b < exp.length; b++) {
+      if(b > 0) {
+        new XQuery("insert node <t n='" + b + "'/> into /x").execute(context);
+        new Flush().execute(context);
+        // backups are distinguished by seconds
+        Thread.sleep(1100);
+      }
+      exp[b] = new XQuery(QUERY).execute(context);
+      new CreateBackup(NAME).execute(context);
+    }
+
+    // the increments only contain the changed blocks
+    final StringList paths = Databases.backupPaths(NAME, context);
+    assertEquals(exp.length, paths.size());
+    final long full = new IOFile(paths.get(paths.size() - 1)).length();
+    for(int p = 0; p < paths.size() - 1; p++) {
+      final long l = new IOFile(paths.get(p)).length();
+      assertTrue(l + " < " + full, l * 2 < full);
+    }
+
+    // restore each backup
+    for(int p = 0; p < paths.size(); p++) {
+      final String name = new IOFile(paths.get(p)).name();
+      new Restore(name.substring(0, name.length() - IO.ZIPSUFFIX.length())).
+        execute(context);
+      new Open(NAME).execute(context);
+      assertEquals(exp[exp.length - 1 - p], new XQuery(QUERY).execute(context));
+    }
+  }
+
+  /**
+   * Checks that backups are not dropped if other backups are based on them.
+   * @throws Exception exception
+   */
+  @Test
+  public void dropBase() throws Exception {
+    new CreateBackup(NAME).execute(context);
+    // backups are distinguished by seconds
+    Thread.sleep(1100);
+    new XQuery("insert node <t/> into /x").execute(context);
+    new CreateBackup(NAME).execute(context);
+
+    final StringList paths = Databases.backupPaths(NAME, context);
+    assertEquals(2, paths.size());
+    final String inc = new IOFile(paths.get(0)).name();
+    final String base = new IOFile(paths.get(1)).name();
+    try {
+      new DropBackup(base.substring(0, base.length() - IO.ZIPSUFFIX.length())).
+        execute(context);
+      fail("Base backup was dropped.");
+    } catch(final BaseXException ex) {
+      assertTrue(ex.getMessage(), ex.getMessage().contains(inc));
+    }
+    assertEquals(2, Databases.backupPaths(NAME, context).size());
+
+    // the base backup can be dropped together with the backups that need it
+    new DropBackup(NAME).execute(context);
+    assertEquals(0, Databases.backupPaths(NAME, context).size());
+  }
+}
@@ -0,0 +1,144 @@
+package org.basex.test.data;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.basex.io.*;
+import org.basex.test.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * Tests the write-ahead log of disk-based databases. Crashes are simulated by
+ * copying the files of an opened database.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class JournalTest extends SandboxTest {
+  /** Name of the copied database. */
+  private static final String COPY = NAME + "copy";
+  /** Name of the log file. */
+  private static final String LOG = DataText.DATAWAL + IO.BASEXSUFFIX;
+  /** Query for the database contents. */
+  private static final String QUERY = "count(//*), sum(//@n), string-join(//t[@n < 5], ',')";
+
+  /**
+   * Creates the test database.
+   * @throws BaseXException exception
+   */
+  @Before
+  public void init() throws BaseXException {
+    new Set(Prop.WAL, true).execute(context);
+    new Set(Prop.UPDINDEX, true).execute(context);
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 20000; i++) sb.append("<t n='").append(i).append("'>a</t>");
+    new CreateDB(NAME, sb.append("</x>").toString()).execute(context);
+  }
+
+  /**
+   * Drops the test databases and resets the properties.
+   * @throws BaseXException exception
+   */
+  @After
+  public void finish() throws BaseXException {
+    new Set(Prop.WAL, false).execute(context);
+    new Set(Prop.UPDINDEX, false).execute(context);
+    new Set(Prop.AUTOFLUSH, true).execute(context);
+    new DropDB(NAME).execute(context);
+    new DropDB(COPY).execute(context);
+  }
+
+  /**
+   * Checks that committed updates are restored after a crash.
+   * @throws Exception exception
+   */
+  @Test
+  public void recover() throws Exception {
+    update();
+    final String exp = new XQuery(QUERY).execute(context);
+    crash();
+    assertEquals(exp, query());
+    // the log has been applied
+    new Set(Prop.WAL, false).execute(context);
+    assertEquals(exp, query());
+    assertFalse(new IOFile(context.mprop.dbpath(COPY), LOG).exists());
+  }
+
+  /**
+   * Checks that uncommitted updates are discarded after a crash.
+   * @throws Exception exception
+   */
+  @Test
+  public void uncommitted() throws Exception {
+    new Open(NAME).execute(context);
+    final String exp = new XQuery(QUERY).execute(context);
+    new Set(Prop.AUTOFLUSH, false).execute(context);
+    update();
+    assertFalse(exp.equals(new XQuery(QUERY).execute(context)));
+    crash();
+    assertEquals(exp, query());
+  }
+
+  /**
+   * Checks that an incomplete transaction at the end of the log is ignored.
+   * @throws Exception exception
+   */
+  @Test
+  public void truncated() throws Exception {
+    new Open(NAME).execute(context);
+    new XQuery("insert node <t n='1'>x</t> into /x").execute(context);
+    final String exp = new XQuery(QUERY).execute(context);
+    new XQuery("insert node <t n='2'>y</t> into /x").execute(context);
+    crash();
+    // remove the last bytes of the log
+    final RandomAccessFile raf = new RandomAccessFile(
+        new IOFile(context.mprop.dbpath(COPY), LOG).file(), "rw");
+    try {
+      raf.setLength(raf.length() - 3);
+    } finally {
+      raf.close();
+    }
+    assertEquals(exp, query());
+  }
+
+  /**
+   * Performs some updates.
+   * @throws BaseXException exception
+   */
+  private static void update() throws BaseXException {
+    new Open(NAME).execute(context);
+    for(int i = 0; i < 50; i++) {
+      new XQuery("insert node <t n='" + i + "'>" + i + "</t> into /x").execute(context);
+      new XQuery("delete node (//t)[" + (i * 7 + 3) + "]").execute(context);
+      new XQuery("replace value of node (//@n)[" + (i + 1) + "] with " + i * 2).
+        execute(context);
+    }
+  }
+
+  /**
+   * Simulates a crash by copying the files of the opened database.
+   * @throws IOException I/O exception
+   */
+  private static void crash() throws IOException {
+    final IOFile src = context.mprop.dbpath(NAME), trg = context.mprop.dbpath(COPY);
+    for(final String f : src.descendants()) new IOFile(src, f).copyTo(new IOFile(trg, f));
+    context.databases().add(COPY);
+  }
+
+  /**
+   * Opens the copied database and returns the result of the query.
+   * @return result
+   * @throws BaseXException exception
+   */
+  private static String query() throws BaseXException {
+    new Open(COPY).execute(context);
+    final String res = new XQuery(QUERY).execute(context);
+    new Close().execute(context);
+    return res;
+  }
+}
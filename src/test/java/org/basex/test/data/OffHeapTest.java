@@ -0,0 +1,111 @@
+package org.basex.test.data;
+
+import static org.basex.query.QueryText.*;
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.test.*;
+import org.basex.util.list.*;
+import org.junit.*;
+
+/**
+ * Compares the results of queries on main memory databases that are stored
+ * in and outside the Java heap.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class OffHeapTest extends SandboxTest {
+  /** Database XML file. */
+  private static final String DBFILE = "src/test/resources/factbook.zip";
+  /** Queries and updates, evaluated in the given order. */
+  private static final String[] QUERIES = {
+    "count(//*)", "sum(//@population)", "string-length(string(/))",
+    "//country[@name = 'Germany']/@car_code/string()", "//city[name = 'Berlin']",
+    "delete node //country[@name = 'France']",
+    "insert node <x a='1'>{ //country[1]/@car_code }abc<y>123</y></x> into //country[2]",
+    "replace value of node (//city/name)[1] with 'X'",
+    "replace value of node (//@population)[1] with '42'",
+    "for $c in //country[position() < 5] return insert node $c before /*/*[1]",
+    "/", "sum(//@population)", "//x", "string-join(//name[1], ' ')",
+    "//city[name = 'X']", "//x[y = '123']", "//country[@population = '42']/@name",
+  };
+
+  /**
+   * Resets the properties.
+   */
+  @After
+  public void tearDown() {
+    context.prop.set(Prop.MAINMEM, false);
+    context.prop.set(Prop.OFFHEAP, false);
+    context.prop.set(Prop.UPDINDEX, false);
+    context.prop.set(Prop.QUERYINFO, false);
+  }
+
+  /**
+   * Compares the query results.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void compare() throws BaseXException {
+    compare(run(false), run(true));
+  }
+
+  /**
+   * Compares the query results, using updatable value indexes.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void updindex() throws BaseXException {
+    new Set(Prop.UPDINDEX, true).execute(context);
+    compare(run(false), run(true));
+  }
+
+  /**
+   * Checks if the value indexes are used.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void index() throws BaseXException {
+    new Set(Prop.MAINMEM, true).execute(context);
+    new Set(Prop.OFFHEAP, true).execute(context);
+    new Set(Prop.QUERYINFO, true).execute(context);
+    new CreateDB(NAME, "<a><b>x</b><b>1</b><c d='y' e='2'/></a>").execute(context);
+    final XQuery text = new XQuery("count(//b[text() = ('x', '1')])");
+    assertEquals("2", text.execute(context));
+    assertTrue(text.info().contains(OPTTXTINDEX));
+    final XQuery attr = new XQuery("count(//c[@d = 'y'][@e = '2'])");
+    assertEquals("1", attr.execute(context));
+    assertTrue(attr.info().contains(OPTATVINDEX));
+    new Close().execute(context);
+  }
+
+  /**
+   * Compares the query results.
+   * @param exp expected results
+   * @param res returned results
+   */
+  private static void compare(final TokenList exp, final TokenList res) {
+    for(int q = 0; q < QUERIES.length; q++) {
+      assertEquals(QUERIES[q], exp.get(q).length, res.get(q).length);
+      assertArrayEquals(QUERIES[q], exp.get(q), res.get(q));
+    }
+  }
+
+  /**
+   * Creates a main memory database and evaluates all queries.
+   * @param off store database outside the Java heap
+   * @return results
+   * @throws BaseXException exception
+   */
+  private static TokenList run(final boolean off) throws BaseXException {
+    new Set(Prop.MAINMEM, true).execute(context);
+    new Set(Prop.OFFHEAP, off).execute(context);
+    new CreateDB(NAME, DBFILE).execute(context);
+    final TokenList tl = new TokenList();
+    for(final String q : QUERIES) tl.add(new XQuery(q).execute(context));
+    new Close().execute(context);
+    return tl;
+  }
+}
@@ -0,0 +1,160 @@
+package org.basex.test.index;
+
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.test.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * Compares the results of full-text queries with and without full-text index.
+ * The test document contains tokens with long and short lists of index
+ * entries, which are stored in several blocks.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class FTIndexTest extends SandboxTest {
+  /** Database without full-text index. */
+  private static final String SEQ = NAME + "seq";
+  /** Queries, the results of which are compared with the marked matches. */
+  private static final String[] QUERIES = {
+    "'a'", "'c'", "'a' ftand 'c'", "'c' ftand 'a'", "'a' ftand 'b' ftand 'd'",
+    "'a b'", "'b a'", "'c d a'", "'a' ftand 'zzz'",
+    "'a' ftand 'c' distance at most 2 words", "'b.' using wildcards",
+    "'.*b' using wildcards", "'ab' using fuzzy",
+    "'a b' at start", "'7' at end", "'a b a b 5' entire content",
+    "('a' ftand 'd') window 3 words", "('d' ftand 'a') ordered",
+    "('a' ftand 'b' distance at most 1 words) ftand 'c'",
+  };
+  /** Queries, the results of which are compared as strings. */
+  private static final String[] STRINGS = {
+    "'a' ftor 'c'", "('a' ftor 'c') ftand 'd'", "'b' ftand ftnot 'd'",
+    "{ 'a', 'd' } all",
+  };
+  /** Search terms and options, the best results of which are compared. */
+  private static final String[][] TOP = {
+    { "('a', 'c')", "" }, { "('b', 'd', 'zzz')", "" }, { "('a b', 'c', 'd')", "" },
+    { "'d'", "" }, { "('a', 'd')", "'mode':='all'" }, { "'b.'", "'wildcards':=''" },
+  };
+
+  /**
+   * Creates the test databases.
+   * @throws BaseXException exception
+   */
+  @BeforeClass
+  public static void init() throws BaseXException {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 5000; i++) {
+      sb.append("<t>");
+      if(i % 2 == 0) sb.append("a ");
+      if(i % 3 == 0) sb.append("b ");
+      if(i % 97 == 0) sb.append("c d ");
+      if(i % 5 == 0) sb.append("a b a b ");
+      if(i % 7 == 0) sb.append("d ");
+      sb.append(i).append("</t>");
+    }
+    final String doc = sb.append("</x>").toString();
+    new Set(Prop.FTINDEX, true).execute(context);
+    new CreateDB(NAME, doc).execute(context);
+    new Set(Prop.FTINDEX, false).execute(context);
+    new CreateDB(SEQ, doc).execute(context);
+  }
+
+  /**
+   * Drops the test databases.
+   * @throws BaseXException exception
+   */
+  @AfterClass
+  public static void finish() throws BaseXException {
+    new DropDB(NAME).execute(context);
+    new DropDB(SEQ).execute(context);
+  }
+
+  /**
+   * Compares the results of index and sequential queries.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void compare() throws BaseXException {
+    for(final String q : QUERIES) {
+      compare("ft:mark(db:open('%')//t[text() contains text " + q + "])");
+    }
+    for(final String q : STRINGS) {
+      compare("db:open('%')//t[text() contains text " + q + "]/string()");
+    }
+  }
+
+  /**
+   * Compares the result of the specified query on both databases.
+   * @param query query with a placeholder for the database name
+   * @throws BaseXException exception
+   */
+  private static void compare(final String query) throws BaseXException {
+    final String exp = new XQuery(Util.info(query, SEQ)).execute(context);
+    assertEquals(query, exp, new XQuery(Util.info(query, NAME)).execute(context));
+  }
+
+  /**
+   * Compares the best-scoring results with the sorted results of all matches,
+   * using the default and the BM25 scores.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void top() throws BaseXException {
+    try {
+      for(final boolean bm25 : new boolean[] { false, true }) {
+        new Set(Prop.BM25, bm25).execute(context);
+        for(final String[] t : TOP) {
+          final String search = "ft:search('" + NAME + "', " + t[0] + ", map { " + t[1];
+          final String all = "subsequence(for $n in " + search + " }) " +
+              "order by ft:score($n) descending return $n, 1, 20)";
+          final String top = search + (t[1].isEmpty() ? "" : ", ") + "'top':='20' })";
+          final String ret = " return (db:node-pre($n), ft:score($n))";
+          final String exp = new XQuery("for $n in " + all + ret).execute(context);
+          assertEquals(t[0], exp, new XQuery("for $n in " + top + ret).execute(context));
+        }
+      }
+    } finally {
+      new Set(Prop.BM25, false).execute(context);
+    }
+  }
+
+  /**
+   * Compares the results of indexes built with one and several threads.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void parallel() throws BaseXException {
+    final String doc = new XQuery("db:open('" + NAME + "')").execute(context);
+    final String par = NAME + "par";
+    new Set(Prop.FTINDEX, true).execute(context);
+    new Set(Prop.THREADS, 4).execute(context);
+    try {
+      new CreateDB(par, doc).execute(context);
+      for(final String q : QUERIES) {
+        final String query = "for $n in db:open('%')//t[text() contains text " + q +
+            "] return (ft:mark($n), ft:score($n))";
+        final String exp = new XQuery(Util.info(query, NAME)).execute(context);
+        assertEquals(q, exp, new XQuery(Util.info(query, par)).execute(context));
+      }
+    } finally {
+      new Set(Prop.THREADS, 1).execute(context);
+      new Set(Prop.FTINDEX, false).execute(context);
+      new DropDB(par).execute(context);
+    }
+  }
+
+  /**
+   * Tests the intersection of long and short lists.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void intersect() throws BaseXException {
+    final String query = "count(db:open('" + NAME +
+        "')//t[text() contains text 'a' ftand 'b' ftand 'c'])";
+    assertEquals("18", new XQuery(query).execute(context));
+  }
+}
@@ -0,0 +1,85 @@
+package org.basex.test.index;
+
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.test.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * Compares the results of index lookups with and without hash dictionaries.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class IndexHashTest extends SandboxTest {
+  /** Database without hash dictionaries. */
+  private static final String SEQ = NAME + "seq";
+  /** Number of texts. */
+  private static final int SIZE = 20000;
+  /** Queries. */
+  private static final String[] QUERIES = {
+    "//t[text() = '%']/@id/string()", "//t[@id = '%']/text()",
+    "//t[text() contains text '%']/@id/string()",
+  };
+
+  /**
+   * Creates the test databases.
+   * @throws BaseXException exception
+   */
+  @BeforeClass
+  public static void init() throws BaseXException {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < SIZE; i++) {
+      sb.append("<t id='i").append(i).append("'>").append(Integer.toString(i, 36));
+      sb.append("</t>");
+    }
+    final String doc = sb.append("</x>").toString();
+    new Set(Prop.FTINDEX, true).execute(context);
+    new CreateDB(SEQ, doc).execute(context);
+    new Set(Prop.HASHINDEX, true).execute(context);
+    new CreateDB(NAME, doc).execute(context);
+    new Set(Prop.HASHINDEX, false).execute(context);
+    new Set(Prop.FTINDEX, false).execute(context);
+  }
+
+  /**
+   * Drops the test databases.
+   * @throws BaseXException exception
+   */
+  @AfterClass
+  public static void finish() throws BaseXException {
+    new DropDB(NAME).execute(context);
+    new DropDB(SEQ).execute(context);
+  }
+
+  /**
+   * Compares the results of existing and missing keys.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void compare() throws BaseXException {
+    final String[] keys = { "0", "a", "zz", "i7", "i19999", "fff", "x", "", "i" };
+    for(final String q : QUERIES) {
+      for(final String k : keys) {
+        final String query = Util.info(q, k);
+        final String exp = query(SEQ, query);
+        assertEquals(query, exp, query(NAME, query));
+      }
+    }
+  }
+
+  /**
+   * Evaluates a query on the specified database.
+   * @param db database
+   * @param query query
+   * @return result
+   * @throws BaseXException exception
+   */
+  private static String query(final String db, final String query)
+      throws BaseXException {
+    return new XQuery("db:open('" + db + "')" + query).execute(context);
+  }
+}
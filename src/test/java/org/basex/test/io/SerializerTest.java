@@ -0,0 +1,104 @@
+package org.basex.test.io;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.io.out.*;
+import org.basex.io.serial.*;
+import org.basex.query.value.node.*;
+import org.basex.test.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * Tests for the serialization of textual data.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class SerializerTest extends SandboxTest {
+  /**
+   * Drops the database.
+   * @throws BaseXException exception
+   */
+  @After
+  public void finish() throws BaseXException {
+    new DropDB(NAME).execute(context);
+  }
+
+  /**
+   * Tests the encoding of texts and attributes.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void encode() throws BaseXException {
+    query("<a b='&quot;&#9;&#10;x'>&lt;&amp;&gt;&#xE4;&#x80;&#x20AC;</a>",
+        "<a b=\"&quot;&#x09;&#x0A;x\">&lt;&amp;&gt;ä&#x80;€</a>");
+    query("<a>{ 'abcäà €&lt;' }</a>",
+        "<a>abcäà €&lt;</a>");
+    query("declare option output:method 'html'; <a>x&#xA0;y</a>",
+        "<a>x&nbsp;y</a>");
+    query("declare option output:method 'text'; 'a&lt;&#x10400;b'",
+        "a<𐐀b");
+  }
+
+  /**
+   * Tests bulk writes to a limited array output.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void arrayMax() throws IOException {
+    final ArrayOutput ao = new ArrayOutput().max(5);
+    ao.print(Token.token("abc"));
+    ao.print(Token.token("defgh"));
+    assertEquals("abcde", ao.toString());
+    assertTrue(ao.finished());
+  }
+
+  /**
+   * Compares the direct serialization of database nodes with the generic one.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void direct() throws IOException {
+    new CreateDB(NAME, "<a x='1'><b/><c y='&lt;\"'>text<!--c--><?pi val?></c>" +
+        "mixed<d><e>x</e><f z=''/></d><g><h>a&amp;b</h></g></a>").execute(context);
+    for(final String sp : new String[] { "", "indent=no", "format=no" }) {
+      // cdata elements enforce generic serialization
+      final String gen = sp + (sp.isEmpty() ? "" : ",") + "cdata-section-elements=z";
+      for(int pre = 0; pre < 3; pre++) {
+        assertEquals(serialize(gen, pre), serialize(sp, pre));
+      }
+    }
+  }
+
+  /**
+   * Serializes the specified database node.
+   * @param props serialization properties
+   * @param pre pre value
+   * @return result
+   * @throws IOException I/O exception
+   */
+  private static String serialize(final String props, final int pre)
+      throws IOException {
+    final ArrayOutput ao = new ArrayOutput();
+    final Serializer ser = Serializer.get(ao, new SerializerProp(props));
+    ser.serialize(new DBNode(context.data(), pre));
+    ser.close();
+    return ao.toString();
+  }
+
+  /**
+   * Runs the specified query and compares the serialized result.
+   * @param query query
+   * @param expected expected result
+   * @throws BaseXException exception
+   */
+  private static void query(final String query, final String expected)
+      throws BaseXException {
+    assertEquals(expected, new XQuery(query).execute(context));
+  }
+}
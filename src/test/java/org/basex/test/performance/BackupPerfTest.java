@@ -0,0 +1,62 @@
+package org.basex.test.performance;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.test.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * Compares the time needed for full and incremental backups.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class BackupPerfTest extends SandboxTest {
+  /** Number of elements in the benchmark document. */
+  private static final int SIZE = 1000000;
+
+  /**
+   * Creates the test database.
+   * @throws BaseXException exception
+   */
+  @BeforeClass
+  public static void init() throws BaseXException {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < SIZE; i++) sb.append("<t n='").append(i).append("'>a</t>");
+    new CreateDB(NAME, sb.append("</x>").toString()).execute(context);
+  }
+
+  /**
+   * Drops the test database and its backups.
+   * @throws BaseXException exception
+   */
+  @AfterClass
+  public static void finish() throws BaseXException {
+    new Set(Prop.INCBACKUP, false).execute(context);
+    new DropBackup(NAME).execute(context);
+    new DropDB(NAME).execute(context);
+  }
+
+  /**
+   * Creates a full backup and an incremental backup after a small update.
+   * @throws Exception exception
+   */
+  @Test
+  public void backup() throws Exception {
+    Performance p = new Performance();
+    new CreateBackup(NAME).execute(context);
+    Util.errln("Full backup: %", p);
+    new DropBackup(NAME).execute(context);
+
+    new Set(Prop.INCBACKUP, true).execute(context);
+    new CreateBackup(NAME).execute(context);
+    new XQuery("replace value of node (//t)[1] with 'b'").execute(context);
+    new Flush().execute(context);
+    // backups are distinguished by seconds
+    Thread.sleep(1100);
+    p = new Performance();
+    new CreateBackup(NAME).execute(context);
+    Util.errln("Incremental backup: %", p);
+  }
+}
@@ -0,0 +1,65 @@
+package org.basex.test.performance;
+
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.test.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * Measures the intersection of long and short full-text index lists.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class FTIndexPerfTest extends SandboxTest {
+  /** Number of text nodes in the benchmark document. */
+  private static final int SIZE = 500000;
+  /** Number of benchmark runs. */
+  private static final int RUNS = 10;
+
+  /**
+   * Creates the test database.
+   * @throws BaseXException exception
+   */
+  @BeforeClass
+  public static void init() throws BaseXException {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < SIZE; i++) {
+      sb.append("<t>");
+      if(i % 2 == 0) sb.append("a ");
+      if(i % 3 == 0) sb.append("b ");
+      if(i % 997 == 0) sb.append("c ");
+      sb.append(i).append("</t>");
+    }
+    new Set(Prop.FTINDEX, true).execute(context);
+    new CreateDB(NAME, sb.append("</x>").toString()).execute(context);
+  }
+
+  /**
+   * Drops the test database.
+   * @throws BaseXException exception
+   */
+  @AfterClass
+  public static void finish() throws BaseXException {
+    new Set(Prop.FTINDEX, false).execute(context);
+    new DropDB(NAME).execute(context);
+  }
+
+  /**
+   * Measures the intersection of two long lists and a short list.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void intersect() throws BaseXException {
+    final String query = "count(db:open('" + NAME +
+        "')//t[text() contains text 'a' ftand 'b' ftand 'c'])";
+    final String exp = new XQuery(query).execute(context);
+    assertTrue(Integer.parseInt(exp) > 0);
+    final Performance p = new Performance();
+    for(int r = 0; r < RUNS; r++) assertEquals(exp, new XQuery(query).execute(context));
+    Util.errln("Intersection: %", p.getTime(RUNS));
+  }
+}
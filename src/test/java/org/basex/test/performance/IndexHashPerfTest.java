@@ -0,0 +1,83 @@
+package org.basex.test.performance;
+
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.basex.index.*;
+import org.basex.index.query.*;
+import org.basex.test.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * Measures exact index lookups with and without hash dictionaries.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class IndexHashPerfTest extends SandboxTest {
+  /** Database without hash dictionaries. */
+  private static final String SEQ = NAME + "seq";
+  /** Number of texts. */
+  private static final int SIZE = 500000;
+  /** Number of lookups. */
+  private static final int LOOKUPS = 20000;
+
+  /**
+   * Creates the test databases.
+   * @throws BaseXException exception
+   */
+  @BeforeClass
+  public static void init() throws BaseXException {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < SIZE; i++) {
+      sb.append("<t>").append(Integer.toString(i, 36)).append("</t>");
+    }
+    final String doc = sb.append("</x>").toString();
+    new CreateDB(SEQ, doc).execute(context);
+    new Set(Prop.HASHINDEX, true).execute(context);
+    new CreateDB(NAME, doc).execute(context);
+    new Set(Prop.HASHINDEX, false).execute(context);
+  }
+
+  /**
+   * Drops the test databases.
+   * @throws BaseXException exception
+   */
+  @AfterClass
+  public static void finish() throws BaseXException {
+    new DropDB(NAME).execute(context);
+    new DropDB(SEQ).execute(context);
+  }
+
+  /**
+   * Measures exact lookups in the text index. The databases are reopened for
+   * each run, so that no index entries are cached. Both databases are queried
+   * several times, as the first runs are slowed down by the compilation of
+   * the code.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void lookup() throws BaseXException {
+    final int step = SIZE / LOOKUPS;
+    final byte[][] keys = new byte[LOOKUPS][];
+    for(int i = 0; i < LOOKUPS; i++) {
+      keys[i] = Token.token(Integer.toString(i * step, 36));
+    }
+
+    for(int r = 0; r < 3; r++) {
+      for(final String db : new String[] { NAME, SEQ }) {
+        new Open(db).execute(context);
+        final Data data = context.data();
+        final Performance p = new Performance();
+        for(final byte[] key : keys) {
+          assertEquals(1, data.count(new StringToken(IndexType.TEXT, key)));
+        }
+        Util.errln("% lookups (%): %", LOOKUPS, db, p.getTime());
+        new Close().execute(context);
+      }
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package org.basex.test.performance;
+
+import org.basex.test.query.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * Measures repeated calls of Java functions.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class JavaFuncPerfTest extends AdvancedQueryTest {
+  /** Number of function calls. */
+  private static final int RUNS = 200000;
+
+  /** Calls static Java methods. */
+  @Test
+  public void calls() {
+    final Performance p = new Performance();
+    query("count(for $i in 1 to " + RUNS +
+        " return Q{java:java.lang.Integer}toHexString(xs:int($i)))", RUNS);
+    query("count(for $i in 1 to " + RUNS +
+        " return Q{java:java.lang.Integer}valueOf(string($i)))", RUNS);
+    Util.errln("Java function calls: %", p);
+  }
+}
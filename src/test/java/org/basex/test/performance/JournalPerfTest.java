@@ -0,0 +1,61 @@
+package org.basex.test.performance;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.test.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * Compares the time needed for small updates with and without write-ahead log.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class JournalPerfTest extends SandboxTest {
+  /** Number of updates. */
+  private static final int UPDATES = 1000;
+
+  /**
+   * Creates the test database.
+   * @throws BaseXException exception
+   */
+  @BeforeClass
+  public static void init() throws BaseXException {
+    new Set(Prop.UPDINDEX, true).execute(context);
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 200000; i++) sb.append("<t n='").append(i).append("'>a</t>");
+    new CreateDB(NAME, sb.append("</x>").toString()).execute(context);
+  }
+
+  /**
+   * Drops the test database and resets the properties.
+   * @throws BaseXException exception
+   */
+  @AfterClass
+  public static void finish() throws BaseXException {
+    new Set(Prop.WAL, false).execute(context);
+    new Set(Prop.UPDINDEX, false).execute(context);
+    new DropDB(NAME).execute(context);
+  }
+
+  /**
+   * Performs small updates. Each variant is measured twice, as the first
+   * runs are slowed down by the compilation of the code.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void update() throws BaseXException {
+    for(final boolean wal : new boolean[] { false, true, false, true }) {
+      new Set(Prop.WAL, wal).execute(context);
+      new Open(NAME).execute(context);
+      final Performance p = new Performance();
+      for(int i = 0; i < UPDATES; i++) {
+        new XQuery("replace value of node (//t)[" + (i * 97 + 1) + "] with 'b'").
+          execute(context);
+      }
+      Util.errln("Updates (WAL: %): %", wal, p.getTime(UPDATES));
+      new Close().execute(context);
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package org.basex.test.performance;
+
+import java.io.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.test.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * Measures the serialization of a large database.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class SerializerPerfTest extends SandboxTest {
+  /** Number of elements in the benchmark document. */
+  private static final int SIZE = 200000;
+  /** Number of benchmark runs. */
+  private static final int RUNS = 5;
+
+  /**
+   * Creates the test database.
+   * @throws BaseXException exception
+   */
+  @BeforeClass
+  public static void init() throws BaseXException {
+    final StringBuilder sb = new StringBuilder("<xml>");
+    for(int i = 0; i < SIZE; i++) {
+      sb.append("<item id='").append(i).append("'>Text äöü ");
+      sb.append(i).append(" with &amp; some &lt; entities</item>");
+    }
+    new CreateDB(NAME, sb.append("</xml>").toString()).execute(context);
+  }
+
+  /**
+   * Drops the test database.
+   * @throws BaseXException exception
+   */
+  @AfterClass
+  public static void finish() throws BaseXException {
+    new DropDB(NAME).execute(context);
+  }
+
+  /**
+   * Serializes the database to a stream that swallows all data.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void serialize() throws IOException {
+    final OutputStream os = new OutputStream() {
+      @Override
+      public void write(final int b) { }
+      @Override
+      public void write(final byte[] b, final int off, final int len) { }
+    };
+    final XQuery query = new XQuery("/");
+    final Performance p = new Performance();
+    for(int r = 0; r < RUNS; r++) query.execute(context, os);
+    Util.errln("Serialization of % nodes: %", SIZE, p.getTime(RUNS));
+  }
+}
@@ -0,0 +1,82 @@
+package org.basex.test.performance;
+
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.basex.test.query.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * Measures the set-at-a-time evaluation of location paths.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class StairPathPerfTest extends AdvancedQueryTest {
+  /** Number of nested fragments in the benchmark document. */
+  private static final int SIZE = 500000;
+  /** Number of benchmark runs. */
+  private static final int RUNS = 10;
+
+  /**
+   * Creates the test database.
+   * @throws BaseXException exception
+   */
+  @BeforeClass
+  public static void init() throws BaseXException {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < SIZE; i++) sb.append("<a><b><c/><a><c>x</c></a></b></a>");
+    new CreateDB(NAME, sb.append("</x>").toString()).execute(context);
+  }
+
+  /**
+   * Drops the test database.
+   * @throws BaseXException exception
+   */
+  @AfterClass
+  public static void finish() throws BaseXException {
+    new DropDB(NAME).execute(context);
+  }
+
+  /**
+   * Measures descendant steps with nested context nodes.
+   */
+  @Test
+  public void descendant() {
+    // the parent step prevents a precomputation of the result size
+    final String q = "count(db:open('" + NAME + "')//a//c/..)";
+    final String exp = Integer.toString(SIZE * 2);
+    assertEquals(exp, query(q));
+    final Performance p = new Performance();
+    for(int r = 0; r < RUNS; r++) query(q);
+    Util.errln("Staircase join, % nodes: %", SIZE * 6, p.getTime(RUNS));
+  }
+
+  /**
+   * Measures the parallel evaluation of predicates.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void predicates() throws BaseXException {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < SIZE; i++) {
+      sb.append("<r><a>").append(i).append("</a><b>").append(i % 7).append("</b></r>");
+    }
+    new CreateDB(NAME + "par", sb.append("</x>").toString()).execute(context);
+    final String q = "count(db:open('" + NAME + "par')//*//r[matches(a, '^1.*3$') and " +
+        "ends-with(b, '3')])";
+    try {
+      for(final int par : new int[] { 1, 2, 4, 8 }) {
+        new Set(Prop.THREADS, par).execute(context);
+        final Performance p = new Performance();
+        for(int r = 0; r < RUNS; r++) query(q);
+        Util.errln("Predicates, % thread(s): %", par, p.getTime(RUNS));
+      }
+    } finally {
+      new Set(Prop.THREADS, 1).execute(context);
+      new DropDB(NAME + "par").execute(context);
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package org.basex.test.performance;
+
+import static org.basex.util.Token.*;
+
+import org.basex.util.*;
+import org.basex.util.hash.*;
+import org.junit.*;
+
+/**
+ * Compares the memory consumption and performance of {@link TokenArena}
+ * and {@link TokenSet}.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class TokenArenaPerfTest {
+  /**
+   * Adds a large number of tokens twice.
+   */
+  @Test
+  public void add() {
+    final int n = 1000000;
+    final byte[][] tokens = new byte[n][];
+    for(int i = 0; i < n; i++) tokens[i] = token("token" + i);
+
+    final Runtime rt = Runtime.getRuntime();
+    for(final boolean a : new boolean[] { false, true }) {
+      final long mem = memory(rt);
+      final Performance p = new Performance();
+      final Object o;
+      if(a) {
+        final TokenArena ta = new TokenArena();
+        for(int r = 0; r < 2; r++) for(final byte[] t : tokens) ta.add(t);
+        o = ta;
+      } else {
+        final TokenSet ts = new TokenSet();
+        for(int r = 0; r < 2; r++) for(final byte[] t : tokens) ts.add(t.clone());
+        o = ts;
+      }
+      final String time = p.getTime();
+      final long used = memory(rt) - mem;
+      Util.errln("% (%): %, % MB", Util.name(o), n, time, used / (1 << 20));
+    }
+  }
+
+  /**
+   * Returns the used memory after garbage collection.
+   * @param rt runtime
+   * @return memory
+   */
+  private static long memory(final Runtime rt) {
+    for(int i = 0; i < 4; i++) rt.gc();
+    return rt.totalMemory() - rt.freeMemory();
+  }
+}
@@ -0,0 +1,42 @@
+package org.basex.test.performance;
+
+import static org.junit.Assert.*;
+
+import org.basex.util.*;
+import org.basex.util.ft.*;
+import org.junit.*;
+
+/**
+ * Measures the tokenization of a large text.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class TokenizerPerfTest {
+  /** Number of words in the benchmark text (multiple of the sample words). */
+  private static final int SIZE = 6000000;
+  /** Number of benchmark runs. */
+  private static final int RUNS = 5;
+
+  /** Measures the tokenization with and without reused token arrays. */
+  @Test
+  public void tokenize() {
+    final TokenBuilder tb = new TokenBuilder();
+    final String[] words = { "Lorem", "ipsum", "dolor", "SIT", "Amét", "x." };
+    for(int i = 0; i < SIZE; i++) tb.add(words[i % words.length]).add(' ');
+    final byte[] text = tb.finish();
+    final FTOpt opt = new FTOpt();
+    for(final boolean r : new boolean[] { false, true, false, true }) {
+      final Performance p = new Performance();
+      for(int i = 0; i < RUNS; i++) {
+        final FTLexer lex = new FTLexer(opt);
+        if(r) lex.reuse();
+        int c = 0;
+        lex.init(text);
+        while(lex.hasNext()) c += lex.nextToken().length;
+        assertEquals(SIZE / 6 * 23, c);
+      }
+      Util.errln("Tokenization (reuse: %): %", r, p.getTime(RUNS));
+    }
+  }
+}
@@ -63,6 +63,28 @@ public final class FTIndexQueryTest extends SandboxTest {
     for(final Object[] q : XPathMarkFTTest.QUERIES) assertQuery((String) q[2]);
   }
 
+  /** Fuzzy queries. */
+  @Test
+  @InputData("<x><a>database</a><a>Databases</a><a>datbase dtaabase</a>" +
+      "<a>base data</a><a>d\u00e4tab\u00e4se</a><a>data-base</a></x>")
+  public void testFuzzy() {
+    for(final String t : new String[] { "database", "databse", "dtabase",
+        "basis", "base", "dta", "DATABASES", "xyz" }) {
+      assertQuery("//a[text() contains text '" + t + "' using fuzzy]");
+    }
+  }
+
+  /** Wildcard queries without prefix. */
+  @Test
+  @InputData("<x><a>nation station</a><a>rotation stations</a><a>house horse</a>" +
+      "<a>ation Ation</a><a>hou\u00dfe h\u00e4user</a><a>mouse</a></x>")
+  public void testWildcards() {
+    for(final String t : new String[] { ".*ation", ".+ation", ".?ation", "h.use",
+        ".ouse", ".*o.se", ".*a.{2,3}n", ".*\u00e4u.*", ".*st.*s", ".*xy", ".*" }) {
+      assertQuery("//a[text() contains text '" + t + "' using wildcards]");
+    }
+  }
+
   /** Word distance test. */
   @Test
   @Ignore("GH-359")
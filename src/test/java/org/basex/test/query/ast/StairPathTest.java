@@ -0,0 +1,118 @@
+package org.basex.test.query.ast;
+
+import static org.junit.Assert.*;
+
+import org.basex.core.*;
+import org.basex.core.cmd.*;
+import org.junit.*;
+
+/**
+ * Tests the set-at-a-time evaluation of location paths.
+ * The results are compared with the evaluation of copied nodes.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class StairPathTest extends QueryPlanTest {
+  /** Test document. */
+  private static final String DOC = "<a id='1'><b id='2'><c><b/><d x='y'>t</d></c>" +
+      "<!--c--><?p i?></b><c><b><c><d/></c></b></c><d>u</d></a>";
+  /** Tested paths. */
+  private static final String[] PATHS = {
+    "//b//c", "//c//b", "//b//node()", "//c//d/..", "//b/descendant-or-self::*",
+    "//c//b//d", "//b//c/*", "//b//@*", "//c//d/@x", "//*//text()", "//c//b/..//d",
+    "//*[1]//c", "//b//comment()", "//b//processing-instruction()", "//b//*:d",
+    "//c//b/self::b", "//b//@id/descendant-or-self::node()", "//z//b", "//b//z",
+    "//b//d[@x]", "//c//*[. = 't']", "//*//d[not(node())]", "//b//c[b//d]",
+    "//a//*[string-length(name()) = 1][@id > 1]", "//c//d[last()]",
+  };
+
+  /**
+   * Creates the test database.
+   * @throws BaseXException exception
+   */
+  @BeforeClass
+  public static void init() throws BaseXException {
+    new CreateDB(NAME, DOC).execute(context);
+  }
+
+  /**
+   * Drops the test database.
+   * @throws BaseXException exception
+   */
+  @AfterClass
+  public static void finish() throws BaseXException {
+    new DropDB(NAME).execute(context);
+  }
+
+  /**
+   * Compares the results of database and main-memory nodes.
+   */
+  @Test
+  public void paths() {
+    for(final String path : PATHS) {
+      final String db = "db:open('" + NAME + "')";
+      final String exp = query("document { " + db + "/node() }" + path);
+      assertEquals(path, exp, query(db + path));
+    }
+  }
+
+  /**
+   * Checks if the paths are rewritten.
+   */
+  @Test
+  public void plan() {
+    check("db:open('" + NAME + "')//c//b", null, "exists(//StairPath)");
+    check("db:open('" + NAME + "')/a/c/b", null, "empty(//StairPath)");
+    // nodes of different trees are evaluated by the standard algorithm
+    check("count((db:open('" + NAME + "'), document { <c><b/></c> })//*:c//*:b)",
+        "3", "exists(//StairPath)");
+  }
+
+  /**
+   * Checks that the scores of full-text index results are preserved.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void scores() throws BaseXException {
+    new Set(Prop.FTINDEX, true).execute(context);
+    try {
+      new CreateDB(NAME + "ft", "<x><t>alpha delta</t><t>delta</t><t>beta</t>" +
+          "<t>delta delta gamma</t><t>delta epsilon</t></x>").execute(context);
+      final String q = "for $t in db:open('" + NAME + "ft')//t/text()" +
+          "[. contains text 'delta'] return ft:score($t)";
+      assertEquals("4", query("count(" + q + ')'));
+      assertEquals("true", query("every $s in (" + q + ") satisfies $s > 0"));
+    } finally {
+      new Set(Prop.FTINDEX, false).execute(context);
+      new DropDB(NAME + "ft").execute(context);
+    }
+  }
+
+  /**
+   * Compares the parallel and sequential evaluation of predicates.
+   * @throws BaseXException exception
+   */
+  @Test
+  public void parallel() throws BaseXException {
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 100000; i++) {
+      sb.append("<r><a>").append(i).append("</a><b>").append(i % 7).append("</b></r>");
+    }
+    new CreateDB(NAME + "par", sb.append("</x>").toString()).execute(context);
+    final String q = "db:open('" + NAME + "par')//*//r[matches(a, '^1.*3$') and " +
+        "ends-with(b, '3')]";
+    final String seq = query(q);
+    try {
+      for(final int par : new int[] { 2, 4, 8 }) {
+        new Set(Prop.THREADS, par).execute(context);
+        assertEquals(seq, query(q));
+      }
+      // the predicates (including the relative paths) are evaluated in parallel
+      check(q, null, "exists(/QueryPlan/StairPath//StairPath)");
+    } finally {
+      new Set(Prop.THREADS, 1).execute(context);
+      new DropDB(NAME + "par").execute(context);
+    }
+  }
+}
@@ -187,6 +187,29 @@ public final class FNFileTest extends AdvancedQueryTest {
     query(_FILE_DELETE.args(PATH1));
   }
 
+  /**
+   * Test method for the file:read-text-lines() function.
+   */
+  @Test
+  public void fileReadTextLines() {
+    check(_FILE_READ_TEXT_LINES);
+    error(_FILE_READ_TEXT_LINES.args(PATH1), Err.FILE_WHICH);
+    error(_FILE_READ_TEXT_LINES.args(PATH), Err.FILE_DIR);
+    query(_FILE_WRITE_BINARY.args(PATH1,
+        _CONVERT_STRING_TO_BASE64.args("\"a&#xA;b&#xD;&#xA;c&#xD;\u00e4\"")));
+    query(_FILE_READ_TEXT_LINES.args(PATH1), "a b c \u00e4");
+    query(_FILE_READ_TEXT_LINES.args(PATH1) + "[2]", "b");
+    query(HEAD.args(_FILE_READ_TEXT_LINES.args(PATH1)), "a");
+    error(_FILE_READ_TEXT_LINES.args(PATH1, "UNKNOWN"), Err.FILE_ENCODING);
+
+    // only the requested lines are read
+    query(_FILE_WRITE.args(PATH1,
+        "string-join(for $i in 1 to 200000 return concat('line ', $i), '&#xA;')"));
+    query(SUBSEQUENCE.args(_FILE_READ_TEXT_LINES.args(PATH1), 5, 2), "line 5 line 6");
+    query(COUNT.args(_FILE_READ_TEXT_LINES.args(PATH1)), 200000);
+    query(_FILE_DELETE.args(PATH1));
+  }
+
   /**
    * Test method for the file:read-binary() function.
    */
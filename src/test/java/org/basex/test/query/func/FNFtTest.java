@@ -64,10 +64,14 @@ public final class FNFtTest extends AdvancedQueryTest {
         "Exercise 1Exercise 2");
     query(_FT_SEARCH.args(" .", "1 Exercise", " map { 'mode':='all words' }"),
         "Exercise 1");
+    // return best-scoring results
+    query(_FT_SEARCH.args(" .", " ('exercise','1')", " map { 'top':='1' }"),
+        "Exercise 1");
 
     // check buggy options
     error(_FT_SEARCH.args(" .", "x", " map { 'x':='y' }"), Err.ELMOPTION);
     error(_FT_SEARCH.args(" .", "x", " map { 'mode':='' }"), Err.ELMOPTION);
+    error(_FT_SEARCH.args(" .", "x", " map { 'top':='0' }"), Err.ELMOPTION);
     error(_FT_SEARCH.args(" .", "x", " 1"), Err.ELMMAPTYPE);
   }
 
@@ -122,12 +126,24 @@ public final class FNFtTest extends AdvancedQueryTest {
 
   /**
    * Test method for the 'ft:score()' function.
+   * @throws BaseXException database exception
    */
   @Test
-  public void ftScore() {
+  public void ftScore() throws BaseXException {
     check(_FT_SCORE);
     query(_FT_SCORE.args(_FT_SEARCH.args(" . ", "2")), "1");
     query(_FT_SCORE.args(_FT_SEARCH.args(" . ", "XML")), "1 0.5");
+
+    // scores based on the BM25 model
+    new Set(Prop.BM25, true).execute(context);
+    try {
+      query("let $s := " + _FT_SCORE.args(_FT_SEARCH.args(" . ", "2")) +
+          " return $s > 0 and $s < 1", "true");
+      query("let $s := " + _FT_SCORE.args(_FT_SEARCH.args(" . ", "XML")) +
+          " return $s[1] > $s[2]", "true");
+    } finally {
+      new Set(Prop.BM25, false).execute(context);
+    }
   }
 
   /**
@@ -27,6 +27,20 @@ public final class FNGenTest extends AdvancedQueryTest {
     error(UNPARSED_TEXT.args(TEXT, "xyz"), Err.WHICHENC);
   }
 
+  /**
+   * Test method for the fn:unparsed-text-lines() function.
+   */
+  @Test
+  public void fnUnparsedTextLines() {
+    check(UNPARSED_TEXT_LINES);
+    query(COUNT.args(UNPARSED_TEXT_LINES.args(TEXT)), 19);
+    query(UNPARSED_TEXT_LINES.args(TEXT) + "[2]", "&lt;html&gt;");
+    query(HEAD.args(UNPARSED_TEXT_LINES.args(TEXT, "US-ASCII")),
+        "&lt;?xml version='1.0' encoding='UTF-8'?&gt;");
+    error(UNPARSED_TEXT_LINES.args(TEXT, "xyz"), Err.WHICHENC);
+    error(UNPARSED_TEXT_LINES.args(TEXT + 'x'), Err.RESNF);
+  }
+
   /**
    * Test method for the fn:parse-xml() function.
    */
@@ -0,0 +1,186 @@
+package org.basex.test.query.func;
+
+import static org.basex.query.func.Function.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.net.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.query.util.*;
+import org.basex.test.query.*;
+import org.basex.util.*;
+import org.junit.*;
+
+import com.sun.net.httpserver.*;
+
+/**
+ * This class tests the functions of the HTTP Client module. The requests are
+ * sent to a local server.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class FNHttpTest extends AdvancedQueryTest {
+  /** Time (ms) needed by the server to answer a slow request. */
+  private static final int SLEEP = 200;
+
+  /** Local server. */
+  private static HttpServer server;
+  /** Executor of the local server. */
+  private static ExecutorService executor;
+  /** Server URL. */
+  private static String url;
+  /** Number of requests that are currently processed. */
+  private static final AtomicInteger ACTIVE = new AtomicInteger();
+  /** Maximum number of requests that were processed at the same time. */
+  private static final AtomicInteger MAX = new AtomicInteger();
+
+  /**
+   * Starts the local server.
+   * @throws IOException I/O exception
+   */
+  @BeforeClass
+  public static void start() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(final HttpExchange ex) throws IOException {
+        final int a = ACTIVE.incrementAndGet();
+        while(true) {
+          final int m = MAX.get();
+          if(a <= m || MAX.compareAndSet(m, a)) break;
+        }
+        try {
+          respond(ex);
+        } finally {
+          ACTIVE.decrementAndGet();
+        }
+      }
+    });
+    executor = Executors.newCachedThreadPool();
+    server.setExecutor(executor);
+    server.start();
+    url = "http://localhost:" + server.getAddress().getPort() + '/';
+  }
+
+  /**
+   * Stops the local server.
+   */
+  @AfterClass
+  public static void stop() {
+    server.stop(0);
+    executor.shutdown();
+  }
+
+  /**
+   * Resets the statistics.
+   */
+  @Before
+  public void init() {
+    MAX.set(0);
+  }
+
+  /**
+   * Test method for the http:send-request() function.
+   */
+  @Test
+  public void sendRequest() {
+    query(_HTTP_SEND_REQUEST.args("()", url + "xml?id=1") + "[2]/x/string()", "1");
+    query(_HTTP_SEND_REQUEST.args(request("json?id=2")) + "[2]/json/id/string()", "2");
+    query(_HTTP_SEND_REQUEST.args(request("text?id=3")) + "[2]", "3");
+    query(_HTTP_SEND_REQUEST.args(request("xml?id=4", "status-only='true'")) +
+        "/@status/string()", "200");
+    error(_HTTP_SEND_REQUEST.args(request("invalid")), Err.HC_PARSE);
+    error(_HTTP_SEND_REQUEST.args(request("invalid-latin1")), Err.HC_PARSE);
+  }
+
+  /**
+   * Sends consecutive requests to the same server.
+   */
+  @Test
+  public void keepAlive() {
+    query("sum(for $i in 1 to 20 return " +
+        _HTTP_SEND_REQUEST.args("()", " concat('" + url + "xml?id=', $i)") + "[2]/x)",
+        "210");
+  }
+
+  /**
+   * Test method for the http:send-requests() function.
+   */
+  @Test
+  public void sendRequests() {
+    check(_HTTP_SEND_REQUESTS);
+
+    final String requests = " for $i in 1 to 16 return " +
+        request("{ concat('slow?id=', $i) }").replace(url + '{', "{ '" + url + "' }{");
+    query("string-join(" + _HTTP_SEND_REQUESTS.args(requests, 4) +
+        "[. instance of xs:string], ',')", "1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16");
+    // 16 requests, at most 4 of them at a time
+    assertTrue("Concurrent requests: " + MAX.get(), MAX.get() <= 4);
+
+    // requests are sent one by one
+    MAX.set(0);
+    query(COUNT.args(_HTTP_SEND_REQUESTS.args(" (" + request("slow?id=1") + ", " +
+        request("slow?id=2") + ')', 1)), 4);
+    assertEquals(1, MAX.get());
+    error(_HTTP_SEND_REQUESTS.args(" (" + request("xml?id=1") + ", " +
+        request("invalid") + ')'), Err.HC_PARSE);
+  }
+
+  /**
+   * Returns a request element.
+   * @param path path
+   * @param atts additional attributes
+   * @return request
+   */
+  private static String request(final String path, final String... atts) {
+    final StringBuilder sb = new StringBuilder("<http:request method='get' href='");
+    sb.append(url).append(path).append('\'');
+    for(final String a : atts) sb.append(' ').append(a);
+    return sb.append(" xmlns:http='http://expath.org/ns/http-client'/>").toString();
+  }
+
+  /**
+   * Responds to a request.
+   * @param ex exchange
+   * @throws IOException I/O exception
+   */
+  static void respond(final HttpExchange ex) throws IOException {
+    final String path = ex.getRequestURI().getPath();
+    final String query = ex.getRequestURI().getQuery();
+    final String id = query == null ? "" : query.replaceAll(".*id=", "");
+
+    final String type, content;
+    if(path.equals("/xml")) {
+      type = "application/xml";
+      content = "<x>" + id + "</x>";
+    } else if(path.equals("/json")) {
+      type = "application/json; charset=UTF-8";
+      content = "{ \"id\": \"" + id + "\" }";
+    } else if(path.equals("/invalid")) {
+      type = "application/xml";
+      content = "<x>";
+    } else if(path.equals("/invalid-latin1")) {
+      type = "application/xml; charset=ISO-8859-1";
+      content = "<x>";
+    } else {
+      if(path.equals("/slow")) {
+        try {
+          Thread.sleep(SLEEP);
+        } catch(final InterruptedException e) {
+          throw new IOException(e.toString());
+        }
+      }
+      type = "text/plain";
+      content = id;
+    }
+    final byte[] data = Token.token(content);
+    ex.getResponseHeaders().add("Content-Type", type);
+    ex.sendResponseHeaders(200, data.length);
+    final OutputStream os = ex.getResponseBody();
+    os.write(data);
+    os.close();
+  }
+}
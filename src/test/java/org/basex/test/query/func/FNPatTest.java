@@ -0,0 +1,57 @@
+package org.basex.test.query.func;
+
+import static org.basex.query.func.Function.*;
+
+import org.basex.query.util.*;
+import org.basex.test.query.*;
+import org.junit.*;
+
+/**
+ * This class tests the functions of the pattern module, using static and
+ * dynamic (cached) patterns.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class FNPatTest extends AdvancedQueryTest {
+  /**
+   * Test method for the matches() function.
+   */
+  @Test
+  public void matches() {
+    query(MATCHES.args("ABC-12", "^[A-Z]{3}-\\d+$"), true);
+    query(MATCHES.args("abc-12", "^[A-Z]{3}-\\d+$"), false);
+    query("for $i in ('a', 'b', 'A') return " + MATCHES.args("$i", "a", "i"),
+        "true false true");
+    query("for $m in ('i', '', 'i') return " + MATCHES.args("A", "a", "$m"),
+        "true false true");
+    query("for $p in ('a', '^a', 'b') return " + MATCHES.args("ab", "$p"),
+        "true true true");
+    error(MATCHES.args("a", "\\"), Err.REGERR);
+    error("for $p in ('(', 'a') return " + MATCHES.args("a", "$p"), Err.REGERR);
+    error("for $m in ('', 'z') return " + MATCHES.args("a", "a", "$m"), Err.REGMOD);
+  }
+
+  /**
+   * Test method for the replace() function.
+   */
+  @Test
+  public void replace() {
+    query(REPLACE.args("abc", "b", "X"), "aXc");
+    query("for $p in ('a', 'b', 'a') return " + REPLACE.args("abc", "$p", "_"),
+        "_bc a_c _bc");
+    query("for $m in ('', 'q') return " + REPLACE.args("a.c", ".", "_", "$m"),
+        "___ a_c");
+  }
+
+  /**
+   * Test method for the tokenize() function.
+   */
+  @Test
+  public void tokenize() {
+    query(TOKENIZE.args("a,b,,c", ","), "a b  c");
+    query("for $p in (',', ';') return " + TOKENIZE.args("a,b;c", "$p"),
+        "a b;c a,b c");
+    error(TOKENIZE.args("abc", "x?"), Err.REGROUP);
+  }
+}
@@ -4,6 +4,8 @@ import static org.junit.Assert.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 
 import org.basex.*;
 import org.basex.server.*;
@@ -183,6 +185,40 @@ public final class EventTest extends SandboxTest {
     session.execute("drop event " + NAME);
   }
 
+  /**
+   * Checks that a client that does not consume its events does not block the
+   * query that fires the events.
+   * @throws Exception exception
+   */
+  @Test
+  public void slowClient() throws Exception {
+    session.execute("create event " + NAME);
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicBoolean released = new AtomicBoolean();
+    try {
+      sessions[0].watch(NAME, new EventNotifier() {
+        @Override
+        public void notify(final String data) {
+          try {
+            // the client stops consuming events until the query has returned
+            if(!latch.await(60, TimeUnit.SECONDS)) released.set(true);
+          } catch(final InterruptedException ex) {
+            Util.stack(ex);
+          }
+        }
+      });
+      // fire more events than can be buffered by the sockets
+      session.query("let $m := string-join(for $i in 1 to 4096 return 'abcd') " +
+          "for $i in 1 to 2000 return db:event('" + NAME + "', $m)").execute();
+      // the query must not wait for the client
+      assertFalse("Query was blocked by the client", released.get());
+    } finally {
+      latch.countDown();
+    }
+    sessions[0].unwatch(NAME);
+    session.execute("drop event " + NAME);
+  }
+
   /**
    * Concurrent events.
    * @throws Exception exception
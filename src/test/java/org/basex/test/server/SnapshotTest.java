@@ -0,0 +1,174 @@
+package org.basex.test.server;
+
+import static org.junit.Assert.*;
+
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+import org.basex.*;
+import org.basex.core.*;
+import org.basex.core.Commands.CmdIndex;
+import org.basex.core.cmd.*;
+import org.basex.data.*;
+import org.basex.server.*;
+import org.basex.test.*;
+import org.basex.util.*;
+import org.junit.*;
+
+/**
+ * Tests the evaluation of read-only queries on database snapshots.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class SnapshotTest extends SandboxTest {
+  /** Reading query: counts the elements before and after a pause (see {@link #pause}). */
+  private static final String QUERY =
+    "declare namespace s='java:" + SnapshotTest.class.getName() + "';" +
+    "for $i in 1 to 2 return " +
+    "(if($i = 2) then s:pause() else (), count(//t[text()][$i > 0]))";
+  /** Signals that the reader has started its query. */
+  private static CountDownLatch read;
+  /** Signals that the writer has finished. */
+  private static CountDownLatch written;
+  /** Indicates if the reader stopped waiting for the writer. */
+  private static final AtomicBoolean released = new AtomicBoolean();
+
+  /** Server reference. */
+  private static BaseXServer server;
+  /** Client session. */
+  private ClientSession session;
+
+  /**
+   * Starts the server.
+   * @throws IOException I/O exception
+   */
+  @BeforeClass
+  public static void start() throws IOException {
+    server = createServer();
+    server.context.mprop.set(MainProp.MVCC, true);
+  }
+
+  /**
+   * Stops the server.
+   * @throws IOException I/O exception
+   */
+  @AfterClass
+  public static void stop() throws IOException {
+    server.stop();
+  }
+
+  /**
+   * Creates the test database.
+   * @throws IOException I/O exception
+   */
+  @Before
+  public void init() throws IOException {
+    read = new CountDownLatch(1);
+    written = new CountDownLatch(1);
+    released.set(false);
+    session = createClient();
+    final StringBuilder sb = new StringBuilder("<x>");
+    for(int i = 0; i < 10000; i++) sb.append("<t>a</t>");
+    session.execute(new CreateDB(NAME, sb.append("</x>").toString()));
+  }
+
+  /**
+   * Drops the test database.
+   * @throws IOException I/O exception
+   */
+  @After
+  public void finish() throws IOException {
+    session.execute(new DropDB(NAME));
+    session.close();
+  }
+
+  /**
+   * Checks that writers do not wait for readers, and that readers see the
+   * state of the database at the time when they were started.
+   * @throws Exception exception
+   */
+  @Test
+  public void write() throws Exception {
+    final Reader reader = new Reader();
+    reader.start();
+    assertTrue("Reader was not started", read.await(60, TimeUnit.SECONDS));
+
+    // update the database while the query is paused
+    session.execute("xquery delete node (//t)[position() <= 100]");
+    session.execute("xquery for $i in 1 to 100 return insert node <t>b</t> into /x");
+    // old pages are preserved until the reader is finished
+    assertTrue(preserved() > 0);
+    written.countDown();
+
+    reader.join();
+    assertFalse("Writer was blocked by the reader", released.get());
+    assertEquals("10000 10000", reader.result);
+    assertEquals("10000", session.execute("xquery count(//t)"));
+    assertEquals(0, preserved());
+  }
+
+  /**
+   * Checks that an index is only rebuilt after the readers that use it are finished.
+   * @throws Exception exception
+   */
+  @Test
+  public void index() throws Exception {
+    final Reader reader = new Reader();
+    reader.start();
+    assertTrue("Reader was not started", read.await(60, TimeUnit.SECONDS));
+
+    session.execute("xquery delete node (//t)[position() <= 100]");
+    written.countDown();
+    session.execute(new CreateIndex(CmdIndex.TEXT));
+    assertFalse(reader.isAlive());
+    assertEquals("10000 10000", reader.result);
+    assertEquals("9900", session.execute("xquery count(//t[text() = 'a'])"));
+    assertEquals(0, preserved());
+  }
+
+  /**
+   * Called by the reading query: signals that the query has been started, and
+   * waits until the writer has finished.
+   * @throws InterruptedException interrupted exception
+   */
+  public static void pause() throws InterruptedException {
+    read.countDown();
+    if(!written.await(60, TimeUnit.SECONDS)) released.set(true);
+  }
+
+  /**
+   * Returns the number of pages that are preserved for snapshots.
+   * @return number of pages
+   */
+  private static int preserved() {
+    final Data data = server.context.pin(NAME);
+    try {
+      return ((DiskData) data).preserved();
+    } finally {
+      Close.close(data, server.context);
+    }
+  }
+
+  /** Reading client. */
+  private static final class Reader extends Thread {
+    /** Query result. */
+    String result;
+
+    @Override
+    public void run() {
+      try {
+        final ClientSession cs = createClient();
+        try {
+          cs.execute(new Open(NAME));
+          result = cs.execute("xquery " + QUERY).replaceAll("\\s+", " ").trim();
+        } finally {
+          cs.close();
+        }
+      } catch(final IOException ex) {
+        fail(Util.message(ex));
+      }
+    }
+  }
+}
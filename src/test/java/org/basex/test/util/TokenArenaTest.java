@@ -0,0 +1,87 @@
+package org.basex.test.util;
+
+import static org.basex.util.Token.*;
+import static org.junit.Assert.*;
+
+import java.io.*;
+
+import org.basex.io.*;
+import org.basex.io.in.DataInput;
+import org.basex.io.out.*;
+import org.basex.io.out.DataOutput;
+import org.basex.util.hash.*;
+import org.basex.util.list.*;
+import org.junit.*;
+
+/**
+ * Token arena tests.
+ *
+ * @author BaseX Team 2005-12, BSD License
+ * @author Christian Gruen
+ */
+public final class TokenArenaTest {
+  /** Number of tests. */
+  private static final int SIZE = 65536;
+  /** Token list. */
+  private static final TokenList LIST = new TokenList();
+  /** Token arena. */
+  private final TokenArena arena = new TokenArena();
+
+  /** Initializes the tests. */
+  @BeforeClass
+  public static void init() {
+    for(int i = 0; i < SIZE; i++) LIST.add(token(Integer.toString(i * 7919, 36)));
+    // empty token and token that exceeds the size of an arena page
+    LIST.add(EMPTY);
+    LIST.add(new byte[3 << 19]);
+  }
+
+  /** Initializes a single test. */
+  @Before
+  public void initTest() {
+    for(final byte[] t : LIST) arena.add(t);
+  }
+
+  /** Tests added tokens. */
+  @Test
+  public void add() {
+    assertEquals(LIST.size(), arena.size());
+    for(int i = 0; i < LIST.size(); i++) {
+      final byte[] t = LIST.get(i);
+      assertEquals(-(i + 1), arena.add(t));
+      assertEquals(i + 1, arena.id(t));
+      assertArrayEquals(t, arena.key(i + 1));
+    }
+    assertEquals(0, arena.id(token("-")));
+    assertEquals(LIST.size(), arena.size());
+  }
+
+  /** Tests the sort order of the tokens. */
+  @Test
+  public void sorted() {
+    final int[] ids = arena.sorted();
+    assertEquals(LIST.size(), ids.length);
+    for(int i = 1; i < ids.length; i++) {
+      assertTrue(diff(arena.key(ids[i - 1]), arena.key(ids[i])) < 0);
+    }
+  }
+
+  /**
+   * Tests the serialization in the format of {@link TokenSet}.
+   * @throws IOException I/O exception
+   */
+  @Test
+  public void write() throws IOException {
+    ArrayOutput ao = new ArrayOutput();
+    arena.write(new DataOutput(ao));
+    final TokenSet set = new TokenSet(new DataInput(new IOContent(ao.toArray())));
+    assertEquals(LIST.size(), set.size());
+    for(int i = 0; i < LIST.size(); i++) assertEquals(i + 1, set.id(LIST.get(i)));
+
+    ao = new ArrayOutput();
+    set.write(new DataOutput(ao));
+    final TokenArena ta = new TokenArena(new DataInput(new IOContent(ao.toArray())));
+    assertEquals(LIST.size(), ta.size());
+    for(int i = 0; i < LIST.size(); i++) assertEquals(i + 1, ta.id(LIST.get(i)));
+  }
+}
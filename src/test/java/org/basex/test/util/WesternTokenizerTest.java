@@ -3,7 +3,9 @@ package org.basex.test.util;
 import static org.basex.util.Token.*;
 import static org.junit.Assert.*;
 
+import org.basex.util.*;
 import org.basex.util.ft.*;
+import org.basex.util.list.*;
 import org.junit.*;
 
 /**
@@ -141,6 +143,20 @@ public final class WesternTokenizerTest {
     run(TEXT, "\\TÉST.*\\TÄSTE", "TOAST");
   }
 
+  /** Test tokens returned in reusable arrays. */
+  @Test
+  public void reuse() {
+    final byte[] text = token("A b ab BA ßa Äb a b A b ab");
+    final TokenList exp = new TokenList();
+    final FTLexer lex = new FTLexer(opt).init(text);
+    while(lex.hasNext()) exp.add(lex.nextToken());
+
+    final FTLexer reuse = new FTLexer(opt).reuse().init(text);
+    int i = 0;
+    while(reuse.hasNext()) assertTrue(eq(exp.get(i++), reuse.nextToken()));
+    assertEquals(exp.size(), i);
+  }
+
   /**
    * Perform tokenization test.
    * @param input input text to tokenize